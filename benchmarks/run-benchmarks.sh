@@ -0,0 +1,23 @@
+#!/bin/sh
+# Build the game and its benchmarks, then run every benchmark with the GC
+# profiler. Results are saved as JSON under benchmarks/results/, named after the
+# current commit, so that runs from different commits can be compared.
+#
+# Any extra arguments are passed to JMH, e.g. a benchmark name filter:
+#   ./benchmarks/run-benchmarks.sh PlayerBenchmark
+set -e
+
+cd "$(dirname "$0")/.."
+mvn -B -q install
+mvn -B -q -f benchmarks/pom.xml package
+
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+if [ -n "$(git status --porcelain 2>/dev/null)" ]; then
+	commit="$commit-dirty"
+fi
+
+# Taking a turn should not allocate any memory. Stop here if it does.
+java -cp benchmarks/target/benchmarks.jar combatgame.benchmarks.AllocationCheck
+
+mkdir -p benchmarks/results
+java -jar benchmarks/target/benchmarks.jar -prof gc -rf json -rff "benchmarks/results/$commit.json" "$@"
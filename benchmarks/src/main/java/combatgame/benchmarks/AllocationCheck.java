@@ -0,0 +1,99 @@
+package combatgame.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import combatgame.effects.EffectScheduler;
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.NullEventSink;
+import combatgame.items.HealingPotion;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+
+/**
+ * Checks that resolving a turn does not allocate any memory once the game is
+ * warmed up. The player attacks, defends, uses potions and runs away against a
+ * goblin and a raging goblin, with status effects starting and wearing off
+ * along the way, and the bytes allocated by this thread are counted. Exits
+ * with status 1 if anything was allocated.
+ *
+ * Run it after building the benchmarks:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar combatgame.benchmarks.AllocationCheck
+ * </pre>
+ */
+public class AllocationCheck {
+	/**
+	 * The number of turns to play before counting, so that everything has been
+	 * loaded and compiled.
+	 */
+	private static final int WARMUP_TURNS = 1_000_000;
+
+	/**
+	 * The number of turns to count allocations over.
+	 */
+	private static final int MEASURED_TURNS = 1_000_000;
+
+	/**
+	 * The most bytes the measured turns may allocate. Reading the allocation
+	 * counter is allowed a little slack, since it can allocate by itself.
+	 */
+	private static final long ALLOWED_BYTES = 1024;
+
+	public static void main(String[] args) {
+		ThreadMXBean threads = (ThreadMXBean)ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported()) {
+			System.out.println("This JVM can't count allocated memory.");
+			return;
+		}
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long threadId = Thread.currentThread().getId();
+
+		Player player = new Player("allocation check", 1000, 3, new ScriptedController(1, 2, 0, 0, 3, 0));
+		player.getInventory().addItems(new HealingPotion(), Integer.MAX_VALUE / 2);
+		player.setEventSink(NullEventSink.INSTANCE);
+		EffectScheduler effects = new EffectScheduler();
+		player.getEffects().setScheduler(effects);
+		Enemy[] enemies = { new Goblin(), new RagingGoblin() };
+		for (Enemy enemy : enemies) {
+			enemy.setEventSink(NullEventSink.INSTANCE);
+			enemy.getEffects().setScheduler(effects);
+		}
+
+		playTurns(player, enemies, effects, WARMUP_TURNS);
+
+		long before = threads.getThreadAllocatedBytes(threadId);
+		playTurns(player, enemies, effects, MEASURED_TURNS);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		System.out.printf("%d turns allocated %d bytes.%n", MEASURED_TURNS, allocated);
+		if (allocated > ALLOWED_BYTES) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Play turns the same way the engine does, bringing the enemies and player
+	 * back when they die so the fight never ends.
+	 */
+	private static void playTurns(Player player, Enemy[] enemies, EffectScheduler effects, int turns) {
+		for (int turn = 0; turn < turns; ++turn) {
+			Enemy enemy = enemies[turn & 1];
+			player.performCombatAction(enemy);
+			if (enemy.isDead()) {
+				enemy.reset();
+			} else {
+				enemy.performCombatAction(player);
+			}
+			effects.advance();
+
+			if (player.getHealth() < 100) {
+				player.restoreHealth(1000 - player.getHealth());
+			}
+		}
+	}
+}
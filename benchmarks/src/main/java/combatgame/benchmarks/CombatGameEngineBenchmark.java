@@ -0,0 +1,77 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.NullEventSink;
+import combatgame.items.HealingPotion;
+import combatgame.items.Item;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+
+/**
+ * Measures a whole game, from the first enemy to the last, with a scripted
+ * player and no output. This covers the turn loop in
+ * {@link CombatGameEngine#run()}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombatGameEngineBenchmark {
+	/**
+	 * The number of goblin/raging goblin pairs the player has to fight.
+	 */
+	@Param({ "1", "100" })
+	public int enemyPairs;
+
+	/**
+	 * The player's script: always attack, or a mix of every action.
+	 */
+	@Param({ "0", "1,2,0,0,3,0" })
+	public String script;
+
+	private int[] parsedScript;
+
+	@Setup
+	public void setUp() {
+		String[] choices = script.split(",");
+		parsedScript = new int[choices.length];
+		for (int i = 0; i < choices.length; ++i) {
+			parsedScript[i] = Integer.parseInt(choices[i]);
+		}
+	}
+
+	@Benchmark
+	public int run() {
+		Enemy[] enemies = new Enemy[enemyPairs * 2];
+		for (int i = 0; i < enemies.length; i += 2) {
+			enemies[i] = new Goblin();
+			enemies[i + 1] = new RagingGoblin();
+		}
+
+		// Give the player enough health to get through every enemy.
+		Player player = new Player("benchmark", 10 * enemies.length, 3, new Item[] { new HealingPotion() },
+				new ScriptedController(parsedScript));
+		CombatGameEngine engine = new CombatGameEngine(player, enemies, NullEventSink.INSTANCE);
+		engine.run();
+		return engine.getTurnsTaken();
+	}
+}
@@ -0,0 +1,93 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+import combatgame.player.ScriptedController;
+import combatgame.world.CombatWorld;
+
+/**
+ * Measures the same kind of battle as {@link HordeBenchmark}, but fought in a
+ * {@link CombatWorld}, which keeps the enemies in arrays instead of one object
+ * each. The {@code actions} counter reports the number of actions taken per
+ * second by the player and the enemies together. {@code blast} measures
+ * damaging the whole horde at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombatWorldBenchmark {
+	/**
+	 * The number of enemies in the horde.
+	 */
+	@Param({ "1000", "100000", "1000000" })
+	public int hordeSize;
+
+	private CombatWorld world;
+
+	private Player player;
+
+	/**
+	 * Counts the actions taken, so JMH can report them per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class ActionCounter {
+		public long actions;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			actions = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		// Everyone has so much health that nobody dies while the benchmark runs.
+		world = new CombatWorld();
+		EnemyDefinition goblin = Goblin.DEFINITION.withStats(Integer.MAX_VALUE / 2, Goblin.DEFINITION.attackPower);
+		EnemyDefinition ragingGoblin = RagingGoblin.DEFINITION.withStats(Integer.MAX_VALUE / 2,
+				RagingGoblin.DEFINITION.attackPower);
+		for (int i = 0; i < hordeSize; i += 2) {
+			world.spawn(goblin, 1);
+			world.spawn(ragingGoblin, 1);
+		}
+
+		player = new Player("benchmark", Integer.MAX_VALUE / 2, 3,
+				new ScriptedController(PlayerController.ATTACK, PlayerController.DEFEND));
+		world.start(player);
+	}
+
+	@Benchmark
+	public boolean turn(ActionCounter counter) {
+		// Nobody dies, so the player and every enemy act once per turn.
+		counter.actions += world.size() + 1;
+		return world.step(player);
+	}
+
+	@Benchmark
+	public int blast() {
+		return world.damageAll(1);
+	}
+}
@@ -0,0 +1,103 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.damage.DamageChain;
+import combatgame.damage.DamageModifier;
+
+/**
+ * Measures how long a hit takes to go through a {@link DamageChain}, with a
+ * few modifiers and with dozens stacked, compared to working the modifiers out
+ * with fractions on every hit. Run with {@code -prof gc} to check that hits
+ * don't allocate anything.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DamageChainBenchmark {
+	/**
+	 * The number of hits per benchmark call, with damage from 0 up to this.
+	 */
+	private static final int HITS = 256;
+
+	/**
+	 * The number of modifiers in the chain.
+	 */
+	@Param({ "1", "12", "48" })
+	public int modifierCount;
+
+	private DamageChain chain;
+
+	/**
+	 * The chain's modifiers as fractions: points, then the factor to multiply by.
+	 */
+	private double[] points, factors;
+
+	@Setup
+	public void setUp() {
+		// Alternate armor, buffs and resistances, so the damage stays in range.
+		DamageModifier[] modifiers = new DamageModifier[modifierCount];
+		points = new double[modifierCount];
+		factors = new double[modifierCount];
+		for (int i = 0; i < modifierCount; ++i) {
+			switch (i % 3) {
+			case 0:
+				modifiers[i] = DamageModifier.flat(-1);
+				break;
+			case 1:
+				modifiers[i] = DamageModifier.percent(25);
+				break;
+			default:
+				modifiers[i] = DamageModifier.percent(-20);
+				break;
+			}
+			points[i] = modifiers[i].flat;
+			factors[i] = modifiers[i].percent / 100.0;
+		}
+		chain = DamageChain.of(modifiers);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(HITS)
+	public int chain() {
+		int total = 0;
+		for (int damageAmount = 0; damageAmount < HITS; ++damageAmount) {
+			total += chain.apply(damageAmount);
+		}
+		return total;
+	}
+
+	/**
+	 * Work out every modifier with fractions on every hit, the way blocking used
+	 * to be worked out.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(HITS)
+	public int fractions() {
+		int total = 0;
+		for (int damageAmount = 0; damageAmount < HITS; ++damageAmount) {
+			int damage = damageAmount;
+			for (int i = 0; i < points.length; ++i) {
+				damage = (int)Math.max(0, damage + points[i] + (int)(damage * factors[i]));
+			}
+			total += damage;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,73 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.NullEventSink;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+
+/**
+ * Measures how long it takes each kind of enemy to resolve its combat action.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnemyBenchmark {
+	private Player player;
+
+	private Goblin goblin;
+
+	private RagingGoblin tiredGoblin;
+
+	@Setup
+	public void setUp() {
+		player = new Player("benchmark", 1000, 3, new ScriptedController(0));
+		player.setEventSink(NullEventSink.INSTANCE);
+
+		goblin = new Goblin();
+		goblin.setEventSink(NullEventSink.INSTANCE);
+
+		// A raging goblin only attacks once, then it is tired forever.
+		tiredGoblin = new RagingGoblin();
+		tiredGoblin.setEventSink(NullEventSink.INSTANCE);
+		tiredGoblin.performCombatAction(player);
+	}
+
+	@Benchmark
+	public int goblinAttack() {
+		goblin.performCombatAction(player);
+		player.restoreHealth(1000 - player.getHealth());
+		return player.getHealth();
+	}
+
+	@Benchmark
+	public int ragingGoblinFrenzy() {
+		RagingGoblin ragingGoblin = new RagingGoblin();
+		ragingGoblin.setEventSink(NullEventSink.INSTANCE);
+		ragingGoblin.performCombatAction(player);
+		player.restoreHealth(1000 - player.getHealth());
+		return player.getHealth();
+	}
+
+	@Benchmark
+	public int ragingGoblinTired() {
+		tiredGoblin.performCombatAction(player);
+		return player.getHealth();
+	}
+}
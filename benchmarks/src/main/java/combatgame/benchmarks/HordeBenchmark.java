@@ -0,0 +1,90 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.EnemySource;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.NullEventSink;
+import combatgame.items.Firebomb;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+import combatgame.player.ScriptedController;
+
+/**
+ * Measures turns against a horde of enemies that are all fought at once. The
+ * player attacks the weakest enemy and throws firebombs into the crowd, and
+ * every enemy acts once per turn. The {@code actions} counter reports the
+ * number of actions taken per second by the player and the enemies together,
+ * which should barely change as the horde gets bigger.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HordeBenchmark {
+	/**
+	 * The number of enemies in the horde.
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int hordeSize;
+
+	private CombatGameEngine engine;
+
+	/**
+	 * Counts the actions taken, so JMH can report them per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class ActionCounter {
+		public long actions;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			actions = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		// Everyone has so much health that nobody dies while the benchmark runs.
+		EnemyDefinition[] horde = new EnemyDefinition[hordeSize];
+		for (int i = 0; i < horde.length; ++i) {
+			EnemyDefinition kind = i % 2 == 0 ? Goblin.DEFINITION : RagingGoblin.DEFINITION;
+			horde[i] = kind.withStats(Integer.MAX_VALUE / 2, kind.attackPower);
+		}
+
+		Player player = new Player("benchmark", Integer.MAX_VALUE / 2, 3, new ScriptedController(
+				PlayerController.ATTACK, PlayerController.USE_ITEM, 0, PlayerController.ATTACK));
+		player.getInventory().addItems(new Firebomb(), Integer.MAX_VALUE / 2);
+
+		engine = new CombatGameEngine(player, EnemySource.groups(new EnemyDefinition[][] { horde }),
+				NullEventSink.INSTANCE);
+		engine.start();
+	}
+
+	@Benchmark
+	public boolean turn(ActionCounter counter) {
+		// Nobody dies, so the player and every enemy act once per turn.
+		counter.actions += hordeSize + 1;
+		return engine.step();
+	}
+}
@@ -0,0 +1,85 @@
+package combatgame.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.player.InputReader;
+
+/**
+ * Measures how quickly a script of typed choices can be read, with an
+ * {@link InputReader} and with the {@link Scanner} it replaced. The script is
+ * the kind of thing a player types: mostly single digits, one per line, with
+ * the odd typo. Divide {@link #SCRIPT_SIZE} by the time per operation to get
+ * the bytes read per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InputReaderBenchmark {
+	/**
+	 * The size of the script in bytes.
+	 */
+	private static final int SCRIPT_SIZE = 4 * 1024 * 1024;
+
+	private static final String[] CHOICES = { "0", "0", "0", "1", "2", "-1", "3", "x", "0 0", "12" };
+
+	private byte[] script;
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(1);
+		StringBuilder text = new StringBuilder(SCRIPT_SIZE + 16);
+		while (text.length() < SCRIPT_SIZE) {
+			text.append(CHOICES[random.nextInt(CHOICES.length)]).append('\n');
+		}
+		script = text.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Benchmark
+	public long inputReader() throws IOException {
+		InputReader input = new InputReader(Channels.newChannel(new ByteArrayInputStream(script)));
+		long sum = 0;
+		try {
+			while (true) {
+				sum += input.nextInt();
+			}
+		} catch (EOFException e) {
+			return sum;
+		}
+	}
+
+	@Benchmark
+	public long scanner() {
+		Scanner scanner = new Scanner(new ByteArrayInputStream(script), StandardCharsets.US_ASCII);
+		long sum = 0;
+		while (scanner.hasNext()) {
+			if (scanner.hasNextInt()) {
+				sum += scanner.nextInt();
+			} else {
+				scanner.next();
+				sum += InputReader.NOT_A_NUMBER;
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,68 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.entities.enemies.Goblin;
+import combatgame.events.NullEventSink;
+import combatgame.items.HealingPotion;
+import combatgame.items.Item;
+import combatgame.player.Inventory;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+
+/**
+ * Measures {@link Inventory#useItem(int, Player, combatgame.entities.enemies.Enemy)}
+ * on inventories of different sizes. Each operation uses the first item and
+ * then adds a new one, so the inventory stays the same size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryBenchmark {
+	@Param({ "10", "1000", "100000" })
+	public int size;
+
+	private Inventory inventory;
+
+	private Player player;
+
+	private Goblin goblin;
+
+	private Item potion;
+
+	@Setup
+	public void setUp() {
+		potion = new HealingPotion();
+		inventory = new Inventory();
+		for (int i = 0; i < size; ++i) {
+			inventory.addItem(new HealingPotion());
+		}
+
+		player = new Player("benchmark", 10, 3, new ScriptedController(0));
+		player.setEventSink(NullEventSink.INSTANCE);
+		goblin = new Goblin();
+		goblin.setEventSink(NullEventSink.INSTANCE);
+	}
+
+	@Benchmark
+	public int useFirstItem() {
+		inventory.useItem(0, player, goblin);
+		inventory.addItem(potion);
+		return inventory.size();
+	}
+}
@@ -0,0 +1,104 @@
+package combatgame.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.leaderboard.GameResult;
+import combatgame.leaderboard.Leaderboard;
+
+/**
+ * Measures how many finished games per second a {@link Leaderboard} can record
+ * when several sessions finish games at once, and how quickly it answers
+ * questions while that is going on. The results are really written to a
+ * temporary directory, so the numbers include the batched writes to disk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+	/**
+	 * The number of different players finishing games.
+	 */
+	private static final int PLAYERS = 100_000;
+
+	private static final String ENEMY_LIST = "goblin, raging goblin";
+
+	private Path directory;
+
+	private Leaderboard leaderboard;
+
+	/**
+	 * Each thread makes up its own results.
+	 */
+	@State(Scope.Thread)
+	public static class Results {
+		private final SplittableRandom random = new SplittableRandom();
+
+		GameResult next() {
+			return new GameResult("player " + random.nextInt(PLAYERS), ENEMY_LIST, random.nextBoolean(),
+					random.nextInt(3), random.nextInt(4, 40), random.nextInt(11));
+		}
+
+		String nextPlayer() {
+			return "player " + random.nextInt(PLAYERS);
+		}
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("leaderboard-benchmark");
+		leaderboard = Leaderboard.open(directory);
+		Results results = new Results();
+		for (int i = 0; i < PLAYERS * 4; ++i) {
+			leaderboard.record(results.next());
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		leaderboard.close();
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : (Iterable<Path>)files.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(file);
+			}
+		}
+	}
+
+	@Benchmark
+	public void record(Results results) {
+		leaderboard.record(results.next());
+	}
+
+	@Benchmark
+	public List<GameResult> top100() {
+		return leaderboard.getTop(ENEMY_LIST, 100);
+	}
+
+	@Benchmark
+	public int rank(Results results) {
+		return leaderboard.getRank(ENEMY_LIST, results.nextPlayer());
+	}
+}
@@ -0,0 +1,59 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.entities.enemies.Goblin;
+import combatgame.events.NullEventSink;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+import combatgame.player.ScriptedController;
+
+/**
+ * Measures {@link Player#takeDamage(int)}, with and without the player's
+ * shield raised.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+	@Param({ "false", "true" })
+	public boolean blocking;
+
+	private Player player;
+
+	@Setup
+	public void setUp() {
+		int action = blocking ? PlayerController.DEFEND : PlayerController.RUN_AWAY;
+		player = new Player("benchmark", 1000, 3, new ScriptedController(action));
+		player.setEventSink(NullEventSink.INSTANCE);
+
+		// The player's shield stays up (or down) until their next turn, so one turn
+		// is enough to get into the right state.
+		Goblin goblin = new Goblin();
+		goblin.setEventSink(NullEventSink.INSTANCE);
+		player.performCombatAction(goblin);
+	}
+
+	@Benchmark
+	public int takeDamage() {
+		player.takeDamage(5);
+		// Heal the damage back, so the player never dies.
+		player.restoreHealth(1000 - player.getHealth());
+		return player.getHealth();
+	}
+}
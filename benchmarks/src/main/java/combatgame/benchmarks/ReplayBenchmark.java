@@ -0,0 +1,94 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.NullEventSink;
+import combatgame.items.HealingPotion;
+import combatgame.items.Item;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+import combatgame.replay.GameSetup;
+import combatgame.replay.Replay;
+import combatgame.replay.ReplayEngine;
+import combatgame.replay.ReplayRecorder;
+
+/**
+ * Measures how quickly a recorded game can be fast-forwarded to its end with
+ * {@link ReplayEngine}. The {@code turns} counter reports the number of turns
+ * replayed per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark {
+	/**
+	 * The number of goblin/raging goblin pairs in the recorded game.
+	 */
+	@Param({ "1", "1000" })
+	public int enemyPairs;
+
+	private ReplayEngine replayEngine;
+
+	private Replay replay;
+
+	/**
+	 * Counts the turns replayed, so JMH can report them per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class TurnCounter {
+		public long turns;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			turns = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		EnemyDefinition[] enemies = new EnemyDefinition[enemyPairs * 2];
+		for (int i = 0; i < enemies.length; i += 2) {
+			enemies[i] = Goblin.DEFINITION;
+			enemies[i + 1] = RagingGoblin.DEFINITION;
+		}
+
+		// Give the player enough health to get through every enemy.
+		GameSetup setup = (seed, playerName, controller, eventSink) -> new CombatGameEngine(
+				new Player(playerName, 10 * enemies.length, 3, new Item[] { new HealingPotion() }, controller),
+				enemies, eventSink);
+		replayEngine = new ReplayEngine(setup);
+
+		ReplayRecorder recorder = new ReplayRecorder(new ScriptedController(1, 2, 0, 0, 3, 0), 1, "benchmark");
+		setup.createGame(1, "benchmark", recorder, NullEventSink.INSTANCE).run();
+		replay = recorder.toReplay();
+	}
+
+	@Benchmark
+	public int fastForward(TurnCounter counter) {
+		CombatGameEngine engine = replayEngine.playToEnd(replay);
+		counter.turns += engine.getTurnsTaken();
+		return engine.getTurnsTaken();
+	}
+}
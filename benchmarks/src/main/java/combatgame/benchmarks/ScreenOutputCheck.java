@@ -0,0 +1,113 @@
+package combatgame.benchmarks;
+
+import java.io.Writer;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.AnsiRenderer;
+import combatgame.events.CombatEventSink;
+import combatgame.events.TerminalRenderer;
+import combatgame.items.HealingPotion;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+
+/**
+ * Compares how much text the terminal is sent during a long game: by a
+ * {@link TerminalRenderer} printing messages, by an {@link AnsiRenderer}
+ * drawing only what changed, and by redrawing the whole screen every frame.
+ * The screen is meant for slow connections, so it exits with status 1 unless
+ * drawing the changes sends clearly less than printing the messages does.
+ *
+ * Run it after building the benchmarks:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar combatgame.benchmarks.ScreenOutputCheck
+ * </pre>
+ */
+public class ScreenOutputCheck {
+	/**
+	 * The number of goblin/raging goblin pairs in the game.
+	 */
+	private static final int ENEMY_PAIRS = 100;
+
+	private static final int SCREEN_COLUMNS = 80, SCREEN_LINES = 24;
+
+	/**
+	 * The most the screen may send, as a fraction of what the messages send.
+	 */
+	private static final double MAX_SCREEN_RATIO = 0.9;
+
+	public static void main(String[] args) {
+		CountingWriter messages = new CountingWriter();
+		int turns = playGame(new TerminalRenderer(messages));
+
+		CountingWriter screen = new CountingWriter();
+		playGame(new AnsiRenderer(screen, SCREEN_COLUMNS, SCREEN_LINES));
+
+		long repaints = (long)screen.writes * SCREEN_COLUMNS * SCREEN_LINES;
+		System.out.printf("%d turns:%n", turns);
+		System.out.printf("  messages:       %8d chars (%.1f per turn)%n", messages.chars,
+				(double)messages.chars / turns);
+		System.out.printf("  changes only:   %8d chars (%.1f per turn) in %d writes%n", screen.chars,
+				(double)screen.chars / turns, screen.writes);
+		System.out.printf("  full repaints: >%8d chars (%.1f per turn)%n", repaints, (double)repaints / turns);
+
+		double ratio = (double)screen.chars / messages.chars;
+		System.out.printf("The screen sends %.0f%% of what the messages do (at most %.0f%% allowed).%n",
+				ratio * 100, MAX_SCREEN_RATIO * 100);
+		if (ratio > MAX_SCREEN_RATIO) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Play the same game to the end, reporting everything to the given sink.
+	 *
+	 * @return The number of turns the player took.
+	 */
+	private static int playGame(CombatEventSink eventSink) {
+		EnemyDefinition[] enemies = new EnemyDefinition[ENEMY_PAIRS * 2];
+		for (int i = 0; i < enemies.length; i += 2) {
+			enemies[i] = Goblin.DEFINITION;
+			enemies[i + 1] = RagingGoblin.DEFINITION;
+		}
+
+		Player player = new Player("Bob", 10 * enemies.length, 3, new ScriptedController(1, 2, 0, 0, 3, 0));
+		player.getInventory().addItems(new HealingPotion(), enemies.length);
+		CombatGameEngine engine = new CombatGameEngine(player, enemies, eventSink);
+		engine.run();
+		return engine.getTurnsTaken();
+	}
+
+	/**
+	 * Throws away everything written to it, but counts the characters and the
+	 * number of times it was flushed, which is once per frame.
+	 */
+	private static class CountingWriter extends Writer {
+		long chars;
+
+		int writes;
+
+		@Override
+		public void write(char[] text, int offset, int length) {
+			chars += length;
+		}
+
+		@Override
+		public Writer append(CharSequence text) {
+			chars += text.length();
+			return this;
+		}
+
+		@Override
+		public void flush() {
+			++writes;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.NullEventSink;
+import combatgame.items.HealingPotion;
+import combatgame.items.Item;
+import combatgame.player.Player;
+import combatgame.player.ScriptedController;
+import combatgame.replay.GameSetup;
+import combatgame.replay.RewindableGame;
+import combatgame.replay.Snapshot;
+
+/**
+ * Measures how quickly a {@link RewindableGame} can take snapshots and be put
+ * back to them, halfway through a game and at its end. Run with
+ * {@code -prof gc} to see how much memory each one takes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+	/**
+	 * The number of goblin/raging goblin pairs in the game.
+	 */
+	@Param({ "1", "100" })
+	public int enemyPairs;
+
+	private RewindableGame game;
+
+	private Snapshot middle, end;
+
+	@Setup
+	public void setUp() {
+		EnemyDefinition[] enemies = new EnemyDefinition[enemyPairs * 2];
+		for (int i = 0; i < enemies.length; i += 2) {
+			enemies[i] = Goblin.DEFINITION;
+			enemies[i + 1] = RagingGoblin.DEFINITION;
+		}
+
+		// Give the player enough health to get through every enemy.
+		GameSetup setup = (seed, playerName, controller, eventSink) -> new CombatGameEngine(
+				new Player(playerName, 10 * enemies.length, 3, new Item[] { new HealingPotion() }, controller),
+				enemies, eventSink);
+		game = new RewindableGame(setup, 1, "benchmark", new ScriptedController(1, 2, 0, 0, 3, 0),
+				NullEventSink.INSTANCE);
+		game.start();
+		game.run();
+		end = game.snapshot();
+
+		middle = end;
+		while (middle.turn > end.turn / 2) {
+			middle = middle.getPrevious();
+		}
+	}
+
+	/**
+	 * Play a turn and save the game, as an undo feature would after every turn.
+	 */
+	@Benchmark
+	public Snapshot stepAndSnapshot() {
+		if (!game.step()) {
+			game.restore(middle);
+		}
+		return game.snapshot();
+	}
+
+	@Benchmark
+	public CombatGameEngine restoreMiddle() {
+		game.restore(middle);
+		return game.getEngine();
+	}
+
+	@Benchmark
+	public CombatGameEngine restoreEnd() {
+		game.restore(end);
+		return game.getEngine();
+	}
+}
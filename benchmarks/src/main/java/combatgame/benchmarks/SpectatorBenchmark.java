@@ -0,0 +1,115 @@
+package combatgame.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+import combatgame.player.ScriptedController;
+import combatgame.spectator.Spectator;
+import combatgame.spectator.SpectatorChannel;
+
+/**
+ * Measures a game being played into a {@link SpectatorChannel} on one thread
+ * while another thread reads it for every spectator. {@code play} is the
+ * number of turns the game gets through per second, which should not depend on
+ * the number of spectators. The {@code batches} and {@code missed} counters
+ * report the batches the spectators read and skipped.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SpectatorBenchmark {
+	/**
+	 * The number of spectators watching the game.
+	 */
+	@Param({ "1", "100", "10000" })
+	public int spectatorCount;
+
+	private CombatGameEngine engine;
+
+	private Spectator[] spectators;
+
+	/**
+	 * Counts the batches read and missed, so JMH can report them per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class BatchCounter {
+		public long batches;
+
+		public long missed;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			batches = 0;
+			missed = 0;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		// Everyone has so much health that the game never ends.
+		EnemyDefinition goblin = Goblin.DEFINITION.withStats(Integer.MAX_VALUE / 2, Goblin.DEFINITION.attackPower);
+		EnemyDefinition ragingGoblin = RagingGoblin.DEFINITION.withStats(Integer.MAX_VALUE / 2,
+				RagingGoblin.DEFINITION.attackPower);
+		Player player = new Player("benchmark", Integer.MAX_VALUE / 2, 3,
+				new ScriptedController(PlayerController.ATTACK, PlayerController.DEFEND));
+
+		SpectatorChannel channel = new SpectatorChannel();
+		engine = new CombatGameEngine(player, new EnemyDefinition[] { goblin, ragingGoblin },
+				channel.getEventSink());
+		engine.start();
+
+		spectators = new Spectator[spectatorCount];
+		for (int i = 0; i < spectatorCount; ++i) {
+			spectators[i] = channel.watch();
+		}
+	}
+
+	@Benchmark
+	@Group("broadcast")
+	@GroupThreads(1)
+	public boolean play() {
+		return engine.step();
+	}
+
+	@Benchmark
+	@Group("broadcast")
+	@GroupThreads(1)
+	public long watch(BatchCounter counter) {
+		long length = 0;
+		for (Spectator spectator : spectators) {
+			long missedBefore = spectator.getMissed();
+			String batch;
+			while ((batch = spectator.poll()) != null) {
+				length += batch.length();
+				++counter.batches;
+			}
+			counter.missed += spectator.getMissed() - missedBefore;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,147 @@
+package combatgame.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import combatgame.effects.EffectScheduler;
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.events.NullEventSink;
+
+/**
+ * Measures moving on to the next turn when thousands of entities each have
+ * several status effects. Every effect lasts a random number of turns, and
+ * applies itself again when it wears off, so the number of effects never
+ * changes.
+ *
+ * {@code advanceScheduler} uses an {@link EffectScheduler}, which only looks at
+ * the effects that are due. {@code pollEveryEffect} has every entity count
+ * down each of its own effects every turn instead, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StatusEffectBenchmark {
+	/**
+	 * The number of effects on each entity.
+	 */
+	private static final int EFFECTS_PER_ENTITY = 4;
+
+	/**
+	 * The longest an effect lasts.
+	 */
+	private static final int MAX_TURNS = 1000;
+
+	/**
+	 * The number of entities.
+	 */
+	@Param({ "1000", "100000" })
+	public int entityCount;
+
+	private EffectScheduler scheduler;
+
+	/**
+	 * The same entities again, for {@code pollEveryEffect}.
+	 */
+	private PollingEntity[] pollingEntities;
+
+	/**
+	 * An effect that applies itself again when it wears off. The magnitude is the
+	 * number of turns it lasts. There are several, since an entity can only have
+	 * each effect once.
+	 */
+	private static final class RepeatingEffect extends StatusEffect {
+		RepeatingEffect(int number) {
+			super("repeating " + number, false, false);
+		}
+
+		@Override
+		protected void end(Entity target, int magnitude) {
+			target.getEffects().apply(this, magnitude, magnitude);
+		}
+	}
+
+	/**
+	 * An entity that does nothing but carry effects.
+	 */
+	private static final class Dummy extends Entity {
+		Dummy() {
+			super("dummy", 1);
+			setEventSink(NullEventSink.INSTANCE);
+		}
+	}
+
+	/**
+	 * An entity that keeps track of its own effects, and counts them down every
+	 * turn.
+	 */
+	private static final class PollingEntity {
+		final int[] turnsLeft = new int[EFFECTS_PER_ENTITY];
+
+		final int[] durations = new int[EFFECTS_PER_ENTITY];
+
+		int poll() {
+			int ended = 0;
+			for (int i = 0; i < EFFECTS_PER_ENTITY; ++i) {
+				if (--turnsLeft[i] == 0) {
+					turnsLeft[i] = durations[i];
+					++ended;
+				}
+			}
+			return ended;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(1);
+		RepeatingEffect[] effects = new RepeatingEffect[EFFECTS_PER_ENTITY];
+		for (int i = 0; i < effects.length; ++i) {
+			effects[i] = new RepeatingEffect(i);
+		}
+
+		scheduler = new EffectScheduler();
+		pollingEntities = new PollingEntity[entityCount];
+		for (int i = 0; i < entityCount; ++i) {
+			Dummy dummy = new Dummy();
+			dummy.getEffects().setScheduler(scheduler);
+			pollingEntities[i] = new PollingEntity();
+			for (int j = 0; j < EFFECTS_PER_ENTITY; ++j) {
+				int turns = 1 + random.nextInt(MAX_TURNS);
+				dummy.getEffects().apply(effects[j], turns, turns);
+				pollingEntities[i].durations[j] = turns;
+				pollingEntities[i].turnsLeft[j] = turns;
+			}
+		}
+	}
+
+	@Benchmark
+	public long advanceScheduler() {
+		scheduler.advance();
+		return scheduler.getTurn();
+	}
+
+	@Benchmark
+	public int pollEveryEffect() {
+		int ended = 0;
+		for (PollingEntity entity : pollingEntities) {
+			ended += entity.poll();
+		}
+		return ended;
+	}
+}
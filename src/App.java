@@ -1,12 +1,61 @@
-import java.util.Scanner;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import javax.management.JMException;
 
 import combatgame.CombatGameEngine;
+import combatgame.arena.Arena;
+import combatgame.arena.ArenaCheckpoint;
+import combatgame.entities.enemies.CunningGoblin;
 import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyDefinition;
 import combatgame.entities.enemies.Goblin;
 import combatgame.entities.enemies.RagingGoblin;
+import combatgame.events.AnsiRenderer;
+import combatgame.events.BinaryEventWriter;
+import combatgame.events.CombatEventSink;
+import combatgame.events.NullEventSink;
+import combatgame.events.TeeEventSink;
+import combatgame.events.TerminalRenderer;
 import combatgame.items.HealingPotion;
 import combatgame.items.Item;
+import combatgame.leaderboard.GameResult;
+import combatgame.leaderboard.Leaderboard;
+import combatgame.learning.EnemyTactics;
+import combatgame.learning.Policy;
+import combatgame.learning.QLearningTrainer;
+import combatgame.metrics.GameMetrics;
+import combatgame.player.AnsiController;
+import combatgame.player.ConsoleController;
+import combatgame.player.InputReader;
 import combatgame.player.Player;
+import combatgame.player.PlayerController;
+import combatgame.player.RandomController;
+import combatgame.player.ScriptedController;
+import combatgame.replay.Replay;
+import combatgame.replay.ReplayEngine;
+import combatgame.replay.ReplayRecorder;
+import combatgame.server.GameServer;
+import combatgame.simulation.BatchSimulator;
+import combatgame.simulation.SimulationResult;
+import combatgame.solver.EncounterSolver;
+import combatgame.solver.SolverController;
 
 /**
  * This class provides the entrypoint for the program via the `main` method.
@@ -15,11 +64,13 @@ import combatgame.player.Player;
  */
 public class App {
 	/**
-	 * The list of enemies for the player to fight, in order of appearance.
+	 * The list of enemies for the player to fight, in order of appearance. Each
+	 * game spawns its own enemies from these definitions, so the list can be
+	 * shared.
 	 */
-	private static final Enemy[] ENEMY_LIST = new Enemy[] {
-			// TODO: Add your custom Enemy subclasses here.
-			new Goblin(), new RagingGoblin()
+	private static final EnemyDefinition[] ENEMY_LIST = new EnemyDefinition[] {
+			// TODO: Add the definitions of your custom enemies here.
+			Goblin.DEFINITION, RagingGoblin.DEFINITION
 	};
 
 	/**
@@ -40,8 +91,164 @@ public class App {
 	 */
 	private static final int PLAYER_STARTING_ATTACK_POWER = 3;
 
-	public static void main(String[] args) {
-		Scanner scanner = new Scanner(System.in);
+	/**
+	 * The actions taken by the simulated player when no script is given: attack
+	 * every turn.
+	 */
+	private static final int[] DEFAULT_SIMULATION_SCRIPT = new int[] { 0 };
+
+	/**
+	 * The player's health in the arena. This is high enough that long runs are not
+	 * cut short, with room left over for healing.
+	 */
+	private static final int ARENA_PLAYER_HEALTH = Integer.MAX_VALUE / 2;
+
+	/**
+	 * The number of progress reports to print during an arena run.
+	 */
+	private static final int ARENA_REPORTS = 20;
+
+	/**
+	 * The scripts followed by the players that the {@link CunningGoblin} trains
+	 * against.
+	 */
+	private static final int[][] TRAINING_SCRIPTS = new int[][] {
+			{ 0 }, { 1, 0 }, { 0, 1 }, { 0, 0, 1 }, { 1, 2, 0, 0, 3, 0 }, { 2, 0, 1, 0 }
+	};
+
+	/**
+	 * The number of games played in each round of training, before what every
+	 * thread learned is merged.
+	 */
+	private static final int TRAINING_GAMES_PER_ROUND = 200_000;
+
+	/**
+	 * The number of players `--leaderboard` shows.
+	 */
+	private static final int LEADERBOARD_SIZE = 100;
+
+	/**
+	 * The size of the screen for `--ansi` when none is given, which is the size
+	 * most terminals open at.
+	 */
+	private static final int DEFAULT_SCREEN_COLUMNS = 80, DEFAULT_SCREEN_LINES = 24;
+
+	/**
+	 * How often a server prints its metrics.
+	 */
+	private static final Duration METRICS_PERIOD = Duration.ofMinutes(1);
+
+	/**
+	 * Start the game. Other modes can be chosen with command line arguments:
+	 *
+	 * <ul>
+	 * <li>`--record <file>` plays a game in the terminal and saves a recording of
+	 * it.</li>
+	 * <li>`--compete <directory>` plays a game in the terminal and records the
+	 * result on the leaderboard in the given directory.</li>
+	 * <li>`--log <file>` plays a game in the terminal and saves everything that
+	 * happens in it, in the compact format of {@link BinaryEventWriter}.</li>
+	 * <li>`--ansi [columns] [lines]` plays a game in the terminal with a full
+	 * screen of health bars and messages, for a terminal of the given size
+	 * (80x24 if not given).</li>
+	 * <li>`--replay <file> [turn]` shows a recorded game, starting from the given
+	 * turn. When the recording runs out, you can carry on playing.</li>
+	 * <li>`--simulate <games> [choices...]` plays many games without a terminal,
+	 * using the given choices as the player's script.</li>
+	 * <li>`--script <file>` plays games one after another without a terminal,
+	 * reading the player's choices from the file as if they were typed, until the
+	 * file runs out. This is how recorded sessions are checked after changing the
+	 * game.</li>
+	 * <li>`--arena <waves> [seed] [choices...]` sends wave after wave of enemies at
+	 * a scripted player, printing progress as it goes.</li>
+	 * <li>`--server <address> [replayDirectory] [turnSeconds] [leaderboardDirectory] [hibernationDirectory] [idleSeconds]`
+	 * hosts games for players connecting over the network (see
+	 * {@link GameServer#parseAddress}), optionally records every game, gives
+	 * players the given number of seconds to choose each turn (0 for no limit),
+	 * optionally keeps a leaderboard of their results, and optionally puts the
+	 * games of players who are idle for a while (10 seconds by default) away in
+	 * the given directory. Every minute, it prints the {@link GameMetrics}, which
+	 * can also be watched over JMX.</li>
+	 * <li>`--train <rounds> [policyFile]` teaches the {@link CunningGoblin} how to
+	 * fight by playing against scripted players, and prints (and optionally saves)
+	 * the policy it learns.</li>
+	 * <li>`--leaderboard <directory> [player]` shows the top 100 players on a
+	 * leaderboard, and where the given player ranks.</li>
+	 * <li>`--solve [health]` works out how much health the player needs to beat
+	 * the enemies when playing perfectly, and whether they win with the given
+	 * health (their usual starting health if not given), then plays the game
+	 * the solver's way to check.</li>
+	 * </ul>
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length >= 2 && args[0].equals("--simulate")) {
+			simulate(args);
+		} else if (args.length >= 2 && args[0].equals("--script")) {
+			playScript(Path.of(args[1]));
+		} else if (args.length >= 2 && args[0].equals("--arena")) {
+			arena(args);
+		} else if (args.length >= 2 && args[0].equals("--server")) {
+			serve(args[1], args.length > 2 && !args[2].isEmpty() ? Path.of(args[2]) : null,
+					args.length > 3 ? Duration.ofSeconds(Long.parseLong(args[3])) : GameServer.DEFAULT_TURN_TIMEOUT,
+					args.length > 4 && !args[4].isEmpty() ? Path.of(args[4]) : null,
+					args.length > 5 && !args[5].isEmpty() ? Path.of(args[5]) : null,
+					args.length > 6 ? Duration.ofSeconds(Long.parseLong(args[6])) : GameServer.DEFAULT_IDLE_TIME);
+		} else if (args.length >= 2 && args[0].equals("--train")) {
+			train(Integer.parseInt(args[1]), args.length > 2 ? Path.of(args[2]) : null);
+		} else if (args.length >= 1 && args[0].equals("--solve")) {
+			solve(args.length > 1 ? Integer.parseInt(args[1]) : PLAYER_STARTING_HEALTH);
+		} else if (args.length >= 2 && args[0].equals("--leaderboard")) {
+			showLeaderboard(Path.of(args[1]), args.length > 2 ? args[2] : null);
+		} else if (args.length >= 2 && args[0].equals("--replay")) {
+			replay(Path.of(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : 0);
+		} else if (args.length >= 2 && args[0].equals("--record")) {
+			play(Path.of(args[1]), null, null, null);
+		} else if (args.length >= 2 && args[0].equals("--compete")) {
+			play(null, null, Path.of(args[1]), null);
+		} else if (args.length >= 2 && args[0].equals("--log")) {
+			play(null, Path.of(args[1]), null, null);
+		} else if (args.length >= 1 && args[0].equals("--ansi")) {
+			play(null, null, null, new AnsiRenderer(new OutputStreamWriter(System.out),
+					args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SCREEN_COLUMNS,
+					args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SCREEN_LINES));
+		} else {
+			play(null, null, null, null);
+		}
+	}
+
+	/**
+	 * Set up a new game. Recorded games are set up again in exactly the same way
+	 * when they are replayed.
+	 *
+	 * @param seed       Decides everything about the game that is left to chance.
+	 *                   Nothing is left to chance yet, so it is not used.
+	 * @param playerName The name of the player.
+	 * @param controller Makes the player's choices.
+	 * @param eventSink  Where to report everything that happens during the game.
+	 * @return The new game.
+	 */
+	private static CombatGameEngine createGame(long seed, String playerName, PlayerController controller,
+			CombatEventSink eventSink) {
+		Player player = new Player(playerName, PLAYER_STARTING_HEALTH, PLAYER_STARTING_ATTACK_POWER,
+				PLAYER_STARTING_ITEMS, controller);
+		return new CombatGameEngine(player, ENEMY_LIST, eventSink);
+	}
+
+	/**
+	 * Play a single game in the terminal.
+	 *
+	 * @param recordFile           Where to save a recording of the game, or null
+	 *                             to not record it.
+	 * @param logFile              Where to save a log of the game's events, or
+	 *                             null to not log them.
+	 * @param leaderboardDirectory Where the leaderboard to record the result on
+	 *                             is kept, or null to not record it.
+	 * @param screen               The full screen to show the game on, or null
+	 *                             to print messages instead.
+	 */
+	private static void play(Path recordFile, Path logFile, Path leaderboardDirectory, AnsiRenderer screen)
+			throws IOException {
+		InputReader input = new InputReader(new FileInputStream(FileDescriptor.in).getChannel());
 
 		// Print some lines of spacing, to make it easier to tell what is happening.
 		for (int i = 0; i < 5; ++i) {
@@ -50,14 +257,319 @@ public class App {
 
 		System.out.println("Hello, adventurer. What is your name?");
 		System.out.print("> ");
-		String playerName = scanner.nextLine();
+		String playerName = input.nextLine();
 
-		Player player = new Player(playerName, PLAYER_STARTING_HEALTH, PLAYER_STARTING_ATTACK_POWER,
-				PLAYER_STARTING_ITEMS, scanner);
+		long seed = System.nanoTime();
+		PlayerController controller = screen == null ? new ConsoleController(input)
+				: new AnsiController(input, screen);
+		ReplayRecorder recorder = null;
+		if (recordFile != null) {
+			recorder = new ReplayRecorder(controller, seed, playerName);
+			controller = recorder;
+		}
+
+		CombatEventSink eventSink = screen == null ? TerminalRenderer.STANDARD_OUT : screen;
+		BinaryEventWriter log = null;
+		if (logFile != null) {
+			log = new BinaryEventWriter(Files.newOutputStream(logFile));
+			eventSink = new TeeEventSink(eventSink, log);
+		}
+
+		CombatGameEngine engine = createGame(seed, playerName, controller, eventSink);
+		engine.run();
+
+		if (log != null) {
+			log.close();
+		}
+		if (leaderboardDirectory != null) {
+			try (Leaderboard leaderboard = Leaderboard.open(leaderboardDirectory)) {
+				String enemyList = GameResult.describe(ENEMY_LIST);
+				leaderboard.record(GameResult.of(engine, enemyList));
+				leaderboard.sync();
+				System.out.printf("You are ranked %d of %d players.%n", leaderboard.getRank(enemyList, playerName),
+						leaderboard.getPlayerCount(enemyList));
+			}
+		}
+
+		if (recorder != null) {
+			try (OutputStream out = Files.newOutputStream(recordFile)) {
+				recorder.toReplay().write(out);
+			}
+		}
+
+		input.close();
+	}
+
+	/**
+	 * Play games one after another with choices read from a file, until the file
+	 * runs out, and print how fast it went. A game the file ends in the middle of
+	 * is not counted.
+	 *
+	 * @param scriptFile The choices, as a player would type them.
+	 */
+	private static void playScript(Path scriptFile) throws IOException {
+		long games = 0, victories = 0, turns = 0;
+		long startTime = System.nanoTime();
+		try (FileChannel channel = FileChannel.open(scriptFile)) {
+			InputReader input = new InputReader(channel);
+			PlayerController controller = new ConsoleController(input, new PrintWriter(Writer.nullWriter()));
+			while (true) {
+				CombatGameEngine engine = createGame(games, "scripted player", controller, NullEventSink.INSTANCE);
+				try {
+					engine.run();
+				} catch (UncheckedIOException e) {
+					if (e.getCause() instanceof EOFException) {
+						break;
+					}
+					throw e;
+				}
+				++games;
+				turns += engine.getTurnsTaken();
+				if (engine.isVictorious()) {
+					++victories;
+				}
+			}
+		}
+		double seconds = (System.nanoTime() - startTime) / 1e9;
 
-		CombatGameEngine engine = new CombatGameEngine(player, ENEMY_LIST);
+		double megabytes = Files.size(scriptFile) / (1024.0 * 1024.0);
+		System.out.printf("Played %d games (%d won, %d turns) from %.1f MiB of choices in %.3f seconds (%.1f MiB/s)%n",
+				games, victories, turns, megabytes, seconds, megabytes / seconds);
+	}
+
+	/**
+	 * Fight wave after wave of enemies in the arena with a scripted player, and
+	 * print a checkpoint every so often.
+	 *
+	 * @param args The command line arguments: `--arena`, the number of waves, an
+	 *             optional seed and an optional script of choices.
+	 */
+	private static void arena(String[] args) {
+		long waves = Long.parseLong(args[1]);
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+		Player player = new Player("arena champion", ARENA_PLAYER_HEALTH, PLAYER_STARTING_ATTACK_POWER,
+				PLAYER_STARTING_ITEMS, new ScriptedController(parseScript(args, 3)));
+		Arena arena = new Arena(player, ENEMY_LIST, seed, 1, waves, NullEventSink.INSTANCE);
+
+		long reportEvery = Math.max(1, waves / ARENA_REPORTS);
+		Runtime runtime = Runtime.getRuntime();
+		long startTime = System.nanoTime();
+		ArenaCheckpoint last = arena.run(checkpoint -> {
+			if (checkpoint.wave % reportEvery == 0) {
+				long usedMemory = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+				System.out.printf("%s, %d MiB used%n", checkpoint, usedMemory);
+			}
+		});
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		if (last == null) {
+			System.out.println("The player did not clear any waves.");
+		} else {
+			System.out.printf("Cleared %d waves with seed %d in %.3f seconds (%.0f turns/second)%n", last.wave,
+					seed, seconds, last.totalTurns / seconds);
+		}
+	}
+
+	/**
+	 * Teach the {@link CunningGoblin} how to fight, against players following each
+	 * of the {@link #TRAINING_SCRIPTS} and players choosing at random.
+	 *
+	 * @param maxRounds  The most rounds of training to do.
+	 * @param policyFile Where to save the policy, or null to only print it.
+	 */
+	private static void train(int maxRounds, Path policyFile) throws IOException {
+		List<LongFunction<Player>> opponents = new ArrayList<>();
+		for (int[] script : TRAINING_SCRIPTS) {
+			opponents.add(seed -> new Player("trainee", PLAYER_STARTING_HEALTH, PLAYER_STARTING_ATTACK_POWER,
+					PLAYER_STARTING_ITEMS, new ScriptedController(script)));
+		}
+		opponents.add(seed -> new Player("trainee", PLAYER_STARTING_HEALTH, PLAYER_STARTING_ATTACK_POWER,
+				PLAYER_STARTING_ITEMS, new RandomController(seed)));
+
+		QLearningTrainer trainer = new QLearningTrainer(CunningGoblin.DEFINITION, opponents, System.nanoTime());
+		long startTime = System.nanoTime();
+		Policy policy = trainer.train(maxRounds, TRAINING_GAMES_PER_ROUND, () -> System.out.printf(
+				"Round %d: %d games, the cunning goblin won %.1f%%, %d moves changed%n", trainer.getRounds(),
+				trainer.getGames(), trainer.getWinRate() * 100, trainer.getChanges()));
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		System.out.printf("%s after %d rounds (%d games) in %.1f seconds.%n",
+				trainer.hasConverged() ? "Converged" : "Stopped", trainer.getRounds(), trainer.getGames(), seconds);
+		System.out.printf("Following this policy, the cunning goblin wins %.1f%% of games (%.1f%% if it only attacks):%n",
+				trainer.evaluate(policy, TRAINING_GAMES_PER_ROUND) * 100,
+				trainer.evaluate(Policy.of(new byte[EnemyTactics.STATE_COUNT]), TRAINING_GAMES_PER_ROUND) * 100);
+		System.out.println(policy);
+		if (policyFile != null) {
+			try (OutputStream out = Files.newOutputStream(policyFile)) {
+				policy.write(out);
+			}
+		}
+	}
+
+	/**
+	 * Work out how difficult the enemies really are, by solving the game exactly,
+	 * and check the answer by playing the game the solver's way.
+	 *
+	 * @param health The health the player starts with.
+	 */
+	private static void solve(int health) {
+		Enemy[] enemies = new Enemy[ENEMY_LIST.length];
+		for (int i = 0; i < enemies.length; ++i) {
+			enemies[i] = ENEMY_LIST[i].spawn();
+		}
+		EncounterSolver solver = new EncounterSolver(new Player("perfect player", health,
+				PLAYER_STARTING_ATTACK_POWER, PLAYER_STARTING_ITEMS, new ScriptedController(DEFAULT_SIMULATION_SCRIPT)),
+				enemies);
+
+		long startTime = System.nanoTime();
+		int requiredHealth = solver.getRequiredHealth();
+		double result = solver.solve();
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		String enemyList = GameResult.describe(ENEMY_LIST);
+		if (requiredHealth == EncounterSolver.UNWINNABLE) {
+			System.out.printf("No amount of health is enough to beat %s.%n", enemyList);
+		} else {
+			System.out.printf("Beating %s takes at least %d health.%n", enemyList, requiredHealth);
+		}
+		System.out.printf("With %d health, a perfect player %s (%d states in %.3f seconds).%n", health,
+				result == EncounterSolver.WIN ? "wins" : "loses", solver.getStatesExpanded(), seconds);
+
+		Player player = new Player("perfect player", health, PLAYER_STARTING_ATTACK_POWER, PLAYER_STARTING_ITEMS,
+				new SolverController(solver, enemies));
+		CombatGameEngine engine = new CombatGameEngine(player, enemies, NullEventSink.INSTANCE);
 		engine.run();
+		System.out.printf("Playing the solver's choices, the player %s in %d turns with %d health left.%n",
+				engine.isVictorious() ? "won" : "lost", engine.getTurnsTaken(), Math.max(0, player.getHealth()));
+	}
 
-		scanner.close();
+	/**
+	 * Read a script of choices from the command line.
+	 *
+	 * @param args  The command line arguments.
+	 * @param start The position of the first choice.
+	 * @return The script, or {@link #DEFAULT_SIMULATION_SCRIPT} if there are no
+	 *         choices.
+	 */
+	private static int[] parseScript(String[] args, int start) {
+		if (args.length <= start) {
+			return DEFAULT_SIMULATION_SCRIPT;
+		}
+
+		int[] script = new int[args.length - start];
+		for (int i = 0; i < script.length; ++i) {
+			script[i] = Integer.parseInt(args[i + start]);
+		}
+		ScriptedController.checkScript(script);
+		return script;
+	}
+
+	/**
+	 * Show a recorded game in the terminal, skipping straight to the given turn.
+	 *
+	 * @param replayFile The recording.
+	 * @param turn       The turn to start showing the game from.
+	 */
+	private static void replay(Path replayFile, int turn) throws IOException {
+		Replay replay;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(replayFile))) {
+			replay = Replay.read(in);
+		}
+
+		InputReader input = new InputReader(new FileInputStream(FileDescriptor.in).getChannel());
+		CombatGameEngine engine = new ReplayEngine(App::createGame).fastForward(replay, turn,
+				TerminalRenderer.STANDARD_OUT, new ConsoleController(input));
+		System.out.printf("Replaying %s's game from turn %d.%n", replay.playerName, engine.getTurnsTaken());
+		while (engine.step()) {
+			// Keep playing turns until the game is over.
+		}
+
+		input.close();
+	}
+
+	/**
+	 * Play many games with a scripted player and print statistics about them.
+	 *
+	 * @param args The command line arguments: `--simulate`, the number of games
+	 *             and an optional script of choices.
+	 */
+	private static void simulate(String[] args) {
+		long games = Long.parseLong(args[1]);
+		int[] playerScript = parseScript(args, 2);
+		BatchSimulator simulator = new BatchSimulator(
+				() -> new Player("simulated adventurer", PLAYER_STARTING_HEALTH, PLAYER_STARTING_ATTACK_POWER,
+						PLAYER_STARTING_ITEMS, new ScriptedController(playerScript)),
+				ENEMY_LIST);
+
+		long startTime = System.nanoTime();
+		SimulationResult result = simulator.run(games);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		result.printReport(System.out);
+		System.out.printf("Simulated %d games in %.3f seconds (%.0f games/second)%n", games, seconds,
+				games / seconds);
+	}
+
+	/**
+	 * Host games for players connecting over the network, until the program is
+	 * stopped.
+	 *
+	 * @param address              The address to listen on.
+	 * @param replayDirectory      Where to save a recording of every game, or
+	 *                             null to not record them.
+	 * @param turnTimeout          How long players have to choose each turn.
+	 * @param leaderboardDirectory Where to keep a leaderboard of every game's
+	 *                             result, or null to not keep one.
+	 * @param hibernationDirectory Where to put away the games of idle players, or
+	 *                             null to keep them all in memory.
+	 * @param idleTime             How long players can be idle before their game
+	 *                             is put away.
+	 */
+	private static void serve(String address, Path replayDirectory, Duration turnTimeout,
+			Path leaderboardDirectory, Path hibernationDirectory, Duration idleTime) throws IOException {
+		try (Leaderboard leaderboard = leaderboardDirectory == null ? null : Leaderboard.open(leaderboardDirectory);
+				GameServer server = new GameServer(GameServer.parseAddress(address), App::createGame,
+						GameServer.DEFAULT_MAX_SESSIONS)) {
+			server.setReplayDirectory(replayDirectory);
+			server.setTurnTimeout(turnTimeout.isZero() ? null : turnTimeout);
+			server.setHibernation(hibernationDirectory, idleTime);
+			server.setLeaderboard(leaderboard, GameResult.describe(ENEMY_LIST));
+			try {
+				GameMetrics.REGISTRY.registerMBean();
+			} catch (JMException e) {
+				System.err.println("Could not make the metrics available over JMX: " + e);
+			}
+			GameMetrics.REGISTRY.startDumping(System.out, METRICS_PERIOD);
+			System.out.println("Listening on " + server.getLocalAddress());
+			server.serve();
+		}
+	}
+
+	/**
+	 * Print the best players on a leaderboard.
+	 *
+	 * @param directory  Where the leaderboard is kept.
+	 * @param playerName A player to look up, or null.
+	 */
+	private static void showLeaderboard(Path directory, String playerName) throws IOException {
+		String enemyList = GameResult.describe(ENEMY_LIST);
+		try (Leaderboard leaderboard = Leaderboard.open(directory)) {
+			System.out.printf("The best of %d players against %s:%n", leaderboard.getPlayerCount(enemyList),
+					enemyList);
+			List<GameResult> top = leaderboard.getTop(enemyList, LEADERBOARD_SIZE);
+			for (int i = 0; i < top.size(); ++i) {
+				System.out.printf("%3d. %s%n", i + 1, top.get(i));
+			}
+
+			if (playerName != null) {
+				int rank = leaderboard.getRank(enemyList, playerName);
+				if (rank == 0) {
+					System.out.println(playerName + " hasn't played yet.");
+				} else {
+					System.out.printf("%s is ranked %d: %s%n", playerName, rank,
+							leaderboard.getBestResult(enemyList, playerName));
+				}
+			}
+		}
 	}
 }
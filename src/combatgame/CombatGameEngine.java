@@ -1,12 +1,31 @@
 package combatgame;
 
+import combatgame.effects.EffectScheduler;
+import combatgame.entities.Entity;
+import combatgame.entities.Initiative;
+import combatgame.entities.enemies.Encounter;
 import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.EnemySource;
+import combatgame.events.CombatEventSink;
+import combatgame.events.TerminalRenderer;
+import combatgame.metrics.EncounterEvent;
+import combatgame.metrics.GameMetrics;
+import combatgame.metrics.TurnEvent;
 import combatgame.player.Player;
 
 /**
  * The {@link CombatGameEngine} is what drives the entire combat game. You can
  * begin a combat game by creating an instance of this class and calling the
  * `run()` method.
+ *
+ * The player can face many enemies at once (see {@link Encounter}). The player
+ * always takes on the weakest enemy. Who acts when is decided by how fast
+ * everyone is (see {@link Initiative}): at the same speed, the player and each
+ * enemy take turns one after the other.
+ *
+ * A game can also be played one turn at a time, by calling `start()` and then
+ * `step()` until it returns false.
  */
 public class CombatGameEngine {
 	/**
@@ -15,20 +34,139 @@ public class CombatGameEngine {
 	private Player player;
 
 	/**
-	 * The list of enemies that the player will fight, in order of appearance.
+	 * Hands out the enemies that the player will fight, in order of appearance.
 	 */
-	private Enemy[] enemies;
+	private EnemySource enemySource;
 
 	/**
-	 * Construct a new {@link CombatGameEngine}.
+	 * The enemies being fought right now. This is empty when the game is over.
+	 */
+	private final Encounter encounter = new Encounter();
+
+	/**
+	 * Keeps track of the status effects on the player and the enemies.
+	 */
+	private final EffectScheduler effects = new EffectScheduler();
+
+	/**
+	 * Decides whose turn it is, based on how fast the player and the enemies are.
+	 */
+	private final Initiative initiative = new Initiative();
+
+	/**
+	 * The time on the initiative clock at which status effects next tick.
+	 */
+	private long nextEffectTime;
+
+	/**
+	 * The enemy the player is up against, from when their turn begins until it
+	 * is finished. This is null at any other time.
+	 */
+	private Enemy turnTarget;
+
+	/**
+	 * Where the engine reports everything that happens during the game.
+	 */
+	private CombatEventSink eventSink;
+
+	/**
+	 * The number of turns the player has taken so far.
+	 */
+	private int turnsTaken;
+
+	/**
+	 * The number of enemies the player has defeated so far.
+	 */
+	private int enemiesDefeated;
+
+	/**
+	 * The number of encounters the player has finished so far. Like the turns
+	 * taken, these are only added to the {@link GameMetrics} when the game ends.
+	 */
+	private int encountersFinished;
+
+	/**
+	 * The value of {@link #turnsTaken} when the current encounter began, and the
+	 * number of enemies it began with.
+	 */
+	private int encounterStartTurn, encounterSize;
+
+	/**
+	 * The Flight Recorder event for the current encounter, or null if nobody is
+	 * recording encounters.
+	 */
+	private EncounterEvent encounterEvent;
+
+	/**
+	 * Is the game being played through again, e.g. to catch up with a recording?
+	 */
+	private boolean isFastForwarding;
+
+	/**
+	 * Construct a new {@link CombatGameEngine} that describes the game in the
+	 * terminal.
 	 *
 	 * @param player  The player of the combat game.
 	 * @param enemies A list of enemies for the player to fight, in order of
 	 *                appearance.
 	 */
 	public CombatGameEngine(Player player, Enemy[] enemies) {
+		this(player, enemies, TerminalRenderer.STANDARD_OUT);
+	}
+
+	/**
+	 * Construct a new {@link CombatGameEngine}.
+	 *
+	 * @param player    The player of the combat game.
+	 * @param enemies   A list of enemies for the player to fight, in order of
+	 *                  appearance.
+	 * @param eventSink Where to report everything that happens during the game.
+	 */
+	public CombatGameEngine(Player player, Enemy[] enemies, CombatEventSink eventSink) {
+		this(player, EnemySource.of(enemies), eventSink);
+	}
+
+	/**
+	 * Construct a new {@link CombatGameEngine} that describes the game in the
+	 * terminal, and spawns each enemy from its definition.
+	 *
+	 * @param player           The player of the combat game.
+	 * @param enemyDefinitions The kinds of enemies for the player to fight, in
+	 *                         order of appearance.
+	 */
+	public CombatGameEngine(Player player, EnemyDefinition[] enemyDefinitions) {
+		this(player, enemyDefinitions, TerminalRenderer.STANDARD_OUT);
+	}
+
+	/**
+	 * Construct a new {@link CombatGameEngine} that spawns each enemy from its
+	 * definition when the player reaches it. Definitions never change, so the
+	 * same list can be shared by any number of engines.
+	 *
+	 * @param player           The player of the combat game.
+	 * @param enemyDefinitions The kinds of enemies for the player to fight, in
+	 *                         order of appearance.
+	 * @param eventSink        Where to report everything that happens during the
+	 *                         game.
+	 */
+	public CombatGameEngine(Player player, EnemyDefinition[] enemyDefinitions, CombatEventSink eventSink) {
+		this(player, EnemySource.spawning(enemyDefinitions), eventSink);
+	}
+
+	/**
+	 * Construct a new {@link CombatGameEngine} that asks for each enemy when the
+	 * player reaches it. The source can be endless, in which case the game goes on
+	 * until the player dies.
+	 *
+	 * @param player      The player of the combat game.
+	 * @param enemySource Hands out the enemies for the player to fight.
+	 * @param eventSink   Where to report everything that happens during the
+	 *                    game.
+	 */
+	public CombatGameEngine(Player player, EnemySource enemySource, CombatEventSink eventSink) {
 		this.player = player;
-		this.enemies = enemies;
+		this.enemySource = enemySource;
+		this.eventSink = eventSink;
 	}
 
 	/**
@@ -36,39 +174,277 @@ public class CombatGameEngine {
 	 * until the player either defeats all of the enemies, or dies.
 	 */
 	public void run() {
-		System.out.println(String.format("Welcome, %s! Your journey begins!", player.name));
-
-		for (Enemy enemy : enemies) {
-			// Introduce this enemy.
-			System.out.println();
-			System.out.println("You continue on your journey...");
-			System.out.println(String.format("You encounter a %s!", enemy.name));
-
-			while (!player.isDead() && !enemy.isDead()) {
-				// Display current health values.
-				System.out.println(String.format("You have %d health.", player.getHealth()));
-				System.out.println(String.format("The %s has %d health.", enemy.name, enemy.getHealth()));
-
-				// Player takes their turn.
-				player.performCombatAction(enemy);
-
-				if (enemy.isDead()) {
-					// The player killed the enemy. Move on to the next one.
-					System.out.println(String.format("You defeat the %s!", enemy.name));
-					break;
-				} else {
-					// The enemy is alive, so they take their turn.
-					enemy.performCombatAction(player);
-				}
+		start();
+		while (step()) {
+			// Keep playing turns until the game is over.
+		}
+	}
+
+	/**
+	 * Begin the game without playing any turns, so that it can be played one turn
+	 * at a time with {@link #step()}. Calling {@link #run()} does this for you.
+	 * Enemies are used up as the game goes, so a game can only be played once.
+	 */
+	public void start() {
+		turnsTaken = 0;
+		enemiesDefeated = 0;
+		encountersFinished = 0;
+		encounter.clear();
+		initiative.clear();
+		player.getEffects().clear();
+		nextEffectTime = Initiative.TURN_TIME;
+		turnTarget = null;
+		encounterEvent = null;
+
+		player.setEventSink(eventSink);
+		encounter.setEventSink(eventSink);
+		player.getEffects().setScheduler(effects);
+		encounter.setEffectScheduler(effects);
+		initiative.add(player);
+		encounter.setInitiative(initiative);
+		eventSink.gameStarted(player);
+		startNextEncounter();
+	}
+
+	/**
+	 * Play a single turn: the player takes their turn against the weakest enemy,
+	 * and then everyone whose turn comes before the player's next one acts. With
+	 * everyone at the same speed, that is every enemy once. Status effects tick
+	 * and wear off each time a {@link Initiative#TURN_TIME} has passed. The game
+	 * must have been started with {@link #start()}.
+	 *
+	 * @return True if there are more turns to play, false if the game is over.
+	 */
+	public boolean step() {
+		if (!beginPlayerTurn()) {
+			return false;
+		}
+		finishPlayerTurn();
+		return playUntilPlayerTurn();
+	}
+
+	/**
+	 * Play everything that happens before the player's next turn, and announce
+	 * the start of that turn, but don't ask the player what to do yet. Together
+	 * with {@link #finishPlayerTurn()}, this lets a game wait for the player
+	 * without holding up a thread, e.g. on a server (see
+	 * {@link combatgame.player.PromptController}).
+	 *
+	 * Calling this again before the turn is finished does nothing.
+	 *
+	 * @return True if it is now the player's turn, false if the game is over.
+	 */
+	public boolean beginPlayerTurn() {
+		if (turnTarget != null) {
+			return true;
+		}
+		if (!playUntilPlayerTurn()) {
+			return false;
+		}
+
+		// The player goes after whichever enemy is closest to defeat.
+		turnTarget = encounter.getWeakestEnemy();
+
+		// Display current health values.
+		eventSink.roundStarted(player, turnTarget);
+		return true;
+	}
+
+	/**
+	 * Ask the player what to do, and carry out their turn. The player's
+	 * controller must be ready to answer straight away. The turn must have been
+	 * begun with {@link #beginPlayerTurn()}.
+	 */
+	public void finishPlayerTurn() {
+		if (turnTarget == null) {
+			throw new IllegalStateException("The player's turn has not begun");
+		}
+
+		Enemy target = turnTarget;
+		turnTarget = null;
+		TurnEvent event = isFastForwarding ? null : TurnEvent.beginIfRecording();
+		initiative.next();
+		player.performCombatAction(target);
+		if (event != null) {
+			event.finish(player.name, target.name, turnsTaken);
+		}
+		++turnsTaken;
+
+		// The player's action may have defeated any number of enemies.
+		enemiesDefeated += encounter.removeDefeated();
+		endActionIfOver();
+	}
+
+	/**
+	 * Check whether the game is over, either because the player defeated all of
+	 * the enemies or because they died.
+	 *
+	 * @return True if there are no more turns to play.
+	 */
+	public boolean isOver() {
+		return encounter.isEmpty();
+	}
+
+	/**
+	 * Change where the engine reports everything that happens, part way through a
+	 * game. For example, a replay can be fast-forwarded with nothing printed, and
+	 * then shown from that point on.
+	 *
+	 * @param eventSink Where to report everything from now on.
+	 */
+	public void setEventSink(CombatEventSink eventSink) {
+		this.eventSink = eventSink;
+		player.setEventSink(eventSink);
+		encounter.setEventSink(eventSink);
+	}
+
+	/**
+	 * Say whether the game is being played through again, e.g. to catch up with
+	 * a recording, rather than for real. While it is, nothing is added to the
+	 * {@link GameMetrics} and no Flight Recorder events are reported, so turns
+	 * that were already measured when they were first played aren't measured
+	 * twice. A game that ends while fast-forwarding isn't counted at all, and
+	 * one that carries on for real is counted in full when it ends.
+	 *
+	 * @param isFastForwarding True while the game is being played through again.
+	 */
+	public void setFastForwarding(boolean isFastForwarding) {
+		this.isFastForwarding = isFastForwarding;
+		player.setMeasured(!isFastForwarding);
+	}
+
+	/**
+	 * Let everyone whose turn comes before the player's act, and tick status
+	 * effects as time passes.
+	 *
+	 * @return True if it is the player's turn, false if the game is over.
+	 */
+	private boolean playUntilPlayerTurn() {
+		while (!encounter.isEmpty()) {
+			if (initiative.peekTime() > nextEffectTime) {
+				// Everyone who acts before this time has acted, so the turn is over.
+				// Poison may defeat more enemies, or the player.
+				effects.advance();
+				nextEffectTime += Initiative.TURN_TIME;
+				enemiesDefeated += encounter.removeDefeated();
+				endActionIfOver();
+				continue;
+			}
+
+			Entity actor = initiative.peek();
+			if (actor == player) {
+				return true;
+			}
+			initiative.next();
+			((Enemy)actor).performCombatAction(player);
+
+			// The enemy's action may have defeated any number of enemies.
+			enemiesDefeated += encounter.removeDefeated();
+			endActionIfOver();
+		}
+		return false;
+	}
+
+	/**
+	 * After an action, end the game if the player has died, or bring in the next
+	 * encounter if the player has defeated every enemy here.
+	 */
+	private void endActionIfOver() {
+		if (player.isDead()) {
+			encounter.clear();
+			endEncounter();
+			startNextEncounter();
+		} else if (encounter.isEmpty()) {
+			endEncounter();
+			startNextEncounter();
+		}
+	}
+
+	/**
+	 * Count the encounter that has just ended, and record its Flight Recorder
+	 * event.
+	 */
+	private void endEncounter() {
+		int turns = turnsTaken - encounterStartTurn;
+		++encountersFinished;
+		if (!isFastForwarding) {
+			GameMetrics.TURNS_PER_ENCOUNTER.record(turns);
+		}
+
+		if (encounterEvent != null) {
+			encounterEvent.finish(player.name, encounterSize, turns, !player.isDead());
+			encounterEvent = null;
+		}
+	}
+
+	/**
+	 * Bring in the next group of enemies that are still standing. If there are
+	 * none left, or the player has died, end the game instead.
+	 */
+	private void startNextEncounter() {
+		while (!player.isDead() && enemySource.nextEncounter(encounter)) {
+			if (!encounter.isEmpty()) {
+				beginEncounter();
+				return;
 			}
 		}
 
 		// When we get to this point, it means either the player has died or
 		// they have defeated all of the enemies.
-		if (player.isDead()) {
-			System.out.println("You have been defeated in battle!");
-		} else {
-			System.out.println("Congratulations, you are victorious!");
+		if (!isFastForwarding) {
+			GameMetrics.GAMES.increment();
+			if (!player.isDead()) {
+				GameMetrics.GAMES_WON.increment();
+			}
+			GameMetrics.ENCOUNTERS.add(encountersFinished);
+			GameMetrics.TURNS.add(turnsTaken);
 		}
+		eventSink.gameEnded(player, !player.isDead());
+	}
+
+	/**
+	 * Note when the encounter that has just come in began, and begin its Flight
+	 * Recorder event if encounters are being recorded.
+	 */
+	private void beginEncounter() {
+		encounterStartTurn = turnsTaken;
+		encounterSize = encounter.size();
+		encounterEvent = isFastForwarding ? null : EncounterEvent.beginIfRecording();
+	}
+
+	/**
+	 * Get the player of this game.
+	 *
+	 * @return The player.
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Get the number of turns the player has taken in the most recent game.
+	 *
+	 * @return The number of turns taken.
+	 */
+	public int getTurnsTaken() {
+		return turnsTaken;
+	}
+
+	/**
+	 * Get the number of enemies the player has defeated in the most recent game.
+	 *
+	 * @return The number of enemies defeated.
+	 */
+	public int getEnemiesDefeated() {
+		return enemiesDefeated;
+	}
+
+	/**
+	 * Check whether the player won the most recent game.
+	 *
+	 * @return True if the player defeated every enemy, false otherwise.
+	 */
+	public boolean isVictorious() {
+		return isOver() && !player.isDead();
 	}
 }
@@ -0,0 +1,91 @@
+package combatgame.arena;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.events.CombatEventSink;
+import combatgame.player.Player;
+
+/**
+ * An {@link Arena} is an endless game: the player fights wave after wave of
+ * enemies from a {@link WaveGenerator}, each wave harder than the last, until
+ * they die or run out of waves. Every time a wave is cleared, the arena hands a
+ * {@link ArenaCheckpoint} to its listener.
+ */
+public class Arena {
+	/**
+	 * Makes the enemies for each wave.
+	 */
+	private final WaveGenerator waves;
+
+	/**
+	 * Plays the game.
+	 */
+	private final CombatGameEngine engine;
+
+	/**
+	 * Construct a new {@link Arena}.
+	 *
+	 * @param player    The player.
+	 * @param kinds     The kinds of enemies that can appear.
+	 * @param seed      Decides which enemies appear in every wave.
+	 * @param firstWave The wave to start at, starting from 1. Use
+	 *                  {@link ArenaCheckpoint#getNextWave()} to carry on from a
+	 *                  checkpoint.
+	 * @param lastWave  The last wave, or {@link Long#MAX_VALUE} to keep going
+	 *                  until the player dies.
+	 * @param eventSink Where to report everything that happens during the game.
+	 */
+	public Arena(Player player, EnemyDefinition[] kinds, long seed, long firstWave, long lastWave,
+			CombatEventSink eventSink) {
+		this.waves = new WaveGenerator(kinds, seed, firstWave, lastWave);
+		this.engine = new CombatGameEngine(player, waves, eventSink);
+	}
+
+	/**
+	 * Play the arena until the player dies or the last wave is cleared.
+	 *
+	 * @param listener Receives a checkpoint every time a wave is cleared.
+	 * @return The checkpoint for the last wave that was cleared, or null if the
+	 *         player did not clear any.
+	 */
+	public ArenaCheckpoint run(ArenaListener listener) {
+		ArenaCheckpoint checkpoint = null;
+
+		engine.start();
+		long wave = waves.getWave();
+		int waveStartTurns = 0;
+		while (engine.step()) {
+			// The generator moves on to the next wave as soon as the last enemy of
+			// this one is defeated.
+			if (waves.getWave() != wave) {
+				checkpoint = waveCleared(wave, waveStartTurns, listener);
+				wave = waves.getWave();
+				waveStartTurns = engine.getTurnsTaken();
+			}
+		}
+
+		if (engine.isVictorious() && engine.getEnemiesDefeated() > 0) {
+			checkpoint = waveCleared(wave, waveStartTurns, listener);
+		}
+		return checkpoint;
+	}
+
+	/**
+	 * Get the engine that plays the arena, e.g. to change where events are
+	 * reported.
+	 *
+	 * @return The engine.
+	 */
+	public CombatGameEngine getEngine() {
+		return engine;
+	}
+
+	private ArenaCheckpoint waveCleared(long wave, int waveStartTurns, ArenaListener listener) {
+		Player player = engine.getPlayer();
+		ArenaCheckpoint checkpoint = new ArenaCheckpoint(waves.getSeed(), wave,
+				engine.getTurnsTaken() - waveStartTurns, engine.getTurnsTaken(), engine.getEnemiesDefeated(),
+				player.getHealth(), player.getInventory().getItemCount());
+		listener.waveCleared(checkpoint);
+		return checkpoint;
+	}
+}
@@ -0,0 +1,80 @@
+package combatgame.arena;
+
+/**
+ * An {@link ArenaCheckpoint} is a summary of an arena run, taken each time the
+ * player clears a wave. It has everything needed to pick the run up again from
+ * the next wave: the seed, the wave number and the state of the player.
+ */
+public final class ArenaCheckpoint {
+	/**
+	 * The seed that decides which enemies appear.
+	 */
+	public final long seed;
+
+	/**
+	 * The wave that was just cleared, starting from 1.
+	 */
+	public final long wave;
+
+	/**
+	 * The number of turns it took to clear this wave.
+	 */
+	public final int waveTurns;
+
+	/**
+	 * The number of turns taken so far, in every wave.
+	 */
+	public final long totalTurns;
+
+	/**
+	 * The number of enemies defeated so far, in every wave.
+	 */
+	public final long enemiesDefeated;
+
+	/**
+	 * The player's health at the end of the wave.
+	 */
+	public final int playerHealth;
+
+	/**
+	 * The number of items left in the player's inventory.
+	 */
+	public final int playerItems;
+
+	/**
+	 * Construct a new {@link ArenaCheckpoint}.
+	 *
+	 * @param seed            The seed that decides which enemies appear.
+	 * @param wave            The wave that was just cleared.
+	 * @param waveTurns       The number of turns it took to clear the wave.
+	 * @param totalTurns      The number of turns taken so far.
+	 * @param enemiesDefeated The number of enemies defeated so far.
+	 * @param playerHealth    The player's health at the end of the wave.
+	 * @param playerItems     The number of items left in the player's inventory.
+	 */
+	public ArenaCheckpoint(long seed, long wave, int waveTurns, long totalTurns, long enemiesDefeated,
+			int playerHealth, int playerItems) {
+		this.seed = seed;
+		this.wave = wave;
+		this.waveTurns = waveTurns;
+		this.totalTurns = totalTurns;
+		this.enemiesDefeated = enemiesDefeated;
+		this.playerHealth = playerHealth;
+		this.playerItems = playerItems;
+	}
+
+	/**
+	 * Get the wave to start from when picking the run up again.
+	 *
+	 * @return The next wave.
+	 */
+	public long getNextWave() {
+		return wave + 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("wave %d cleared in %d turns (%d turns, %d enemies in total), %d health, %d items",
+				wave, waveTurns, totalTurns, enemiesDefeated, playerHealth, playerItems);
+	}
+}
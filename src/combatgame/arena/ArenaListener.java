@@ -0,0 +1,15 @@
+package combatgame.arena;
+
+/**
+ * Receives a checkpoint every time the player clears a wave in the
+ * {@link Arena}.
+ */
+@FunctionalInterface
+public interface ArenaListener {
+	/**
+	 * The player has defeated every enemy in a wave.
+	 *
+	 * @param checkpoint A summary of the run so far.
+	 */
+	void waveCleared(ArenaCheckpoint checkpoint);
+}
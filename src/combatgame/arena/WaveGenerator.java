@@ -0,0 +1,180 @@
+package combatgame.arena;
+
+import java.util.SplittableRandom;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.entities.enemies.EnemySource;
+
+/**
+ * A {@link WaveGenerator} makes up the enemies for an arena as the player
+ * reaches them, in waves that get harder as they go. Nothing is made ahead of
+ * time, so a run of a million waves uses no more memory than a run of one.
+ *
+ * Every wave is decided by the seed and the wave number alone. The same seed
+ * always gives the same waves, and a run can be picked up again from any wave
+ * without making the waves before it.
+ *
+ * Waves are grouped into levels: wave 1 is level 0, waves 2-3 are level 1,
+ * waves 4-7 are level 2, and so on, doubling each time. Each level adds health
+ * to every enemy, adds attack power every few levels, and adds an enemy to the
+ * wave every other level, up to {@link #MAX_WAVE_SIZE}.
+ */
+public class WaveGenerator implements EnemySource {
+	/**
+	 * The extra health enemies get for each level.
+	 */
+	private static final int HEALTH_PER_LEVEL = 2;
+
+	/**
+	 * The number of levels it takes for enemies to get one more attack power.
+	 */
+	private static final int LEVELS_PER_ATTACK_POWER = 3;
+
+	/**
+	 * The most enemies a single wave can have.
+	 */
+	private static final int MAX_WAVE_SIZE = 5;
+
+	/**
+	 * Mixed with the wave number to get a different random sequence for each
+	 * wave.
+	 */
+	private static final long WAVE_SEED_MIX = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The kinds of enemies that can appear, before they are made stronger.
+	 */
+	private final EnemyDefinition[] kinds;
+
+	/**
+	 * Decides which enemies appear in every wave.
+	 */
+	private final long seed;
+
+	/**
+	 * The last wave to make, after which there are no more enemies.
+	 */
+	private final long lastWave;
+
+	/**
+	 * The wave being fought, or the wave before the first one if it has not
+	 * started yet.
+	 */
+	private long wave;
+
+	/**
+	 * The number of enemies still to come in the current wave.
+	 */
+	private int enemiesLeftInWave;
+
+	/**
+	 * Picks the enemies for the current wave.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * The level that {@link #scaledKinds} were made for.
+	 */
+	private int scaledLevel;
+
+	/**
+	 * The kinds of enemies, made stronger for the current level. Levels change
+	 * rarely, so these are kept until the next one.
+	 */
+	private EnemyDefinition[] scaledKinds;
+
+	/**
+	 * Construct a new {@link WaveGenerator}.
+	 *
+	 * @param kinds     The kinds of enemies that can appear.
+	 * @param seed      Decides which enemies appear in every wave.
+	 * @param firstWave The wave to start at, starting from 1.
+	 * @param lastWave  The last wave to make, or {@link Long#MAX_VALUE} to keep
+	 *                  going forever.
+	 */
+	public WaveGenerator(EnemyDefinition[] kinds, long seed, long firstWave, long lastWave) {
+		if (kinds.length == 0) {
+			throw new IllegalArgumentException("There must be at least one kind of enemy");
+		}
+		if (firstWave < 1) {
+			throw new IllegalArgumentException("Waves start from 1: " + firstWave);
+		}
+
+		this.kinds = kinds.clone();
+		this.seed = seed;
+		this.lastWave = lastWave;
+		this.wave = firstWave - 1;
+		this.enemiesLeftInWave = 0;
+		this.scaledLevel = -1;
+		this.scaledKinds = new EnemyDefinition[kinds.length];
+	}
+
+	@Override
+	public Enemy next() {
+		if (enemiesLeftInWave == 0) {
+			if (wave >= lastWave) {
+				return null;
+			}
+			startWave(wave + 1);
+		}
+
+		--enemiesLeftInWave;
+		return scaledKinds[random.nextInt(scaledKinds.length)].spawn();
+	}
+
+	/**
+	 * Get the wave the player is fighting.
+	 *
+	 * @return The wave number, starting from 1, or the wave before the first one
+	 *         if no enemies have been made yet.
+	 */
+	public long getWave() {
+		return wave;
+	}
+
+	/**
+	 * Get the seed that decides which enemies appear.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Get the level of a wave.
+	 *
+	 * @param wave The wave number, starting from 1.
+	 * @return The level, starting from 0.
+	 */
+	public static int levelOf(long wave) {
+		return 63 - Long.numberOfLeadingZeros(wave);
+	}
+
+	/**
+	 * Get the number of enemies in a wave.
+	 *
+	 * @param wave The wave number, starting from 1.
+	 * @return The number of enemies.
+	 */
+	public static int sizeOf(long wave) {
+		return Math.min(1 + levelOf(wave) / 2, MAX_WAVE_SIZE);
+	}
+
+	private void startWave(long newWave) {
+		wave = newWave;
+		enemiesLeftInWave = sizeOf(wave);
+		random = new SplittableRandom(seed ^ (wave * WAVE_SEED_MIX));
+
+		int level = levelOf(wave);
+		if (level != scaledLevel) {
+			for (int i = 0; i < kinds.length; ++i) {
+				EnemyDefinition kind = kinds[i];
+				scaledKinds[i] = kind.withStats(kind.startingHealth + level * HEALTH_PER_LEVEL,
+						kind.attackPower + level / LEVELS_PER_ATTACK_POWER);
+			}
+			scaledLevel = level;
+		}
+	}
+}
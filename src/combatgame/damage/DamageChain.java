@@ -0,0 +1,113 @@
+package combatgame.damage;
+
+import java.util.Arrays;
+
+/**
+ * A {@link DamageChain} is a list of {@link DamageModifier}s that every hit
+ * goes through one after another, e.g. a combatant's armor and resistances, or
+ * the buffs on their attacks. The order matters: 10 damage with 2 points of
+ * armor and then 50% resistance is 4, but with the resistance first it is 3.
+ *
+ * Hits happen far more often than modifiers change, so a chain works out its
+ * answer for every amount of damage up to {@link #TABLE_SIZE} when it is
+ * created, and a hit only has to look it up. It doesn't matter how many
+ * modifiers are stacked, and no fractions are involved: percentages are kept as
+ * whole hundredths, so the rounding is the same every time. Bigger hits, which
+ * the game hardly ever deals, go through the modifiers one by one.
+ *
+ * Chains never change once they are created, so one chain can be shared by any
+ * number of combatants. To add a modifier, create a new chain with
+ * {@link #then(DamageModifier...)}.
+ */
+public final class DamageChain {
+	/**
+	 * The number of damage amounts, starting from 0, that a chain works out in
+	 * advance. This must be a power of two.
+	 */
+	public static final int TABLE_SIZE = 1024;
+
+	/**
+	 * A chain with no modifiers, which leaves damage as it is.
+	 */
+	public static final DamageChain NONE = new DamageChain(new DamageModifier[0]);
+
+	private final DamageModifier[] modifiers;
+
+	/**
+	 * The damage after the whole chain, for each amount of damage up to
+	 * {@link #TABLE_SIZE}.
+	 */
+	private final int[] table = new int[TABLE_SIZE];
+
+	private DamageChain(DamageModifier[] modifiers) {
+		this.modifiers = modifiers;
+		for (int damageAmount = 0; damageAmount < TABLE_SIZE; ++damageAmount) {
+			table[damageAmount] = applyEach(damageAmount);
+		}
+	}
+
+	/**
+	 * Create a chain of modifiers.
+	 *
+	 * @param modifiers The modifiers, in the order each hit goes through them.
+	 * @return The chain.
+	 */
+	public static DamageChain of(DamageModifier... modifiers) {
+		if (modifiers.length == 0) {
+			return NONE;
+		}
+		return new DamageChain(modifiers.clone());
+	}
+
+	/**
+	 * Create a chain that goes through this chain's modifiers and then some more.
+	 *
+	 * @param more The modifiers to add at the end.
+	 * @return The new chain. This chain is not changed.
+	 */
+	public DamageChain then(DamageModifier... more) {
+		DamageModifier[] combined = Arrays.copyOf(modifiers, modifiers.length + more.length);
+		System.arraycopy(more, 0, combined, modifiers.length, more.length);
+		return of(combined);
+	}
+
+	/**
+	 * Work out how much damage is left after every modifier in this chain.
+	 *
+	 * @param damageAmount The damage before the modifiers. Negative amounts (e.g.
+	 *                     an attack weakened below zero) are left as they are.
+	 * @return The damage after the modifiers.
+	 */
+	public int apply(int damageAmount) {
+		// A single check covers both negative amounts and ones too big for the
+		// table.
+		if ((damageAmount & -TABLE_SIZE) == 0) {
+			return table[damageAmount];
+		}
+		return damageAmount < 0 ? damageAmount : applyEach(damageAmount);
+	}
+
+	/**
+	 * Get the number of modifiers in this chain.
+	 *
+	 * @return The number of modifiers.
+	 */
+	public int size() {
+		return modifiers.length;
+	}
+
+	/**
+	 * Put the damage through each modifier in turn.
+	 */
+	private int applyEach(int damageAmount) {
+		for (DamageModifier modifier : modifiers) {
+			damageAmount = modifier.apply(damageAmount);
+		}
+		return damageAmount;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(modifiers);
+	}
+}
@@ -0,0 +1,84 @@
+package combatgame.damage;
+
+/**
+ * A {@link DamageModifier} changes an amount of damage, e.g. armor that soaks
+ * up a couple of points of every hit, a resistance that takes off a quarter of
+ * it, or a critical hit that doubles it. Modifiers are put together in a
+ * {@link DamageChain}.
+ *
+ * There are two kinds of modifier:
+ * <ul>
+ * <li>A flat modifier adds a number of points to the damage (or takes them
+ * off, if it is negative).</li>
+ * <li>A percentage modifier adds a percentage of the damage (or takes it off,
+ * if it is negative). Any fraction of a point is dropped, so 60% of 3 damage is
+ * 1, not 1.8: 3 damage with 60% taken off is 2.</li>
+ * </ul>
+ * Damage never goes below 0, however much is taken off.
+ */
+public final class DamageModifier {
+	/**
+	 * The points this modifier adds to the damage.
+	 */
+	public final int flat;
+
+	/**
+	 * The percentage of the damage this modifier adds.
+	 */
+	public final int percent;
+
+	private DamageModifier(int flat, int percent) {
+		this.flat = flat;
+		this.percent = percent;
+	}
+
+	/**
+	 * Create a modifier that adds a number of points to the damage, e.g.
+	 * {@code flat(-2)} for armor that soaks up 2 points of every hit.
+	 *
+	 * @param points The points to add, or to take off if negative.
+	 * @return The modifier.
+	 */
+	public static DamageModifier flat(int points) {
+		return new DamageModifier(points, 0);
+	}
+
+	/**
+	 * Create a modifier that adds a percentage of the damage, e.g.
+	 * {@code percent(-25)} for a resistance that takes off a quarter of every
+	 * hit, or {@code percent(100)} for a critical hit that doubles it.
+	 *
+	 * @param percent The percentage to add, or to take off if negative. It can't
+	 *                take off more than 100%.
+	 * @return The modifier.
+	 */
+	public static DamageModifier percent(int percent) {
+		if (percent < -100) {
+			throw new IllegalArgumentException("Can't take off more than 100% of the damage: " + percent + "%");
+		}
+		return new DamageModifier(0, percent);
+	}
+
+	/**
+	 * Work out the damage after this modifier, one step of a
+	 * {@link DamageChain}.
+	 *
+	 * @param damageAmount The damage before this modifier, which is not
+	 *                     negative.
+	 * @return The damage after it, between 0 and {@link Integer#MAX_VALUE}.
+	 */
+	int apply(int damageAmount) {
+		// Dividing rounds towards zero, which drops the fraction whether the
+		// percentage is added or taken off.
+		long modified = (long)damageAmount + flat + (long)damageAmount * percent / 100;
+		return (int)Math.max(0, Math.min(Integer.MAX_VALUE, modified));
+	}
+
+	@Override
+	public String toString() {
+		if (percent != 0) {
+			return String.format("%+d%%", percent);
+		}
+		return String.format("%+d", flat);
+	}
+}
@@ -0,0 +1,247 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+import combatgame.entities.Initiative;
+
+/**
+ * {@link ActiveEffects} keeps track of the status effects on a single entity:
+ * which effects it has, which {@link Status statuses} they give it, and how
+ * much they change its attack power and speed. Every entity has one (see
+ * {@link Entity#getEffects()}).
+ *
+ * When each effect is due is kept by an {@link EffectScheduler}, which is
+ * usually shared by every entity in the game. Entities that have not been given
+ * a scheduler get one of their own the first time an effect is applied.
+ */
+public final class ActiveEffects {
+	/**
+	 * The entity these effects are on.
+	 */
+	final Entity owner;
+
+	/**
+	 * Keeps track of when each effect is due, or null if no scheduler has been
+	 * needed yet.
+	 */
+	private EffectScheduler scheduler;
+
+	/**
+	 * The number of effects giving the entity each status, by ordinal.
+	 */
+	private final int[] statusCounts = new int[Status.ALL.length];
+
+	/**
+	 * The total amount that effects add to the entity's attack power.
+	 */
+	private int attackBonus;
+
+	/**
+	 * The total amount that effects add to the entity's speed.
+	 */
+	private int speedBonus;
+
+	/**
+	 * The first of the entity's effects. The rest follow it.
+	 */
+	private EffectTimer firstEffect;
+
+	/**
+	 * Create the effects of an entity, with no effects applied.
+	 *
+	 * @param owner The entity.
+	 */
+	public ActiveEffects(Entity owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Apply an effect to the entity. If the entity already has this effect, it
+	 * starts over with the new strength and number of turns.
+	 *
+	 * @param effect    The effect.
+	 * @param magnitude How strong the effect is, e.g. the damage per turn of a
+	 *                  poison.
+	 * @param turns     The number of turns the effect lasts, or
+	 *                  {@link StatusEffect#PERMANENT} if it never wears off. An
+	 *                  effect applied for one turn wears off at the end of this
+	 *                  turn.
+	 */
+	public void apply(StatusEffect effect, int magnitude, int turns) {
+		if (turns <= 0 && turns != StatusEffect.PERMANENT) {
+			throw new IllegalArgumentException("An effect must last at least one turn: " + turns);
+		}
+		if (scheduler == null) {
+			scheduler = new EffectScheduler();
+		}
+
+		EffectTimer timer = find(effect);
+		if (timer != null) {
+			effect.end(owner, timer.magnitude);
+		} else {
+			timer = scheduler.obtain();
+			timer.effect = effect;
+			timer.target = this;
+			timer.nextOnTarget = firstEffect;
+			if (firstEffect != null) {
+				firstEffect.previousOnTarget = timer;
+			}
+			firstEffect = timer;
+			if (effect.isAnnounced) {
+				owner.getEventSink().effectStarted(owner, effect);
+			}
+		}
+
+		long turn = scheduler.getTurn();
+		timer.magnitude = magnitude;
+		timer.endTurn = turns == StatusEffect.PERMANENT ? Long.MAX_VALUE : turn + turns;
+		scheduler.schedule(timer, effect.isPeriodic ? turn + 1 : timer.endTurn);
+		effect.start(owner, magnitude);
+	}
+
+	/**
+	 * Check if the entity has the given effect.
+	 *
+	 * @param effect The effect.
+	 * @return True if the effect is on the entity.
+	 */
+	public boolean has(StatusEffect effect) {
+		return find(effect) != null;
+	}
+
+	/**
+	 * Check if any effect is giving the entity the given status.
+	 *
+	 * @param status The status.
+	 * @return True if the entity has the status.
+	 */
+	public boolean has(Status status) {
+		return statusCounts[status.ordinal()] > 0;
+	}
+
+	/**
+	 * Get the total amount that effects add to the entity's attack power.
+	 *
+	 * @return The attack bonus. This is negative if the entity has been weakened.
+	 */
+	public int getAttackBonus() {
+		return attackBonus;
+	}
+
+	/**
+	 * Get the total amount that effects add to the entity's speed.
+	 *
+	 * @return The speed bonus. This is negative if the entity has been slowed.
+	 */
+	public int getSpeedBonus() {
+		return speedBonus;
+	}
+
+	/**
+	 * Give the entity a status, or take it away. Effects call this when they
+	 * start and end.
+	 *
+	 * @param status The status.
+	 * @param change 1 when an effect starts giving the status, and -1 when it
+	 *               stops.
+	 */
+	public void changeStatus(Status status, int change) {
+		statusCounts[status.ordinal()] += change;
+	}
+
+	/**
+	 * Change the entity's attack bonus. Effects call this when they start and
+	 * end.
+	 *
+	 * @param change The amount to add to the attack bonus.
+	 */
+	public void changeAttackBonus(int change) {
+		attackBonus += change;
+	}
+
+	/**
+	 * Change the entity's speed bonus. Effects call this when they start and end.
+	 *
+	 * @param change The amount to add to the speed bonus.
+	 */
+	public void changeSpeedBonus(int change) {
+		speedBonus += change;
+		Initiative.speedChanged(owner);
+	}
+
+	/**
+	 * Remove every effect from the entity without reporting it, e.g. when it
+	 * leaves a fight.
+	 */
+	public void clear() {
+		while (firstEffect != null) {
+			EffectTimer timer = firstEffect;
+			firstEffect = timer.nextOnTarget;
+			scheduler.release(timer);
+		}
+		for (int i = 0; i < statusCounts.length; ++i) {
+			statusCounts[i] = 0;
+		}
+		attackBonus = 0;
+		if (speedBonus != 0) {
+			speedBonus = 0;
+			Initiative.speedChanged(owner);
+		}
+	}
+
+	/**
+	 * Change which scheduler keeps track of the entity's effects, e.g. when it
+	 * joins a game. Effects that are already on the entity move to the new
+	 * scheduler with the same number of turns left.
+	 *
+	 * @param scheduler The new scheduler.
+	 */
+	public void setScheduler(EffectScheduler scheduler) {
+		EffectScheduler oldScheduler = this.scheduler;
+		this.scheduler = scheduler;
+		if (oldScheduler == null || oldScheduler == scheduler) {
+			return;
+		}
+
+		long shift = scheduler.getTurn() - oldScheduler.getTurn();
+		for (EffectTimer timer = firstEffect; timer != null; timer = timer.nextOnTarget) {
+			long dueTurn = timer.level < 0 ? Long.MAX_VALUE : timer.dueTurn + shift;
+			oldScheduler.schedule(timer, Long.MAX_VALUE);
+			if (timer.endTurn != Long.MAX_VALUE) {
+				timer.endTurn += shift;
+			}
+			scheduler.schedule(timer, dueTurn);
+		}
+	}
+
+	/**
+	 * Called by the scheduler when an effect wears off.
+	 */
+	void end(EffectTimer timer) {
+		StatusEffect effect = timer.effect;
+		int magnitude = timer.magnitude;
+
+		if (timer.previousOnTarget == null) {
+			firstEffect = timer.nextOnTarget;
+		} else {
+			timer.previousOnTarget.nextOnTarget = timer.nextOnTarget;
+		}
+		if (timer.nextOnTarget != null) {
+			timer.nextOnTarget.previousOnTarget = timer.previousOnTarget;
+		}
+		scheduler.release(timer);
+
+		effect.end(owner, magnitude);
+		if (effect.isAnnounced && !owner.isDead()) {
+			owner.getEventSink().effectEnded(owner, effect);
+		}
+	}
+
+	private EffectTimer find(StatusEffect effect) {
+		for (EffectTimer timer = firstEffect; timer != null; timer = timer.nextOnTarget) {
+			if (timer.effect == effect) {
+				return timer;
+			}
+		}
+		return null;
+	}
+}
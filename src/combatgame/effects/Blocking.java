@@ -0,0 +1,29 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Blocking} is the effect of a raised shield, which gives the
+ * {@link Status#BLOCKING} status. The game already describes raising a shield,
+ * so this effect is not announced.
+ */
+public final class Blocking extends StatusEffect {
+	/**
+	 * The one and only blocking effect.
+	 */
+	public static final Blocking INSTANCE = new Blocking();
+
+	private Blocking() {
+		super("blocking", false, false);
+	}
+
+	@Override
+	protected void start(Entity target, int magnitude) {
+		target.getEffects().changeStatus(Status.BLOCKING, 1);
+	}
+
+	@Override
+	protected void end(Entity target, int magnitude) {
+		target.getEffects().changeStatus(Status.BLOCKING, -1);
+	}
+}
@@ -0,0 +1,252 @@
+package combatgame.effects;
+
+/**
+ * An {@link EffectScheduler} keeps track of when every status effect in a game
+ * needs attention, so that nobody has to check every effect of every entity
+ * each turn. It is a hierarchical timing wheel: a set of clock faces, like the
+ * hands of a clock.
+ *
+ * The first wheel has one slot for each of the next {@value #SLOTS} turns. The
+ * second wheel has one slot for each of the next {@value #SLOTS} groups of
+ * {@value #SLOTS} turns, and so on. An effect waits in the slot of the smallest
+ * wheel its turn fits in. Each time the first wheel goes all the way round, the
+ * effects in the next slot of the second wheel are spread out into the first
+ * wheel, just like a clock's minute hand moving on when the second hand comes
+ * back to the top. Effects that are due further away than the biggest wheel
+ * can reach wait in an overflow list.
+ *
+ * This way, applying an effect, removing it and moving to the next turn all
+ * take the same time no matter how many effects there are. Each turn only looks
+ * at the effects that are actually due.
+ *
+ * Timers are reused once their effect ends, so once the game has warmed up,
+ * applying effects does not create any new objects.
+ *
+ * A scheduler is meant to be used by one game at a time.
+ */
+public final class EffectScheduler {
+	/**
+	 * The number of bits of the turn number that pick a slot on each wheel.
+	 */
+	private static final int SLOT_BITS = 6;
+
+	/**
+	 * The number of slots on each wheel.
+	 */
+	static final int SLOTS = 1 << SLOT_BITS;
+
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	/**
+	 * The number of wheels. Effects due more than {@code SLOTS ^ LEVELS} turns
+	 * away wait in the overflow list, which is stored as an extra level.
+	 */
+	static final int LEVELS = 4;
+
+	/**
+	 * The timers waiting in each slot of each wheel, as the first timer of a
+	 * linked list. {@code slots[LEVELS][0]} is the overflow list. Most games are
+	 * over long before the first wheel comes round, so the first wheel is only
+	 * created once something is put on it, and the rest are all created together
+	 * once something is put on any of them.
+	 */
+	private final EffectTimer[][] slots = new EffectTimer[LEVELS + 1][];
+
+	/**
+	 * Timers that are not being used, ready to be handed out again.
+	 */
+	private EffectTimer spareTimers;
+
+	/**
+	 * The current turn.
+	 */
+	private long turn;
+
+	/**
+	 * Get the current turn. This starts at 0 and goes up by one every time
+	 * {@link #advance()} is called.
+	 *
+	 * @return The current turn.
+	 */
+	public long getTurn() {
+		return turn;
+	}
+
+	/**
+	 * Move on to the next turn. Periodic effects do their thing, and effects that
+	 * have run out wear off.
+	 */
+	public void advance() {
+		++turn;
+
+		// When the first wheel comes back round, bring down the effects from the next
+		// slot of the wheel above it, starting with the biggest wheel that has come
+		// back round.
+		if ((turn & SLOT_MASK) == 0) {
+			int level = 1;
+			while (level < LEVELS && (turn & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+				++level;
+			}
+			for (; level >= 1; --level) {
+				if (slots[level] == null) {
+					continue;
+				}
+				int slot = level == LEVELS ? 0 : (int)(turn >>> (SLOT_BITS * level)) & SLOT_MASK;
+				EffectTimer timer = slots[level][slot];
+				slots[level][slot] = null;
+				while (timer != null) {
+					EffectTimer next = timer.next;
+					timer.level = -1;
+					insert(timer);
+					timer = next;
+				}
+			}
+		}
+
+		// Every timer in this slot of the first wheel is due now.
+		EffectTimer[] wheel = slots[0];
+		if (wheel == null) {
+			return;
+		}
+		int slot = (int)turn & SLOT_MASK;
+		EffectTimer timer;
+		while ((timer = wheel[slot]) != null) {
+			unlink(timer);
+			fire(timer);
+		}
+	}
+
+	/**
+	 * Deal with a timer that is due this turn.
+	 */
+	private void fire(EffectTimer timer) {
+		ActiveEffects target = timer.target;
+		StatusEffect effect = timer.effect;
+		if (effect.isPeriodic && !target.owner.isDead()) {
+			effect.tick(target.owner, timer.magnitude);
+		}
+
+		if (timer.effect != effect || timer.level >= 0) {
+			// The tick has already dealt with this timer, e.g. by applying the effect
+			// again or clearing every effect.
+			return;
+		}
+
+		if (timer.endTurn <= turn) {
+			target.end(timer);
+		} else {
+			timer.dueTurn = effect.isPeriodic ? turn + 1 : timer.endTurn;
+			insert(timer);
+		}
+	}
+
+	/**
+	 * Get a timer that is not being used.
+	 */
+	EffectTimer obtain() {
+		EffectTimer timer = spareTimers;
+		if (timer == null) {
+			return new EffectTimer();
+		}
+		spareTimers = timer.next;
+		timer.next = null;
+		return timer;
+	}
+
+	/**
+	 * Take a timer out of its slot, if it is in one, and put it with the spare
+	 * timers.
+	 */
+	void release(EffectTimer timer) {
+		unlink(timer);
+		timer.effect = null;
+		timer.target = null;
+		timer.nextOnTarget = null;
+		timer.previousOnTarget = null;
+		timer.next = spareTimers;
+		spareTimers = timer;
+	}
+
+	/**
+	 * Set when a timer is next due, and put it in the slot for that turn. If it
+	 * is already in a slot, it is moved.
+	 *
+	 * @param timer   The timer.
+	 * @param dueTurn The turn the timer is due, which must be after this one. If
+	 *                this is {@link Long#MAX_VALUE}, the timer is never due, and is
+	 *                not put in a slot at all.
+	 */
+	void schedule(EffectTimer timer, long dueTurn) {
+		unlink(timer);
+		timer.dueTurn = dueTurn;
+		if (dueTurn != Long.MAX_VALUE) {
+			insert(timer);
+		}
+	}
+
+	/**
+	 * Put a timer that isn't in a slot into the slot for its due turn.
+	 */
+	private void insert(EffectTimer timer) {
+		// The timer goes on the smallest wheel where it shares all of the higher
+		// bits of its due turn with the current turn. That wheel will come round
+		// to its slot before any of those higher bits change.
+		long difference = timer.dueTurn ^ turn;
+		int level = 0;
+		while (level < LEVELS && (difference >>> (SLOT_BITS * (level + 1))) != 0) {
+			++level;
+		}
+		int slot = level == LEVELS ? 0 : (int)(timer.dueTurn >>> (SLOT_BITS * level)) & SLOT_MASK;
+
+		EffectTimer[] wheel = slots[level];
+		if (wheel == null) {
+			createWheels(level);
+			wheel = slots[level];
+		}
+
+		EffectTimer first = wheel[slot];
+		timer.level = level;
+		timer.slot = slot;
+		timer.previous = null;
+		timer.next = first;
+		if (first != null) {
+			first.previous = timer;
+		}
+		wheel[slot] = timer;
+	}
+
+	/**
+	 * Create the first wheel, or all of the bigger wheels and the overflow list.
+	 */
+	private void createWheels(int level) {
+		if (level == 0) {
+			slots[0] = new EffectTimer[SLOTS];
+			return;
+		}
+		for (int i = 1; i < LEVELS; ++i) {
+			slots[i] = new EffectTimer[SLOTS];
+		}
+		slots[LEVELS] = new EffectTimer[1];
+	}
+
+	/**
+	 * Take a timer out of its slot, if it is in one.
+	 */
+	private void unlink(EffectTimer timer) {
+		if (timer.level < 0) {
+			return;
+		}
+
+		if (timer.previous == null) {
+			slots[timer.level][timer.slot] = timer.next;
+		} else {
+			timer.previous.next = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.previous = timer.previous;
+		}
+		timer.level = -1;
+		timer.next = null;
+		timer.previous = null;
+	}
+}
@@ -0,0 +1,58 @@
+package combatgame.effects;
+
+/**
+ * An {@link EffectTimer} is one status effect applied to one entity. It sits in
+ * a slot of an {@link EffectScheduler} until the turn it is due, and in the
+ * list of the entity's own effects until it ends. Both lists are linked through
+ * the timer itself, so it can be taken out of either one without searching.
+ */
+final class EffectTimer {
+	/**
+	 * The effect, or null if this timer is not being used.
+	 */
+	StatusEffect effect;
+
+	/**
+	 * The effects of the entity this effect was applied to.
+	 */
+	ActiveEffects target;
+
+	/**
+	 * How strong the effect is.
+	 */
+	int magnitude;
+
+	/**
+	 * The turn the effect wears off, or {@link Long#MAX_VALUE} if it never does.
+	 */
+	long endTurn;
+
+	/**
+	 * The turn this timer next needs attention: the turn the effect wears off, or
+	 * the next turn if the effect is periodic.
+	 */
+	long dueTurn;
+
+	/**
+	 * The wheel level and slot this timer is waiting in, or a level of -1 if it
+	 * isn't waiting in the scheduler.
+	 */
+	int level = -1;
+
+	int slot;
+
+	/**
+	 * The neighbours of this timer in its slot, or in the scheduler's list of
+	 * spare timers.
+	 */
+	EffectTimer next;
+
+	EffectTimer previous;
+
+	/**
+	 * The neighbours of this timer in the entity's list of effects.
+	 */
+	EffectTimer nextOnTarget;
+
+	EffectTimer previousOnTarget;
+}
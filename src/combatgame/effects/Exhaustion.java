@@ -0,0 +1,29 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Exhaustion} makes an entity too tired to attack, by giving it the
+ * {@link Status#EXHAUSTED} status. Enemies describe their own exhaustion, so
+ * this effect is not announced.
+ */
+public final class Exhaustion extends StatusEffect {
+	/**
+	 * The one and only exhaustion effect.
+	 */
+	public static final Exhaustion INSTANCE = new Exhaustion();
+
+	private Exhaustion() {
+		super("exhausted", false, false);
+	}
+
+	@Override
+	protected void start(Entity target, int magnitude) {
+		target.getEffects().changeStatus(Status.EXHAUSTED, 1);
+	}
+
+	@Override
+	protected void end(Entity target, int magnitude) {
+		target.getEffects().changeStatus(Status.EXHAUSTED, -1);
+	}
+}
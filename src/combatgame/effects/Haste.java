@@ -0,0 +1,28 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Haste} makes an entity faster, so it takes its turns more often. The
+ * magnitude is added to its speed.
+ */
+public final class Haste extends StatusEffect {
+	/**
+	 * The one and only haste effect.
+	 */
+	public static final Haste INSTANCE = new Haste();
+
+	private Haste() {
+		super("hasted", true, false);
+	}
+
+	@Override
+	protected void start(Entity target, int magnitude) {
+		target.getEffects().changeSpeedBonus(magnitude);
+	}
+
+	@Override
+	protected void end(Entity target, int magnitude) {
+		target.getEffects().changeSpeedBonus(-magnitude);
+	}
+}
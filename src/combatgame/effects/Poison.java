@@ -0,0 +1,23 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Poison} deals damage to an entity at the end of every turn. The
+ * magnitude is the amount of damage per turn.
+ */
+public final class Poison extends StatusEffect {
+	/**
+	 * The one and only poison effect.
+	 */
+	public static final Poison INSTANCE = new Poison();
+
+	private Poison() {
+		super("poisoned", true, true);
+	}
+
+	@Override
+	protected void tick(Entity target, int magnitude) {
+		target.takeDamage(magnitude);
+	}
+}
@@ -0,0 +1,23 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Regeneration} restores some health to an entity at the end of every
+ * turn. The magnitude is the amount of health per turn.
+ */
+public final class Regeneration extends StatusEffect {
+	/**
+	 * The one and only regeneration effect.
+	 */
+	public static final Regeneration INSTANCE = new Regeneration();
+
+	private Regeneration() {
+		super("regenerating", true, true);
+	}
+
+	@Override
+	protected void tick(Entity target, int magnitude) {
+		target.restoreHealth(magnitude);
+	}
+}
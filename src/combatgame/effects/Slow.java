@@ -0,0 +1,29 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Slow} makes an entity slower, so it takes its turns less often. The
+ * magnitude is taken away from its speed, although nothing can be slower than
+ * {@link combatgame.entities.Initiative#MIN_SPEED}.
+ */
+public final class Slow extends StatusEffect {
+	/**
+	 * The one and only slow effect.
+	 */
+	public static final Slow INSTANCE = new Slow();
+
+	private Slow() {
+		super("slowed", true, false);
+	}
+
+	@Override
+	protected void start(Entity target, int magnitude) {
+		target.getEffects().changeSpeedBonus(-magnitude);
+	}
+
+	@Override
+	protected void end(Entity target, int magnitude) {
+		target.getEffects().changeSpeedBonus(magnitude);
+	}
+}
@@ -0,0 +1,29 @@
+package combatgame.effects;
+
+/**
+ * A {@link Status} is a condition that a status effect puts an entity in, and
+ * that the rest of the game can check for. An entity has a status for as long
+ * as at least one effect is giving it that status.
+ */
+public enum Status {
+	/**
+	 * The entity has its shield raised, and takes less damage.
+	 */
+	BLOCKING,
+
+	/**
+	 * The entity can't do anything on its turn.
+	 */
+	STUNNED,
+
+	/**
+	 * The entity is too tired to attack.
+	 */
+	EXHAUSTED;
+
+	/**
+	 * Every status, in order. {@code values()} makes a new copy of this array
+	 * every time it is called, so we keep our own.
+	 */
+	static final Status[] ALL = values();
+}
@@ -0,0 +1,75 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * A {@link StatusEffect} is something that affects an entity for a number of
+ * turns, like poison or a raised shield. The effect itself has no state, so a
+ * single instance is shared by every entity it is applied to. How strong the
+ * effect is and how long it lasts are decided each time it is applied (see
+ * {@link ActiveEffects#apply}).
+ *
+ * An effect gets a call when it starts, a call every turn while it lasts if it
+ * is periodic (e.g. poison damage), and a call when it ends.
+ */
+public abstract class StatusEffect {
+	/**
+	 * The number of turns for an effect that never wears off.
+	 */
+	public static final int PERMANENT = -1;
+
+	/**
+	 * What an entity with this effect is, e.g. "poisoned". This is used to
+	 * describe the effect to the player.
+	 */
+	public final String name;
+
+	/**
+	 * Should the start and end of this effect be reported as events? Effects that
+	 * the game already describes in some other way should not be.
+	 */
+	public final boolean isAnnounced;
+
+	/**
+	 * Does this effect do something every turn while it lasts?
+	 */
+	public final boolean isPeriodic;
+
+	/**
+	 * @param name        What an entity with this effect is, e.g. "poisoned".
+	 * @param isAnnounced Should the start and end of this effect be reported?
+	 * @param isPeriodic  Does this effect do something every turn?
+	 */
+	protected StatusEffect(String name, boolean isAnnounced, boolean isPeriodic) {
+		this.name = name;
+		this.isAnnounced = isAnnounced;
+		this.isPeriodic = isPeriodic;
+	}
+
+	/**
+	 * Called when this effect is applied to an entity.
+	 *
+	 * @param target    The entity.
+	 * @param magnitude How strong the effect is.
+	 */
+	protected void start(Entity target, int magnitude) {
+	}
+
+	/**
+	 * Called at the end of every turn while this effect lasts, if it is periodic.
+	 *
+	 * @param target    The entity.
+	 * @param magnitude How strong the effect is.
+	 */
+	protected void tick(Entity target, int magnitude) {
+	}
+
+	/**
+	 * Called when this effect wears off.
+	 *
+	 * @param target    The entity.
+	 * @param magnitude How strong the effect is.
+	 */
+	protected void end(Entity target, int magnitude) {
+	}
+}
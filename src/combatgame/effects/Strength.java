@@ -0,0 +1,28 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * {@link Strength} makes an entity hit harder. The magnitude is added to its
+ * attack power, so a negative magnitude weakens it instead.
+ */
+public final class Strength extends StatusEffect {
+	/**
+	 * The one and only strength effect.
+	 */
+	public static final Strength INSTANCE = new Strength();
+
+	private Strength() {
+		super("empowered", true, false);
+	}
+
+	@Override
+	protected void start(Entity target, int magnitude) {
+		target.getEffects().changeAttackBonus(magnitude);
+	}
+
+	@Override
+	protected void end(Entity target, int magnitude) {
+		target.getEffects().changeAttackBonus(-magnitude);
+	}
+}
@@ -0,0 +1,28 @@
+package combatgame.effects;
+
+import combatgame.entities.Entity;
+
+/**
+ * A {@link Stun} stops an entity from doing anything on its turn, by giving it
+ * the {@link Status#STUNNED} status.
+ */
+public final class Stun extends StatusEffect {
+	/**
+	 * The one and only stun effect.
+	 */
+	public static final Stun INSTANCE = new Stun();
+
+	private Stun() {
+		super("stunned", true, false);
+	}
+
+	@Override
+	protected void start(Entity target, int magnitude) {
+		target.getEffects().changeStatus(Status.STUNNED, 1);
+	}
+
+	@Override
+	protected void end(Entity target, int magnitude) {
+		target.getEffects().changeStatus(Status.STUNNED, -1);
+	}
+}
@@ -1,5 +1,10 @@
 package combatgame.entities;
 
+import combatgame.damage.DamageChain;
+import combatgame.effects.ActiveEffects;
+import combatgame.events.CombatEventSink;
+import combatgame.events.TerminalRenderer;
+
 /**
  * The {@link Entity} class represents an entity within the combat game.
  * Entities have names and some amount of health, and can be dealt damage by
@@ -16,6 +21,45 @@ public abstract class Entity {
 	 */
 	private int health;
 
+	/**
+	 * Where this Entity reports the things that happen to it.
+	 */
+	private CombatEventSink eventSink;
+
+	/**
+	 * The status effects on this Entity.
+	 */
+	private final ActiveEffects effects;
+
+	/**
+	 * How fast this Entity is, before any status effects.
+	 */
+	private int baseSpeed;
+
+	/**
+	 * The modifiers every hit this Entity takes goes through, e.g. armor.
+	 */
+	private DamageChain defense = DamageChain.NONE;
+
+	/**
+	 * The modifiers this Entity's attack power goes through, e.g. buffs.
+	 */
+	private DamageChain offense = DamageChain.NONE;
+
+	/**
+	 * The following fields belong to the {@link Initiative} this Entity is in, if
+	 * any.
+	 */
+	Initiative initiative;
+
+	int initiativeIndex = -1;
+
+	long initiativeOrder;
+
+	long nextActionTime;
+
+	int scheduledSpeed;
+
 	/**
 	 * Construct an Entity with the given name and amount of starting health.
 	 *
@@ -25,6 +69,9 @@ public abstract class Entity {
 	protected Entity(String name, int startingHealth) {
 		this.name = name;
 		this.health = startingHealth;
+		this.eventSink = TerminalRenderer.STANDARD_OUT;
+		this.effects = new ActiveEffects(this);
+		this.baseSpeed = Initiative.NORMAL_SPEED;
 	}
 
 	/**
@@ -62,4 +109,112 @@ public abstract class Entity {
 	public int getHealth() {
 		return health;
 	}
+
+	/**
+	 * Set the amount of health this Entity has remaining, e.g. when starting a
+	 * fight over.
+	 *
+	 * @param health The new amount of health.
+	 */
+	protected void setHealth(int health) {
+		this.health = health;
+	}
+
+	/**
+	 * Get the status effects on this Entity, e.g. to poison it or to check if it
+	 * is stunned.
+	 *
+	 * @return The effects of this Entity.
+	 */
+	public ActiveEffects getEffects() {
+		return effects;
+	}
+
+	/**
+	 * Get how fast this Entity is, including any status effects. Faster entities
+	 * take their turns more often (see {@link Initiative}).
+	 *
+	 * @return The speed of this Entity.
+	 */
+	public int getSpeed() {
+		return Math.max(Initiative.MIN_SPEED, baseSpeed + effects.getSpeedBonus());
+	}
+
+	/**
+	 * Get how fast this Entity is, before any status effects.
+	 *
+	 * @return The base speed of this Entity.
+	 */
+	public int getBaseSpeed() {
+		return baseSpeed;
+	}
+
+	/**
+	 * Change how fast this Entity is, before any status effects. By default,
+	 * entities have {@link Initiative#NORMAL_SPEED}.
+	 *
+	 * @param baseSpeed The new base speed.
+	 */
+	public void setBaseSpeed(int baseSpeed) {
+		this.baseSpeed = baseSpeed;
+		Initiative.speedChanged(this);
+	}
+
+	/**
+	 * Get the modifiers that every hit this Entity takes goes through.
+	 *
+	 * @return The defense of this Entity.
+	 */
+	public DamageChain getDefense() {
+		return defense;
+	}
+
+	/**
+	 * Change the modifiers that every hit this Entity takes goes through, e.g.
+	 * when it puts on armor. By default, it takes damage as it is dealt.
+	 *
+	 * @param defense The new defense.
+	 */
+	public void setDefense(DamageChain defense) {
+		this.defense = defense;
+	}
+
+	/**
+	 * Get the modifiers that this Entity's attack power goes through.
+	 *
+	 * @return The offense of this Entity.
+	 */
+	public DamageChain getOffense() {
+		return offense;
+	}
+
+	/**
+	 * Change the modifiers that this Entity's attack power goes through, e.g.
+	 * when it picks up a better sword. By default, its attack power is used as it
+	 * is.
+	 *
+	 * @param offense The new offense.
+	 */
+	public void setOffense(DamageChain offense) {
+		this.offense = offense;
+	}
+
+	/**
+	 * Get the sink that this Entity reports its events to.
+	 *
+	 * @return The event sink of this Entity.
+	 */
+	public CombatEventSink getEventSink() {
+		return eventSink;
+	}
+
+	/**
+	 * Change where this Entity reports its events to. By default, events are
+	 * printed to the terminal.
+	 *
+	 * @param eventSink The new event sink.
+	 */
+	public void setEventSink(CombatEventSink eventSink) {
+		this.eventSink = eventSink;
+	}
 }
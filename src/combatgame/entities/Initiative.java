@@ -0,0 +1,262 @@
+package combatgame.entities;
+
+import java.util.Arrays;
+
+/**
+ * {@link Initiative} decides whose turn it is, based on how fast everyone is.
+ * Every entity in a fight has a time for its next action. Whoever's time comes
+ * first acts next, and then waits a delay before acting again. Faster entities
+ * wait less, so they act more often: at {@link #NORMAL_SPEED}, an entity acts
+ * once every {@link #TURN_TIME}, and at twice that speed it acts twice as
+ * often.
+ *
+ * The entities are kept in a heap, ordered by the time of their next action,
+ * and each entity knows where it is in the heap. Finding out who acts next,
+ * adding or removing an entity and changing an entity's speed (e.g. when it is
+ * hasted or slowed) each only move a few entities around, so a turn takes about
+ * the same time with two combatants as with a hundred thousand.
+ *
+ * When two entities act at the same time, the one that joined first goes
+ * first.
+ */
+public final class Initiative {
+	/**
+	 * The speed of an ordinary entity.
+	 */
+	public static final int NORMAL_SPEED = 100;
+
+	/**
+	 * The slowest an entity can be.
+	 */
+	public static final int MIN_SPEED = 1;
+
+	/**
+	 * The time between the actions of an entity with {@link #NORMAL_SPEED}.
+	 */
+	public static final long TURN_TIME = 10_000;
+
+	/**
+	 * The entities, arranged as a heap so the one that acts next is at index 0.
+	 * The entities at indexes {@code 2i + 1} and {@code 2i + 2} never act before
+	 * the entity at index {@code i}.
+	 */
+	private Entity[] heap = new Entity[4];
+
+	/**
+	 * The number of entities in {@link #heap}.
+	 */
+	private int size;
+
+	/**
+	 * The time of the most recent action.
+	 */
+	private long time;
+
+	/**
+	 * The number of entities that have joined so far, used to break ties.
+	 */
+	private long joinCount;
+
+	/**
+	 * Get the time between the actions of an entity with the given speed.
+	 *
+	 * @param speed The speed of the entity.
+	 * @return The time between its actions.
+	 */
+	public static long delayOf(int speed) {
+		return TURN_TIME * NORMAL_SPEED / Math.max(MIN_SPEED, speed);
+	}
+
+	/**
+	 * Add an entity. Its first action comes one delay from now, so an entity that
+	 * joins at normal speed acts after everyone who was already waiting to act.
+	 *
+	 * @param entity The entity. It must not be in an initiative already.
+	 */
+	public void add(Entity entity) {
+		if (entity.initiative != null) {
+			throw new IllegalArgumentException("The " + entity.name + " already has an initiative");
+		}
+
+		entity.initiative = this;
+		entity.initiativeOrder = joinCount++;
+		entity.scheduledSpeed = entity.getSpeed();
+		entity.nextActionTime = time + delayOf(entity.scheduledSpeed);
+
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		heap[size] = entity;
+		entity.initiativeIndex = size;
+		++size;
+		siftUp(entity.initiativeIndex);
+	}
+
+	/**
+	 * Take an entity out, so it doesn't act any more.
+	 *
+	 * @param entity The entity. Nothing happens if it isn't in this initiative.
+	 */
+	public void remove(Entity entity) {
+		if (entity.initiative != this) {
+			return;
+		}
+
+		// Move the last entity in the heap into the gap, and put it in order.
+		int index = entity.initiativeIndex;
+		Entity last = heap[--size];
+		heap[size] = null;
+		if (last != entity) {
+			heap[index] = last;
+			last.initiativeIndex = index;
+			reorder(index);
+		}
+
+		entity.initiative = null;
+		entity.initiativeIndex = -1;
+	}
+
+	/**
+	 * Check whether there is anyone to act.
+	 *
+	 * @return True if there are no entities.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the entity that acts next, without moving on.
+	 *
+	 * @return The entity, or null if there are none.
+	 */
+	public Entity peek() {
+		return size == 0 ? null : heap[0];
+	}
+
+	/**
+	 * Get the time of the next action.
+	 *
+	 * @return The time, or {@link Long#MAX_VALUE} if there are no entities.
+	 */
+	public long peekTime() {
+		return size == 0 ? Long.MAX_VALUE : heap[0].nextActionTime;
+	}
+
+	/**
+	 * Move on to the next action. The clock moves forward to its time, and the
+	 * entity taking it is given the time of its action after that.
+	 *
+	 * @return The entity whose action it is, or null if there are none.
+	 */
+	public Entity next() {
+		if (size == 0) {
+			return null;
+		}
+
+		Entity actor = heap[0];
+		time = actor.nextActionTime;
+		actor.scheduledSpeed = actor.getSpeed();
+		actor.nextActionTime = time + delayOf(actor.scheduledSpeed);
+		siftDown(0);
+		return actor;
+	}
+
+	/**
+	 * Get the time of the most recent action.
+	 *
+	 * @return The time.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Take every entity out, and set the clock back to 0.
+	 */
+	public void clear() {
+		while (size > 0) {
+			remove(heap[size - 1]);
+		}
+		time = 0;
+		joinCount = 0;
+	}
+
+	/**
+	 * Called whenever the speed of an entity changes. If the entity is in an
+	 * initiative, the time left until its next action is stretched or shrunk to
+	 * match, e.g. a hasted entity that was halfway to its next action is still
+	 * halfway there, but gets there sooner.
+	 *
+	 * @param entity The entity.
+	 */
+	public static void speedChanged(Entity entity) {
+		Initiative initiative = entity.initiative;
+		int speed = entity.getSpeed();
+		if (initiative == null || speed == entity.scheduledSpeed) {
+			return;
+		}
+
+		long timeLeft = entity.nextActionTime - initiative.time;
+		entity.nextActionTime = initiative.time + timeLeft * entity.scheduledSpeed / speed;
+		entity.scheduledSpeed = speed;
+		initiative.reorder(entity.initiativeIndex);
+	}
+
+	/**
+	 * Move the entity at the given index up or down the heap, to wherever it
+	 * belongs now.
+	 */
+	private void reorder(int index) {
+		Entity entity = heap[index];
+		siftUp(index);
+		if (heap[index] == entity) {
+			siftDown(index);
+		}
+	}
+
+	private void siftUp(int index) {
+		Entity entity = heap[index];
+		while (index > 0) {
+			int parentIndex = (index - 1) / 2;
+			Entity parent = heap[parentIndex];
+			if (!actsBefore(entity, parent)) {
+				break;
+			}
+			heap[index] = parent;
+			parent.initiativeIndex = index;
+			index = parentIndex;
+		}
+		heap[index] = entity;
+		entity.initiativeIndex = index;
+	}
+
+	private void siftDown(int index) {
+		Entity entity = heap[index];
+		while (true) {
+			int childIndex = 2 * index + 1;
+			if (childIndex >= size) {
+				break;
+			}
+			if (childIndex + 1 < size && actsBefore(heap[childIndex + 1], heap[childIndex])) {
+				++childIndex;
+			}
+			Entity child = heap[childIndex];
+			if (!actsBefore(child, entity)) {
+				break;
+			}
+			heap[index] = child;
+			child.initiativeIndex = index;
+			index = childIndex;
+		}
+		heap[index] = entity;
+		entity.initiativeIndex = index;
+	}
+
+	private static boolean actsBefore(Entity first, Entity second) {
+		if (first.nextActionTime != second.nextActionTime) {
+			return first.nextActionTime < second.nextActionTime;
+		}
+		return first.initiativeOrder < second.initiativeOrder;
+	}
+}
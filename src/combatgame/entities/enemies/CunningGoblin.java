@@ -0,0 +1,42 @@
+package combatgame.entities.enemies;
+
+import combatgame.learning.EnemyTactics;
+import combatgame.learning.Policy;
+
+/**
+ * A {@link CunningGoblin} wasn't told how to fight: it learned by fighting
+ * thousands of players (see {@link combatgame.learning.QLearningTrainer}). It
+ * chooses between a normal attack, a heavy attack that tires it out, and
+ * stepping back to recover (see {@link EnemyTactics}), depending on how the
+ * fight is going.
+ *
+ * To teach it again, e.g. after changing its stats, run the game with
+ * {@code --train} and paste the policy it prints into {@link #POLICY}.
+ */
+public class CunningGoblin extends Enemy {
+	private static final String DEFAULT_NAME = "cunning goblin";
+
+	private static final int DEFAULT_STARTING_HEALTH = 8;
+
+	private static final int DEFAULT_ATTACK_POWER = 2;
+
+	/**
+	 * What cunning goblins learned to do in each state, one digit per state.
+	 */
+	public static final Policy POLICY = Policy.parse(
+			"0122110211220122012221221120112010221122102222221122222211202220"
+					+ "1000112001200021222222221120202000001020000000221010002210200110");
+
+	/**
+	 * The definition shared by every cunning goblin.
+	 */
+	public static final EnemyDefinition DEFINITION = EnemyDefinition.intern(DEFAULT_NAME, DEFAULT_STARTING_HEALTH,
+			DEFAULT_ATTACK_POWER, POLICY);
+
+	/**
+	 * Create a new CunningGoblin.
+	 */
+	public CunningGoblin() {
+		super(DEFINITION);
+	}
+}
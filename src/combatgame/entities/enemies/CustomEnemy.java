@@ -0,0 +1,34 @@
+package combatgame.entities.enemies;
+
+import combatgame.player.Player;
+
+/**
+ * A {@link CustomEnemy} is an {@link Enemy} that decides what to do on its turn
+ * by itself, in {@link #act(Player)}, instead of sharing an
+ * {@link EnemyBehavior} with every other enemy of its kind. Its definition is
+ * made just for it, and is not interned.
+ */
+public abstract class CustomEnemy extends Enemy {
+	/**
+	 * The behavior of every custom enemy: to ask the enemy itself.
+	 */
+	private static final EnemyBehavior BEHAVIOR = (enemy, player) -> ((CustomEnemy)enemy).act(player);
+
+	/**
+	 * Create a new CustomEnemy with the given name and amount of starting health.
+	 *
+	 * @param name           The name of this Enemy.
+	 * @param startingHealth The amount of health this Enemy starts with.
+	 */
+	protected CustomEnemy(String name, int startingHealth) {
+		super(EnemyDefinition.custom(name, startingHealth, BEHAVIOR));
+	}
+
+	/**
+	 * Perform a combat action against the given Player. This is only called when
+	 * the enemy is able to act, e.g. not while it is stunned.
+	 *
+	 * @param player The Player that this Enemy is in combat with.
+	 */
+	protected abstract void act(Player player);
+}
@@ -0,0 +1,338 @@
+package combatgame.entities.enemies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeMap;
+
+import combatgame.effects.EffectScheduler;
+import combatgame.entities.Initiative;
+import combatgame.events.CombatEventSink;
+import combatgame.events.NullEventSink;
+
+/**
+ * An {@link Encounter} is a group of enemies that the player fights all at
+ * once, from a single goblin up to a horde of thousands. The enemies stand in a
+ * line, numbered by position in the order they arrived. When they act is up to
+ * the {@link Initiative} they are given, which is shared with the player.
+ *
+ * The encounter keeps its enemies indexed two ways, so that the questions the
+ * game asks every turn don't get slower as the horde gets bigger:
+ *
+ * <ul>
+ * <li>By health, in a heap, for {@link #getWeakestEnemy()}. A heap only keeps
+ * the weakest enemy at the top, and each enemy knows where it is in the heap,
+ * so a change in health only moves that enemy a few places up or down.</li>
+ * <li>By position, in a sorted map, for {@link #getEnemiesWithin}.</li>
+ * </ul>
+ *
+ * Enemies that leave the encounter lose their status effects.
+ *
+ * Enemies that die are not taken out straight away, because that could happen
+ * in the middle of an attack that hits several of them. Instead, they are
+ * taken out by {@link #removeDefeated()}.
+ */
+public class Encounter {
+	/**
+	 * The enemies that are still in the encounter, arranged as a heap so the
+	 * enemy with the least health is at index 0. The enemies at indexes
+	 * {@code 2i + 1} and {@code 2i + 2} never have less health than the enemy at
+	 * index {@code i}.
+	 */
+	private Enemy[] heap = new Enemy[4];
+
+	/**
+	 * The number of enemies in {@link #heap}.
+	 */
+	private int enemyCount;
+
+	/**
+	 * The enemies that are still in the encounter, by position.
+	 */
+	private final TreeMap<Integer, Enemy> enemiesByPosition = new TreeMap<>();
+
+	/**
+	 * Enemies that have died but have not been taken out yet.
+	 */
+	private final ArrayList<Enemy> defeatedEnemies = new ArrayList<>();
+
+	/**
+	 * The position the next enemy to arrive will stand at.
+	 */
+	private int nextPosition;
+
+	/**
+	 * Where enemies in this encounter report the things that happen to them.
+	 */
+	private CombatEventSink eventSink = NullEventSink.INSTANCE;
+
+	/**
+	 * Keeps track of the status effects on enemies in this encounter, or null to
+	 * leave each enemy to keep track of its own.
+	 */
+	private EffectScheduler effectScheduler;
+
+	/**
+	 * Decides when enemies in this encounter act, or null if nobody is keeping
+	 * track.
+	 */
+	private Initiative initiative;
+
+	/**
+	 * Bring an enemy into the encounter. It takes the next position along the
+	 * line, and joins the initiative.
+	 *
+	 * @param enemy The enemy. It must not be in an encounter already.
+	 */
+	public void add(Enemy enemy) {
+		if (enemy.encounter != null) {
+			throw new IllegalArgumentException("The " + enemy.name + " is already in an encounter");
+		}
+
+		enemy.setEventSink(eventSink);
+		eventSink.enemyEncountered(enemy);
+		if (enemy.isDead()) {
+			// There's nothing to fight.
+			return;
+		}
+
+		enemy.encounter = this;
+		enemy.position = nextPosition++;
+		if (effectScheduler != null) {
+			enemy.getEffects().setScheduler(effectScheduler);
+		}
+
+		if (enemyCount == heap.length) {
+			heap = Arrays.copyOf(heap, enemyCount * 2);
+		}
+		heap[enemyCount] = enemy;
+		enemy.heapIndex = enemyCount;
+		++enemyCount;
+		siftUp(enemy.heapIndex);
+
+		enemiesByPosition.put(enemy.position, enemy);
+
+		if (initiative != null) {
+			initiative.add(enemy);
+		}
+	}
+
+	/**
+	 * Get the number of enemies still in the encounter.
+	 *
+	 * @return The number of enemies.
+	 */
+	public int size() {
+		return enemyCount;
+	}
+
+	/**
+	 * Check whether every enemy has been taken out of the encounter.
+	 *
+	 * @return True if there are no enemies left.
+	 */
+	public boolean isEmpty() {
+		return enemyCount == 0;
+	}
+
+	/**
+	 * Get the enemy with the least health. If several enemies are tied, this is
+	 * the one nearest the front of the line.
+	 *
+	 * @return The weakest enemy, or null if the encounter is empty.
+	 */
+	public Enemy getWeakestEnemy() {
+		return enemyCount == 0 ? null : heap[0];
+	}
+
+	/**
+	 * Get every enemy standing within some distance of another one, including the
+	 * enemy itself, e.g. everyone caught in an explosion. The result is a live
+	 * view, so it must not be kept after {@link #removeDefeated()}.
+	 *
+	 * @param center The enemy in the middle.
+	 * @param radius The number of positions to either side to include.
+	 * @return The enemies, in order of position.
+	 */
+	public Collection<Enemy> getEnemiesWithin(Enemy center, int radius) {
+		if (center.encounter != this) {
+			return Collections.emptyList();
+		}
+
+		int from = (int)Math.max(Integer.MIN_VALUE, (long)center.position - radius);
+		int to = (int)Math.min(Integer.MAX_VALUE, (long)center.position + radius);
+		return enemiesByPosition.subMap(from, true, to, true).values();
+	}
+
+	/**
+	 * Take every enemy that has died out of the encounter, and report their
+	 * defeat.
+	 *
+	 * @return The number of enemies taken out.
+	 */
+	public int removeDefeated() {
+		int removed = defeatedEnemies.size();
+		for (int i = 0; i < removed; ++i) {
+			Enemy enemy = defeatedEnemies.get(i);
+			remove(enemy);
+			eventSink.enemyDefeated(enemy);
+		}
+		defeatedEnemies.clear();
+		return removed;
+	}
+
+	/**
+	 * Change where enemies in this encounter report the things that happen to
+	 * them, including enemies that are already here.
+	 *
+	 * @param eventSink Where to report from now on.
+	 */
+	public void setEventSink(CombatEventSink eventSink) {
+		this.eventSink = eventSink;
+		for (int i = 0; i < enemyCount; ++i) {
+			heap[i].setEventSink(eventSink);
+		}
+	}
+
+	/**
+	 * Change which scheduler keeps track of the status effects on enemies in this
+	 * encounter, including enemies that are already here.
+	 *
+	 * @param effectScheduler The scheduler, which is usually shared with the
+	 *                        player.
+	 */
+	public void setEffectScheduler(EffectScheduler effectScheduler) {
+		this.effectScheduler = effectScheduler;
+		for (int i = 0; i < enemyCount; ++i) {
+			heap[i].getEffects().setScheduler(effectScheduler);
+		}
+	}
+
+	/**
+	 * Change what decides when enemies in this encounter act. Enemies that are
+	 * already here are moved from the old initiative to the new one.
+	 *
+	 * @param initiative The initiative, which is usually shared with the player.
+	 */
+	public void setInitiative(Initiative initiative) {
+		for (Enemy enemy : enemiesByPosition.values()) {
+			if (this.initiative != null) {
+				this.initiative.remove(enemy);
+			}
+			initiative.add(enemy);
+		}
+		this.initiative = initiative;
+	}
+
+	/**
+	 * Take every enemy out of the encounter, dead or alive. Their status effects
+	 * are removed.
+	 */
+	public void clear() {
+		while (enemyCount > 0) {
+			remove(heap[enemyCount - 1]);
+		}
+		defeatedEnemies.clear();
+		nextPosition = 0;
+	}
+
+	/**
+	 * Called by an {@link Enemy} in this encounter whenever its health changes.
+	 *
+	 * @param enemy The enemy.
+	 */
+	void healthChanged(Enemy enemy) {
+		int index = enemy.heapIndex;
+		siftUp(index);
+		if (heap[index] == enemy) {
+			siftDown(index);
+		}
+
+		if (enemy.isDead() && !enemy.isDefeated) {
+			enemy.isDefeated = true;
+			defeatedEnemies.add(enemy);
+		}
+	}
+
+	private void remove(Enemy enemy) {
+		// Move the last enemy in the heap into the gap, and put it in order.
+		int index = enemy.heapIndex;
+		Enemy last = heap[--enemyCount];
+		heap[enemyCount] = null;
+		if (last != enemy) {
+			heap[index] = last;
+			last.heapIndex = index;
+			siftUp(index);
+			if (heap[index] == last) {
+				siftDown(index);
+			}
+		}
+
+		enemiesByPosition.remove(enemy.position);
+		if (initiative != null) {
+			initiative.remove(enemy);
+		}
+
+		enemy.encounter = null;
+		enemy.heapIndex = -1;
+		enemy.isDefeated = false;
+
+		// An enemy's effects only last as long as the fight.
+		enemy.getEffects().clear();
+
+		if (enemyCount == 0) {
+			nextPosition = 0;
+		}
+	}
+
+	private void siftUp(int index) {
+		Enemy enemy = heap[index];
+		while (index > 0) {
+			int parentIndex = (index - 1) / 2;
+			Enemy parent = heap[parentIndex];
+			if (!isWeaker(enemy, parent)) {
+				break;
+			}
+			heap[index] = parent;
+			parent.heapIndex = index;
+			index = parentIndex;
+		}
+		heap[index] = enemy;
+		enemy.heapIndex = index;
+	}
+
+	private void siftDown(int index) {
+		Enemy enemy = heap[index];
+		while (true) {
+			int childIndex = 2 * index + 1;
+			if (childIndex >= enemyCount) {
+				break;
+			}
+			if (childIndex + 1 < enemyCount && isWeaker(heap[childIndex + 1], heap[childIndex])) {
+				++childIndex;
+			}
+			Enemy child = heap[childIndex];
+			if (!isWeaker(child, enemy)) {
+				break;
+			}
+			heap[index] = child;
+			child.heapIndex = index;
+			index = childIndex;
+		}
+		heap[index] = enemy;
+		enemy.heapIndex = index;
+	}
+
+	/**
+	 * Should the first enemy come before the second in the heap? Enemies with the
+	 * same health are ordered by position, so the weakest enemy is always the
+	 * same one no matter what order things happened in.
+	 */
+	private static boolean isWeaker(Enemy first, Enemy second) {
+		if (first.getHealth() != second.getHealth()) {
+			return first.getHealth() < second.getHealth();
+		}
+		return first.position < second.position;
+	}
+}
@@ -1,42 +1,138 @@
 package combatgame.entities.enemies;
 
+import combatgame.effects.Status;
 import combatgame.entities.Entity;
 import combatgame.player.Player;
 
 // TODO: Create your own custom Enemy subclasses in separate files. You can use
-// the Goblin and RagingGoblin classes as examples.
+// the Goblin and RagingGoblin classes as examples, or extend CustomEnemy for an
+// enemy that decides what to do by itself.
 
 /**
  * The {@link Enemy} class represents an opponent that can be fought by the
- * player in the combat game. Each subclass determines its own action to take
- * when it is its turn.
+ * player in the combat game. What kind of enemy it is comes from its
+ * {@link EnemyDefinition}, which is shared with every other enemy of the same
+ * kind. The Enemy itself only keeps track of what changes during a fight.
  */
-public abstract class Enemy extends Entity {
+public class Enemy extends Entity {
 	/**
-	 * Protected constructor, called by subclasses to initialize this Enemy.
+	 * What kind of enemy this is.
+	 */
+	private final EnemyDefinition definition;
+
+	/**
+	 * The following fields belong to the {@link Encounter} this Enemy is in, if
+	 * any. They let the encounter find this Enemy in its indexes straight away.
+	 */
+	Encounter encounter;
+
+	int position;
+
+	int heapIndex = -1;
+
+	boolean isDefeated;
+
+	/**
+	 * Create a new Enemy with the given definition. Usually you would call
+	 * {@link EnemyDefinition#spawn()} instead.
 	 *
-	 * @param name           The name of this Enemy.
-	 * @param startingHealth The amount of health this Enemy starts with.
+	 * @param definition What kind of enemy this is.
 	 */
-	protected Enemy(String name, int startingHealth) {
-		super(name, startingHealth);
+	public Enemy(EnemyDefinition definition) {
+		super(definition.name, definition.startingHealth);
+		this.definition = definition;
+		setBaseSpeed(definition.speed);
 	}
 
 	/**
 	 * Tell this Enemy to perform a combat action against the given Player. This
 	 * could be the same action every time, or it could change depending on the
-	 * circumstance.
+	 * circumstance. A stunned Enemy loses its turn instead.
 	 *
 	 * @param player The Player that this Enemy is in combat with.
 	 */
-	public abstract void performCombatAction(Player player);
+	public void performCombatAction(Player player) {
+		if (getEffects().has(Status.STUNNED)) {
+			getEventSink().turnSkipped(this);
+			return;
+		}
+		definition.behavior.performCombatAction(this, player);
+	}
+
+	/**
+	 * Put this Enemy back the way it was when it was created, so it can be fought
+	 * again.
+	 */
+	public void reset() {
+		if (encounter != null) {
+			throw new IllegalStateException("The " + name + " can't be reset in the middle of an encounter");
+		}
+		setHealth(definition.startingHealth);
+		setBaseSpeed(definition.speed);
+		getEffects().clear();
+	}
+
+	/**
+	 * Get the encounter this Enemy is in.
+	 *
+	 * @return The encounter, or null if this Enemy is not in one.
+	 */
+	public Encounter getEncounter() {
+		return encounter;
+	}
 
 	/**
-	 * Overridden method that prints a description of the damage being taken.
+	 * Get the definition of this Enemy.
+	 *
+	 * @return What kind of enemy this is.
+	 */
+	public EnemyDefinition getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * Get the amount of damage this Enemy deals per attack, including any bonus
+	 * from its status effects and its offense.
+	 *
+	 * @return The attack power of this Enemy.
+	 */
+	public int getAttackPower() {
+		return getOffense().apply(definition.attackPower + getEffects().getAttackBonus());
+	}
+
+	/**
+	 * Check if this Enemy is too tired to attack (see
+	 * {@link combatgame.effects.Exhaustion}).
+	 *
+	 * @return True if this Enemy is tired, false otherwise.
+	 */
+	public boolean isTired() {
+		return getEffects().has(Status.EXHAUSTED);
+	}
+
+	/**
+	 * Overridden method that puts the damage through this Enemy's defense and
+	 * reports it.
 	 */
 	@Override
 	public void takeDamage(int damageAmount) {
-		System.out.println(String.format("The %s takes %d damage.", name, damageAmount));
+		damageAmount = getDefense().apply(damageAmount);
+		getEventSink().damageTaken(this, damageAmount, 0);
 		super.takeDamage(damageAmount);
+		if (encounter != null) {
+			encounter.healthChanged(this);
+		}
+	}
+
+	/**
+	 * Overridden method that reports the health being restored.
+	 */
+	@Override
+	public void restoreHealth(int healAmount) {
+		getEventSink().healed(this, healAmount);
+		super.restoreHealth(healAmount);
+		if (encounter != null) {
+			encounter.healthChanged(this);
+		}
 	}
 }
@@ -0,0 +1,20 @@
+package combatgame.entities.enemies;
+
+import combatgame.player.Player;
+
+/**
+ * An {@link EnemyBehavior} decides what an {@link Enemy} does when it is its
+ * turn. Behaviors must not keep any state of their own, because one behavior is
+ * shared by every enemy of the same kind. Anything an enemy needs to remember
+ * between turns belongs in the {@link Enemy} itself.
+ */
+@FunctionalInterface
+public interface EnemyBehavior {
+	/**
+	 * Perform a combat action against the given Player.
+	 *
+	 * @param enemy  The Enemy whose turn it is.
+	 * @param player The Player that the Enemy is in combat with.
+	 */
+	void performCombatAction(Enemy enemy, Player player);
+}
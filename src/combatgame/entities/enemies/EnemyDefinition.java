@@ -0,0 +1,177 @@
+package combatgame.entities.enemies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+import combatgame.entities.Initiative;
+
+/**
+ * An {@link EnemyDefinition} describes a kind of enemy: its name, how much
+ * health it starts with, how hard it hits, how fast it is and how it behaves.
+ * Definitions never change, so a single definition can be shared by every game
+ * that uses it.
+ *
+ * To fight an enemy, {@link #spawn()} a new {@link Enemy} from its definition.
+ * The {@link Enemy} keeps track of everything that changes during a fight, and
+ * can be {@link Enemy#reset() reset} to fight again.
+ *
+ * Definitions are interned: asking for the same definition twice returns the
+ * same object, and each definition gets a small id number.
+ */
+public final class EnemyDefinition {
+	/**
+	 * Every interned definition, by id.
+	 */
+	private static final ArrayList<EnemyDefinition> definitionsById = new ArrayList<>();
+
+	/**
+	 * Every interned definition, so that equal definitions can be found.
+	 */
+	private static final HashMap<EnemyDefinition, EnemyDefinition> internedDefinitions = new HashMap<>();
+
+	/**
+	 * The id of this definition, or -1 if it has not been interned.
+	 */
+	public final int id;
+
+	/**
+	 * The name of enemies with this definition.
+	 */
+	public final String name;
+
+	/**
+	 * The amount of health enemies with this definition start with.
+	 */
+	public final int startingHealth;
+
+	/**
+	 * The base amount of damage enemies with this definition deal per attack.
+	 */
+	public final int attackPower;
+
+	/**
+	 * How fast enemies with this definition are (see {@link Initiative}).
+	 */
+	public final int speed;
+
+	/**
+	 * What enemies with this definition do on their turn.
+	 */
+	public final EnemyBehavior behavior;
+
+	private EnemyDefinition(int id, String name, int startingHealth, int attackPower, int speed,
+			EnemyBehavior behavior) {
+		this.id = id;
+		this.name = name;
+		this.startingHealth = startingHealth;
+		this.attackPower = attackPower;
+		this.speed = speed;
+		this.behavior = Objects.requireNonNull(behavior, "behavior");
+	}
+
+	/**
+	 * Get the interned definition with the given values, for an enemy with
+	 * {@link Initiative#NORMAL_SPEED}, creating it if this is the first time it
+	 * has been asked for.
+	 *
+	 * @param name           The name of the enemy.
+	 * @param startingHealth The amount of health the enemy starts with.
+	 * @param attackPower    The base amount of damage the enemy deals per attack.
+	 * @param behavior       What the enemy does on its turn.
+	 * @return The definition.
+	 */
+	public static EnemyDefinition intern(String name, int startingHealth, int attackPower, EnemyBehavior behavior) {
+		return intern(name, startingHealth, attackPower, Initiative.NORMAL_SPEED, behavior);
+	}
+
+	/**
+	 * Get the interned definition with the given values, creating it if this is
+	 * the first time it has been asked for.
+	 *
+	 * @param name           The name of the enemy.
+	 * @param startingHealth The amount of health the enemy starts with.
+	 * @param attackPower    The base amount of damage the enemy deals per attack.
+	 * @param speed          How fast the enemy is.
+	 * @param behavior       What the enemy does on its turn.
+	 * @return The definition.
+	 * @throws NullPointerException If the behavior is null.
+	 */
+	public static synchronized EnemyDefinition intern(String name, int startingHealth, int attackPower, int speed,
+			EnemyBehavior behavior) {
+		EnemyDefinition key = new EnemyDefinition(-1, name, startingHealth, attackPower, speed, behavior);
+		EnemyDefinition definition = internedDefinitions.get(key);
+		if (definition == null) {
+			definition = new EnemyDefinition(definitionsById.size(), name, startingHealth, attackPower, speed,
+					behavior);
+			definitionsById.add(definition);
+			internedDefinitions.put(definition, definition);
+		}
+		return definition;
+	}
+
+	/**
+	 * Get the interned definition with the given id.
+	 *
+	 * @param id The id of the definition.
+	 * @return The definition.
+	 * @throws IllegalArgumentException If no definition has that id.
+	 */
+	public static synchronized EnemyDefinition byId(int id) {
+		if (id < 0 || id >= definitionsById.size()) {
+			throw new IllegalArgumentException("Unknown enemy definition: " + id);
+		}
+		return definitionsById.get(id);
+	}
+
+	/**
+	 * Create a definition for a {@link CustomEnemy}, which decides what to do by
+	 * itself. These definitions are not interned.
+	 */
+	static EnemyDefinition custom(String name, int startingHealth, EnemyBehavior behavior) {
+		return new EnemyDefinition(-1, name, startingHealth, 0, Initiative.NORMAL_SPEED, behavior);
+	}
+
+	/**
+	 * Create a stronger (or weaker) version of this definition, with the same
+	 * name, speed and behavior. The new definition is not interned, so it can be
+	 * thrown away when it is no longer needed.
+	 *
+	 * @param startingHealth The amount of health the enemy starts with.
+	 * @param attackPower    The base amount of damage the enemy deals per attack.
+	 * @return The new definition.
+	 */
+	public EnemyDefinition withStats(int startingHealth, int attackPower) {
+		return new EnemyDefinition(-1, name, startingHealth, attackPower, speed, behavior);
+	}
+
+	/**
+	 * Create a new enemy with this definition, ready to fight.
+	 *
+	 * @return The new enemy.
+	 */
+	public Enemy spawn() {
+		return new Enemy(this);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof EnemyDefinition)) {
+			return false;
+		}
+		EnemyDefinition definition = (EnemyDefinition)other;
+		return name.equals(definition.name) && startingHealth == definition.startingHealth
+				&& attackPower == definition.attackPower && speed == definition.speed
+				&& behavior == definition.behavior;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, startingHealth, attackPower, speed, System.identityHashCode(behavior));
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,122 @@
+package combatgame.entities.enemies;
+
+/**
+ * An {@link EnemySource} hands out the enemies for a game one at a time, as
+ * the player reaches them. The enemies don't have to exist before they are
+ * needed, so a source can be endless, e.g. the waves of an arena.
+ *
+ * A source is used up as it goes, so each game needs its own.
+ */
+@FunctionalInterface
+public interface EnemySource {
+	/**
+	 * Get the next enemy for the player to fight.
+	 *
+	 * @return The next enemy, or null if there are no more.
+	 */
+	Enemy next();
+
+	/**
+	 * Bring the next group of enemies for the player to fight all at once into an
+	 * encounter. By default, each enemy is fought on its own.
+	 *
+	 * @param encounter The encounter to add the enemies to. It is empty.
+	 * @return True if any enemies were added, false if there are no more.
+	 */
+	default boolean nextEncounter(Encounter encounter) {
+		Enemy enemy = next();
+		if (enemy == null) {
+			return false;
+		}
+		encounter.add(enemy);
+		return true;
+	}
+
+	/**
+	 * Create a source that hands out the given enemies, in order.
+	 *
+	 * @param enemies The enemies.
+	 * @return The new source.
+	 */
+	static EnemySource of(Enemy[] enemies) {
+		return new EnemySource() {
+			private int index = 0;
+
+			@Override
+			public Enemy next() {
+				return index < enemies.length ? enemies[index++] : null;
+			}
+		};
+	}
+
+	/**
+	 * Create a source that spawns groups of enemies to be fought all at once, e.g.
+	 * a horde of goblins.
+	 *
+	 * @param groups The kinds of enemies in each group, one group at a time.
+	 * @return The new source.
+	 */
+	static EnemySource groups(EnemyDefinition[][] groups) {
+		return new EnemySource() {
+			private int groupIndex = 0;
+
+			private int enemyIndex = 0;
+
+			@Override
+			public Enemy next() {
+				while (groupIndex < groups.length) {
+					if (enemyIndex < groups[groupIndex].length) {
+						return groups[groupIndex][enemyIndex++].spawn();
+					}
+					++groupIndex;
+					enemyIndex = 0;
+				}
+				return null;
+			}
+
+			@Override
+			public boolean nextEncounter(Encounter encounter) {
+				if (groupIndex == groups.length) {
+					return false;
+				}
+				EnemyDefinition[] group = groups[groupIndex++];
+				for (int i = enemyIndex; i < group.length; ++i) {
+					encounter.add(group[i].spawn());
+				}
+				enemyIndex = 0;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Create a source that spawns an enemy from each of the given definitions, in
+	 * order. When two enemies in a row have the same definition, the first one is
+	 * reset and handed out again instead of spawning a new one.
+	 *
+	 * @param definitions The kinds of enemies.
+	 * @return The new source.
+	 */
+	static EnemySource spawning(EnemyDefinition[] definitions) {
+		return new EnemySource() {
+			private int index = 0;
+
+			private Enemy spawnedEnemy = null;
+
+			@Override
+			public Enemy next() {
+				if (index == definitions.length) {
+					return null;
+				}
+
+				EnemyDefinition definition = definitions[index++];
+				if (spawnedEnemy != null && spawnedEnemy.getDefinition() == definition) {
+					spawnedEnemy.reset();
+				} else {
+					spawnedEnemy = definition.spawn();
+				}
+				return spawnedEnemy;
+			}
+		};
+	}
+}
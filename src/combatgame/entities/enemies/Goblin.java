@@ -13,19 +13,25 @@ public class Goblin extends Enemy {
 
 	private static final int DEFAULT_ATTACK_POWER = 2;
 
+	private static final String ATTACK_DESCRIPTION = "The %s swings its mace at you!";
+
+	/**
+	 * How goblins behave: they swing their mace every turn.
+	 */
+	public static final EnemyBehavior BEHAVIOR = Goblin::attack;
+
 	/**
-	 * The amount of damage this goblin deals per attack.
+	 * The definition shared by every goblin.
 	 */
-	private int attackPower;
+	public static final EnemyDefinition DEFINITION = EnemyDefinition.intern(DEFAULT_NAME, DEFAULT_STARTING_HEALTH,
+			DEFAULT_ATTACK_POWER, BEHAVIOR);
 
 	public Goblin() {
-		super(DEFAULT_NAME, DEFAULT_STARTING_HEALTH);
-		this.attackPower = DEFAULT_ATTACK_POWER;
+		super(DEFINITION);
 	}
 
-	@Override
-	public void performCombatAction(Player player) {
-		System.out.println(String.format("The %s swings its mace at you!", name));
-		player.takeDamage(attackPower);
+	private static void attack(Enemy goblin, Player player) {
+		goblin.getEventSink().enemyActed(goblin, ATTACK_DESCRIPTION);
+		player.takeDamage(goblin.getAttackPower());
 	}
 }
@@ -1,5 +1,7 @@
 package combatgame.entities.enemies;
 
+import combatgame.effects.Exhaustion;
+import combatgame.effects.StatusEffect;
 import combatgame.player.Player;
 
 /**
@@ -14,35 +16,40 @@ public class RagingGoblin extends Enemy {
 
 	private static final int DEFAULT_ATTACK_POWER = 2;
 
+	private static final String TIRED_DESCRIPTION = "The %s is too exhausted to attack.";
+
+	private static final String ATTACK_DESCRIPTION = "The %s wildly attacks you with its claws!";
+
+	private static final String EXHAUSTED_DESCRIPTION = "The %s looks exhausted...";
+
 	/**
-	 * The base amount of damage this raging goblin deals per attack.
+	 * How raging goblins behave: one frenzied attack for double damage, and then
+	 * they are too tired to do anything else.
 	 */
-	private int attackPower;
+	public static final EnemyBehavior BEHAVIOR = RagingGoblin::frenzy;
 
 	/**
-	 * Is this raging goblin tired or not?
+	 * The definition shared by every raging goblin.
 	 */
-	private boolean isTired;
+	public static final EnemyDefinition DEFINITION = EnemyDefinition.intern(DEFAULT_NAME, DEFAULT_STARTING_HEALTH,
+			DEFAULT_ATTACK_POWER, BEHAVIOR);
 
 	/**
 	 * Create a new RagingGoblin.
 	 */
 	public RagingGoblin() {
-		super(DEFAULT_NAME, DEFAULT_STARTING_HEALTH);
-		this.attackPower = DEFAULT_ATTACK_POWER;
-		this.isTired = false;
+		super(DEFINITION);
 	}
 
-	@Override
-	public void performCombatAction(Player player) {
-		if (isTired) {
-			System.out.println(String.format("The %s is too exhausted to attack.", name));
+	private static void frenzy(Enemy ragingGoblin, Player player) {
+		if (ragingGoblin.isTired()) {
+			ragingGoblin.getEventSink().enemyActed(ragingGoblin, TIRED_DESCRIPTION);
 		} else {
-			int damageAmount = attackPower * 2;
-			System.out.println(String.format("The %s wildly attacks you with its claws!", name));
+			int damageAmount = ragingGoblin.getAttackPower() * 2;
+			ragingGoblin.getEventSink().enemyActed(ragingGoblin, ATTACK_DESCRIPTION);
 			player.takeDamage(damageAmount);
-			isTired = true;
-			System.out.println(String.format("The %s looks exhausted...", name));
+			ragingGoblin.getEffects().apply(Exhaustion.INSTANCE, 0, StatusEffect.PERMANENT);
+			ragingGoblin.getEventSink().enemyActed(ragingGoblin, EXHAUSTED_DESCRIPTION);
 		}
 	}
 }
@@ -0,0 +1,759 @@
+package combatgame.events;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import combatgame.effects.Status;
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.Item;
+import combatgame.player.Player;
+
+/**
+ * An {@link AnsiRenderer} shows the game as a full screen in the terminal,
+ * instead of as a stream of messages. The top of the screen has a health bar
+ * for the player and the enemy they are fighting, the middle is a log of the
+ * latest messages (the same ones a {@link TerminalRenderer} prints), and the
+ * bottom is a prompt line for the player's choices:
+ *
+ * <pre>
+ * Bob                  [##############################] 10/10
+ * goblin               [###############...............] 2/4
+ * --------------------------------------------------------------
+ * You swing your sword at the goblin!
+ * The goblin takes 2 damage.
+ * ...
+ * --------------------------------------------------------------
+ * 0 Attack  1 Defend  2 Use an item  3 Run away > _
+ * </pre>
+ *
+ * Redrawing the whole screen every turn would send far more text than printing
+ * messages does, which is slow over a remote connection. Instead, the renderer
+ * keeps two copies of the screen: what the terminal is showing now, and what
+ * it should show next. When it is time to draw (see {@link #flush()}), it
+ * compares the two and only sends the characters that changed, moving the
+ * cursor to them with whichever ANSI escape code is shortest. The log is set up
+ * as the terminal's scrolling region for the whole game, so new log lines are
+ * scrolled in by the terminal itself and the old ones don't have to be sent
+ * again. Everything for one frame is sent with a single write.
+ *
+ * The renderer assumes it has the whole terminal to itself, and that the
+ * terminal is at least as big as the screen it was given.
+ */
+public class AnsiRenderer implements CombatEventSink {
+	/**
+	 * The number of characters on each line given to an entity's name, before its
+	 * health bar.
+	 */
+	private static final int NAME_WIDTH = 20;
+
+	/**
+	 * The number of characters in a full health bar.
+	 */
+	private static final int BAR_WIDTH = 30;
+
+	/**
+	 * The smallest screen the layout fits on: a name, a health bar with room for
+	 * the numbers after it, and a log with a few lines.
+	 */
+	public static final int MIN_WIDTH = NAME_WIDTH + BAR_WIDTH + 16, MIN_HEIGHT = 8;
+
+	/**
+	 * Starts every ANSI control sequence.
+	 */
+	private static final String CSI = "\033[";
+
+	/**
+	 * When two changes on a line are this close together, it is no more expensive
+	 * to send the unchanged characters between them than to move the cursor over
+	 * them.
+	 */
+	private static final int MAX_GAP = 4;
+
+	/**
+	 * Every status, and how it is shown next to a health bar.
+	 */
+	private static final Status[] STATUSES = Status.values();
+
+	private static final String[] STATUS_LABELS = new String[STATUSES.length];
+
+	static {
+		for (int i = 0; i < STATUSES.length; ++i) {
+			STATUS_LABELS[i] = STATUSES[i].name().toLowerCase();
+		}
+	}
+
+	/**
+	 * Where the screen is drawn.
+	 */
+	private final Writer out;
+
+	/**
+	 * The size of the screen.
+	 */
+	private final int width, height;
+
+	/**
+	 * The first and last lines of the message log.
+	 */
+	private final int logTop, logBottom;
+
+	/**
+	 * The line the player types their choices on. The line below it is left
+	 * empty, so that pressing enter doesn't scroll the screen.
+	 */
+	private final int promptLine;
+
+	/**
+	 * What the terminal is showing, one array of characters per line.
+	 */
+	private final char[][] shown;
+
+	/**
+	 * What the terminal should show after the next frame.
+	 */
+	private final char[][] wanted;
+
+	/**
+	 * Turns events into messages for the log. Its output is split into lines by
+	 * {@link #logWriter}.
+	 */
+	private final TerminalRenderer messages;
+
+	private final LogWriter logWriter;
+
+	/**
+	 * The control codes and characters for the frame being drawn.
+	 */
+	private final StringBuilder frame = new StringBuilder(1024);
+
+	/**
+	 * The number of lines the log has moved up since the last frame.
+	 */
+	private int pendingScroll;
+
+	/**
+	 * Where the terminal's cursor is, or -1 if we don't know.
+	 */
+	private int cursorLine = -1, cursorColumn = -1;
+
+	/**
+	 * Has the screen been cleared yet?
+	 */
+	private boolean started;
+
+	/**
+	 * Is the terminal's scrolling region limited to the log?
+	 */
+	private boolean scrollRegionSet;
+
+	/**
+	 * Is the game over?
+	 */
+	private boolean ended;
+
+	/**
+	 * The length of the prompt that is waiting for the player, or -1 if nothing
+	 * is being asked.
+	 */
+	private int promptLength = -1;
+
+	private Player player;
+
+	/**
+	 * The highest health the player has had, which is a full health bar.
+	 */
+	private int playerMaxHealth;
+
+	/**
+	 * The enemy the player is fighting, or null if there isn't one.
+	 */
+	private Enemy enemy;
+
+	/**
+	 * The number of enemies that have been encountered but not defeated yet.
+	 */
+	private int enemiesLeft;
+
+	/**
+	 * Construct a new {@link AnsiRenderer}.
+	 *
+	 * @param out    Where to draw the screen.
+	 * @param width  The number of characters across the screen.
+	 * @param height The number of lines on the screen.
+	 * @throws IllegalArgumentException If the screen is too small for the layout.
+	 */
+	public AnsiRenderer(Writer out, int width, int height) {
+		if (width < MIN_WIDTH || height < MIN_HEIGHT) {
+			throw new IllegalArgumentException(
+					"The screen must be at least " + MIN_WIDTH + "x" + MIN_HEIGHT + ": " + width + "x" + height);
+		}
+
+		this.out = out;
+		this.width = width;
+		this.height = height;
+		this.logTop = 3;
+		this.logBottom = height - 4;
+		this.promptLine = height - 2;
+		this.shown = new char[height][width];
+		this.wanted = new char[height][width];
+		for (int line = 0; line < height; ++line) {
+			Arrays.fill(wanted[line], ' ');
+		}
+		Arrays.fill(wanted[logTop - 1], '-');
+		Arrays.fill(wanted[logBottom + 1], '-');
+		this.logWriter = new LogWriter();
+		this.messages = new TerminalRenderer(logWriter);
+	}
+
+	@Override
+	public void gameStarted(Player player) {
+		this.player = player;
+		this.playerMaxHealth = player.getHealth();
+		messages.gameStarted(player);
+	}
+
+	@Override
+	public void enemyEncountered(Enemy enemy) {
+		if (!enemy.isDead()) {
+			++enemiesLeft;
+		}
+		messages.enemyEncountered(enemy);
+	}
+
+	/**
+	 * The health bars take the place of the messages a {@link TerminalRenderer}
+	 * prints at the start of each round.
+	 */
+	@Override
+	public void roundStarted(Player player, Enemy enemy) {
+		this.player = player;
+		this.enemy = enemy;
+	}
+
+	@Override
+	public void playerAttacked(Player player, Enemy enemy) {
+		messages.playerAttacked(player, enemy);
+	}
+
+	@Override
+	public void playerDefended(Player player) {
+		messages.playerDefended(player);
+	}
+
+	@Override
+	public void playerFled(Player player) {
+		messages.playerFled(player);
+	}
+
+	@Override
+	public void itemUsed(Player player, Item item, String description) {
+		messages.itemUsed(player, item, description);
+	}
+
+	@Override
+	public void enemyActed(Enemy enemy, String description) {
+		messages.enemyActed(enemy, description);
+	}
+
+	@Override
+	public void damageTaken(Entity target, int amount, int blocked) {
+		messages.damageTaken(target, amount, blocked);
+	}
+
+	@Override
+	public void healed(Entity target, int amount) {
+		messages.healed(target, amount);
+	}
+
+	@Override
+	public void effectStarted(Entity target, StatusEffect effect) {
+		messages.effectStarted(target, effect);
+	}
+
+	@Override
+	public void effectEnded(Entity target, StatusEffect effect) {
+		messages.effectEnded(target, effect);
+	}
+
+	@Override
+	public void turnSkipped(Entity entity) {
+		messages.turnSkipped(entity);
+	}
+
+	@Override
+	public void enemyDefeated(Enemy enemy) {
+		--enemiesLeft;
+		if (enemy == this.enemy) {
+			this.enemy = null;
+		}
+		messages.enemyDefeated(enemy);
+	}
+
+	@Override
+	public void gameEnded(Player player, boolean victorious) {
+		messages.gameEnded(player, victorious);
+		release();
+	}
+
+	/**
+	 * Draw the last frame and give the terminal back, with the cursor at the
+	 * bottom of the screen and scrolling working normally again. This happens by
+	 * itself when the game ends, but must also be done if the game is cut short.
+	 */
+	public void release() {
+		ended = true;
+		promptLength = -1;
+		clearLine(promptLine);
+		flush();
+	}
+
+	/**
+	 * Draw everything that has changed since the last frame.
+	 */
+	@Override
+	public void flush() {
+		messages.flush();
+		drawHealthBar(0, player, playerMaxHealth);
+		drawHealthBar(1, enemy, enemy == null ? 0 : enemy.getDefinition().startingHealth);
+		drawFrame();
+	}
+
+	/**
+	 * Add a message to the log, e.g. to tell the player that they typed something
+	 * wrong. It is shown with the next frame.
+	 *
+	 * @param message The message. It may be several lines long.
+	 */
+	public void log(String message) {
+		logWriter.write(message);
+		logWriter.write('\n');
+	}
+
+	/**
+	 * Ask the player something on the prompt line, and leave the cursor at the end
+	 * of the question for them to type their answer. Call
+	 * {@link #promptAnswered()} once they have.
+	 *
+	 * @param prompt The question. Anything that doesn't fit on the line is cut
+	 *               off.
+	 */
+	public void prompt(String prompt) {
+		clearLine(promptLine);
+		promptLength = Math.min(prompt.length(), width - 1);
+		prompt.getChars(0, promptLength, wanted[promptLine], 0);
+		flush();
+	}
+
+	/**
+	 * Let the renderer know that the player has typed their answer to the prompt.
+	 * The terminal shows what they typed on the prompt line, so that part of the
+	 * line is drawn again in the next frame.
+	 */
+	public void promptAnswered() {
+		if (promptLength >= 0) {
+			// Use a character that can't be on the screen, so every cell after the prompt
+			// looks changed.
+			Arrays.fill(shown[promptLine], promptLength, width, '\0');
+			cursorLine = -1;
+		}
+	}
+
+	/**
+	 * Write one line of the screen with an entity's name, health bar and status,
+	 * or leave it empty if there is no entity.
+	 */
+	private void drawHealthBar(int line, Entity entity, int maxHealth) {
+		clearLine(line);
+		if (entity == null) {
+			return;
+		}
+
+		char[] text = wanted[line];
+		int health = Math.max(0, entity.getHealth());
+		maxHealth = Math.max(maxHealth, health);
+		if (entity == player) {
+			playerMaxHealth = maxHealth;
+		}
+
+		put(line, 0, entity.name, NAME_WIDTH - 1);
+		int column = NAME_WIDTH;
+		text[column++] = '[';
+		int filled = maxHealth == 0 ? 0 : (int)((long)health * BAR_WIDTH / maxHealth);
+		if (filled == 0 && health > 0) {
+			// Always show a sliver of health while the entity is alive.
+			filled = 1;
+		}
+		Arrays.fill(text, column, column + filled, '#');
+		Arrays.fill(text, column + filled, column + BAR_WIDTH, '.');
+		column += BAR_WIDTH;
+		text[column++] = ']';
+
+		column = put(line, column + 1, Integer.toString(health), width);
+		column = put(line, column, "/", width);
+		column = put(line, column, Integer.toString(maxHealth), width);
+		if (entity == enemy && enemiesLeft > 1) {
+			column = put(line, column, " (+" + (enemiesLeft - 1) + " more)", width);
+		}
+		for (int i = 0; i < STATUSES.length; ++i) {
+			if (entity.getEffects().has(STATUSES[i])) {
+				column = put(line, column + 1, STATUS_LABELS[i], width);
+			}
+		}
+	}
+
+	/**
+	 * Compare what the terminal shows with what it should show, and send whatever
+	 * it takes to fix the difference.
+	 */
+	private void drawFrame() {
+		frame.setLength(0);
+		if (!started) {
+			// Limit scrolling to the log, which also moves the cursor to the top left,
+			// then start from a blank screen, so we know what is on it.
+			frame.append(CSI).append(logTop + 1).append(';').append(logBottom + 1).append('r');
+			frame.append(CSI).append("2J");
+			for (char[] line : shown) {
+				Arrays.fill(line, ' ');
+			}
+			cursorLine = 0;
+			cursorColumn = 0;
+			pendingScroll = 0;
+			started = true;
+			scrollRegionSet = true;
+		}
+
+		scrollLog();
+		for (int line = 0; line < height; ++line) {
+			drawLine(line, wanted[line]);
+		}
+
+		if (ended) {
+			if (scrollRegionSet) {
+				// Give the terminal its whole screen back. This moves the cursor to the
+				// top left.
+				frame.append(CSI).append('r');
+				cursorLine = 0;
+				cursorColumn = 0;
+				scrollRegionSet = false;
+			}
+
+			// Leave the cursor at the bottom, so whatever is printed after the game
+			// doesn't land in the middle of the screen.
+			moveCursor(height - 1, 0);
+		} else if (promptLength >= 0) {
+			moveCursor(promptLine, promptLength);
+		}
+
+		if (frame.length() == 0) {
+			return;
+		}
+
+		try {
+			out.append(frame);
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Have the terminal scroll the log up to make room for the new messages, so
+	 * that only the new messages have to be sent. Each message is written on the
+	 * bottom line of the log as soon as it has been scrolled in, so the cursor is
+	 * already in the right place for it.
+	 */
+	private void scrollLog() {
+		int lines = pendingScroll;
+		pendingScroll = 0;
+		if (lines == 0 || lines > logBottom - logTop) {
+			// Either there is nothing to scroll, or every line of the log is new anyway.
+			return;
+		}
+
+		for (int i = lines - 1; i >= 0; --i) {
+			// A line feed at the bottom of the scrolling region scrolls it. Starting
+			// from the first column means it doesn't matter whether the terminal
+			// adds a carriage return.
+			moveCursor(logBottom, 0);
+			frame.append('\n');
+			scrollUp(shown);
+
+			// The new bottom line ends up i lines further up once the rest have been
+			// scrolled in.
+			drawLine(logBottom, wanted[logBottom - i]);
+		}
+	}
+
+	/**
+	 * Send the changes needed to make one line of the screen show the given text.
+	 */
+	private void drawLine(int line, char[] want) {
+		char[] have = shown[line];
+
+		// Everything after the last character that isn't blank can be erased with a
+		// single control code, instead of being overwritten with spaces.
+		int end = width;
+		while (end > 0 && want[end - 1] == ' ') {
+			--end;
+		}
+
+		int column = 0;
+		while (column < end) {
+			if (want[column] == have[column]) {
+				++column;
+				continue;
+			}
+
+			// Find the end of this run of changes, carrying on through short gaps.
+			int last = column;
+			for (int next = column + 1; next < end && next - last <= MAX_GAP; ++next) {
+				if (want[next] != have[next]) {
+					last = next;
+				}
+			}
+
+			moveCursor(line, column);
+			frame.append(want, column, last + 1 - column);
+			System.arraycopy(want, column, have, column, last + 1 - column);
+			cursorColumn = last + 1;
+			column = last + 1;
+		}
+
+		for (column = end; column < width; ++column) {
+			if (have[column] != ' ') {
+				moveCursor(line, column);
+				frame.append(CSI).append('K');
+				Arrays.fill(have, column, width, ' ');
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Move the cursor, using relative moves when they are shorter than jumping
+	 * straight to the position.
+	 */
+	private void moveCursor(int line, int column) {
+		if (line == cursorLine && column == cursorColumn) {
+			return;
+		}
+
+		int absoluteLength = 3 + digits(line + 1) + (column > 0 ? 1 + digits(column + 1) : 0);
+		if (cursorLine < 0 || cursorColumn < 0 || crossesScrollRegion(line)
+				|| relativeMoveLength(line, column) >= absoluteLength) {
+			frame.append(CSI).append(line + 1);
+			if (column > 0) {
+				frame.append(';').append(column + 1);
+			}
+			frame.append('H');
+		} else {
+			if (line < cursorLine) {
+				appendMove(cursorLine - line, 'A');
+			} else if (line > cursorLine) {
+				appendMove(line - cursorLine, 'B');
+			}
+
+			switch (cheapestColumnMove(column)) {
+			case '\r':
+				frame.append('\r');
+				break;
+			case '\b':
+				frame.append('\b');
+				break;
+			case 'C':
+				appendMove(column - cursorColumn, 'C');
+				break;
+			case 'D':
+				appendMove(cursorColumn - column, 'D');
+				break;
+			case 'G':
+				frame.append(CSI).append(column + 1).append('G');
+				break;
+			default:
+				break;
+			}
+		}
+		cursorLine = line;
+		cursorColumn = column;
+	}
+
+	/**
+	 * Relative moves up and down stop at the edges of the scrolling region, so
+	 * they can't be used to move the cursor into or out of the log.
+	 *
+	 * @return True if moving the cursor to the given line would cross an edge of
+	 *         the scrolling region.
+	 */
+	private boolean crossesScrollRegion(int line) {
+		if (!scrollRegionSet) {
+			return false;
+		} else if (line < cursorLine) {
+			return cursorLine >= logTop && line < logTop;
+		} else {
+			return cursorLine <= logBottom && line > logBottom;
+		}
+	}
+
+	/**
+	 * @return The number of characters needed to move the cursor from where it is
+	 *         to the given position with relative moves.
+	 */
+	private int relativeMoveLength(int line, int column) {
+		int length = line == cursorLine ? 0 : moveLength(Math.abs(line - cursorLine));
+		switch (cheapestColumnMove(column)) {
+		case '\r':
+		case '\b':
+			return length + 1;
+		case 'C':
+		case 'D':
+			return length + moveLength(Math.abs(column - cursorColumn));
+		case 'G':
+			return length + 3 + digits(column + 1);
+		default:
+			return length;
+		}
+	}
+
+	/**
+	 * Work out the shortest way to move the cursor from its column to the given
+	 * column on the same line.
+	 *
+	 * @return A carriage return or backspace character, the final character of
+	 *         the escape code to use, or 0 if the cursor is already there.
+	 */
+	private char cheapestColumnMove(int column) {
+		if (column == cursorColumn) {
+			return 0;
+		} else if (column == 0) {
+			return '\r';
+		} else if (column == cursorColumn - 1) {
+			return '\b';
+		}
+
+		char relative = column > cursorColumn ? 'C' : 'D';
+		return moveLength(Math.abs(column - cursorColumn)) <= 3 + digits(column + 1) ? relative : 'G';
+	}
+
+	/**
+	 * Append an escape code that moves the cursor by the given number of cells,
+	 * leaving the number out when it is 1.
+	 */
+	private void appendMove(int count, char direction) {
+		frame.append(CSI);
+		if (count != 1) {
+			frame.append(count);
+		}
+		frame.append(direction);
+	}
+
+	/**
+	 * @return The length of the escape code {@link #appendMove} sends.
+	 */
+	private static int moveLength(int count) {
+		return count == 1 ? 3 : 3 + digits(count);
+	}
+
+	/**
+	 * @return The number of decimal digits in a positive number.
+	 */
+	private static int digits(int number) {
+		return number < 10 ? 1 : number < 100 ? 2 : number < 1000 ? 3 : Integer.toString(number).length();
+	}
+
+	/**
+	 * Add a line to the bottom of the log, moving the older lines up.
+	 */
+	private void addLogLine(char[] text, int length) {
+		scrollUp(wanted);
+		System.arraycopy(text, 0, wanted[logBottom], 0, length);
+		++pendingScroll;
+	}
+
+	/**
+	 * Move every line of the log in a copy of the screen up by one, leaving the
+	 * bottom line blank.
+	 */
+	private void scrollUp(char[][] screen) {
+		char[] top = screen[logTop];
+		System.arraycopy(screen, logTop + 1, screen, logTop, logBottom - logTop);
+		Arrays.fill(top, ' ');
+		screen[logBottom] = top;
+	}
+
+	private void clearLine(int line) {
+		Arrays.fill(wanted[line], ' ');
+	}
+
+	/**
+	 * Write some text into a line of the screen.
+	 *
+	 * @return The column after the text.
+	 */
+	private int put(int line, int column, String text, int limit) {
+		int length = Math.max(0, Math.min(text.length(), Math.min(limit, width) - column));
+		text.getChars(0, length, wanted[line], column);
+		return column + length;
+	}
+
+	/**
+	 * Splits everything written to it into lines for the log. Long lines are
+	 * wrapped to fit the screen, and empty lines are left out, since the log has
+	 * little room to spare.
+	 */
+	private class LogWriter extends Writer {
+		private final char[] line = new char[width];
+
+		private int length;
+
+		@Override
+		public void write(int c) {
+			if (c == '\n') {
+				if (length > 0) {
+					addLogLine(line, length);
+					length = 0;
+				}
+				return;
+			}
+
+			if (length == width) {
+				addLogLine(line, length);
+				length = 0;
+			}
+			line[length++] = (char)c;
+		}
+
+		@Override
+		public void write(String text) {
+			for (int i = 0; i < text.length(); ++i) {
+				write(text.charAt(i));
+			}
+		}
+
+		@Override
+		public void write(char[] text, int offset, int length) {
+			for (int i = offset; i < offset + length; ++i) {
+				write(text[i]);
+			}
+		}
+
+		@Override
+		public Writer append(CharSequence text) {
+			for (int i = 0; i < text.length(); ++i) {
+				write(text.charAt(i));
+			}
+			return this;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package combatgame.events;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.Item;
+import combatgame.player.Player;
+
+/**
+ * A {@link BinaryEventWriter} records every event in a compact binary format,
+ * so that a game can be stored or analyzed later without the cost of turning
+ * everything into text.
+ *
+ * Each event is written as its {@link CombatEventType#code} in one byte,
+ * followed by the event's values:
+ *
+ * <ul>
+ * <li>Numbers are written as unsigned variable-length integers, 7 bits per byte
+ * with the high bit set on every byte except the last.</li>
+ * <li>Enemies are numbered in the order they are encountered, starting at 1,
+ * and each event about an enemy includes its number, so it's clear which of a
+ * group of enemies it was about. Events that can be about anyone include 0 for
+ * the player, or the enemy's number.</li>
+ * <li>Strings (names and descriptions) are written the first time they are
+ * seen as a 0 followed by the length and UTF-8 bytes. After that, they are
+ * written as just their number in order of first appearance, starting at 1.</li>
+ * </ul>
+ *
+ * A typical turn takes around a dozen bytes. Output is buffered, and is written out
+ * when the buffer fills up or the game ends. Nobody reads these events while
+ * the game is running, so there is no need to write them out every turn.
+ */
+public class BinaryEventWriter implements CombatEventSink, Closeable {
+	/**
+	 * Where the events end up.
+	 */
+	private final OutputStream out;
+
+	/**
+	 * The number assigned to each string that has already been written. Names and
+	 * descriptions are constants, so the same object is used every time.
+	 */
+	private final IdentityHashMap<String, Integer> stringIds = new IdentityHashMap<>();
+
+	/**
+	 * The number assigned to each enemy that is still standing. Defeated enemies
+	 * are forgotten, so long games don't fill this up.
+	 */
+	private final IdentityHashMap<Enemy, Integer> enemyIds = new IdentityHashMap<>();
+
+	/**
+	 * The number of enemies numbered so far.
+	 */
+	private int enemyCount;
+
+	/**
+	 * Construct a new {@link BinaryEventWriter}.
+	 *
+	 * @param out Where to write the events.
+	 */
+	public BinaryEventWriter(OutputStream out) {
+		this.out = new BufferedOutputStream(out);
+	}
+
+	@Override
+	public void gameStarted(Player player) {
+		writeType(CombatEventType.GAME_STARTED);
+		writeString(player.name);
+		writeNumber(player.getHealth());
+	}
+
+	@Override
+	public void enemyEncountered(Enemy enemy) {
+		writeType(CombatEventType.ENEMY_ENCOUNTERED);
+		writeNumber(enemyId(enemy));
+		writeString(enemy.name);
+		writeNumber(enemy.getHealth());
+	}
+
+	@Override
+	public void roundStarted(Player player, Enemy enemy) {
+		writeType(CombatEventType.ROUND_STARTED);
+		writeNumber(enemyId(enemy));
+	}
+
+	@Override
+	public void playerAttacked(Player player, Enemy enemy) {
+		writeType(CombatEventType.PLAYER_ATTACKED);
+		writeNumber(enemyId(enemy));
+	}
+
+	@Override
+	public void playerDefended(Player player) {
+		writeType(CombatEventType.PLAYER_DEFENDED);
+	}
+
+	@Override
+	public void playerFled(Player player) {
+		writeType(CombatEventType.PLAYER_FLED);
+	}
+
+	@Override
+	public void itemUsed(Player player, Item item, String description) {
+		writeType(CombatEventType.ITEM_USED);
+		writeString(item.name);
+		writeString(description);
+	}
+
+	@Override
+	public void enemyActed(Enemy enemy, String description) {
+		writeType(CombatEventType.ENEMY_ACTED);
+		writeNumber(enemyId(enemy));
+		writeString(description);
+	}
+
+	@Override
+	public void damageTaken(Entity target, int amount, int blocked) {
+		if (target instanceof Player) {
+			writeType(CombatEventType.PLAYER_DAMAGED);
+			writeNumber(amount);
+			writeNumber(blocked);
+		} else {
+			writeType(CombatEventType.ENEMY_DAMAGED);
+			writeNumber(enemyId((Enemy)target));
+			writeNumber(amount);
+		}
+	}
+
+	@Override
+	public void healed(Entity target, int amount) {
+		if (target instanceof Player) {
+			writeType(CombatEventType.PLAYER_HEALED);
+		} else {
+			writeType(CombatEventType.ENEMY_HEALED);
+			writeNumber(enemyId((Enemy)target));
+		}
+		writeNumber(amount);
+	}
+
+	@Override
+	public void effectStarted(Entity target, StatusEffect effect) {
+		writeType(CombatEventType.EFFECT_STARTED);
+		writeNumber(entityId(target));
+		writeString(effect.name);
+	}
+
+	@Override
+	public void effectEnded(Entity target, StatusEffect effect) {
+		writeType(CombatEventType.EFFECT_ENDED);
+		writeNumber(entityId(target));
+		writeString(effect.name);
+	}
+
+	@Override
+	public void turnSkipped(Entity entity) {
+		writeType(CombatEventType.TURN_SKIPPED);
+		writeNumber(entityId(entity));
+	}
+
+	@Override
+	public void enemyDefeated(Enemy enemy) {
+		writeType(CombatEventType.ENEMY_DEFEATED);
+		writeNumber(enemyId(enemy));
+		enemyIds.remove(enemy);
+	}
+
+	@Override
+	public void gameEnded(Player player, boolean victorious) {
+		writeType(CombatEventType.GAME_ENDED);
+		writeNumber(victorious ? 1 : 0);
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Get the number of an enemy, numbering it now if it hasn't been seen
+	 * before, e.g. because the writer was added in the middle of a fight.
+	 */
+	private int enemyId(Enemy enemy) {
+		Integer id = enemyIds.get(enemy);
+		if (id == null) {
+			id = ++enemyCount;
+			enemyIds.put(enemy, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Get 0 for the player, or the number of an enemy.
+	 */
+	private int entityId(Entity entity) {
+		return entity instanceof Enemy ? enemyId((Enemy)entity) : 0;
+	}
+
+	private void writeType(CombatEventType type) {
+		writeByte(type.code);
+	}
+
+	/**
+	 * Write a number as an unsigned variable-length integer.
+	 *
+	 * @param value The number to write. Negative numbers take 5 bytes.
+	 */
+	private void writeNumber(int value) {
+		while ((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	/**
+	 * Write a string, or just its number if it has been written before.
+	 *
+	 * @param value The string to write.
+	 */
+	private void writeString(String value) {
+		Integer id = stringIds.get(value);
+		if (id != null) {
+			writeNumber(id);
+			return;
+		}
+
+		stringIds.put(value, stringIds.size() + 1);
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeNumber(0);
+		writeNumber(bytes.length);
+		try {
+			out.write(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeByte(int value) {
+		try {
+			out.write(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
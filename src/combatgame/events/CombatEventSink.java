@@ -0,0 +1,146 @@
+package combatgame.events;
+
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.Item;
+import combatgame.player.Player;
+
+/**
+ * A {@link CombatEventSink} receives a notification every time something
+ * happens in the combat game. Instead of printing directly to the terminal, the
+ * game reports what happened to its sink, and the sink decides what to do with
+ * it. It could print a message, save it to a file, or ignore it entirely.
+ *
+ * Some events carry a {@code description}. This is a constant message template
+ * containing a single {@code %s}, which is replaced by the name of the entity
+ * doing the action, e.g. {@code "The %s swings its mace at you!"}.
+ */
+public interface CombatEventSink {
+	/**
+	 * The game is about to begin.
+	 *
+	 * @param player The player of the game.
+	 */
+	void gameStarted(Player player);
+
+	/**
+	 * The player has run into a new enemy.
+	 *
+	 * @param enemy The enemy that the player will fight next.
+	 */
+	void enemyEncountered(Enemy enemy);
+
+	/**
+	 * A new round of combat is beginning.
+	 *
+	 * @param player The player.
+	 * @param enemy  The enemy the player is fighting.
+	 */
+	void roundStarted(Player player, Enemy enemy);
+
+	/**
+	 * The player has attacked the enemy.
+	 *
+	 * @param player The player.
+	 * @param enemy  The enemy being attacked.
+	 */
+	void playerAttacked(Player player, Enemy enemy);
+
+	/**
+	 * The player has raised their shield.
+	 *
+	 * @param player The player.
+	 */
+	void playerDefended(Player player);
+
+	/**
+	 * The player has tried to run away.
+	 *
+	 * @param player The player.
+	 */
+	void playerFled(Player player);
+
+	/**
+	 * The player has used an item.
+	 *
+	 * @param player      The player.
+	 * @param item        The item that was used.
+	 * @param description What using the item looks like.
+	 */
+	void itemUsed(Player player, Item item, String description);
+
+	/**
+	 * An enemy has taken its turn.
+	 *
+	 * @param enemy       The enemy.
+	 * @param description What the enemy did.
+	 */
+	void enemyActed(Enemy enemy, String description);
+
+	/**
+	 * An entity has been dealt damage.
+	 *
+	 * @param target  The entity that took the damage.
+	 * @param amount  The amount of damage that was taken.
+	 * @param blocked The amount of damage that was blocked, or 0 if none.
+	 */
+	void damageTaken(Entity target, int amount, int blocked);
+
+	/**
+	 * An entity has had some health restored.
+	 *
+	 * @param target The entity that was healed.
+	 * @param amount The amount of health that was restored.
+	 */
+	void healed(Entity target, int amount);
+
+	/**
+	 * A status effect has started on an entity. Only effects that are announced
+	 * are reported.
+	 *
+	 * @param target The entity.
+	 * @param effect The effect.
+	 */
+	void effectStarted(Entity target, StatusEffect effect);
+
+	/**
+	 * A status effect has worn off an entity. Only effects that are announced are
+	 * reported.
+	 *
+	 * @param target The entity.
+	 * @param effect The effect.
+	 */
+	void effectEnded(Entity target, StatusEffect effect);
+
+	/**
+	 * An entity has lost its turn, e.g. because it is stunned.
+	 *
+	 * @param entity The entity.
+	 */
+	void turnSkipped(Entity entity);
+
+	/**
+	 * The player has defeated an enemy.
+	 *
+	 * @param enemy The enemy that was defeated.
+	 */
+	void enemyDefeated(Enemy enemy);
+
+	/**
+	 * The game is over.
+	 *
+	 * @param player     The player of the game.
+	 * @param victorious True if the player defeated every enemy, false if the
+	 *                   player died.
+	 */
+	void gameEnded(Player player, boolean victorious);
+
+	/**
+	 * The game is about to wait for a decision, so any events that are being held
+	 * back should be delivered now. Sinks that do not hold anything back can
+	 * ignore this.
+	 */
+	default void flush() {
+	}
+}
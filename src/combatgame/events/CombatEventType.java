@@ -0,0 +1,53 @@
+package combatgame.events;
+
+/**
+ * Every kind of event that can be sent to a {@link CombatEventSink}, along with
+ * the code that identifies it in the {@link BinaryEventWriter} format.
+ */
+public enum CombatEventType {
+	GAME_STARTED(0),
+	ENEMY_ENCOUNTERED(1),
+	ROUND_STARTED(2),
+	PLAYER_ATTACKED(3),
+	PLAYER_DEFENDED(4),
+	PLAYER_FLED(5),
+	ITEM_USED(6),
+	ENEMY_ACTED(7),
+	PLAYER_DAMAGED(8),
+	ENEMY_DAMAGED(9),
+	PLAYER_HEALED(10),
+	ENEMY_HEALED(11),
+	ENEMY_DEFEATED(12),
+	GAME_ENDED(13),
+	EFFECT_STARTED(14),
+	EFFECT_ENDED(15),
+	TURN_SKIPPED(16);
+
+	/**
+	 * Look-up table from code to event type.
+	 */
+	private static final CombatEventType[] BY_CODE = values();
+
+	/**
+	 * The code that identifies this event type in binary form.
+	 */
+	public final int code;
+
+	private CombatEventType(int code) {
+		this.code = code;
+	}
+
+	/**
+	 * Find the event type with the given code.
+	 *
+	 * @param code The code to look up.
+	 * @return The event type with that code.
+	 * @throws IllegalArgumentException If no event type has that code.
+	 */
+	public static CombatEventType fromCode(int code) {
+		if (code < 0 || code >= BY_CODE.length) {
+			throw new IllegalArgumentException("Unknown event code: " + code);
+		}
+		return BY_CODE[code];
+	}
+}
@@ -0,0 +1,81 @@
+package combatgame.events;
+
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.Item;
+import combatgame.player.Player;
+
+/**
+ * A {@link NullEventSink} ignores every event. Use this when nobody is watching
+ * the game, e.g. when running simulations.
+ */
+public final class NullEventSink implements CombatEventSink {
+	/**
+	 * The one and only instance. The sink has no state, so it can be shared.
+	 */
+	public static final NullEventSink INSTANCE = new NullEventSink();
+
+	private NullEventSink() {
+	}
+
+	@Override
+	public void gameStarted(Player player) {
+	}
+
+	@Override
+	public void enemyEncountered(Enemy enemy) {
+	}
+
+	@Override
+	public void roundStarted(Player player, Enemy enemy) {
+	}
+
+	@Override
+	public void playerAttacked(Player player, Enemy enemy) {
+	}
+
+	@Override
+	public void playerDefended(Player player) {
+	}
+
+	@Override
+	public void playerFled(Player player) {
+	}
+
+	@Override
+	public void itemUsed(Player player, Item item, String description) {
+	}
+
+	@Override
+	public void enemyActed(Enemy enemy, String description) {
+	}
+
+	@Override
+	public void damageTaken(Entity target, int amount, int blocked) {
+	}
+
+	@Override
+	public void healed(Entity target, int amount) {
+	}
+
+	@Override
+	public void effectStarted(Entity target, StatusEffect effect) {
+	}
+
+	@Override
+	public void effectEnded(Entity target, StatusEffect effect) {
+	}
+
+	@Override
+	public void turnSkipped(Entity entity) {
+	}
+
+	@Override
+	public void enemyDefeated(Enemy enemy) {
+	}
+
+	@Override
+	public void gameEnded(Player player, boolean victorious) {
+	}
+}
@@ -0,0 +1,125 @@
+package combatgame.events;
+
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.Item;
+import combatgame.player.Player;
+
+/**
+ * A {@link TeeEventSink} reports every event to two sinks, e.g. to the player's
+ * terminal and to a {@link combatgame.spectator.SpectatorChannel}, so the same
+ * game can be shown in two places at once.
+ */
+public class TeeEventSink implements CombatEventSink {
+	private final CombatEventSink first;
+
+	private final CombatEventSink second;
+
+	/**
+	 * Construct a new {@link TeeEventSink}.
+	 *
+	 * @param first  The sink to report each event to first.
+	 * @param second The sink to report each event to after that.
+	 */
+	public TeeEventSink(CombatEventSink first, CombatEventSink second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	@Override
+	public void gameStarted(Player player) {
+		first.gameStarted(player);
+		second.gameStarted(player);
+	}
+
+	@Override
+	public void enemyEncountered(Enemy enemy) {
+		first.enemyEncountered(enemy);
+		second.enemyEncountered(enemy);
+	}
+
+	@Override
+	public void roundStarted(Player player, Enemy enemy) {
+		first.roundStarted(player, enemy);
+		second.roundStarted(player, enemy);
+	}
+
+	@Override
+	public void playerAttacked(Player player, Enemy enemy) {
+		first.playerAttacked(player, enemy);
+		second.playerAttacked(player, enemy);
+	}
+
+	@Override
+	public void playerDefended(Player player) {
+		first.playerDefended(player);
+		second.playerDefended(player);
+	}
+
+	@Override
+	public void playerFled(Player player) {
+		first.playerFled(player);
+		second.playerFled(player);
+	}
+
+	@Override
+	public void itemUsed(Player player, Item item, String description) {
+		first.itemUsed(player, item, description);
+		second.itemUsed(player, item, description);
+	}
+
+	@Override
+	public void enemyActed(Enemy enemy, String description) {
+		first.enemyActed(enemy, description);
+		second.enemyActed(enemy, description);
+	}
+
+	@Override
+	public void damageTaken(Entity target, int amount, int blocked) {
+		first.damageTaken(target, amount, blocked);
+		second.damageTaken(target, amount, blocked);
+	}
+
+	@Override
+	public void healed(Entity target, int amount) {
+		first.healed(target, amount);
+		second.healed(target, amount);
+	}
+
+	@Override
+	public void effectStarted(Entity target, StatusEffect effect) {
+		first.effectStarted(target, effect);
+		second.effectStarted(target, effect);
+	}
+
+	@Override
+	public void effectEnded(Entity target, StatusEffect effect) {
+		first.effectEnded(target, effect);
+		second.effectEnded(target, effect);
+	}
+
+	@Override
+	public void turnSkipped(Entity entity) {
+		first.turnSkipped(entity);
+		second.turnSkipped(entity);
+	}
+
+	@Override
+	public void enemyDefeated(Enemy enemy) {
+		first.enemyDefeated(enemy);
+		second.enemyDefeated(enemy);
+	}
+
+	@Override
+	public void gameEnded(Player player, boolean victorious) {
+		first.gameEnded(player, victorious);
+		second.gameEnded(player, victorious);
+	}
+
+	@Override
+	public void flush() {
+		first.flush();
+		second.flush();
+	}
+}
@@ -0,0 +1,206 @@
+package combatgame.events;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import combatgame.effects.StatusEffect;
+import combatgame.entities.Entity;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.Item;
+import combatgame.player.Player;
+
+/**
+ * A {@link TerminalRenderer} describes each event to the player with a message
+ * in the terminal.
+ *
+ * Messages are collected in a buffer and written out all at once when the game
+ * needs input from the player (see {@link #flush()}), instead of being printed
+ * one line at a time. A renderer is meant to be used by one game at a time.
+ */
+public class TerminalRenderer implements CombatEventSink {
+	/**
+	 * A renderer that prints to {@link System#out}.
+	 */
+	public static final TerminalRenderer STANDARD_OUT = new TerminalRenderer(new OutputStreamWriter(System.out));
+
+	/**
+	 * If this many characters are waiting in the buffer, write them out even if
+	 * nobody asked us to flush yet.
+	 */
+	private static final int MAX_BUFFERED_CHARS = 8192;
+
+	/**
+	 * The placeholder in event descriptions that is replaced with a name.
+	 */
+	private static final String NAME_PLACEHOLDER = "%s";
+
+	/**
+	 * Where the messages end up.
+	 */
+	private final Writer out;
+
+	/**
+	 * Messages that have not been written out yet.
+	 */
+	private final StringBuilder buffer = new StringBuilder(1024);
+
+	/**
+	 * Construct a new {@link TerminalRenderer}.
+	 *
+	 * @param out Where to write the messages.
+	 */
+	public TerminalRenderer(Writer out) {
+		this.out = out;
+	}
+
+	@Override
+	public void gameStarted(Player player) {
+		buffer.append("Welcome, ").append(player.name).append("! Your journey begins!\n");
+	}
+
+	@Override
+	public void enemyEncountered(Enemy enemy) {
+		buffer.append("\nYou continue on your journey...\n");
+		buffer.append("You encounter a ").append(enemy.name).append("!\n");
+	}
+
+	@Override
+	public void roundStarted(Player player, Enemy enemy) {
+		flushIfFull();
+		buffer.append("You have ").append(player.getHealth()).append(" health.\n");
+		buffer.append("The ").append(enemy.name).append(" has ").append(enemy.getHealth()).append(" health.\n");
+	}
+
+	@Override
+	public void playerAttacked(Player player, Enemy enemy) {
+		buffer.append("\nYou swing your sword at the ").append(enemy.name).append("!\n");
+	}
+
+	@Override
+	public void playerDefended(Player player) {
+		buffer.append("\nYou raise your shield...\n");
+	}
+
+	@Override
+	public void playerFled(Player player) {
+		buffer.append("\nHeroes don't run from battle! (You lose your turn for being a coward...)\n");
+	}
+
+	@Override
+	public void itemUsed(Player player, Item item, String description) {
+		buffer.append('\n');
+		appendDescription(description, item.name);
+	}
+
+	@Override
+	public void enemyActed(Enemy enemy, String description) {
+		appendDescription(description, enemy.name);
+	}
+
+	@Override
+	public void damageTaken(Entity target, int amount, int blocked) {
+		if (target instanceof Player) {
+			buffer.append("You take ").append(amount).append(" damage");
+			if (blocked > 0) {
+				buffer.append(" (blocked ").append(blocked).append(" damage)");
+			}
+			buffer.append(".\n");
+		} else {
+			buffer.append("The ").append(target.name).append(" takes ").append(amount).append(" damage.\n");
+		}
+	}
+
+	@Override
+	public void healed(Entity target, int amount) {
+		if (target instanceof Player) {
+			buffer.append("You restore ").append(amount).append(" hitpoints.\n");
+		} else {
+			buffer.append("The ").append(target.name).append(" restores ").append(amount).append(" hitpoints.\n");
+		}
+	}
+
+	@Override
+	public void effectStarted(Entity target, StatusEffect effect) {
+		if (target instanceof Player) {
+			buffer.append("You are now ").append(effect.name).append("!\n");
+		} else {
+			buffer.append("The ").append(target.name).append(" is now ").append(effect.name).append("!\n");
+		}
+	}
+
+	@Override
+	public void effectEnded(Entity target, StatusEffect effect) {
+		if (target instanceof Player) {
+			buffer.append("You are no longer ").append(effect.name).append(".\n");
+		} else {
+			buffer.append("The ").append(target.name).append(" is no longer ").append(effect.name).append(".\n");
+		}
+	}
+
+	@Override
+	public void turnSkipped(Entity entity) {
+		if (entity instanceof Player) {
+			buffer.append("\nYou are stunned and can't act!\n");
+		} else {
+			buffer.append("The ").append(entity.name).append(" is stunned and can't act!\n");
+		}
+	}
+
+	@Override
+	public void enemyDefeated(Enemy enemy) {
+		buffer.append("You defeat the ").append(enemy.name).append("!\n");
+	}
+
+	@Override
+	public void gameEnded(Player player, boolean victorious) {
+		if (victorious) {
+			buffer.append("Congratulations, you are victorious!\n");
+		} else {
+			buffer.append("You have been defeated in battle!\n");
+		}
+		flush();
+	}
+
+	/**
+	 * Write out every message in the buffer.
+	 */
+	@Override
+	public void flush() {
+		if (buffer.length() == 0) {
+			return;
+		}
+
+		try {
+			out.append(buffer);
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		buffer.setLength(0);
+	}
+
+	/**
+	 * Add a description to the buffer, replacing its placeholder with a name.
+	 *
+	 * @param description The description, containing a single {@code %s}.
+	 * @param name        The name to put in place of the {@code %s}.
+	 */
+	private void appendDescription(String description, String name) {
+		int placeholder = description.indexOf(NAME_PLACEHOLDER);
+		if (placeholder < 0) {
+			buffer.append(description);
+		} else {
+			buffer.append(description, 0, placeholder).append(name);
+			buffer.append(description, placeholder + NAME_PLACEHOLDER.length(), description.length());
+		}
+		buffer.append('\n');
+	}
+
+	private void flushIfFull() {
+		if (buffer.length() >= MAX_BUFFERED_CHARS) {
+			flush();
+		}
+	}
+}
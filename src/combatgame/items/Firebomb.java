@@ -0,0 +1,62 @@
+package combatgame.items;
+
+import combatgame.entities.enemies.Encounter;
+import combatgame.entities.enemies.Enemy;
+import combatgame.player.Player;
+
+/**
+ * A {@link Firebomb} explodes on the enemy being fought, and also hurts every
+ * enemy standing next to it. This is most useful against a big group of
+ * enemies (see {@link Encounter}).
+ */
+public class Firebomb extends Item {
+	private static final String DEFAULT_NAME = "firebomb";
+
+	private static final String DEFAULT_DESCRIPTION = "A bomb that burns the enemy and everyone next to it.";
+
+	private static final int DEFAULT_DAMAGE = 2;
+
+	/**
+	 * How many places to either side of the target the explosion reaches.
+	 */
+	private static final int DEFAULT_RADIUS = 1;
+
+	private static final String USE_DESCRIPTION = "You hurl a %s!";
+
+	public Firebomb() {
+		super(DEFAULT_NAME, DEFAULT_DESCRIPTION);
+	}
+
+	/**
+	 * Get the amount of damage this bomb deals to each enemy it hits.
+	 *
+	 * @return The damage of this bomb.
+	 */
+	public int getDamage() {
+		return DEFAULT_DAMAGE;
+	}
+
+	/**
+	 * Get how many places to either side of the target this bomb reaches.
+	 *
+	 * @return The radius of this bomb.
+	 */
+	public int getRadius() {
+		return DEFAULT_RADIUS;
+	}
+
+	@Override
+	public void use(Player player, Enemy enemy) {
+		player.getEventSink().itemUsed(player, this, USE_DESCRIPTION);
+
+		Encounter encounter = enemy.getEncounter();
+		if (encounter == null) {
+			enemy.takeDamage(getDamage());
+			return;
+		}
+
+		for (Enemy caught : encounter.getEnemiesWithin(enemy, getRadius())) {
+			caught.takeDamage(getDamage());
+		}
+	}
+}
@@ -10,14 +10,25 @@ public class HealingPotion extends Item {
 
 	private static final int DEFAULT_HEAL_AMOUNT = 5;
 
+	private static final String USE_DESCRIPTION = "You chug a %s.";
+
 	public HealingPotion() {
 		super(DEFAULT_NAME, DEFAULT_DESCRIPTION);
 	}
 
+	/**
+	 * Get the amount of health this potion restores.
+	 *
+	 * @return The heal amount of this potion.
+	 */
+	public int getHealAmount() {
+		return DEFAULT_HEAL_AMOUNT;
+	}
+
 	@Override
 	public void use(Player player, Enemy enemy) {
-		int healAmount = DEFAULT_HEAL_AMOUNT;
-		System.out.printf("You chug a %s.\n", name);
+		int healAmount = getHealAmount();
+		player.getEventSink().itemUsed(player, this, USE_DESCRIPTION);
 		player.restoreHealth(healAmount);
 	}
 
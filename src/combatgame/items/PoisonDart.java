@@ -0,0 +1,49 @@
+package combatgame.items;
+
+import combatgame.effects.Poison;
+import combatgame.entities.enemies.Enemy;
+import combatgame.player.Player;
+
+/**
+ * A {@link PoisonDart} poisons the enemy being fought, dealing a little damage
+ * at the end of every turn for a few turns.
+ */
+public class PoisonDart extends Item {
+	private static final String DEFAULT_NAME = "poison dart";
+
+	private static final String DEFAULT_DESCRIPTION = "A dart that poisons the enemy for a few turns.";
+
+	private static final int DEFAULT_DAMAGE_PER_TURN = 1;
+
+	private static final int DEFAULT_TURNS = 3;
+
+	private static final String USE_DESCRIPTION = "You throw a %s!";
+
+	public PoisonDart() {
+		super(DEFAULT_NAME, DEFAULT_DESCRIPTION);
+	}
+
+	/**
+	 * Get the amount of damage the poison deals each turn.
+	 *
+	 * @return The damage per turn of this dart.
+	 */
+	public int getDamagePerTurn() {
+		return DEFAULT_DAMAGE_PER_TURN;
+	}
+
+	/**
+	 * Get the number of turns the poison lasts.
+	 *
+	 * @return The number of turns.
+	 */
+	public int getTurns() {
+		return DEFAULT_TURNS;
+	}
+
+	@Override
+	public void use(Player player, Enemy enemy) {
+		player.getEventSink().itemUsed(player, this, USE_DESCRIPTION);
+		enemy.getEffects().apply(Poison.INSTANCE, getDamagePerTurn(), getTurns());
+	}
+}
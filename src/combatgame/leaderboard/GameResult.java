@@ -0,0 +1,226 @@
+package combatgame.leaderboard;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+
+/**
+ * A {@link GameResult} is how a finished game turned out for the player: who
+ * they were, which enemies they faced, how far they got, how long it took and
+ * how much health they had left.
+ */
+public final class GameResult {
+	/**
+	 * Puts better results first: a victory beats a defeat, then more enemies
+	 * defeated, more health left and fewer turns taken are better, in that order.
+	 * Results that are otherwise tied are ordered by the player's name, so no two
+	 * players' results are ever equal.
+	 */
+	public static final Comparator<GameResult> BEST_FIRST = (first, second) -> {
+		if (first.victorious != second.victorious) {
+			return first.victorious ? -1 : 1;
+		}
+		if (first.enemiesDefeated != second.enemiesDefeated) {
+			return Integer.compare(second.enemiesDefeated, first.enemiesDefeated);
+		}
+		if (first.health != second.health) {
+			return Integer.compare(second.health, first.health);
+		}
+		if (first.turns != second.turns) {
+			return Integer.compare(first.turns, second.turns);
+		}
+		return first.playerName.compareTo(second.playerName);
+	};
+
+	/**
+	 * The name of the player.
+	 */
+	public final String playerName;
+
+	/**
+	 * The name of the list of enemies the game was played against (see
+	 * {@link #describe}). Only results against the same enemies are ranked
+	 * against each other.
+	 */
+	public final String enemyList;
+
+	/**
+	 * True if the player defeated every enemy, false if they died.
+	 */
+	public final boolean victorious;
+
+	/**
+	 * The number of enemies the player defeated.
+	 */
+	public final int enemiesDefeated;
+
+	/**
+	 * The number of turns the player took.
+	 */
+	public final int turns;
+
+	/**
+	 * The amount of health the player had left, which is never less than 0.
+	 */
+	public final int health;
+
+	/**
+	 * Construct a new {@link GameResult}.
+	 *
+	 * @param playerName      The name of the player.
+	 * @param enemyList       The name of the list of enemies.
+	 * @param victorious      True if the player won.
+	 * @param enemiesDefeated The number of enemies the player defeated.
+	 * @param turns           The number of turns the player took.
+	 * @param health          The amount of health the player had left.
+	 */
+	public GameResult(String playerName, String enemyList, boolean victorious, int enemiesDefeated, int turns,
+			int health) {
+		this.playerName = playerName;
+		this.enemyList = enemyList;
+		this.victorious = victorious;
+		this.enemiesDefeated = Math.max(0, enemiesDefeated);
+		this.turns = Math.max(0, turns);
+		this.health = Math.max(0, health);
+	}
+
+	/**
+	 * Get the result of a game that is over.
+	 *
+	 * @param engine    The game.
+	 * @param enemyList The name of the list of enemies the game was played
+	 *                  against.
+	 * @return The result.
+	 */
+	public static GameResult of(CombatGameEngine engine, String enemyList) {
+		return new GameResult(engine.getPlayer().name, enemyList, engine.isVictorious(),
+				engine.getEnemiesDefeated(), engine.getTurnsTaken(), engine.getPlayer().getHealth());
+	}
+
+	/**
+	 * Give a list of enemies a name to rank results by, e.g.
+	 * {@code "goblin, raging goblin"}.
+	 *
+	 * @param enemies The enemies, in order of appearance.
+	 * @return The name of the list.
+	 */
+	public static String describe(EnemyDefinition[] enemies) {
+		StringBuilder name = new StringBuilder();
+		for (EnemyDefinition enemy : enemies) {
+			if (name.length() > 0) {
+				name.append(", ");
+			}
+			name.append(enemy.name);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Check whether this result is better than another one.
+	 *
+	 * @param other The other result, or null.
+	 * @return True if this result comes first in {@link #BEST_FIRST}, or the
+	 *         other result is null.
+	 */
+	public boolean isBetterThan(GameResult other) {
+		return other == null || BEST_FIRST.compare(this, other) < 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %s, %d enemies defeated in %d turns, %d health left", playerName,
+				victorious ? "victory" : "defeat", enemiesDefeated, turns, health);
+	}
+
+	/**
+	 * Write this result in a compact binary form: the names as a length and UTF-8
+	 * bytes, then whether the player won and the numbers, all as variable-length
+	 * integers like in a {@link combatgame.replay.Replay}.
+	 *
+	 * @param out Where to write the result.
+	 */
+	void write(ByteArrayOutputStream out) {
+		writeString(out, playerName);
+		writeString(out, enemyList);
+		writeNumber(out, victorious ? 1 : 0);
+		writeNumber(out, enemiesDefeated);
+		writeNumber(out, turns);
+		writeNumber(out, health);
+	}
+
+	/**
+	 * Read a result written by {@link #write}.
+	 *
+	 * @param in Where to read the result from.
+	 * @return The result.
+	 * @throws IOException If the data is not a result.
+	 */
+	static GameResult read(ByteBuffer in) throws IOException {
+		try {
+			String playerName = readString(in);
+			String enemyList = readString(in);
+			boolean victorious = readNumber(in) != 0;
+			int enemiesDefeated = readNumber(in);
+			int turns = readNumber(in);
+			int health = readNumber(in);
+			return new GameResult(playerName, enemyList, victorious, enemiesDefeated, turns, health);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Game result is cut short or damaged", e);
+		}
+	}
+
+	/**
+	 * Write a number as an unsigned variable-length integer.
+	 *
+	 * @param out   Where to write the number.
+	 * @param value The number. Negative numbers take 5 bytes.
+	 */
+	static void writeNumber(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**
+	 * Read a number written by {@link #writeNumber}.
+	 *
+	 * @param in Where to read the number from.
+	 * @return The number.
+	 * @throws IOException If the number is too long.
+	 */
+	static int readNumber(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Number in game result is too long");
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		writeNumber(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static String readString(ByteBuffer in) throws IOException {
+		int length = readNumber(in);
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException("Name in game result is cut short");
+		}
+		String text = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return text;
+	}
+}
@@ -0,0 +1,617 @@
+package combatgame.leaderboard;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link Leaderboard} keeps the result of every finished game on disk, and
+ * ranks each player's best result against everyone else who played against
+ * the same enemies.
+ *
+ * Results are kept in a directory, in two files:
+ *
+ * <ul>
+ * <li>{@code results.log} has every result ever recorded, one after another.
+ * The file is only ever added to. Each result is written as its length, the
+ * result itself (see {@link GameResult}) and a CRC-32 checksum, so a result
+ * that was only half written when the program stopped can be recognized and
+ * thrown away.</li>
+ * <li>{@code results.index} has each player's best result against each list of
+ * enemies, best first, and how much of the log they cover. It is rewritten
+ * from time to time, so that opening the leaderboard only has to read the end
+ * of the log instead of all of it.</li>
+ * </ul>
+ *
+ * Asking the operating system to make sure a write is really on the disk takes
+ * about as long as thousands of games take to record, so {@link #record}
+ * doesn't wait for it. Results are collected in memory, and a background
+ * thread writes everything collected so far in one go every few milliseconds.
+ * Call {@link #sync()} to wait until every recorded result is safe.
+ *
+ * In memory, each list of enemies has a {@link RankIndex} of the players' best
+ * results, so the top results and any player's rank can be found straight
+ * away. A leaderboard can be shared by any number of threads.
+ */
+public class Leaderboard implements Closeable {
+	/**
+	 * The bytes the log starts with, including the format version.
+	 */
+	private static final byte[] LOG_HEADER = { 'C', 'G', 'L', 1 };
+
+	/**
+	 * The bytes the index starts with, including the format version.
+	 */
+	private static final byte[] INDEX_HEADER = { 'C', 'G', 'I', 1 };
+
+	private static final String LOG_FILE = "results.log";
+
+	private static final String INDEX_FILE = "results.index";
+
+	/**
+	 * How long the background thread waits for more results to arrive before
+	 * writing them out, unless someone is waiting in {@link #sync()}.
+	 */
+	private static final long FLUSH_INTERVAL_MILLIS = 5;
+
+	/**
+	 * How much the log can grow before the index is rewritten.
+	 */
+	private static final long INDEX_EVERY_BYTES = 16 << 20;
+
+	/**
+	 * The results against one list of enemies.
+	 */
+	private static final class Board {
+		/**
+		 * The best result of each player.
+		 */
+		final HashMap<String, GameResult> bestResults = new HashMap<>();
+
+		/**
+		 * The same results, ranked.
+		 */
+		final RankIndex ranks = new RankIndex();
+	}
+
+	/**
+	 * Bytes waiting to be written to the log. The array is used directly, to save
+	 * copying it.
+	 */
+	private static final class Batch extends ByteArrayOutputStream {
+		void writeTo(FileChannel channel) throws IOException {
+			ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		}
+
+		byte[] array() {
+			return buf;
+		}
+	}
+
+	private final Path directory;
+
+	private final FileChannel log;
+
+	/**
+	 * The results against each list of enemies, by the name of the list.
+	 */
+	private final HashMap<String, Board> boards = new HashMap<>();
+
+	/**
+	 * Results that have been recorded but not written yet.
+	 */
+	private Batch pending = new Batch();
+
+	/**
+	 * Results being written by the background thread.
+	 */
+	private Batch writing = new Batch();
+
+	/**
+	 * Used to encode one result before adding it to {@link #pending}.
+	 */
+	private final Batch scratch = new Batch();
+
+	private final CRC32 checksum = new CRC32();
+
+	/**
+	 * How long the log will be once every recorded result has been written.
+	 */
+	private long recordedLength;
+
+	/**
+	 * How much of the log is known to be safely on the disk.
+	 */
+	private long durableLength;
+
+	/**
+	 * How much of the log the index file covers.
+	 */
+	private long indexedLength;
+
+	/**
+	 * The number of threads waiting in {@link #sync()}.
+	 */
+	private int syncWaiters;
+
+	private boolean closed;
+
+	/**
+	 * Why writing to the log failed, or null if it hasn't.
+	 */
+	private IOException failure;
+
+	/**
+	 * Writes the results in the background.
+	 */
+	private final Thread writer;
+
+	private Leaderboard(Path directory, FileChannel log) {
+		this.directory = directory;
+		this.log = log;
+		this.writer = new Thread(this::writeResults, "leaderboard-writer");
+		this.writer.setDaemon(true);
+	}
+
+	/**
+	 * Open the leaderboard kept in a directory, creating it if it doesn't exist.
+	 * Any result at the end of the log that was only partly written is thrown
+	 * away.
+	 *
+	 * @param directory The directory.
+	 * @return The leaderboard.
+	 * @throws IOException If the files can't be read, or aren't a leaderboard.
+	 */
+	public static Leaderboard open(Path directory) throws IOException {
+		Files.createDirectories(directory);
+		FileChannel log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		Leaderboard leaderboard = new Leaderboard(directory, log);
+		try {
+			leaderboard.load();
+		} catch (IOException | RuntimeException e) {
+			log.close();
+			throw e;
+		}
+		leaderboard.writer.start();
+		return leaderboard;
+	}
+
+	/**
+	 * Record the result of a finished game. This only waits for the leaderboard to
+	 * be updated in memory, not for the result to be written to disk.
+	 *
+	 * @param result The result.
+	 * @throws IllegalStateException If the leaderboard has been closed.
+	 * @throws UncheckedIOException  If writing to the log has failed.
+	 */
+	public synchronized void record(GameResult result) {
+		if (closed) {
+			throw new IllegalStateException("The leaderboard is closed");
+		}
+		if (failure != null) {
+			throw new UncheckedIOException(failure);
+		}
+
+		rank(result);
+
+		int start = pending.size();
+		scratch.reset();
+		result.write(scratch);
+		checksum.reset();
+		checksum.update(scratch.array(), 0, scratch.size());
+		GameResult.writeNumber(pending, scratch.size());
+		pending.write(scratch.array(), 0, scratch.size());
+		writeInt(pending, (int)checksum.getValue());
+		recordedLength += pending.size() - start;
+
+		if (start == 0) {
+			// The writer may be asleep with nothing to do.
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Wait until every result recorded so far is safely on disk.
+	 *
+	 * @throws IOException If writing to the log failed.
+	 */
+	public synchronized void sync() throws IOException {
+		long target = recordedLength;
+		++syncWaiters;
+		notifyAll();
+		try {
+			while (durableLength < target && failure == null) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the leaderboard to be written", e);
+		} finally {
+			--syncWaiters;
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Get the best results against a list of enemies.
+	 *
+	 * @param enemyList The name of the list (see {@link GameResult#describe}).
+	 * @param count     The most results to get, e.g. 100 for the top 100.
+	 * @return The best result of each of the best players, best first.
+	 */
+	public synchronized List<GameResult> getTop(String enemyList, int count) {
+		ArrayList<GameResult> top = new ArrayList<>();
+		Board board = boards.get(enemyList);
+		if (board != null) {
+			board.ranks.addBest(count, top);
+		}
+		return top;
+	}
+
+	/**
+	 * Get where a player ranks against everyone else who has played against a list
+	 * of enemies.
+	 *
+	 * @param enemyList  The name of the list.
+	 * @param playerName The name of the player.
+	 * @return The player's rank, starting from 1 for the best player, or 0 if they
+	 *         haven't played against these enemies.
+	 */
+	public synchronized int getRank(String enemyList, String playerName) {
+		Board board = boards.get(enemyList);
+		GameResult best = board == null ? null : board.bestResults.get(playerName);
+		return best == null ? 0 : board.ranks.countBetter(best) + 1;
+	}
+
+	/**
+	 * Get a player's best result against a list of enemies.
+	 *
+	 * @param enemyList  The name of the list.
+	 * @param playerName The name of the player.
+	 * @return The result, or null if they haven't played against these enemies.
+	 */
+	public synchronized GameResult getBestResult(String enemyList, String playerName) {
+		Board board = boards.get(enemyList);
+		return board == null ? null : board.bestResults.get(playerName);
+	}
+
+	/**
+	 * Get the number of players who have played against a list of enemies.
+	 *
+	 * @param enemyList The name of the list.
+	 * @return The number of players.
+	 */
+	public synchronized int getPlayerCount(String enemyList) {
+		Board board = boards.get(enemyList);
+		return board == null ? 0 : board.ranks.size();
+	}
+
+	/**
+	 * @return The names of every list of enemies with results, in alphabetical
+	 *         order.
+	 */
+	public synchronized Set<String> getEnemyLists() {
+		return new TreeSet<>(boards.keySet());
+	}
+
+	/**
+	 * Write every recorded result to disk, bring the index up to date, and close
+	 * the files. Closing a leaderboard again does nothing.
+	 *
+	 * @throws IOException If writing fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			notifyAll();
+		}
+
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		try {
+			GameResult[] snapshot;
+			synchronized (this) {
+				if (failure != null) {
+					throw failure;
+				}
+				snapshot = indexedLength == durableLength ? null : snapshot();
+			}
+			if (snapshot != null) {
+				writeIndex(snapshot, durableLength);
+			}
+		} finally {
+			log.close();
+		}
+	}
+
+	/**
+	 * Update the in-memory leaderboard with a result.
+	 */
+	private void rank(GameResult result) {
+		Board board = boards.computeIfAbsent(result.enemyList, name -> new Board());
+		GameResult best = board.bestResults.get(result.playerName);
+		if (!result.isBetterThan(best)) {
+			return;
+		}
+
+		if (best != null) {
+			board.ranks.remove(best);
+		}
+		board.bestResults.put(result.playerName, result);
+		board.ranks.add(result);
+	}
+
+	/**
+	 * Copy every player's best result, for writing to the index.
+	 */
+	private GameResult[] snapshot() {
+		ArrayList<GameResult> results = new ArrayList<>();
+		for (Board board : boards.values()) {
+			board.ranks.addBest(Integer.MAX_VALUE, results);
+		}
+		return results.toArray(new GameResult[0]);
+	}
+
+	/**
+	 * Run by the background thread: write out whatever has been recorded, every
+	 * few milliseconds, until the leaderboard is closed.
+	 */
+	private void writeResults() {
+		while (true) {
+			long end;
+			GameResult[] snapshot = null;
+			synchronized (this) {
+				try {
+					while (pending.size() == 0 && !closed) {
+						wait();
+					}
+					if (!closed && syncWaiters == 0) {
+						// Give other games a chance to finish, so their results can be written
+						// together.
+						wait(FLUSH_INTERVAL_MILLIS);
+					}
+				} catch (InterruptedException e) {
+					// Write whatever there is, and carry on.
+				}
+
+				if (pending.size() == 0) {
+					return;
+				}
+
+				Batch batch = pending;
+				pending = writing;
+				writing = batch;
+				end = durableLength + writing.size();
+				if (end - indexedLength >= INDEX_EVERY_BYTES) {
+					snapshot = snapshot();
+				}
+			}
+
+			try {
+				writing.writeTo(log);
+				log.force(false);
+				writing.reset();
+				if (snapshot != null) {
+					writeIndex(snapshot, end);
+				}
+			} catch (IOException e) {
+				synchronized (this) {
+					failure = e;
+					notifyAll();
+				}
+				System.err.println("Could not write to the leaderboard in " + directory + ": " + e);
+				return;
+			}
+
+			synchronized (this) {
+				durableLength = end;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Rewrite the index with the given results, which cover the log up to the
+	 * given length. The new index is written next to the old one and then moved
+	 * over it, so there is always a complete index.
+	 */
+	private void writeIndex(GameResult[] results, long logLength) throws IOException {
+		Batch index = new Batch();
+		index.write(INDEX_HEADER, 0, INDEX_HEADER.length);
+		writeInt(index, (int)(logLength >>> 32));
+		writeInt(index, (int)logLength);
+		GameResult.writeNumber(index, results.length);
+		for (GameResult result : results) {
+			result.write(index);
+		}
+		CRC32 indexChecksum = new CRC32();
+		indexChecksum.update(index.array(), 0, index.size());
+		writeInt(index, (int)indexChecksum.getValue());
+
+		Path temporary = directory.resolve(INDEX_FILE + ".tmp");
+		try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			index.writeTo(file);
+			file.force(false);
+		}
+		Files.move(temporary, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		synchronized (this) {
+			indexedLength = logLength;
+		}
+	}
+
+	/**
+	 * Read the index and the part of the log it doesn't cover.
+	 */
+	private void load() throws IOException {
+		long logLength = log.size();
+		if (logLength < LOG_HEADER.length) {
+			// A new log, or one that was cut off before its header was written.
+			log.truncate(0);
+			log.write(ByteBuffer.wrap(LOG_HEADER), 0);
+			log.force(true);
+			logLength = LOG_HEADER.length;
+		} else {
+			ByteBuffer header = ByteBuffer.allocate(LOG_HEADER.length);
+			log.read(header, 0);
+			if (!Arrays.equals(header.array(), LOG_HEADER)) {
+				throw new IOException(directory.resolve(LOG_FILE) + " is not a leaderboard log, or was written by a "
+						+ "different version of the game");
+			}
+		}
+
+		long start = readIndex(logLength);
+		long end = readLog(start);
+		if (end < logLength) {
+			System.err.println("Throwing away a damaged result at the end of " + directory.resolve(LOG_FILE));
+			log.truncate(end);
+			log.force(true);
+		}
+
+		log.position(end);
+		recordedLength = end;
+		durableLength = end;
+	}
+
+	/**
+	 * Load the results from the index, if there is a usable one.
+	 *
+	 * @param logLength The length of the log.
+	 * @return How much of the log the index covers, which is just the header if
+	 *         there is no index.
+	 */
+	private long readIndex(long logLength) throws IOException {
+		Path file = directory.resolve(INDEX_FILE);
+		if (!Files.exists(file)) {
+			return LOG_HEADER.length;
+		}
+
+		byte[] bytes = Files.readAllBytes(file);
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		int contentLength = bytes.length - 4;
+		if (contentLength < INDEX_HEADER.length + 8
+				|| !Arrays.equals(bytes, 0, INDEX_HEADER.length, INDEX_HEADER, 0, INDEX_HEADER.length)) {
+			return LOG_HEADER.length;
+		}
+		CRC32 indexChecksum = new CRC32();
+		indexChecksum.update(bytes, 0, contentLength);
+		if ((int)indexChecksum.getValue() != in.getInt(contentLength)) {
+			return LOG_HEADER.length;
+		}
+
+		in.position(INDEX_HEADER.length);
+		long indexedLength = in.getLong();
+		if (indexedLength < LOG_HEADER.length || indexedLength > logLength) {
+			// The index is newer than the log, which shouldn't happen. Trust the log.
+			return LOG_HEADER.length;
+		}
+
+		in.limit(contentLength);
+		int count = GameResult.readNumber(in);
+		for (int i = 0; i < count; ++i) {
+			rank(GameResult.read(in));
+		}
+		this.indexedLength = indexedLength;
+		return indexedLength;
+	}
+
+	/**
+	 * Load the results from the log, starting at the given position.
+	 *
+	 * @return The position just after the last complete result.
+	 */
+	private long readLog(long position) throws IOException {
+		InputStream in = new BufferedInputStream(Channels.newInputStream(log.position(position)), 1 << 16);
+		byte[] record = new byte[256];
+		CRC32 recordChecksum = new CRC32();
+		while (true) {
+			int length;
+			int lengthBytes = 0;
+			try {
+				length = 0;
+				for (int shift = 0;; shift += 7) {
+					int b = in.read();
+					if (b < 0) {
+						if (lengthBytes == 0) {
+							return position;
+						}
+						throw new EOFException();
+					}
+					++lengthBytes;
+					length |= (b & 0x7F) << shift;
+					if ((b & 0x80) == 0) {
+						break;
+					}
+					if (shift >= 28) {
+						return position;
+					}
+				}
+				if (length < 0) {
+					return position;
+				}
+
+				if (record.length < length + 4) {
+					record = new byte[Math.max(length + 4, record.length * 2)];
+				}
+				if (in.readNBytes(record, 0, length + 4) != length + 4) {
+					throw new EOFException();
+				}
+			} catch (EOFException e) {
+				return position;
+			}
+
+			recordChecksum.reset();
+			recordChecksum.update(record, 0, length);
+			ByteBuffer buffer = ByteBuffer.wrap(record, 0, length + 4);
+			if ((int)recordChecksum.getValue() != buffer.getInt(length)) {
+				return position;
+			}
+
+			buffer.limit(length);
+			rank(GameResult.read(buffer));
+			position += lengthBytes + length + 4;
+		}
+	}
+
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+}
@@ -0,0 +1,184 @@
+package combatgame.leaderboard;
+
+import java.util.List;
+
+/**
+ * A {@link RankIndex} keeps game results in {@link GameResult#BEST_FIRST}
+ * order, and can say where any result ranks without counting every result
+ * ahead of it.
+ *
+ * It is a treap: a binary search tree in which every node also has a random
+ * priority, and no node has a higher priority than its parent. The random
+ * priorities keep the tree balanced on average, however the results arrive.
+ * Every node knows how many nodes are under it, so finding a rank only needs
+ * one walk down the tree.
+ */
+final class RankIndex {
+	private static final class Node {
+		final GameResult result;
+
+		final int priority;
+
+		/**
+		 * The number of nodes in the tree below and including this one.
+		 */
+		int size = 1;
+
+		Node left, right;
+
+		Node(GameResult result, int priority) {
+			this.result = result;
+			this.priority = priority;
+		}
+	}
+
+	private Node root;
+
+	/**
+	 * The state of the random number generator for priorities.
+	 */
+	private int seed = 0x2545F491;
+
+	/**
+	 * @return The number of results in the index.
+	 */
+	int size() {
+		return size(root);
+	}
+
+	/**
+	 * Add a result. It must not be in the index already.
+	 *
+	 * @param result The result.
+	 */
+	void add(GameResult result) {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		root = insert(root, new Node(result, seed));
+	}
+
+	/**
+	 * Take a result out of the index.
+	 *
+	 * @param result The result. Nothing happens if it isn't in the index.
+	 */
+	void remove(GameResult result) {
+		root = delete(root, result);
+	}
+
+	/**
+	 * Get the number of results that come before a result, i.e. its rank
+	 * counting from 0.
+	 *
+	 * @param result The result, which doesn't have to be in the index.
+	 * @return The number of results that are better.
+	 */
+	int countBetter(GameResult result) {
+		int count = 0;
+		Node node = root;
+		while (node != null) {
+			int comparison = GameResult.BEST_FIRST.compare(result, node.result);
+			if (comparison <= 0) {
+				node = node.left;
+			} else {
+				count += size(node.left) + 1;
+				node = node.right;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Add the best results to a list, best first.
+	 *
+	 * @param count The most results to add.
+	 * @param into  The list to add them to.
+	 */
+	void addBest(int count, List<GameResult> into) {
+		addBest(root, count, into);
+	}
+
+	private static int addBest(Node node, int count, List<GameResult> into) {
+		if (node == null || count == 0) {
+			return count;
+		}
+		count = addBest(node.left, count, into);
+		if (count == 0) {
+			return 0;
+		}
+		into.add(node.result);
+		return addBest(node.right, count - 1, into);
+	}
+
+	private static Node insert(Node node, Node added) {
+		if (node == null) {
+			return added;
+		}
+
+		// Add the node at the bottom of the tree, then rotate it up past any nodes
+		// with lower priorities.
+		if (GameResult.BEST_FIRST.compare(added.result, node.result) < 0) {
+			node.left = insert(node.left, added);
+			if (node.left.priority > node.priority) {
+				Node left = node.left;
+				node.left = left.right;
+				left.right = update(node);
+				node = left;
+			}
+		} else {
+			node.right = insert(node.right, added);
+			if (node.right.priority > node.priority) {
+				Node right = node.right;
+				node.right = right.left;
+				right.left = update(node);
+				node = right;
+			}
+		}
+		return update(node);
+	}
+
+	private static Node delete(Node node, GameResult result) {
+		if (node == null) {
+			return null;
+		}
+
+		int comparison = GameResult.BEST_FIRST.compare(result, node.result);
+		if (comparison < 0) {
+			node.left = delete(node.left, result);
+		} else if (comparison > 0) {
+			node.right = delete(node.right, result);
+		} else {
+			return merge(node.left, node.right);
+		}
+		return update(node);
+	}
+
+	/**
+	 * Join two subtrees, where every node in the first comes before every node in
+	 * the second.
+	 */
+	private static Node merge(Node first, Node second) {
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		if (first.priority > second.priority) {
+			first.right = merge(first.right, second);
+			return update(first);
+		}
+		second.left = merge(first, second.left);
+		return update(second);
+	}
+
+	private static Node update(Node node) {
+		node.size = size(node.left) + size(node.right) + 1;
+		return node;
+	}
+
+	private static int size(Node node) {
+		return node == null ? 0 : node.size;
+	}
+}
@@ -0,0 +1,126 @@
+package combatgame.learning;
+
+import combatgame.effects.Exhaustion;
+import combatgame.effects.Status;
+import combatgame.entities.enemies.Enemy;
+import combatgame.player.Player;
+
+/**
+ * {@link EnemyTactics} are the moves an enemy with a learned {@link Policy} can
+ * choose from, and the way it sees the fight when choosing.
+ *
+ * The moves are:
+ *
+ * <ul>
+ * <li>{@link #ATTACK}: a normal attack.</li>
+ * <li>{@link #HEAVY_ATTACK}: an attack for double damage, after which the enemy
+ * is too tired to attack on its next turn.</li>
+ * <li>{@link #RECOVER}: step back and restore 1 health, up to the health the
+ * enemy started with.</li>
+ * </ul>
+ *
+ * There are far too many different fights for an enemy to learn what to do in
+ * each of them, so the enemy only looks at a few things: roughly how much
+ * health it and the player have left, whether the player is blocking, whether
+ * it is tired and whether the player has any items left. Each combination of
+ * these is a numbered state, and a policy has one move for each state.
+ */
+public final class EnemyTactics {
+	public static final int ATTACK = 0;
+
+	public static final int HEAVY_ATTACK = 1;
+
+	public static final int RECOVER = 2;
+
+	/**
+	 * The number of different moves.
+	 */
+	public static final int ACTION_COUNT = 3;
+
+	/**
+	 * How finely health is measured: each health amount is put into one of this
+	 * many levels.
+	 */
+	private static final int HEALTH_LEVELS = 4;
+
+	/**
+	 * The player's health is put into levels of this many hitpoints each, since
+	 * we don't know how much health they started with.
+	 */
+	private static final int PLAYER_HEALTH_PER_LEVEL = 3;
+
+	/**
+	 * The number of different states an enemy can see.
+	 */
+	public static final int STATE_COUNT = HEALTH_LEVELS * HEALTH_LEVELS * 2 * 2 * 2;
+
+	/**
+	 * How long a heavy attack tires the enemy out for. Effects wear off at the end
+	 * of each round, including the round they started in, so this lasts through
+	 * the enemy's next turn.
+	 */
+	private static final int HEAVY_ATTACK_EXHAUSTION_TURNS = 2;
+
+	private static final String ATTACK_DESCRIPTION = "The %s jabs at you with its spear!";
+
+	private static final String HEAVY_ATTACK_DESCRIPTION = "The %s lunges at you with all its strength!";
+
+	private static final String RECOVER_DESCRIPTION = "The %s steps back and catches its breath.";
+
+	private static final String TIRED_DESCRIPTION = "The %s is too exhausted to attack.";
+
+	private EnemyTactics() {
+	}
+
+	/**
+	 * Work out which state an enemy is in.
+	 *
+	 * @param enemy  The enemy whose turn it is.
+	 * @param player The player it is fighting.
+	 * @return The state, from 0 up to {@link #STATE_COUNT}.
+	 */
+	public static int observe(Enemy enemy, Player player) {
+		int maxHealth = Math.max(1, enemy.getDefinition().startingHealth);
+		int enemyHealth = Math.min(HEALTH_LEVELS - 1,
+				Math.max(0, enemy.getHealth() - 1) * HEALTH_LEVELS / maxHealth);
+		int playerHealth = Math.min(HEALTH_LEVELS - 1, Math.max(0, player.getHealth()) / PLAYER_HEALTH_PER_LEVEL);
+
+		int state = enemyHealth * HEALTH_LEVELS + playerHealth;
+		state = state * 2 + (player.getEffects().has(Status.BLOCKING) ? 1 : 0);
+		state = state * 2 + (enemy.isTired() ? 1 : 0);
+		state = state * 2 + (player.getInventory().size() > 0 ? 1 : 0);
+		return state;
+	}
+
+	/**
+	 * Make a move.
+	 *
+	 * @param enemy  The enemy whose turn it is.
+	 * @param player The player it is fighting.
+	 * @param action The move, e.g. {@link #ATTACK}. A tired enemy can't attack, so
+	 *               it wastes its turn if it tries.
+	 */
+	public static void perform(Enemy enemy, Player player, int action) {
+		if (action == RECOVER) {
+			enemy.getEventSink().enemyActed(enemy, RECOVER_DESCRIPTION);
+			if (enemy.getHealth() < enemy.getDefinition().startingHealth) {
+				enemy.restoreHealth(1);
+			}
+			return;
+		}
+
+		if (enemy.isTired()) {
+			enemy.getEventSink().enemyActed(enemy, TIRED_DESCRIPTION);
+			return;
+		}
+
+		if (action == HEAVY_ATTACK) {
+			enemy.getEventSink().enemyActed(enemy, HEAVY_ATTACK_DESCRIPTION);
+			player.takeDamage(enemy.getAttackPower() * 2);
+			enemy.getEffects().apply(Exhaustion.INSTANCE, 0, HEAVY_ATTACK_EXHAUSTION_TURNS);
+		} else {
+			enemy.getEventSink().enemyActed(enemy, ATTACK_DESCRIPTION);
+			player.takeDamage(enemy.getAttackPower());
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package combatgame.learning;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyBehavior;
+import combatgame.player.Player;
+
+/**
+ * A {@link Policy} is an {@link EnemyBehavior} learned by a
+ * {@link QLearningTrainer}: for each state an enemy can see (see
+ * {@link EnemyTactics#observe}), the move it makes. A policy never changes
+ * once it has been learned, so it can be shared like any other behavior.
+ *
+ * A policy is just an array with one move per state, so it is tiny. It can be
+ * written as a string of digits, one per state, to paste into the code of an
+ * enemy (see {@link #toString()}), or saved in a file.
+ */
+public final class Policy implements EnemyBehavior {
+	/**
+	 * The bytes every saved policy starts with, including the format version.
+	 */
+	private static final byte[] HEADER = { 'C', 'G', 'P', 1 };
+
+	/**
+	 * The move for each state.
+	 */
+	private final byte[] actions;
+
+	private Policy(byte[] actions) {
+		this.actions = actions;
+	}
+
+	/**
+	 * Create a policy from the move for each state.
+	 *
+	 * @param actions The move for each state.
+	 * @return The policy.
+	 * @throws IllegalArgumentException If there isn't one valid move per state.
+	 */
+	public static Policy of(byte[] actions) {
+		if (actions.length != EnemyTactics.STATE_COUNT) {
+			throw new IllegalArgumentException(
+					"A policy needs " + EnemyTactics.STATE_COUNT + " moves, not " + actions.length);
+		}
+		for (byte action : actions) {
+			if (action < 0 || action >= EnemyTactics.ACTION_COUNT) {
+				throw new IllegalArgumentException("Unknown move: " + action);
+			}
+		}
+		return new Policy(actions.clone());
+	}
+
+	/**
+	 * Read a policy written by {@link #toString()}.
+	 *
+	 * @param digits One digit per state.
+	 * @return The policy.
+	 * @throws IllegalArgumentException If the digits aren't a policy.
+	 */
+	public static Policy parse(String digits) {
+		byte[] actions = new byte[digits.length()];
+		for (int i = 0; i < actions.length; ++i) {
+			actions[i] = (byte)(digits.charAt(i) - '0');
+		}
+		return of(actions);
+	}
+
+	/**
+	 * Get the move for a state.
+	 *
+	 * @param state The state.
+	 * @return The move.
+	 */
+	public int getAction(int state) {
+		return actions[state];
+	}
+
+	@Override
+	public void performCombatAction(Enemy enemy, Player player) {
+		EnemyTactics.perform(enemy, player, actions[EnemyTactics.observe(enemy, player)]);
+	}
+
+	/**
+	 * Count the states where this policy and another one choose different moves.
+	 *
+	 * @param other The other policy.
+	 * @return The number of states.
+	 */
+	public int countDifferences(Policy other) {
+		int differences = 0;
+		for (int state = 0; state < actions.length; ++state) {
+			if (actions[state] != other.actions[state]) {
+				++differences;
+			}
+		}
+		return differences;
+	}
+
+	/**
+	 * Save this policy: the four bytes {@code C G P} and the format version, then
+	 * one byte per state.
+	 *
+	 * @param out Where to write the policy. It is not flushed or closed.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(OutputStream out) throws IOException {
+		out.write(HEADER);
+		out.write(actions);
+	}
+
+	/**
+	 * Read a policy saved by {@link #write}.
+	 *
+	 * @param in Where to read the policy from.
+	 * @return The policy.
+	 * @throws IOException If reading fails, or the data is not a policy.
+	 */
+	public static Policy read(InputStream in) throws IOException {
+		byte[] header = in.readNBytes(HEADER.length);
+		for (int i = 0; i < HEADER.length; ++i) {
+			if (i >= header.length || header[i] != HEADER[i]) {
+				throw new IOException("Not a policy, or written by a different version of the game");
+			}
+		}
+
+		byte[] actions = in.readNBytes(EnemyTactics.STATE_COUNT);
+		if (actions.length != EnemyTactics.STATE_COUNT) {
+			throw new EOFException("Policy ends too soon");
+		}
+		try {
+			return of(actions);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return The move for each state as a digit, e.g. {@code "0120..."}.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder digits = new StringBuilder(actions.length);
+		for (byte action : actions) {
+			digits.append((char)('0' + action));
+		}
+		return digits.toString();
+	}
+}
@@ -0,0 +1,438 @@
+package combatgame.learning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+import combatgame.CombatGameEngine;
+import combatgame.effects.Status;
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.events.NullEventSink;
+import combatgame.player.Player;
+
+/**
+ * A {@link QLearningTrainer} teaches an enemy how to fight, by having it fight
+ * scripted players over and over and learning from what happens. The result
+ * is a {@link Policy} that the enemy can use as its behavior.
+ *
+ * It uses Q-learning. The trainer keeps a {@link QTable} with an estimate of
+ * what each move is worth in each state. After each move, the enemy sees what
+ * it gained (damage dealt and health restored) and lost (damage taken), plus a
+ * big reward for winning or penalty for losing. It nudges its estimate for the
+ * move towards what it gained plus the value of the best move in the state it
+ * ended up in. Most of the time the enemy makes the move that looks best so
+ * far, but now and then it tries something at random, in case that turns out
+ * to be better.
+ *
+ * Training happens in rounds. In each round, every thread of the pool plays
+ * games with its own copy of the table, and at the end of the round the copies
+ * are merged. Training has converged when the best move in every state has
+ * stayed the same for {@link #STABLE_ROUNDS} rounds in a row, ignoring moves
+ * that are only a tiny bit better than the one already chosen.
+ */
+public class QLearningTrainer {
+	/**
+	 * The number of rounds in a row without any change to the policy, after
+	 * which training has converged.
+	 */
+	public static final int STABLE_ROUNDS = 5;
+
+	/**
+	 * How far each estimate moves towards what was seen in the first round. This
+	 * goes down every round, to {@link #MIN_LEARNING_RATE}, so that the estimates
+	 * settle down instead of being pushed around by every lucky game.
+	 */
+	private static final double START_LEARNING_RATE = 0.1;
+
+	private static final double MIN_LEARNING_RATE = 0.001;
+
+	private static final double LEARNING_RATE_DECAY = 0.9;
+
+	/**
+	 * How much better another move must look before the policy switches to it.
+	 * Without this, states where two moves are worth about the same would keep
+	 * switching back and forth, and training would never converge.
+	 */
+	private static final float CHANGE_THRESHOLD = 0.1f;
+
+	/**
+	 * How much rewards on later turns count compared to rewards now.
+	 */
+	private static final double DISCOUNT = 0.9;
+
+	/**
+	 * How often the enemy tries a random move in the first round. This goes down
+	 * every round, to {@link #MIN_EXPLORATION}.
+	 */
+	private static final double START_EXPLORATION = 0.3;
+
+	private static final double MIN_EXPLORATION = 0.05;
+
+	private static final double EXPLORATION_DECAY = 0.9;
+
+	/**
+	 * The reward for killing the player, and the penalty for dying.
+	 */
+	private static final double VICTORY_REWARD = 10;
+
+	/**
+	 * The kind of enemy being trained. Its behavior is ignored.
+	 */
+	private final EnemyDefinition enemyDefinition;
+
+	/**
+	 * Create the players to train against, given a seed for anything they do at
+	 * random. One is picked at random for each game.
+	 */
+	private final List<LongFunction<Player>> opponents;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * The merged table, from the end of the last round.
+	 */
+	private final QTable table = new QTable();
+
+	/**
+	 * Gives each thread its own random numbers every round.
+	 */
+	private final SplittableRandom random;
+
+	private Policy policy;
+
+	private int rounds;
+
+	private long games;
+
+	/**
+	 * The number of rounds in a row that haven't changed the policy.
+	 */
+	private int stableRounds;
+
+	/**
+	 * The number of states in which the last round changed the policy.
+	 */
+	private int changes;
+
+	/**
+	 * The fraction of games the enemy won in the last round.
+	 */
+	private double winRate;
+
+	/**
+	 * Construct a new {@link QLearningTrainer} that uses the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param enemyDefinition The kind of enemy to train.
+	 * @param opponents       Create the players to train against.
+	 * @param seed            Decides everything about training that is left to
+	 *                        chance.
+	 */
+	public QLearningTrainer(EnemyDefinition enemyDefinition, List<LongFunction<Player>> opponents, long seed) {
+		this(enemyDefinition, opponents, seed, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Construct a new {@link QLearningTrainer}.
+	 *
+	 * @param enemyDefinition The kind of enemy to train.
+	 * @param opponents       Create the players to train against.
+	 * @param seed            Decides everything about training that is left to
+	 *                        chance.
+	 * @param pool            The pool to train on. Each round uses as many
+	 *                        threads as the pool has.
+	 */
+	public QLearningTrainer(EnemyDefinition enemyDefinition, List<LongFunction<Player>> opponents, long seed,
+			ForkJoinPool pool) {
+		if (opponents.isEmpty()) {
+			throw new IllegalArgumentException("There must be at least one player to train against");
+		}
+		this.enemyDefinition = enemyDefinition;
+		this.opponents = List.copyOf(opponents);
+		this.random = new SplittableRandom(seed);
+		this.pool = pool;
+		this.policy = table.toPolicy();
+	}
+
+	/**
+	 * Train until the policy converges, or until the given number of rounds have
+	 * been played, whichever comes first.
+	 *
+	 * @param maxRounds      The most rounds to train for.
+	 * @param gamesPerRound  The number of games to play in each round, across all
+	 *                       threads.
+	 * @param afterEachRound Called after each round, e.g. to show progress, or
+	 *                       null.
+	 * @return The policy.
+	 */
+	public Policy train(int maxRounds, int gamesPerRound, Runnable afterEachRound) {
+		while (rounds < maxRounds && !hasConverged()) {
+			trainRound(gamesPerRound);
+			if (afterEachRound != null) {
+				afterEachRound.run();
+			}
+		}
+		return policy;
+	}
+
+	/**
+	 * Play one round of games, and merge what every thread learned.
+	 *
+	 * @param games The number of games to play, across all threads.
+	 * @return The number of states in which the best move changed.
+	 */
+	public int trainRound(int games) {
+		int threads = pool.getParallelism();
+		double exploration = Math.max(MIN_EXPLORATION, START_EXPLORATION * Math.pow(EXPLORATION_DECAY, rounds));
+		double learningRate = Math.max(MIN_LEARNING_RATE,
+				START_LEARNING_RATE * Math.pow(LEARNING_RATE_DECAY, rounds));
+		List<Callable<Learner>> tasks = new ArrayList<>(threads);
+		for (int thread = 0; thread < threads; ++thread) {
+			int threadGames = games / threads + (thread < games % threads ? 1 : 0);
+			Learner learner = new Learner(table.copy(), random.split(), exploration, learningRate);
+			tasks.add(() -> learner.play(threadGames));
+		}
+
+		QTable[] copies = new QTable[threads];
+		long enemyWins = 0;
+		try {
+			List<Future<Learner>> results = pool.invokeAll(tasks);
+			for (int thread = 0; thread < threads; ++thread) {
+				Learner learner = results.get(thread).get();
+				copies[thread] = learner.table;
+				enemyWins += learner.enemyWins;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while training", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Training failed", e.getCause());
+		}
+		table.merge(copies);
+
+		Policy newPolicy = table.toPolicy(policy, CHANGE_THRESHOLD);
+		changes = newPolicy.countDifferences(policy);
+		policy = newPolicy;
+		stableRounds = changes == 0 ? stableRounds + 1 : 0;
+		++rounds;
+		this.games += games;
+		winRate = games == 0 ? 0 : (double)enemyWins / games;
+		return changes;
+	}
+
+	/**
+	 * Find out how well a policy does against the players being trained against,
+	 * without trying any random moves.
+	 *
+	 * @param policy The policy to play with, e.g. {@link #getPolicy()}.
+	 * @param games  The number of games to play.
+	 * @return The fraction of games the enemy won.
+	 */
+	public double evaluate(Policy policy, int games) {
+		SplittableRandom random = this.random.split();
+		long enemyWins = 0;
+		for (int game = 0; game < games; ++game) {
+			Player player = opponents.get(random.nextInt(opponents.size())).apply(random.nextLong());
+			Enemy enemy = new PolicyEnemy(enemyDefinition, policy);
+			new CombatGameEngine(player, new Enemy[] { enemy }, NullEventSink.INSTANCE).run();
+			if (player.isDead()) {
+				++enemyWins;
+			}
+		}
+		return games == 0 ? 0 : (double)enemyWins / games;
+	}
+
+	/**
+	 * @return True if the policy has stopped changing.
+	 */
+	public boolean hasConverged() {
+		return stableRounds >= STABLE_ROUNDS;
+	}
+
+	/**
+	 * @return The best move in each state, as learned so far.
+	 */
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @return The number of rounds trained so far.
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * @return The number of states in which the last round changed the policy.
+	 */
+	public int getChanges() {
+		return changes;
+	}
+
+	/**
+	 * @return The number of games played so far.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The fraction of games the enemy won in the last round, while still
+	 *         trying random moves now and then.
+	 */
+	public double getWinRate() {
+		return winRate;
+	}
+
+	/**
+	 * Plays games for one thread during a round, learning as it goes.
+	 */
+	private final class Learner {
+		final QTable table;
+
+		final SplittableRandom random;
+
+		/**
+		 * How often to try a random move.
+		 */
+		final double exploration;
+
+		final double learningRate;
+
+		long enemyWins;
+
+		/**
+		 * The state the enemy made its last move in, or -1 if it hasn't moved yet
+		 * this game.
+		 */
+		int lastState = -1;
+
+		int lastAction;
+
+		/**
+		 * The health of the player and the enemy when the last move was made.
+		 */
+		int lastPlayerHealth, lastEnemyHealth;
+
+		Learner(QTable table, SplittableRandom random, double exploration, double learningRate) {
+			this.table = table;
+			this.random = random;
+			this.exploration = exploration;
+			this.learningRate = learningRate;
+		}
+
+		Learner play(int games) {
+			for (int game = 0; game < games; ++game) {
+				Player player = opponents.get(random.nextInt(opponents.size())).apply(random.nextLong());
+				Enemy enemy = new TrainingEnemy(enemyDefinition, this);
+				new CombatGameEngine(player, new Enemy[] { enemy }, NullEventSink.INSTANCE).run();
+				finish(enemy, player);
+			}
+			return this;
+		}
+
+		/**
+		 * Learn from the enemy's last move, and choose its next one.
+		 */
+		int choose(Enemy enemy, Player player) {
+			int state = EnemyTactics.observe(enemy, player);
+			if (lastState >= 0) {
+				table.update(lastState, lastAction, reward(enemy, player) + DISCOUNT * table.getBestValue(state),
+						learningRate);
+			}
+
+			int action;
+			if (random.nextDouble() < exploration) {
+				action = random.nextInt(EnemyTactics.ACTION_COUNT);
+			} else {
+				action = table.getBestAction(state);
+			}
+
+			lastState = state;
+			lastAction = action;
+			lastPlayerHealth = Math.max(0, player.getHealth());
+			lastEnemyHealth = Math.max(0, enemy.getHealth());
+			return action;
+		}
+
+		/**
+		 * Learn from the enemy's last move once the game is over. Nothing comes
+		 * after it, so only what it led to counts.
+		 */
+		void finish(Enemy enemy, Player player) {
+			if (player.isDead()) {
+				++enemyWins;
+			}
+			if (lastState >= 0) {
+				double reward = reward(enemy, player);
+				if (player.isDead()) {
+					reward += VICTORY_REWARD;
+				} else if (enemy.isDead()) {
+					reward -= VICTORY_REWARD;
+				}
+				table.update(lastState, lastAction, reward, learningRate);
+			}
+			lastState = -1;
+		}
+
+		/**
+		 * What the enemy gained since its last move: the damage it dealt, minus the
+		 * health it lost.
+		 */
+		private double reward(Enemy enemy, Player player) {
+			int damageDealt = lastPlayerHealth - Math.max(0, player.getHealth());
+			int healthLost = lastEnemyHealth - Math.max(0, enemy.getHealth());
+			return damageDealt - healthLost;
+		}
+	}
+
+	/**
+	 * An enemy that follows a policy, whatever behavior its definition has.
+	 */
+	private static final class PolicyEnemy extends Enemy {
+		private final Policy policy;
+
+		PolicyEnemy(EnemyDefinition definition, Policy policy) {
+			super(definition);
+			this.policy = policy;
+		}
+
+		@Override
+		public void performCombatAction(Player player) {
+			if (getEffects().has(Status.STUNNED)) {
+				super.performCombatAction(player);
+				return;
+			}
+			policy.performCombatAction(this, player);
+		}
+	}
+
+	/**
+	 * An enemy that asks a {@link Learner} what to do.
+	 */
+	private static final class TrainingEnemy extends Enemy {
+		private final Learner learner;
+
+		TrainingEnemy(EnemyDefinition definition, Learner learner) {
+			super(definition);
+			this.learner = learner;
+		}
+
+		@Override
+		public void performCombatAction(Player player) {
+			if (getEffects().has(Status.STUNNED)) {
+				// Let the enemy lose its turn the usual way.
+				super.performCombatAction(player);
+				return;
+			}
+			EnemyTactics.perform(this, player, learner.choose(this, player));
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package combatgame.learning;
+
+/**
+ * A {@link QTable} holds what a {@link QLearningTrainer} has learned so far:
+ * for each state and move, how much the move is expected to be worth to the
+ * enemy, counting everything that is likely to happen afterwards.
+ *
+ * Each training thread works on its own copy of the table, so the threads
+ * never have to wait for each other. The copies are merged back together every
+ * so often (see {@link #merge}).
+ */
+final class QTable {
+	/**
+	 * The value of each move in each state, at index
+	 * {@code state * ACTION_COUNT + action}.
+	 */
+	final float[] values = new float[EnemyTactics.STATE_COUNT * EnemyTactics.ACTION_COUNT];
+
+	/**
+	 * The number of times each value has been updated since this copy was made.
+	 */
+	final int[] updates = new int[values.length];
+
+	/**
+	 * Make a copy of this table, with no updates counted yet.
+	 *
+	 * @return The copy.
+	 */
+	QTable copy() {
+		QTable copy = new QTable();
+		System.arraycopy(values, 0, copy.values, 0, values.length);
+		return copy;
+	}
+
+	/**
+	 * Get the move that looks best in a state. Ties go to the first move.
+	 *
+	 * @param state The state.
+	 * @return The move.
+	 */
+	int getBestAction(int state) {
+		int first = state * EnemyTactics.ACTION_COUNT;
+		int best = 0;
+		for (int action = 1; action < EnemyTactics.ACTION_COUNT; ++action) {
+			if (values[first + action] > values[first + best]) {
+				best = action;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Get the value of the best move in a state.
+	 *
+	 * @param state The state.
+	 * @return The value.
+	 */
+	float getBestValue(int state) {
+		return values[state * EnemyTactics.ACTION_COUNT + getBestAction(state)];
+	}
+
+	/**
+	 * Move the value of a move some of the way towards a new estimate.
+	 *
+	 * @param state        The state the move was made in.
+	 * @param action       The move.
+	 * @param target       The new estimate of what the move is worth.
+	 * @param learningRate How far to move, from 0 (not at all) to 1 (all the way).
+	 */
+	void update(int state, int action, double target, double learningRate) {
+		int index = state * EnemyTactics.ACTION_COUNT + action;
+		values[index] += (float)((target - values[index]) * learningRate);
+		++updates[index];
+	}
+
+	/**
+	 * Merge copies of this table back into it. Each value becomes the average of
+	 * the copies' values, weighted by how many times each copy updated it. Values
+	 * that no copy updated stay the same.
+	 *
+	 * @param copies The copies, made with {@link #copy()}.
+	 */
+	void merge(QTable[] copies) {
+		for (int index = 0; index < values.length; ++index) {
+			double sum = 0;
+			long count = 0;
+			for (QTable copy : copies) {
+				sum += (double)copy.values[index] * copy.updates[index];
+				count += copy.updates[index];
+			}
+			if (count > 0) {
+				values[index] = (float)(sum / count);
+			}
+		}
+	}
+
+	/**
+	 * Get the best move for every state.
+	 *
+	 * @return The policy.
+	 */
+	Policy toPolicy() {
+		byte[] actions = new byte[EnemyTactics.STATE_COUNT];
+		for (int state = 0; state < actions.length; ++state) {
+			actions[state] = (byte)getBestAction(state);
+		}
+		return Policy.of(actions);
+	}
+
+	/**
+	 * Get the best move for every state, but keep the move an older policy chose
+	 * unless the best move is clearly better.
+	 *
+	 * @param previous  The older policy.
+	 * @param threshold How much more the best move must be worth to replace the
+	 *                  older policy's move.
+	 * @return The policy.
+	 */
+	Policy toPolicy(Policy previous, float threshold) {
+		byte[] actions = new byte[EnemyTactics.STATE_COUNT];
+		for (int state = 0; state < actions.length; ++state) {
+			int first = state * EnemyTactics.ACTION_COUNT;
+			int best = getBestAction(state);
+			int kept = previous.getAction(state);
+			actions[state] = (byte)(values[first + best] - values[first + kept] > threshold ? best : kept);
+		}
+		return Policy.of(actions);
+	}
+}
@@ -0,0 +1,57 @@
+package combatgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for resolving the action a player chose, after
+ * they have chosen it.
+ */
+@Name("combatgame.Action")
+@Label("Combat Action")
+@Category("Combat Game")
+@Description("Resolving the action the player chose")
+public final class ActionEvent extends Event {
+	@Label("Player")
+	private String player;
+
+	@Label("Action")
+	@Description("The kind of action, e.g. AttackAction")
+	private String action;
+
+	/**
+	 * Begin an action event, if the Flight Recorder is recording them.
+	 *
+	 * @return The event, or null if it wouldn't be recorded.
+	 */
+	public static ActionEvent beginIfRecording() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		ActionEvent event = new ActionEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End this event, and record it if it should be.
+	 *
+	 * @param player The name of the player.
+	 * @param action The action they took.
+	 */
+	public void finish(String player, Object action) {
+		end();
+		if (shouldCommit()) {
+			this.player = player;
+			this.action = action.getClass().getSimpleName();
+			commit();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package combatgame.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Counter} counts something that happens during the game, e.g. turns
+ * taken or items used. Any number of threads can add to it at once without
+ * waiting for each other.
+ */
+public final class Counter {
+	/**
+	 * The name of this Counter, as shown in dumps and over JMX.
+	 */
+	public final String name;
+
+	/**
+	 * What this Counter counts.
+	 */
+	public final String description;
+
+	private final LongAdder count = new LongAdder();
+
+	Counter(String name, String description) {
+		this.name = name;
+		this.description = description;
+	}
+
+	/**
+	 * Count one more.
+	 */
+	public void increment() {
+		count.increment();
+	}
+
+	/**
+	 * Count several more at once.
+	 *
+	 * @param amount The number to add.
+	 */
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	/**
+	 * Get the count so far.
+	 *
+	 * @return The count.
+	 */
+	public long get() {
+		return count.sum();
+	}
+}
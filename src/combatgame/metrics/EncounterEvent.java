@@ -0,0 +1,69 @@
+package combatgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for an encounter, from when its enemies come in
+ * until they are all defeated or the player dies.
+ */
+@Name("combatgame.Encounter")
+@Label("Encounter")
+@Category("Combat Game")
+@Description("An encounter, from when its enemies come in until it is over")
+public final class EncounterEvent extends Event {
+	@Label("Player")
+	private String player;
+
+	@Label("Enemies")
+	@Description("The number of enemies in the encounter when it began")
+	private int enemies;
+
+	@Label("Turns")
+	@Description("The number of turns the player took")
+	private int turns;
+
+	@Label("Player Survived")
+	private boolean playerSurvived;
+
+	/**
+	 * Begin an encounter event, if the Flight Recorder is recording them.
+	 *
+	 * @return The event, or null if it wouldn't be recorded.
+	 */
+	public static EncounterEvent beginIfRecording() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		EncounterEvent event = new EncounterEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End this event, and record it if it should be.
+	 *
+	 * @param player         The name of the player.
+	 * @param enemies        The number of enemies in the encounter when it
+	 *                       began.
+	 * @param turns          The number of turns the player took.
+	 * @param playerSurvived Whether the player survived the encounter.
+	 */
+	public void finish(String player, int enemies, int turns, boolean playerSurvived) {
+		end();
+		if (shouldCommit()) {
+			this.player = player;
+			this.enemies = enemies;
+			this.turns = turns;
+			this.playerSurvived = playerSurvived;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package combatgame.metrics;
+
+/**
+ * The {@link GameMetrics} are the numbers every game in this program adds to:
+ * how many games and encounters have been played, how long players take to
+ * choose, how long their actions take to resolve, and how many turns each
+ * encounter lasts. They are all kept in {@link #REGISTRY}, to be shown over JMX
+ * or printed (see {@link MetricsRegistry}).
+ *
+ * Games are played millions of times a second in simulations, so the engine
+ * only adds its turns up once per encounter, and only one action in
+ * {@link #RESOLUTION_SAMPLE_INTERVAL} is timed. Reading the clock costs about
+ * as much as a whole turn.
+ *
+ * The game also reports JDK Flight Recorder events, e.g. {@link TurnEvent}.
+ * They are only created while the Flight Recorder is recording them (see
+ * {@code beginIfRecording()} on each of them), so the game makes no garbage
+ * while nobody is watching.
+ *
+ * An engine that is playing a game through again, e.g. to catch a hibernating
+ * server session up or to rewind a game, adds nothing to these while it
+ * catches up (see {@link combatgame.CombatGameEngine#setFastForwarding}), so
+ * turns are only counted once.
+ */
+public final class GameMetrics {
+	/**
+	 * How often a player's action is timed for {@link #RESOLUTION}. This must be
+	 * a power of two.
+	 */
+	public static final int RESOLUTION_SAMPLE_INTERVAL = 64;
+
+	/**
+	 * Every metric below.
+	 */
+	public static final MetricsRegistry REGISTRY = new MetricsRegistry("combatgame");
+
+	public static final Counter GAMES = REGISTRY.counter("games", "Games played to the end");
+
+	public static final Counter GAMES_WON = REGISTRY.counter("gamesWon", "Games the player won");
+
+	public static final Counter ENCOUNTERS = REGISTRY.counter("encounters", "Encounters played to the end");
+
+	public static final Counter TURNS = REGISTRY.counter("turns", "Turns the player has taken");
+
+	public static final Counter ITEMS_USED = REGISTRY.counter("itemsUsed", "Items players have used");
+
+	public static final Histogram INPUT_WAIT = REGISTRY.histogram("inputWaitNanos",
+			"Nanoseconds spent waiting for a player to choose");
+
+	public static final Histogram RESOLUTION = REGISTRY.histogram("resolutionNanos",
+			"Nanoseconds taken to resolve a player's action, for one action in every "
+					+ RESOLUTION_SAMPLE_INTERVAL);
+
+	public static final Histogram TURNS_PER_ENCOUNTER = REGISTRY.histogram("turnsPerEncounter",
+			"Turns the player took in each encounter");
+
+	private GameMetrics() {
+	}
+}
@@ -0,0 +1,124 @@
+package combatgame.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Histogram} keeps track of how a measurement is spread out, e.g. how
+ * long players take to choose, so that it can report the typical value and the
+ * worst ones as well as the average.
+ *
+ * Values are counted in buckets by powers of two: 0, 1, 2 to 3, 4 to 7, and so
+ * on. A percentile is reported as the top of its bucket, so it is never more
+ * than twice the real value. Any number of threads can record at once without
+ * waiting for each other.
+ */
+public final class Histogram {
+	/**
+	 * One bucket for 0 and one for each power of two below
+	 * {@link Long#MAX_VALUE}.
+	 */
+	private static final int BUCKET_COUNT = 64;
+
+	/**
+	 * The name of this Histogram, as shown in dumps and over JMX.
+	 */
+	public final String name;
+
+	/**
+	 * What this Histogram measures.
+	 */
+	public final String description;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	private final LongAdder total = new LongAdder();
+
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram(String name, String description) {
+		this.name = name;
+		this.description = description;
+	}
+
+	/**
+	 * Record a measurement.
+	 *
+	 * @param value The value measured. Negative values are counted as 0.
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+		total.add(value);
+
+		// The maximum rarely changes, so only update it when it does.
+		long oldMax;
+		while (value > (oldMax = max.get()) && !max.compareAndSet(oldMax, value)) {
+			// Another thread changed it first, so try again.
+		}
+	}
+
+	/**
+	 * Get the number of measurements recorded.
+	 *
+	 * @return The number of measurements.
+	 */
+	public long getCount() {
+		long n = 0;
+		for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+			n += buckets.get(bucket);
+		}
+		return n;
+	}
+
+	/**
+	 * Get the average of the measurements.
+	 *
+	 * @return The average, or 0 if nothing has been recorded.
+	 */
+	public double getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : (double)total.sum() / n;
+	}
+
+	/**
+	 * Get the largest measurement.
+	 *
+	 * @return The largest value recorded, or 0 if nothing has been recorded.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Find a value that the given share of the measurements are no bigger than,
+	 * e.g. 0.99 for the value that only 1% of measurements go over.
+	 *
+	 * @param fraction The share of the measurements, from 0 to 1.
+	 * @return The value, which is no more than twice the real one, or 0 if
+	 *         nothing has been recorded.
+	 */
+	public long getPercentile(double fraction) {
+		long[] counts = new long[BUCKET_COUNT];
+		long n = 0;
+		for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+			counts[bucket] = buckets.get(bucket);
+			n += counts[bucket];
+		}
+		if (n == 0) {
+			return 0;
+		}
+
+		long wanted = Math.max(1, (long)Math.ceil(fraction * n));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+			seen += counts[bucket];
+			if (seen >= wanted) {
+				// The top of bucket b is 2^b - 1.
+				return Math.min(getMax(), (1L << bucket) - 1);
+			}
+		}
+		return getMax();
+	}
+}
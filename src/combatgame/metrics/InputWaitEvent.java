@@ -0,0 +1,58 @@
+package combatgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for the time spent waiting for a player to
+ * choose.
+ */
+@Name("combatgame.InputWait")
+@Label("Input Wait")
+@Category("Combat Game")
+@Description("Waiting for a player to choose")
+public final class InputWaitEvent extends Event {
+	@Label("Controller")
+	@Description("The kind of controller that was waiting, e.g. ConsoleController")
+	private String controller;
+
+	@Label("Choice")
+	@Description("What the player chose")
+	private int choice;
+
+	/**
+	 * Begin an input wait event, if the Flight Recorder is recording them.
+	 *
+	 * @return The event, or null if it wouldn't be recorded.
+	 */
+	public static InputWaitEvent beginIfRecording() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		InputWaitEvent event = new InputWaitEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End this event, and record it if it should be.
+	 *
+	 * @param controller The controller that was waiting.
+	 * @param choice     What the player chose.
+	 */
+	public void finish(Object controller, int choice) {
+		end();
+		if (shouldCommit()) {
+			this.controller = controller.getClass().getSimpleName();
+			this.choice = choice;
+			commit();
+		}
+	}
+}
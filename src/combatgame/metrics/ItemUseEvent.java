@@ -0,0 +1,53 @@
+package combatgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for a player using an item.
+ */
+@Name("combatgame.ItemUse")
+@Label("Item Use")
+@Category("Combat Game")
+public final class ItemUseEvent extends Event {
+	@Label("Player")
+	private String player;
+
+	@Label("Item")
+	private String item;
+
+	/**
+	 * Begin an item use event, if the Flight Recorder is recording them.
+	 *
+	 * @return The event, or null if it wouldn't be recorded.
+	 */
+	public static ItemUseEvent beginIfRecording() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		ItemUseEvent event = new ItemUseEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End this event, and record it if it should be.
+	 *
+	 * @param player The name of the player.
+	 * @param item   The name of the item they used.
+	 */
+	public void finish(String player, String item) {
+		end();
+		if (shouldCommit()) {
+			this.player = player;
+			this.item = item;
+			commit();
+		}
+	}
+}
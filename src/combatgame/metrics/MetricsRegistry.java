@@ -0,0 +1,235 @@
+package combatgame.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * A {@link MetricsRegistry} holds a set of {@link Counter}s and
+ * {@link Histogram}s, and shows them to whoever is watching the game: as text
+ * (see {@link #dump()}), every so often (see {@link #startDumping}), or over
+ * JMX (see {@link #registerMBean()}), where each counter is an attribute and
+ * each histogram has attributes for its count, mean, median, 99th percentile
+ * and maximum.
+ *
+ * Metrics are usually created once, when the program starts, and kept in
+ * fields. Recording them never takes a lock.
+ */
+public class MetricsRegistry implements DynamicMBean {
+	/**
+	 * The suffixes of the attributes each histogram has over JMX.
+	 */
+	private static final String COUNT = ".count", MEAN = ".mean", MEDIAN = ".p50", P99 = ".p99", MAX = ".max";
+
+	/**
+	 * The name of this registry, used in its JMX name and in dumps.
+	 */
+	private final String name;
+
+	private final List<Counter> counters = new CopyOnWriteArrayList<>();
+
+	private final List<Histogram> histograms = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Every metric by name, so that names are only used once and JMX can look
+	 * them up.
+	 */
+	private final ConcurrentHashMap<String, Object> byName = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new, empty {@link MetricsRegistry}.
+	 *
+	 * @param name The name of the registry.
+	 */
+	public MetricsRegistry(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Create a counter in this registry.
+	 *
+	 * @param name        The name of the counter.
+	 * @param description What it counts.
+	 * @return The counter.
+	 * @throws IllegalArgumentException If the name is already used.
+	 */
+	public Counter counter(String name, String description) {
+		Counter counter = new Counter(name, description);
+		add(name, counter);
+		counters.add(counter);
+		return counter;
+	}
+
+	/**
+	 * Create a histogram in this registry.
+	 *
+	 * @param name        The name of the histogram.
+	 * @param description What it measures.
+	 * @return The histogram.
+	 * @throws IllegalArgumentException If the name is already used.
+	 */
+	public Histogram histogram(String name, String description) {
+		Histogram histogram = new Histogram(name, description);
+		add(name, histogram);
+		histograms.add(histogram);
+		return histogram;
+	}
+
+	/**
+	 * Describe every metric in this registry, one per line.
+	 *
+	 * @return The description.
+	 */
+	public String dump() {
+		StringBuilder text = new StringBuilder();
+		text.append(name).append(" metrics:\n");
+		for (Counter counter : counters) {
+			text.append(String.format("  %-20s %d%n", counter.name, counter.get()));
+		}
+		for (Histogram histogram : histograms) {
+			text.append(String.format("  %-20s count=%d mean=%.1f p50=%d p99=%d max=%d%n", histogram.name,
+					histogram.getCount(), histogram.getMean(), histogram.getPercentile(0.5),
+					histogram.getPercentile(0.99), histogram.getMax()));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Print {@link #dump()} every so often, on a background thread, until the
+	 * program exits or the returned executor is shut down.
+	 *
+	 * @param out    Where to print.
+	 * @param period How often to print.
+	 * @return The executor doing the printing.
+	 */
+	public ScheduledExecutorService startDumping(PrintStream out, Duration period) {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name + "-metrics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long nanos = period.toNanos();
+		executor.scheduleAtFixedRate(() -> out.print(dump()), nanos, nanos, TimeUnit.NANOSECONDS);
+		return executor;
+	}
+
+	/**
+	 * Make this registry available over JMX, e.g. to JConsole or VisualVM, as
+	 * {@code combatgame:type=Metrics,name=<name>}.
+	 *
+	 * @return The name it was registered under.
+	 * @throws JMException If it can't be registered, e.g. because it already has
+	 *                     been.
+	 */
+	public ObjectName registerMBean() throws JMException {
+		ObjectName objectName = ObjectName.getInstance("combatgame:type=Metrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Object metric = byName.get(attribute);
+		if (metric instanceof Counter) {
+			return ((Counter)metric).get();
+		}
+
+		int dot = attribute.lastIndexOf('.');
+		if (dot > 0 && byName.get(attribute.substring(0, dot)) instanceof Histogram) {
+			Histogram histogram = (Histogram)byName.get(attribute.substring(0, dot));
+			switch (attribute.substring(dot)) {
+			case COUNT:
+				return histogram.getCount();
+			case MEAN:
+				return histogram.getMean();
+			case MEDIAN:
+				return histogram.getPercentile(0.5);
+			case P99:
+				return histogram.getPercentile(0.99);
+			case MAX:
+				return histogram.getMax();
+			default:
+				break;
+			}
+		}
+		throw new AttributeNotFoundException("No metric called " + attribute);
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList list = new AttributeList();
+		for (String attribute : attributes) {
+			try {
+				list.add(new Attribute(attribute, getAttribute(attribute)));
+			} catch (AttributeNotFoundException e) {
+				// Attributes that don't exist are left out.
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Metrics can't be changed: " + attribute.getName());
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		if (actionName.equals("dump") && (params == null || params.length == 0)) {
+			return dump();
+		}
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		List<MBeanAttributeInfo> attributes = new ArrayList<>();
+		for (Counter counter : counters) {
+			attributes.add(attribute(counter.name, "long", counter.description));
+		}
+		for (Histogram histogram : histograms) {
+			attributes.add(attribute(histogram.name + COUNT, "long", "Number of measurements: " + histogram.description));
+			attributes.add(attribute(histogram.name + MEAN, "double", "Mean: " + histogram.description));
+			attributes.add(attribute(histogram.name + MEDIAN, "long", "Median: " + histogram.description));
+			attributes.add(attribute(histogram.name + P99, "long", "99th percentile: " + histogram.description));
+			attributes.add(attribute(histogram.name + MAX, "long", "Maximum: " + histogram.description));
+		}
+		MBeanOperationInfo dump = new MBeanOperationInfo("dump", "Describe every metric as text", null,
+				"java.lang.String", MBeanOperationInfo.INFO);
+		return new MBeanInfo(getClass().getName(), "Metrics for " + name,
+				attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] { dump }, null);
+	}
+
+	private void add(String name, Object metric) {
+		if (byName.putIfAbsent(name, metric) != null) {
+			throw new IllegalArgumentException("There is already a metric called " + name);
+		}
+	}
+
+	private static MBeanAttributeInfo attribute(String name, String type, String description) {
+		return new MBeanAttributeInfo(name, type, description, true, false, false);
+	}
+}
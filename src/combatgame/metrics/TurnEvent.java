@@ -0,0 +1,63 @@
+package combatgame.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for one of the player's turns: choosing what to
+ * do, doing it, and what happens straight after.
+ */
+@Name("combatgame.Turn")
+@Label("Turn")
+@Category("Combat Game")
+@Description("The player choosing an action and carrying it out")
+public final class TurnEvent extends Event {
+	@Label("Player")
+	private String player;
+
+	@Label("Enemy")
+	@Description("The enemy the player was up against")
+	private String enemy;
+
+	@Label("Turn")
+	@Description("How many turns the player had taken before this one")
+	private int turn;
+
+	/**
+	 * Begin a turn event, if the Flight Recorder is recording them.
+	 *
+	 * @return The event, or null if it wouldn't be recorded.
+	 */
+	public static TurnEvent beginIfRecording() {
+		if (!FlightRecorder.isInitialized()) {
+			return null;
+		}
+		TurnEvent event = new TurnEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End this event, and record it if it should be.
+	 *
+	 * @param player The name of the player.
+	 * @param enemy  The name of the enemy they were up against.
+	 * @param turn   How many turns the player had taken before this one.
+	 */
+	public void finish(String player, String enemy, int turn) {
+		end();
+		if (shouldCommit()) {
+			this.player = player;
+			this.enemy = enemy;
+			this.turn = turn;
+			commit();
+		}
+	}
+}
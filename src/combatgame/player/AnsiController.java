@@ -0,0 +1,113 @@
+package combatgame.player;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.events.AnsiRenderer;
+import combatgame.metrics.GameMetrics;
+import combatgame.metrics.InputWaitEvent;
+
+/**
+ * An {@link AnsiController} lets a human control the {@link Player} by typing
+ * numbers into a terminal that is showing the game with an
+ * {@link AnsiRenderer}. The choices are shown on the renderer's prompt line,
+ * instead of being printed as a menu, so they don't push the rest of the
+ * screen around.
+ */
+public class AnsiController implements PlayerController {
+	/**
+	 * The question asked at the start of each of the player's turns.
+	 */
+	private static final String ACTION_PROMPT = "0 Attack  1 Defend  2 Use an item  3 Run away > ";
+
+	/**
+	 * The reader to use to retrieve user input.
+	 */
+	private final InputReader input;
+
+	/**
+	 * The screen the choices are shown on.
+	 */
+	private final AnsiRenderer renderer;
+
+	/**
+	 * Construct a new {@link AnsiController}.
+	 *
+	 * @param input    The reader to use for retrieving user input.
+	 * @param renderer The renderer showing the game. It must also be the game's
+	 *                 event sink.
+	 */
+	public AnsiController(InputReader input, AnsiRenderer renderer) {
+		this.input = input;
+		this.renderer = renderer;
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		while (true) {
+			int userChoice = ask(ACTION_PROMPT);
+			if (userChoice < 0 || userChoice >= ACTION_COUNT) {
+				renderer.log(Menus.UNRECOGNIZED_ACTION);
+				continue;
+			}
+
+			return userChoice;
+		}
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		if (inventory.size() == 0) {
+			renderer.log(Menus.EMPTY_INVENTORY);
+			return CANCEL;
+		}
+
+		StringBuilder prompt = new StringBuilder("Use which item?");
+		for (int slot = 0; slot < inventory.size(); ++slot) {
+			prompt.append("  ").append(slot).append(' ').append(inventory.getItem(slot).name).append(" x")
+					.append(inventory.getCount(slot));
+		}
+		prompt.append("  -1 Cancel > ");
+
+		while (true) {
+			int userChoice = ask(prompt.toString());
+			if (userChoice >= CANCEL && userChoice < inventory.size()) {
+				return userChoice;
+			} else {
+				renderer.log(Menus.UNRECOGNIZED_ITEM);
+			}
+		}
+	}
+
+	/**
+	 * Ask the player to choose on the prompt line, and wait for them to type a
+	 * line.
+	 *
+	 * @return The number the player typed, or {@link InputReader#NOT_A_NUMBER} if
+	 *         they typed something that isn't a number.
+	 * @throws UncheckedIOException If the input ends.
+	 */
+	private int ask(String prompt) {
+		renderer.prompt(prompt);
+		InputWaitEvent event = InputWaitEvent.beginIfRecording();
+		long startTime = System.nanoTime();
+		int choice;
+		try {
+			choice = input.nextLineAsInt();
+		} catch (EOFException e) {
+			renderer.release();
+			throw new UncheckedIOException(new EOFException("The player has stopped typing"));
+		} catch (IOException e) {
+			renderer.release();
+			throw new UncheckedIOException(e);
+		}
+		GameMetrics.INPUT_WAIT.record(System.nanoTime() - startTime);
+		if (event != null) {
+			event.finish(this, choice);
+		}
+		renderer.promptAnswered();
+		return choice;
+	}
+}
@@ -0,0 +1,77 @@
+package combatgame.player;
+
+import combatgame.entities.enemies.Enemy;
+
+/**
+ * A {@link CallbackController} hands each decision to a piece of code supplied
+ * by the caller, usually a lambda. This is the quickest way to try out a new
+ * strategy without writing a whole {@link PlayerController} class:
+ *
+ * <pre>
+ * new CallbackController((player, enemy) -&gt; player.getHealth() &lt; 4 ? USE_ITEM : ATTACK);
+ * </pre>
+ */
+public class CallbackController implements PlayerController {
+	/**
+	 * Decides which action the player takes.
+	 */
+	@FunctionalInterface
+	public interface ActionCallback {
+		/**
+		 * @see PlayerController#chooseAction(Player, Enemy)
+		 */
+		int chooseAction(Player player, Enemy enemy);
+	}
+
+	/**
+	 * Decides which item the player uses.
+	 */
+	@FunctionalInterface
+	public interface ItemCallback {
+		/**
+		 * @see PlayerController#chooseItem(Player, Inventory)
+		 */
+		int chooseItem(Player player, Inventory inventory);
+	}
+
+	/**
+	 * An item callback that uses the first item in the inventory, or cancels if
+	 * there isn't one.
+	 */
+	public static final ItemCallback FIRST_ITEM = (player, inventory) -> inventory.size() > 0 ? 0 : CANCEL;
+
+	private final ActionCallback actionCallback;
+
+	private final ItemCallback itemCallback;
+
+	/**
+	 * Construct a new {@link CallbackController} that always uses the first item
+	 * in the inventory.
+	 *
+	 * @param actionCallback Decides which action the player takes.
+	 */
+	public CallbackController(ActionCallback actionCallback) {
+		this(actionCallback, FIRST_ITEM);
+	}
+
+	/**
+	 * Construct a new {@link CallbackController}.
+	 *
+	 * @param actionCallback Decides which action the player takes.
+	 * @param itemCallback   Decides which item the player uses.
+	 */
+	public CallbackController(ActionCallback actionCallback, ItemCallback itemCallback) {
+		this.actionCallback = actionCallback;
+		this.itemCallback = itemCallback;
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		return actionCallback.chooseAction(player, enemy);
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		return itemCallback.chooseItem(player, inventory);
+	}
+}
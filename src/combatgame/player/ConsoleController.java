@@ -0,0 +1,110 @@
+package combatgame.player;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.metrics.GameMetrics;
+import combatgame.metrics.InputWaitEvent;
+
+/**
+ * A {@link ConsoleController} lets a human control the {@link Player} by typing
+ * numbers into the terminal. It can also play back a file of choices, e.g. a
+ * recorded session, as if somebody were typing them.
+ */
+public class ConsoleController implements PlayerController {
+	/**
+	 * The reader to use to retrieve user input.
+	 */
+	private final InputReader input;
+
+	/**
+	 * Where the prompts go.
+	 */
+	private final PrintWriter out;
+
+	/**
+	 * Construct a new {@link ConsoleController} that prints its prompts to the
+	 * terminal.
+	 *
+	 * @param input The reader to use for retrieving user input.
+	 */
+	public ConsoleController(InputReader input) {
+		this(input, new PrintWriter(new OutputStreamWriter(System.out)));
+	}
+
+	/**
+	 * Construct a new {@link ConsoleController}.
+	 *
+	 * @param input The reader to use for retrieving user input.
+	 * @param out   Where to print the prompts. It is flushed whenever the player
+	 *              is asked to choose.
+	 */
+	public ConsoleController(InputReader input, PrintWriter out) {
+		this.input = input;
+		this.out = out;
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		while (true) {
+			Menus.printActionMenu(out);
+
+			int userChoice = readChoice();
+			if (userChoice < 0 || userChoice >= ACTION_COUNT) {
+				out.println(Menus.UNRECOGNIZED_ACTION);
+				continue;
+			}
+
+			return userChoice;
+		}
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		if (inventory.size() == 0) {
+			out.println(Menus.EMPTY_INVENTORY);
+			out.flush();
+			return CANCEL;
+		}
+
+		while (true) {
+			Menus.printItemMenu(out, inventory);
+
+			int userChoice = readChoice();
+			if (userChoice >= CANCEL && userChoice < inventory.size()) {
+				return userChoice;
+			} else {
+				out.println(Menus.UNRECOGNIZED_ITEM);
+			}
+		}
+	}
+
+	/**
+	 * Wait for the player to type a number. Anything else they type counts as a
+	 * choice that isn't on the menu, so they are asked again.
+	 *
+	 * @return The number, or {@link InputReader#NOT_A_NUMBER}.
+	 * @throws UncheckedIOException If the input ends.
+	 */
+	private int readChoice() {
+		out.flush();
+		InputWaitEvent event = InputWaitEvent.beginIfRecording();
+		long startTime = System.nanoTime();
+		try {
+			int choice = input.nextInt();
+			GameMetrics.INPUT_WAIT.record(System.nanoTime() - startTime);
+			if (event != null) {
+				event.finish(this, choice);
+			}
+			return choice;
+		} catch (EOFException e) {
+			throw new UncheckedIOException(new EOFException("The player has stopped typing"));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
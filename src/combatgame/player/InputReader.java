@@ -0,0 +1,279 @@
+package combatgame.player;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An {@link InputReader} reads the numbers a player types, straight from the
+ * bytes of a channel, e.g. the terminal or a file of recorded choices.
+ *
+ * It does the same job as a {@link java.util.Scanner}, but much faster: it
+ * looks at each byte once, and reading a number doesn't create any objects.
+ * This means a script of choices hundreds of megabytes long can be played back
+ * about as fast as it can be read from the disk.
+ *
+ * Anything that isn't a number is handled the same way everywhere: the rest of
+ * the line is skipped, and {@link #NOT_A_NUMBER} is returned, so the caller can
+ * tell the player and ask again.
+ */
+public final class InputReader implements Closeable {
+	/**
+	 * What {@link #nextInt()} and {@link #nextLineAsInt()} return when the player
+	 * types something that isn't a number (or is too big to be one).
+	 */
+	public static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+	/**
+	 * The number of bytes read from the channel at once.
+	 */
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Numbers with more digits than this can't fit in an int, so there is no
+	 * need to keep adding digits to them.
+	 */
+	private static final int MAX_DIGITS = 10;
+
+	private final ReadableByteChannel channel;
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * The buffer's array, so bytes can be read without going through the buffer.
+	 */
+	private final byte[] bytes;
+
+	/**
+	 * The position of the next byte to read, and the number of bytes in the
+	 * buffer.
+	 */
+	private int position, limit;
+
+	private boolean endOfInput;
+
+	/**
+	 * Where {@link #nextLine()} collects the bytes of a line.
+	 */
+	private byte[] line = new byte[128];
+
+	/**
+	 * Construct a new {@link InputReader}.
+	 *
+	 * @param channel Where to read from. It must be in blocking mode.
+	 */
+	public InputReader(ReadableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Construct a new {@link InputReader}.
+	 *
+	 * @param channel    Where to read from. It must be in blocking mode.
+	 * @param bufferSize The number of bytes to read from the channel at once.
+	 */
+	public InputReader(ReadableByteChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		this.bytes = buffer.array();
+	}
+
+	/**
+	 * Read the next number, skipping any spaces and line breaks before it. Several
+	 * numbers can be typed on the same line.
+	 *
+	 * @return The number, or {@link #NOT_A_NUMBER} if the next word isn't a number,
+	 *         in which case the rest of its line is skipped.
+	 * @throws EOFException If the input ends before the next word.
+	 * @throws IOException  If reading fails.
+	 */
+	public int nextInt() throws IOException {
+		int next = peek();
+		while (isWhitespace(next)) {
+			++position;
+			next = peek();
+		}
+		if (next < 0) {
+			throw new EOFException("The input has ended");
+		}
+
+		int value = readNumber();
+		if (value == NOT_A_NUMBER || !(isWhitespace(peek()) || peek() < 0)) {
+			skipLine();
+			return NOT_A_NUMBER;
+		}
+		return value;
+	}
+
+	/**
+	 * Read a whole line, which should hold a single number, e.g. an answer typed
+	 * at a prompt.
+	 *
+	 * @return The number, or {@link #NOT_A_NUMBER} if the line holds anything
+	 *         else, including nothing at all.
+	 * @throws EOFException If the input has already ended.
+	 * @throws IOException  If reading fails.
+	 */
+	public int nextLineAsInt() throws IOException {
+		if (peek() < 0) {
+			throw new EOFException("The input has ended");
+		}
+
+		skipSpaces();
+		int value = readNumber();
+		skipSpaces();
+		int next = peek();
+		if (next != '\n' && next >= 0) {
+			value = NOT_A_NUMBER;
+		}
+		skipLine();
+		return value;
+	}
+
+	/**
+	 * Read the rest of the current line, e.g. the player's name. Unlike reading
+	 * numbers, this creates a new string every time.
+	 *
+	 * @return The line, without the line break at the end.
+	 * @throws EOFException If the input has already ended.
+	 * @throws IOException  If reading fails.
+	 */
+	public String nextLine() throws IOException {
+		if (peek() < 0) {
+			throw new EOFException("The input has ended");
+		}
+
+		int length = 0;
+		for (int next = peek(); next >= 0 && next != '\n'; next = peek()) {
+			if (length == line.length) {
+				line = Arrays.copyOf(line, length * 2);
+			}
+			line[length++] = (byte)next;
+			++position;
+		}
+		skipLine();
+
+		if (length > 0 && line[length - 1] == '\r') {
+			--length;
+		}
+		return new String(line, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Close the channel.
+	 *
+	 * @throws IOException If closing fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Read an optional sign and then digits, stopping at the first byte that isn't
+	 * a digit.
+	 *
+	 * @return The number, or {@link #NOT_A_NUMBER} if there are no digits or the
+	 *         number doesn't fit in an int.
+	 */
+	private int readNumber() throws IOException {
+		boolean negative = false;
+		int next = peek();
+		if (next == '-' || next == '+') {
+			negative = next == '-';
+			++position;
+			next = peek();
+		}
+
+		long value = 0;
+		int digits = 0;
+		while (next >= '0' && next <= '9') {
+			if (digits < MAX_DIGITS + 1) {
+				value = value * 10 + (next - '0');
+			}
+			++digits;
+			++position;
+			next = peek();
+		}
+
+		if (digits == 0 || digits > MAX_DIGITS) {
+			return NOT_A_NUMBER;
+		}
+		value = negative ? -value : value;
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			return NOT_A_NUMBER;
+		}
+		return (int)value;
+	}
+
+	/**
+	 * Skip spaces and tabs, but not line breaks.
+	 */
+	private void skipSpaces() throws IOException {
+		for (int next = peek(); next == ' ' || next == '\t' || next == '\r'; next = peek()) {
+			++position;
+		}
+	}
+
+	/**
+	 * Skip everything up to and including the next line break.
+	 */
+	private void skipLine() throws IOException {
+		while (true) {
+			if (position == limit && !fill()) {
+				return;
+			}
+			for (int i = position; i < limit; ++i) {
+				if (bytes[i] == '\n') {
+					position = i + 1;
+					return;
+				}
+			}
+			position = limit;
+		}
+	}
+
+	/**
+	 * Look at the next byte without reading it.
+	 *
+	 * @return The byte, or -1 if the input has ended.
+	 */
+	private int peek() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return bytes[position] & 0xFF;
+	}
+
+	/**
+	 * Read more bytes from the channel into the empty buffer.
+	 *
+	 * @return False if the input has ended.
+	 */
+	private boolean fill() throws IOException {
+		if (endOfInput) {
+			return false;
+		}
+
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer);
+		} while (read == 0);
+		if (read < 0) {
+			endOfInput = true;
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+
+	private static boolean isWhitespace(int b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+}
@@ -1,26 +1,67 @@
 package combatgame.player;
 
-import java.util.ArrayList;
+import java.io.PrintWriter;
 import java.util.Arrays;
+import java.util.HashMap;
 
 import combatgame.entities.enemies.Enemy;
 import combatgame.items.Item;
+import combatgame.metrics.GameMetrics;
+import combatgame.metrics.ItemUseEvent;
 
 /**
  * An {@link Inventory} is a collection of {@link Item}s that can be used by the
  * {@link Player}.
+ *
+ * Items of the same type stack together in a single slot with a count, like
+ * "healing potion x3", so an inventory holding thousands of potions only needs
+ * one of them. Items of the same class are assumed to be interchangeable.
+ * Adding, using and removing items all take the same amount of time no matter
+ * how full the inventory is.
+ *
+ * When the last item in a slot is used up, the last slot moves into its place,
+ * so the slot numbers of other items can change.
  */
 public class Inventory {
 	/**
-	 * The actual list of items in the inventory.
+	 * The number of slots to make room for up front.
 	 */
-	private ArrayList<Item> items;
+	private static final int INITIAL_SLOTS = 4;
+
+	/**
+	 * One item of each type in the inventory, by slot number.
+	 */
+	private Item[] slotItems;
+
+	/**
+	 * How many of each item are in the inventory, by slot number.
+	 */
+	private int[] slotCounts;
+
+	/**
+	 * The number of slots in use.
+	 */
+	private int slotsUsed;
+
+	/**
+	 * The total number of items, across all slots.
+	 */
+	private int itemCount;
+
+	/**
+	 * The slot number for each item type in the inventory.
+	 */
+	private HashMap<Class<? extends Item>, Integer> slotsByType;
 
 	/**
 	 * Construct an empty inventory.
 	 */
 	public Inventory() {
-		items = new ArrayList<>();
+		slotItems = new Item[INITIAL_SLOTS];
+		slotCounts = new int[INITIAL_SLOTS];
+		slotsUsed = 0;
+		itemCount = 0;
+		slotsByType = new HashMap<>();
 	}
 
 	/**
@@ -29,26 +70,112 @@ public class Inventory {
 	 * @param startingItems The items that start in the inventory.
 	 */
 	public Inventory(Item[] startingItems) {
-		items = new ArrayList<>(Arrays.asList(startingItems));
+		this();
+		for (Item item : startingItems) {
+			addItem(item);
+		}
 	}
 
 	/**
-	 * Get the number of items in this inventory.
+	 * Get the number of slots in this inventory, i.e. the number of different
+	 * types of item. Slots are numbered from 0 up to (but not including) this
+	 * number.
 	 *
-	 * @return The number of items in the inventory.
+	 * @return The number of slots in the inventory.
 	 */
 	public int size() {
-		return items.size();
+		return slotsUsed;
+	}
+
+	/**
+	 * Get the total number of items in this inventory, counting every item in
+	 * every slot.
+	 *
+	 * @return The number of items in the inventory.
+	 */
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * Get the item in the given slot, without using it.
+	 *
+	 * @param slot The slot number.
+	 * @return The item in that slot.
+	 */
+	public Item getItem(int slot) {
+		checkSlot(slot);
+		return slotItems[slot];
+	}
+
+	/**
+	 * Get the number of items in the given slot.
+	 *
+	 * @param slot The slot number.
+	 * @return The number of items in that slot.
+	 */
+	public int getCount(int slot) {
+		checkSlot(slot);
+		return slotCounts[slot];
 	}
 
 	/**
 	 * Display an indexed list of the items contained by this inventory.
 	 */
 	public void showItems() {
-		int index = 0;
-		for (Item item : items) {
-			System.out.printf("%d - %s (%s)\n", index, item.name, item.description);
-			++index;
+		PrintWriter out = new PrintWriter(System.out);
+		showItems(out);
+		out.flush();
+	}
+
+	/**
+	 * Write an indexed list of the items contained by this inventory.
+	 *
+	 * @param out Where to write the list.
+	 */
+	public void showItems(PrintWriter out) {
+		showItems(out, 0, Math.max(1, slotsUsed));
+	}
+
+	/**
+	 * Write one page of the indexed list of items contained by this inventory.
+	 *
+	 * @param out      Where to write the list.
+	 * @param page     The page to write, starting from 0. A page past the end
+	 *                 writes nothing.
+	 * @param pageSize The number of slots on each page.
+	 * @throws IllegalArgumentException If the page is negative or the page size
+	 *                                  isn't positive.
+	 */
+	public void showItems(PrintWriter out, int page, int pageSize) {
+		checkPageSize(pageSize);
+		if (page < 0) {
+			throw new IllegalArgumentException("Page can't be negative: " + page);
+		}
+
+		long start = (long)page * pageSize;
+		int end = (int)Math.min(slotsUsed, start + pageSize);
+		for (int slot = (int)Math.min(start, end); slot < end; ++slot) {
+			Item item = slotItems[slot];
+			out.printf("%d - %s x%d (%s)\n", slot, item.name, slotCounts[slot], item.description);
+		}
+	}
+
+	/**
+	 * Get the number of pages it takes to list every item.
+	 *
+	 * @param pageSize The number of slots on each page.
+	 * @return The number of pages.
+	 * @throws IllegalArgumentException If the page size isn't positive.
+	 */
+	public int getPageCount(int pageSize) {
+		checkPageSize(pageSize);
+		return (int)((slotsUsed + (long)pageSize - 1) / pageSize);
+	}
+
+	private static void checkPageSize(int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
 		}
 	}
 
@@ -58,21 +185,92 @@ public class Inventory {
 	 * @param itemToAdd The item to add.
 	 */
 	public void addItem(Item itemToAdd) {
-		items.add(itemToAdd);
+		addItems(itemToAdd, 1);
 	}
 
 	/**
-	 * Use the item at the given index.
+	 * Add several items of the same type to this inventory at once.
 	 *
+	 * @param itemToAdd An item of the type to add.
+	 * @param count     The number of items to add.
+	 */
+	public void addItems(Item itemToAdd, int count) {
+		if (count <= 0) {
+			return;
+		}
+
+		Integer slot = slotsByType.get(itemToAdd.getClass());
+		if (slot == null) {
+			if (slotsUsed == slotItems.length) {
+				slotItems = Arrays.copyOf(slotItems, slotsUsed * 2);
+				slotCounts = Arrays.copyOf(slotCounts, slotsUsed * 2);
+			}
+			slot = slotsUsed++;
+			slotItems[slot] = itemToAdd;
+			slotsByType.put(itemToAdd.getClass(), slot);
+		}
+
+		slotCounts[slot] += count;
+		itemCount += count;
+	}
+
+	/**
+	 * Remove one item from the given slot, without using it.
+	 *
+	 * @param slot The slot number.
+	 * @return The item that was removed.
+	 */
+	public Item removeItem(int slot) {
+		checkSlot(slot);
+		Item item = slotItems[slot];
+		--itemCount;
+		if (--slotCounts[slot] == 0) {
+			removeSlot(slot);
+		}
+		return item;
+	}
+
+	/**
+	 * Use one item from the given slot.
+	 *
+	 * @param slot   The slot number.
 	 * @param player The current player.
 	 * @param enemy  The enemy currently being fought.
 	 */
-	public void useItem(int index, Player player, Enemy enemy) throws IndexOutOfBoundsException {
-		if (index < 0 || index >= items.size()) {
-			throw new IndexOutOfBoundsException(index);
-		} else {
-			items.get(index).use(player, enemy);
-			items.remove(index);
+	public void useItem(int slot, Player player, Enemy enemy) throws IndexOutOfBoundsException {
+		Item item = removeItem(slot);
+		if (!player.isMeasured) {
+			item.use(player, enemy);
+			return;
+		}
+
+		ItemUseEvent event = ItemUseEvent.beginIfRecording();
+		item.use(player, enemy);
+		if (event != null) {
+			event.finish(player.name, item.name);
+		}
+		GameMetrics.ITEMS_USED.increment();
+	}
+
+	/**
+	 * Empty a slot by moving the last slot into its place.
+	 */
+	private void removeSlot(int slot) {
+		slotsByType.remove(slotItems[slot].getClass());
+
+		int last = --slotsUsed;
+		if (slot != last) {
+			slotItems[slot] = slotItems[last];
+			slotCounts[slot] = slotCounts[last];
+			slotsByType.put(slotItems[slot].getClass(), slot);
+		}
+		slotItems[last] = null;
+		slotCounts[last] = 0;
+	}
+
+	private void checkSlot(int slot) {
+		if (slot < 0 || slot >= slotsUsed) {
+			throw new IndexOutOfBoundsException(slot);
 		}
 	}
 }
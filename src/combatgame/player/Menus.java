@@ -0,0 +1,68 @@
+package combatgame.player;
+
+import java.io.PrintWriter;
+
+/**
+ * The menus and messages every text controller shows the player, so that they
+ * all look the same whether the player is in this terminal or connected over
+ * the network.
+ */
+final class Menus {
+	static final String UNRECOGNIZED_ACTION = "Unrecognized input. Please select one of the available actions by number.";
+
+	static final String UNRECOGNIZED_ITEM = "Unrecognized input. Please select one of the available items by number.";
+
+	static final String EMPTY_INVENTORY = "\nYour inventory is empty!";
+
+	private Menus() {
+	}
+
+	/**
+	 * Show the player the actions they can choose from.
+	 *
+	 * @param out Where to write the prompt.
+	 */
+	static void printActionMenu(PrintWriter out) {
+		// Add a line of separation, so it's easier to tell what's happening when.
+		out.println();
+
+		// Prompt the player to select an action.
+		out.println("What would you like to do?");
+		out.println("0 - Attack");
+		out.println("1 - Defend");
+		out.println("2 - Use an item");
+		out.println("3 - Run away");
+		out.print("> ");
+	}
+
+	/**
+	 * Show the player the items they can choose from.
+	 *
+	 * @param out       Where to write the prompt.
+	 * @param inventory The player's inventory.
+	 */
+	static void printItemMenu(PrintWriter out, Inventory inventory) {
+		// Add a line of separation, so it's easier to tell what's happening when.
+		out.println();
+
+		// Prompt the player to select an item to use.
+		out.println("Which item do you want to use? (-1 to cancel)");
+		inventory.showItems(out);
+		out.print("> ");
+	}
+
+	/**
+	 * Turn a line the player typed into a number.
+	 *
+	 * @param line The line.
+	 * @return The number, or {@link Integer#MIN_VALUE} if the line isn't a
+	 *         number.
+	 */
+	static int parseChoice(String line) {
+		try {
+			return Integer.parseInt(line.trim());
+		} catch (NumberFormatException e) {
+			return Integer.MIN_VALUE;
+		}
+	}
+}
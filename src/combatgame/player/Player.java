@@ -1,11 +1,14 @@
 package combatgame.player;
 
-import java.util.InputMismatchException;
-import java.util.Scanner;
-
+import combatgame.damage.DamageChain;
+import combatgame.damage.DamageModifier;
+import combatgame.effects.Blocking;
+import combatgame.effects.Status;
 import combatgame.entities.Entity;
 import combatgame.entities.enemies.Enemy;
 import combatgame.items.Item;
+import combatgame.metrics.ActionEvent;
+import combatgame.metrics.GameMetrics;
 
 /**
  * The {@link Player} class represents the user's avatar within the game. This
@@ -17,9 +20,16 @@ import combatgame.items.Item;
  */
 public class Player extends Entity {
 	/**
-	 * The scanner to use to retrieve user input.
+	 * Blocking takes 60% off the incoming damage.
+	 */
+	private static final DamageModifier BLOCK = DamageModifier.percent(-60);
+
+	private static final DamageChain BLOCK_ONLY = DamageChain.of(BLOCK);
+
+	/**
+	 * The controller that decides which actions this Player takes.
 	 */
-	private Scanner scanner;
+	private PlayerController controller;
 
 	/**
 	 * The amount of damage this Player deals per attack.
@@ -27,9 +37,10 @@ public class Player extends Entity {
 	private int attackPower;
 
 	/**
-	 * Is this Player blocking or not?
+	 * This Player's defense followed by {@link #BLOCK}, worked out whenever the
+	 * defense changes, for the hits they take while blocking.
 	 */
-	private boolean isBlocking;
+	private DamageChain blockingDefense = BLOCK_ONLY;
 
 	/**
 	 * This Player's inventory.
@@ -37,16 +48,41 @@ public class Player extends Entity {
 	private Inventory inventory;
 
 	/**
-	 * Create a new Player with the given name and amount of starting health, and
-	 * default amount of attack power.
+	 * One of each combat action, reused every turn so that taking a turn does not
+	 * create any new objects.
+	 */
+	private final AttackAction attackAction = new AttackAction();
+
+	private final DefendAction defendAction = new DefendAction();
+
+	private final UseItemAction useItemAction = new UseItemAction();
+
+	private final RunAwayAction runAwayAction = new RunAwayAction();
+
+	/**
+	 * The number of actions this Player has resolved, so that one in every
+	 * {@link GameMetrics#RESOLUTION_SAMPLE_INTERVAL} can be timed.
+	 */
+	private int actionsResolved;
+
+	/**
+	 * Are this Player's actions added to the {@link GameMetrics} and reported to
+	 * the Flight Recorder? The {@link Inventory} checks this too.
+	 */
+	boolean isMeasured = true;
+
+	/**
+	 * Create a new Player with the given name, amount of starting health and
+	 * attack power, and an empty inventory.
 	 *
 	 * @param name           The name of this Player.
 	 * @param startingHealth The amount of health this Player starts with.
 	 * @param attackPower    The amount of attack power this Player starts with.
-	 * @param scanner        The Scanner to use for retrieving user input.
+	 * @param controller     The controller that decides which actions this Player
+	 *                       takes.
 	 */
-	public Player(String name, int startingHealth, int attackPower, Scanner scanner) {
-		this(name, startingHealth, attackPower, new Item[] {}, scanner);
+	public Player(String name, int startingHealth, int attackPower, PlayerController controller) {
+		this(name, startingHealth, attackPower, new Item[] {}, controller);
 	}
 
 	/**
@@ -57,111 +93,175 @@ public class Player extends Entity {
 	 * @param startingHealth The amount of health this Player starts with.
 	 * @param attackPower    The amount of attack power this Player starts with.
 	 * @param startingItems  The items that should begin in the Player's inventory.
-	 * @param scanner        The Scanner to use for retrieving user input.
+	 * @param controller     The controller that decides which actions this Player
+	 *                       takes.
 	 */
-	public Player(String name, int startingHealth, int attackPower, Item[] startingItems, Scanner scanner) {
+	public Player(String name, int startingHealth, int attackPower, Item[] startingItems,
+			PlayerController controller) {
 		super(name, startingHealth);
-		this.scanner = scanner;
+		this.controller = controller;
 		this.attackPower = attackPower;
-		this.isBlocking = false;
 		this.inventory = new Inventory(startingItems);
 	}
 
 	/**
-	 * Prompt the user to select which combat action they would like to perform,
-	 * then perform it against the given Enemy.
+	 * Ask this Player's controller which combat action to perform, then perform it
+	 * against the given Enemy. A stunned Player loses their turn instead.
 	 *
-	 * @param player The Enemy that this Player is in combat with.
+	 * @param enemy The Enemy that this Player is in combat with.
 	 */
 	public void performCombatAction(Enemy enemy) {
-		// Reset our blocking status.
-		isBlocking = false;
+		if (!canAct()) {
+			getEventSink().turnSkipped(this);
+			return;
+		}
+
+		// Make sure everything that has happened so far has been reported before
+		// asking the controller to choose an action to perform.
+		getEventSink().flush();
+		CombatAction combatAction = chooseCombatAction(enemy);
+
+		// Resolve the player's chosen action. Timing every action would slow the
+		// game down noticeably, so only some of them are timed.
+		ActionEvent event = isMeasured ? ActionEvent.beginIfRecording() : null;
+		if (isMeasured && (++actionsResolved & (GameMetrics.RESOLUTION_SAMPLE_INTERVAL - 1)) == 0) {
+			long startTime = System.nanoTime();
+			combatAction.resolve();
+			GameMetrics.RESOLUTION.record(System.nanoTime() - startTime);
+		} else {
+			combatAction.resolve();
+		}
+		if (event != null) {
+			event.finish(name, combatAction);
+		}
+	}
 
-		// Prompt the player to choose an action to perform.
-		CombatAction combatAction = promptUserForActionChoice(enemy);
+	/**
+	 * Check whether this Player gets to choose an action this turn. If not (e.g.
+	 * because they are stunned), their controller won't be asked.
+	 *
+	 * @return True if this Player can act.
+	 */
+	public boolean canAct() {
+		return !getEffects().has(Status.STUNNED);
+	}
 
-		// Add a line of separation, so it's easier to tell what's happening when.
-		System.out.println();
+	/**
+	 * Choose whether this Player's actions and item uses are added to the
+	 * {@link GameMetrics} and reported to the Flight Recorder. The engine turns
+	 * this off while it fast-forwards (see
+	 * {@link combatgame.CombatGameEngine#setFastForwarding}).
+	 *
+	 * @param isMeasured True to measure this Player's actions.
+	 */
+	public void setMeasured(boolean isMeasured) {
+		this.isMeasured = isMeasured;
+	}
 
-		// Resolve the player's chosen action.
-		combatAction.resolve();
+	/**
+	 * Get the amount of damage this Player deals per attack, including any bonus
+	 * from their status effects and their offense.
+	 *
+	 * @return The attack power of this Player.
+	 */
+	public int getAttackPower() {
+		return getOffense().apply(attackPower + getEffects().getAttackBonus());
+	}
+
+	/**
+	 * Work out how much of an attack a raised shield blocks, before any other
+	 * defense.
+	 *
+	 * @param damageAmount The amount of incoming damage.
+	 * @return The amount of damage that is blocked.
+	 */
+	public static int blockedDamage(int damageAmount) {
+		return damageAmount - BLOCK_ONLY.apply(damageAmount);
+	}
+
+	/**
+	 * Get the modifiers that every hit this Player takes while blocking goes
+	 * through: their defense, and then the shield.
+	 *
+	 * @return The blocking defense of this Player.
+	 */
+	public DamageChain getBlockingDefense() {
+		return blockingDefense;
+	}
+
+	@Override
+	public void setDefense(DamageChain defense) {
+		super.setDefense(defense);
+		blockingDefense = defense.then(BLOCK);
+	}
+
+	/**
+	 * Get this Player's inventory.
+	 *
+	 * @return The inventory of this Player.
+	 */
+	public Inventory getInventory() {
+		return inventory;
 	}
 
 	@Override
 	public void restoreHealth(int healthAmount) {
-		System.out.printf("You restore %d hitpoints.\n", healthAmount);
+		getEventSink().healed(this, healthAmount);
 		super.restoreHealth(healthAmount);
 	}
 
 	@Override
 	public void takeDamage(int damageAmount) {
-		// If we are blocking, reduce the incoming damage by 60%.
+		// Put the damage through our defense. If we are blocking, the shield
+		// reduces it further.
+		int unblockedDamageAmount = getDefense().apply(damageAmount);
 		int blockedDamageAmount = 0;
-		if (isBlocking) {
-			blockedDamageAmount = (int)((double)damageAmount * 0.6);
-			damageAmount = damageAmount - blockedDamageAmount;
+		if (getEffects().has(Status.BLOCKING)) {
+			blockedDamageAmount = unblockedDamageAmount - blockingDefense.apply(damageAmount);
 		}
+		damageAmount = unblockedDamageAmount - blockedDamageAmount;
 
-		// Print a message describing the damage.
-		String message = String.format("You take %d damage", damageAmount);
-		if (blockedDamageAmount > 0) {
-			message += String.format(" (blocked %d damage)", blockedDamageAmount);
-		}
-		message += ".";
-		System.out.println(message);
+		// Report the damage, so it can be described to the player.
+		getEventSink().damageTaken(this, damageAmount, blockedDamageAmount);
 
 		// Tell the parent class how much damage we took.
 		super.takeDamage(damageAmount);
 	}
 
 	/**
-	 * Prompt the user to choose which combat action they would like to perform.
+	 * Ask this Player's controller which combat action to perform.
 	 *
 	 * @param enemy The enemy that the player is currently fighting.
-	 * @return The action that the user selects.
+	 * @return The action that the controller selects.
 	 */
-	private CombatAction promptUserForActionChoice(Enemy enemy) {
+	private CombatAction chooseCombatAction(Enemy enemy) {
 		while (true) {
-			// Add a line of separation, so it's easier to tell what's happening when.
-			System.out.println();
-
-			// Prompt the player to select an action.
-			System.out.println("What would you like to do?");
-			System.out.println("0 - Attack");
-			System.out.println("1 - Defend");
-			System.out.println("2 - Use an item");
-			System.out.println("3 - Run away");
-			System.out.print("> ");
-
-			int userChoice = scanner.nextInt();
-			if (userChoice < 0 || userChoice >= CombatActionChoice.values().length) {
-				System.out.println("Unrecognized input. Please select one of the available actions by number.");
-				continue;
+			int choice = controller.chooseAction(this, enemy);
+			if (choice < 0 || choice >= CombatActionChoice.ALL.length) {
+				throw new IllegalStateException("Controller chose an unknown action: " + choice);
 			}
 
-			CombatActionChoice actionChoice = CombatActionChoice.values()[userChoice];
+			CombatActionChoice actionChoice = CombatActionChoice.ALL[choice];
 			switch (actionChoice) {
 			case ATTACK:
-				return new AttackAction(enemy);
+				attackAction.enemy = enemy;
+				return attackAction;
 
 			case DEFEND:
-				return new DefendAction();
+				return defendAction;
 
 			case VIEW_INVENTORY:
-				if (inventory.size() == 0) {
-					System.out.println("\nYour inventory is empty!");
+				int itemIndex = controller.chooseItem(this, inventory);
+				if (itemIndex == PlayerController.CANCEL) {
 					break;
 				} else {
-					int itemIndex = promptUserForInventoryChoice();
-					if (itemIndex == -1) { // -1 is the "cancel" option when selecting an item.
-						break;
-					} else {
-						return new UseItemAction(enemy, itemIndex);
-					}
+					useItemAction.enemy = enemy;
+					useItemAction.itemIndex = itemIndex;
+					return useItemAction;
 				}
 
 			case RUN_AWAY:
-				return new RunAwayAction();
+				return runAwayAction;
 
 			default:
 				break;
@@ -169,39 +269,6 @@ public class Player extends Entity {
 		}
 	}
 
-	/**
-	 * Prompt the user to select an item from their inventory to use.
-	 *
-	 * @return The index of the selected item within the player's inventory, or -1
-	 *         if the user selects the "cancel" option.
-	 */
-	private int promptUserForInventoryChoice() {
-		while (true) {
-			// Add a line of separation, so it's easier to tell what's happening when.
-			System.out.println();
-
-			// Prompt the player to select an item to use.
-			System.out.println("Which item do you want to use? (-1 to cancel)");
-			inventory.showItems();
-			System.out.print("> ");
-
-			int userChoice;
-			try {
-				userChoice = scanner.nextInt();
-			} catch (InputMismatchException e) {
-				System.out.println("Unrecognized action. Please select one of the available options.");
-				scanner.nextLine();
-				continue;
-			}
-      
-			if (userChoice >= -1 && userChoice < inventory.size()) {
-				return userChoice;
-			} else {
-				System.out.println("Unrecognized input. Please select one of the available items by number.");
-			}
-		}
-	}
-
 	// HERE BE DRAGONS
 
 	/**
@@ -217,7 +284,13 @@ public class Player extends Entity {
 	 * Represents an action that the user can choose to take during combat.
 	 */
 	private enum CombatActionChoice {
-		ATTACK, DEFEND, VIEW_INVENTORY, RUN_AWAY
+		ATTACK, DEFEND, VIEW_INVENTORY, RUN_AWAY;
+
+		/**
+		 * Every choice, in order. {@code values()} makes a new copy of this array
+		 * every time it is called, so we keep our own.
+		 */
+		static final CombatActionChoice[] ALL = values();
 	}
 
 	/**
@@ -240,21 +313,22 @@ public class Player extends Entity {
 	 * Combat action class that is used when the player attacks their enemy.
 	 */
 	private final class AttackAction extends CombatAction {
+		/**
+		 * The enemy that the player is currently in combat with.
+		 */
 		private Enemy enemy;
 
 		/**
-		 * Construct a new {@link AttackAction}.
-		 *
-		 * @param enemy The enemy that the player is currently in combat with.
+		 * Construct a new {@link AttackAction}. Set {@link #enemy} before resolving
+		 * it.
 		 */
-		public AttackAction(Enemy enemy) {
-			this.enemy = enemy;
+		public AttackAction() {
 		}
 
 		@Override
 		public void resolve() {
-			System.out.println(String.format("You swing your sword at the %s!", enemy.name));
-			enemy.takeDamage(attackPower);
+			getEventSink().playerAttacked(Player.this, enemy);
+			enemy.takeDamage(getAttackPower());
 		}
 	}
 
@@ -270,8 +344,10 @@ public class Player extends Entity {
 
 		@Override
 		public void resolve() {
-			System.out.println("You raise your shield...");
-			isBlocking = true;
+			getEventSink().playerDefended(Player.this);
+
+			// The shield stays up until the end of this turn.
+			getEffects().apply(Blocking.INSTANCE, 0, 1);
 		}
 	}
 
@@ -280,19 +356,21 @@ public class Player extends Entity {
 	 * inventory.
 	 */
 	private final class UseItemAction extends CombatAction {
+		/**
+		 * The enemy that the player is currently in combat with.
+		 */
 		private Enemy enemy;
 
+		/**
+		 * The index of the item in the player's inventory to use.
+		 */
 		private int itemIndex;
 
 		/**
-		 * Construct a new {@link UseItemAction}.
-		 *
-		 * @param enemy     The enemy that the player is currently in combat with.
-		 * @param itemIndex The index of the item in the player's inventory to use.
+		 * Construct a new {@link UseItemAction}. Set {@link #enemy} and
+		 * {@link #itemIndex} before resolving it.
 		 */
-		public UseItemAction(Enemy enemy, int itemIndex) {
-			this.enemy = enemy;
-			this.itemIndex = itemIndex;
+		public UseItemAction() {
 		}
 
 		@Override
@@ -313,7 +391,7 @@ public class Player extends Entity {
 
 		@Override
 		public void resolve() {
-			System.out.println("Heroes don't run from battle! (You lose your turn for being a coward...)");
+			getEventSink().playerFled(Player.this);
 		}
 	}
 }
@@ -0,0 +1,65 @@
+package combatgame.player;
+
+import combatgame.entities.enemies.Enemy;
+
+/**
+ * A {@link PlayerController} makes decisions on behalf of a {@link Player}.
+ * The controller could be a human typing into the terminal, a fixed script, or
+ * some kind of AI. The {@link Player} does not care, as long as it gets an
+ * answer.
+ *
+ * Choices are returned as plain numbers, using the same numbering that the
+ * player sees in the action menu.
+ */
+public interface PlayerController {
+	/**
+	 * The choice number for attacking the enemy.
+	 */
+	int ATTACK = 0;
+
+	/**
+	 * The choice number for defending against the enemy.
+	 */
+	int DEFEND = 1;
+
+	/**
+	 * The choice number for using an item from the inventory.
+	 */
+	int USE_ITEM = 2;
+
+	/**
+	 * The choice number for running away.
+	 */
+	int RUN_AWAY = 3;
+
+	/**
+	 * The total number of available action choices.
+	 */
+	int ACTION_COUNT = 4;
+
+	/**
+	 * The item choice that means "never mind, let me pick a different action".
+	 */
+	int CANCEL = -1;
+
+	/**
+	 * Choose which combat action the player should perform this turn.
+	 *
+	 * @param player The player that is taking its turn.
+	 * @param enemy  The enemy that the player is currently fighting.
+	 * @return One of {@link #ATTACK}, {@link #DEFEND}, {@link #USE_ITEM} or
+	 *         {@link #RUN_AWAY}.
+	 */
+	int chooseAction(Player player, Enemy enemy);
+
+	/**
+	 * Choose which item the player should use. This is only called after
+	 * {@link #chooseAction} returns {@link #USE_ITEM}.
+	 *
+	 * @param player    The player that is taking its turn.
+	 * @param inventory The player's inventory.
+	 * @return The index of the item to use, or {@link #CANCEL} to go back and
+	 *         choose a different action.
+	 */
+	int chooseItem(Player player, Inventory inventory);
+}
@@ -0,0 +1,183 @@
+package combatgame.player;
+
+import java.io.PrintWriter;
+
+import combatgame.entities.enemies.Enemy;
+
+/**
+ * A {@link PromptController} lets a human control the {@link Player} without
+ * a thread waiting for them to type. It shows the same prompts as the
+ * {@link ConsoleController}, but instead of reading the answers itself, it is
+ * handed each line the player types whenever it arrives (see
+ * {@link #offerLine}). Once the player has made a full decision, the game can
+ * carry on with {@link combatgame.CombatGameEngine#finishPlayerTurn()}, and the
+ * decision is handed over when the player asks for it.
+ *
+ * If the player takes too long, the game can decide for them with
+ * {@link #chooseDefault()}.
+ */
+public class PromptController implements PlayerController {
+	/**
+	 * The action chosen when the player runs out of time.
+	 */
+	public static final int DEFAULT_ACTION = DEFEND;
+
+	private static final String TIMED_OUT = "\nTime's up!";
+
+	/**
+	 * Is the player being asked for an action or an item, or have they decided?
+	 */
+	private enum State {
+		IDLE, CHOOSING_ACTION, CHOOSING_ITEM, DECIDED
+	}
+
+	/**
+	 * Where the prompts go.
+	 */
+	private final PrintWriter out;
+
+	private State state = State.IDLE;
+
+	/**
+	 * The player's decision, once they have made it.
+	 */
+	private int chosenAction;
+
+	private int chosenItem;
+
+	/**
+	 * Construct a new {@link PromptController}.
+	 *
+	 * @param out Where to write the prompts to.
+	 */
+	public PromptController(PrintWriter out) {
+		this.out = out;
+	}
+
+	/**
+	 * Ask the player which action to perform. Their answers should be passed to
+	 * {@link #offerLine} as they arrive.
+	 */
+	public void promptAction() {
+		state = State.CHOOSING_ACTION;
+		Menus.printActionMenu(out);
+	}
+
+	/**
+	 * Wait for the player to choose an action without showing the menu again,
+	 * e.g. when the game has been set up again partway through a turn and the
+	 * player has already seen it.
+	 */
+	public void resumeAction() {
+		state = State.CHOOSING_ACTION;
+	}
+
+	/**
+	 * Check whether the player has been shown the action menu and hasn't chosen
+	 * from it yet.
+	 *
+	 * @return True if the player is choosing an action.
+	 */
+	public boolean isChoosingAction() {
+		return state == State.CHOOSING_ACTION;
+	}
+
+	/**
+	 * Check whether the player has been asked for a decision and hasn't made one
+	 * yet.
+	 *
+	 * @return True if the player is being waited on.
+	 */
+	public boolean isWaiting() {
+		return state == State.CHOOSING_ACTION || state == State.CHOOSING_ITEM;
+	}
+
+	/**
+	 * Get the action the player decided on most recently.
+	 *
+	 * @return The action, one of the choices in {@link PlayerController}.
+	 */
+	public int getChosenAction() {
+		return chosenAction;
+	}
+
+	/**
+	 * Handle a line typed by the player. If it doesn't finish their decision,
+	 * e.g. because they typed something invalid or chose to use an item and still
+	 * need to pick one, the next prompt is shown.
+	 *
+	 * @param line   The line, without its line break.
+	 * @param player The player, whose inventory the items are chosen from.
+	 * @return True if the player has now made their decision.
+	 */
+	public boolean offerLine(String line, Player player) {
+		int choice = Menus.parseChoice(line);
+		switch (state) {
+		case CHOOSING_ACTION:
+			if (choice < 0 || choice >= ACTION_COUNT) {
+				out.println(Menus.UNRECOGNIZED_ACTION);
+				promptAction();
+			} else if (choice != USE_ITEM) {
+				decide(choice, CANCEL);
+			} else if (player.getInventory().size() == 0) {
+				out.println(Menus.EMPTY_INVENTORY);
+				promptAction();
+			} else {
+				state = State.CHOOSING_ITEM;
+				Menus.printItemMenu(out, player.getInventory());
+			}
+			break;
+
+		case CHOOSING_ITEM:
+			if (choice == CANCEL) {
+				promptAction();
+			} else if (choice >= 0 && choice < player.getInventory().size()) {
+				decide(USE_ITEM, choice);
+			} else {
+				out.println(Menus.UNRECOGNIZED_ITEM);
+				Menus.printItemMenu(out, player.getInventory());
+			}
+			break;
+
+		default:
+			// Nobody asked, so there's nothing to do with it.
+			break;
+		}
+		return state == State.DECIDED;
+	}
+
+	/**
+	 * Decide for the player because they took too long, choosing
+	 * {@link #DEFAULT_ACTION}.
+	 */
+	public void chooseDefault() {
+		out.println(TIMED_OUT);
+		decide(DEFAULT_ACTION, CANCEL);
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		if (state != State.DECIDED) {
+			throw new IllegalStateException("The player has not decided what to do yet");
+		}
+		if (chosenAction != USE_ITEM) {
+			state = State.IDLE;
+		}
+		return chosenAction;
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		if (state != State.DECIDED) {
+			throw new IllegalStateException("The player has not decided what to do yet");
+		}
+		state = State.IDLE;
+		return chosenItem;
+	}
+
+	private void decide(int action, int item) {
+		chosenAction = action;
+		chosenItem = item;
+		state = State.DECIDED;
+	}
+}
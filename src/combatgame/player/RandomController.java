@@ -0,0 +1,67 @@
+package combatgame.player;
+
+import java.util.SplittableRandom;
+
+import combatgame.entities.enemies.Enemy;
+
+/**
+ * A {@link RandomController} plays the game by picking actions at random. It
+ * never tries to use an item when the inventory is empty, and never runs away
+ * unless it is allowed to.
+ *
+ * Given the same seed, a {@link RandomController} always makes the same
+ * choices, which makes it easy to repeat an interesting game.
+ */
+public class RandomController implements PlayerController {
+	/**
+	 * The source of random numbers.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * Can this controller choose to run away?
+	 */
+	private final boolean canRunAway;
+
+	/**
+	 * Construct a new {@link RandomController} that never runs away.
+	 *
+	 * @param seed The seed for the random number generator.
+	 */
+	public RandomController(long seed) {
+		this(seed, false);
+	}
+
+	/**
+	 * Construct a new {@link RandomController}.
+	 *
+	 * @param seed       The seed for the random number generator.
+	 * @param canRunAway Whether this controller is allowed to run away.
+	 */
+	public RandomController(long seed, boolean canRunAway) {
+		this.random = new SplittableRandom(seed);
+		this.canRunAway = canRunAway;
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		// Only pick from the actions that make sense right now. The actions are
+		// numbered so that the ones we might leave out come last.
+		int actionCount = canRunAway ? ACTION_COUNT : RUN_AWAY;
+		if (player.getInventory().size() == 0) {
+			int choice = random.nextInt(actionCount - 1);
+			return choice >= USE_ITEM ? choice + 1 : choice;
+		}
+
+		return random.nextInt(actionCount);
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		if (inventory.size() == 0) {
+			return CANCEL;
+		}
+
+		return random.nextInt(inventory.size());
+	}
+}
@@ -0,0 +1,112 @@
+package combatgame.player;
+
+import combatgame.entities.enemies.Enemy;
+
+/**
+ * A {@link ScriptedController} plays the game by reading choices from a fixed
+ * script, starting over from the beginning when it runs out. This is useful for
+ * running the game without anybody at the keyboard.
+ *
+ * The script uses the same numbers a human would type. A {@link #USE_ITEM}
+ * choice is followed by the index of the item to use, e.g. the script
+ * {@code {0, 2, 0, 1}} means "attack, use item 0, defend". If the item is not
+ * there when its turn comes, e.g. because the inventory is empty, the controller
+ * skips it and moves on to the next action in the script.
+ */
+public class ScriptedController implements PlayerController {
+	/**
+	 * The choices to make, in order.
+	 */
+	private final int[] script;
+
+	/**
+	 * The position of the next choice in the script.
+	 */
+	private int cursor;
+
+	/**
+	 * Construct a new {@link ScriptedController}.
+	 *
+	 * @param script The choices to make, in order. Must contain at least one
+	 *               action that is not {@link #USE_ITEM}, otherwise the player
+	 *               could get stuck with an empty inventory.
+	 * @throws IllegalArgumentException If the script is not valid, see
+	 *                                  {@link #checkScript}.
+	 */
+	public ScriptedController(int... script) {
+		checkScript(script);
+		this.script = script.clone();
+		this.cursor = 0;
+	}
+
+	/**
+	 * Check that a script can be played to the end and back without getting
+	 * stuck, so callers can reject a bad script before starting any games.
+	 *
+	 * @param script The choices to check.
+	 * @throws IllegalArgumentException If the script is empty, contains an unknown
+	 *                                  action, a {@link #USE_ITEM} without a valid
+	 *                                  item index after it, or no action other
+	 *                                  than {@link #USE_ITEM}.
+	 */
+	public static void checkScript(int... script) {
+		if (script.length == 0) {
+			throw new IllegalArgumentException("Script must contain at least one choice");
+		}
+
+		// Walk the script the same way chooseAction and chooseItem will, so that
+		// item indices are not mistaken for actions.
+		boolean hasOtherAction = false;
+		for (int i = 0; i < script.length; ++i) {
+			int action = script[i];
+			if (action < 0 || action >= ACTION_COUNT) {
+				throw new IllegalArgumentException("Script contains an unknown action: " + action);
+			}
+
+			if (action != USE_ITEM) {
+				hasOtherAction = true;
+			} else if (++i == script.length) {
+				throw new IllegalArgumentException("Script ends with " + USE_ITEM + " but no item index after it");
+			} else if (script[i] < 0) {
+				throw new IllegalArgumentException("Script contains an invalid item index: " + script[i]);
+			}
+		}
+
+		if (!hasOtherAction) {
+			throw new IllegalArgumentException("Script must contain at least one action other than " + USE_ITEM);
+		}
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		int choice = next();
+		if (choice < 0 || choice >= ACTION_COUNT) {
+			throw new IllegalStateException("Script contains an unknown action: " + choice);
+		}
+
+		return choice;
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		// The constructor guarantees another action comes up before this item
+		// choice does again, so cancelling cannot loop forever.
+		int choice = next();
+		if (choice >= inventory.size()) {
+			return CANCEL;
+		}
+
+		return choice;
+	}
+
+	/**
+	 * Read the next choice from the script, wrapping around at the end.
+	 *
+	 * @return The next choice.
+	 */
+	private int next() {
+		int choice = script[cursor];
+		cursor = (cursor + 1) % script.length;
+		return choice;
+	}
+}
@@ -0,0 +1,26 @@
+package combatgame.replay;
+
+import combatgame.CombatGameEngine;
+import combatgame.events.CombatEventSink;
+import combatgame.player.PlayerController;
+
+/**
+ * Creates a game from a seed and a player. A recording only stores the seed and
+ * the player's choices, so the game must be set up the same way every time it
+ * is created with the same seed, otherwise a replay would not match the game
+ * that was recorded.
+ */
+@FunctionalInterface
+public interface GameSetup {
+	/**
+	 * Create a new game, ready to be started.
+	 *
+	 * @param seed       Decides everything about the game that is left to chance.
+	 * @param playerName The name of the player.
+	 * @param controller Makes the player's choices.
+	 * @param eventSink  Where to report everything that happens during the game.
+	 * @return The new game.
+	 */
+	CombatGameEngine createGame(long seed, String playerName, PlayerController controller,
+			CombatEventSink eventSink);
+}
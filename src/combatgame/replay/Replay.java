@@ -0,0 +1,187 @@
+package combatgame.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link Replay} is a recording of a single game: the seed the game was
+ * created with, the name of the player, and every choice the player made, in
+ * order. The game itself is completely determined by these, so playing the
+ * choices back through a game created the same way gives exactly the same
+ * result (see {@link ReplayEngine}).
+ *
+ * A replay is stored in a compact binary format:
+ *
+ * <ul>
+ * <li>The four bytes {@code C G R} and the format version, currently 1.</li>
+ * <li>The seed, as 8 bytes with the most significant byte first.</li>
+ * <li>The length of the player's name in UTF-8 bytes, followed by the
+ * bytes.</li>
+ * <li>The number of choices, followed by every choice plus one, so that
+ * {@link combatgame.player.PlayerController#CANCEL} is stored as 0.</li>
+ * </ul>
+ *
+ * Lengths and choices are written as unsigned variable-length integers, 7 bits
+ * per byte with the high bit set on every byte except the last. Choices are
+ * small numbers, so a turn usually takes one byte, or two if an item was used.
+ */
+public final class Replay {
+	/**
+	 * The bytes every replay starts with, including the format version.
+	 */
+	private static final byte[] HEADER = { 'C', 'G', 'R', 1 };
+
+	/**
+	 * The seed the game was created with.
+	 */
+	public final long seed;
+
+	/**
+	 * The name of the player.
+	 */
+	public final String playerName;
+
+	/**
+	 * Every choice the player made, in order.
+	 */
+	private final int[] choices;
+
+	/**
+	 * Construct a new {@link Replay}.
+	 *
+	 * @param seed       The seed the game was created with.
+	 * @param playerName The name of the player.
+	 * @param choices    Every choice the player made, in order.
+	 */
+	public Replay(long seed, String playerName, int[] choices) {
+		this.seed = seed;
+		this.playerName = playerName;
+		this.choices = choices.clone();
+	}
+
+	/**
+	 * Get the number of choices in this replay.
+	 *
+	 * @return The number of choices.
+	 */
+	public int getChoiceCount() {
+		return choices.length;
+	}
+
+	/**
+	 * Get one of the choices in this replay.
+	 *
+	 * @param index The position of the choice, starting from 0.
+	 * @return The choice.
+	 */
+	public int getChoice(int index) {
+		return choices[index];
+	}
+
+	/**
+	 * Write this replay in the binary format.
+	 *
+	 * @param out Where to write the replay. It is not flushed or closed.
+	 * @throws IOException If writing fails.
+	 */
+	public void write(OutputStream out) throws IOException {
+		byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+		byte[] buffer = new byte[HEADER.length + 8 + 5 + name.length + 5 + choices.length * 5];
+		int length = 0;
+
+		for (byte b : HEADER) {
+			buffer[length++] = b;
+		}
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			buffer[length++] = (byte)(seed >>> shift);
+		}
+		length = putNumber(buffer, length, name.length);
+		System.arraycopy(name, 0, buffer, length, name.length);
+		length += name.length;
+		length = putNumber(buffer, length, choices.length);
+		for (int choice : choices) {
+			length = putNumber(buffer, length, choice + 1);
+		}
+
+		out.write(buffer, 0, length);
+	}
+
+	/**
+	 * Read a replay written by {@link #write(OutputStream)}.
+	 *
+	 * @param in Where to read the replay from. Reading stops at the end of the
+	 *           replay.
+	 * @return The replay.
+	 * @throws IOException If reading fails, or the data is not a replay.
+	 */
+	public static Replay read(InputStream in) throws IOException {
+		for (byte b : HEADER) {
+			if (readByte(in) != b) {
+				throw new IOException("Not a replay, or written by a different version of the game");
+			}
+		}
+
+		long seed = 0;
+		for (int i = 0; i < 8; ++i) {
+			seed = (seed << 8) | readByte(in);
+		}
+
+		byte[] name = new byte[readNumber(in)];
+		if (in.readNBytes(name, 0, name.length) != name.length) {
+			throw new EOFException("Replay ends in the middle of the player's name");
+		}
+
+		int[] choices = new int[readNumber(in)];
+		for (int i = 0; i < choices.length; ++i) {
+			choices[i] = readNumber(in) - 1;
+		}
+
+		return new Replay(seed, new String(name, StandardCharsets.UTF_8), choices);
+	}
+
+	@Override
+	public String toString() {
+		return "Replay(seed=" + seed + ", player=" + playerName + ", choices=" + Arrays.toString(choices) + ")";
+	}
+
+	/**
+	 * Put a number into a buffer as an unsigned variable-length integer.
+	 *
+	 * @param buffer Where to put the number.
+	 * @param offset The position to put it at.
+	 * @param value  The number. Negative numbers take 5 bytes.
+	 * @return The position just after the number.
+	 */
+	private static int putNumber(byte[] buffer, int offset, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer[offset++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[offset++] = (byte)value;
+		return offset;
+	}
+
+	private static int readNumber(InputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = readByte(in);
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Number in replay is too long");
+	}
+
+	private static int readByte(InputStream in) throws IOException {
+		int b = in.read();
+		if (b < 0) {
+			throw new EOFException("Replay ends too soon");
+		}
+		return b;
+	}
+}
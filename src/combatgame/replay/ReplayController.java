@@ -0,0 +1,74 @@
+package combatgame.replay;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.player.Inventory;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+
+/**
+ * A {@link ReplayController} makes exactly the same choices that were made in
+ * a recorded game. When the recording runs out, another controller can take
+ * over, e.g. so that a developer can carry on playing from the point where a
+ * bug report ends.
+ */
+public class ReplayController implements PlayerController {
+	/**
+	 * The recording to play back.
+	 */
+	private final Replay replay;
+
+	/**
+	 * The controller that takes over at the end of the recording, or null.
+	 */
+	private final PlayerController continuation;
+
+	/**
+	 * The position of the next choice in the recording.
+	 */
+	private int cursor;
+
+	/**
+	 * Construct a new {@link ReplayController}.
+	 *
+	 * @param replay       The recording to play back.
+	 * @param continuation The controller that takes over at the end of the
+	 *                     recording, or null if the game should not go past the
+	 *                     end.
+	 */
+	public ReplayController(Replay replay, PlayerController continuation) {
+		this.replay = replay;
+		this.continuation = continuation;
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		if (isFinished()) {
+			return continuation().chooseAction(player, enemy);
+		}
+		return replay.getChoice(cursor++);
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		if (isFinished()) {
+			return continuation().chooseItem(player, inventory);
+		}
+		return replay.getChoice(cursor++);
+	}
+
+	/**
+	 * Check whether every recorded choice has been played back.
+	 *
+	 * @return True if the recording has run out.
+	 */
+	public boolean isFinished() {
+		return cursor == replay.getChoiceCount();
+	}
+
+	private PlayerController continuation() {
+		if (continuation == null) {
+			throw new IllegalStateException("The game went past the end of the replay");
+		}
+		return continuation;
+	}
+}
@@ -0,0 +1,72 @@
+package combatgame.replay;
+
+import combatgame.CombatGameEngine;
+import combatgame.events.CombatEventSink;
+import combatgame.events.NullEventSink;
+import combatgame.player.PlayerController;
+
+/**
+ * A {@link ReplayEngine} plays a {@link Replay} back through a fresh game. It
+ * can fast-forward to any turn with nothing printed or measured along the way
+ * (see {@link CombatGameEngine#setFastForwarding}), which is much faster than
+ * playing the game normally, and then show the rest of the game from that
+ * point on.
+ */
+public class ReplayEngine {
+	/**
+	 * Creates the game in the same way as when it was recorded.
+	 */
+	private final GameSetup setup;
+
+	/**
+	 * Construct a new {@link ReplayEngine}.
+	 *
+	 * @param setup Creates the game in the same way as when it was recorded.
+	 */
+	public ReplayEngine(GameSetup setup) {
+		this.setup = setup;
+	}
+
+	/**
+	 * Play a replay silently up to the given turn.
+	 *
+	 * @param replay       The recording to play back.
+	 * @param turn         The number of turns to play before stopping. If the
+	 *                     game ends or the recording runs out first, it stops
+	 *                     there instead.
+	 * @param eventSink    Where to report everything that happens after the
+	 *                     given turn.
+	 * @param continuation The controller that takes over at the end of the
+	 *                     recording, or null if the game should not go past the
+	 *                     end.
+	 * @return The game, stopped at the given turn. Call
+	 *         {@link CombatGameEngine#step()} to carry on playing it.
+	 */
+	public CombatGameEngine fastForward(Replay replay, int turn, CombatEventSink eventSink,
+			PlayerController continuation) {
+		ReplayController controller = new ReplayController(replay, continuation);
+		CombatGameEngine engine = setup.createGame(replay.seed, replay.playerName, controller,
+				NullEventSink.INSTANCE);
+
+		engine.setFastForwarding(true);
+		engine.start();
+		while (engine.getTurnsTaken() < turn && !controller.isFinished() && engine.step()) {
+			// Keep playing turns until we reach the one we want.
+		}
+
+		engine.setFastForwarding(false);
+		engine.setEventSink(eventSink);
+		return engine;
+	}
+
+	/**
+	 * Play a replay silently as far as the recording goes, e.g. to check the
+	 * result of a recorded game.
+	 *
+	 * @param replay The recording to play back.
+	 * @return The game, stopped at the end of the recording.
+	 */
+	public CombatGameEngine playToEnd(Replay replay) {
+		return fastForward(replay, Integer.MAX_VALUE, NullEventSink.INSTANCE, null);
+	}
+}
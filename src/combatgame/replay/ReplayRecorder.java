@@ -0,0 +1,97 @@
+package combatgame.replay;
+
+import java.util.Arrays;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.player.Inventory;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+
+/**
+ * A {@link ReplayRecorder} passes every decision on to another controller, and
+ * remembers what it chose. When the game is over, the choices can be turned
+ * into a {@link Replay}.
+ */
+public class ReplayRecorder implements PlayerController {
+	/**
+	 * The controller that actually makes the choices.
+	 */
+	private final PlayerController controller;
+
+	/**
+	 * The seed the game was created with.
+	 */
+	private final long seed;
+
+	/**
+	 * The name of the player.
+	 */
+	private final String playerName;
+
+	/**
+	 * Every choice made so far. Only the first {@link #choiceCount} are used.
+	 */
+	private int[] choices = new int[64];
+
+	/**
+	 * The number of choices made so far.
+	 */
+	private int choiceCount;
+
+	/**
+	 * Construct a new {@link ReplayRecorder}.
+	 *
+	 * @param controller The controller that makes the choices.
+	 * @param seed       The seed the game was created with.
+	 * @param playerName The name of the player.
+	 */
+	public ReplayRecorder(PlayerController controller, long seed, String playerName) {
+		this.controller = controller;
+		this.seed = seed;
+		this.playerName = playerName;
+	}
+
+	/**
+	 * Construct a new {@link ReplayRecorder} that carries on from an earlier
+	 * recording of the same game, e.g. after the game was set up again from it.
+	 *
+	 * @param controller The controller that makes the choices from now on.
+	 * @param replay     The recording so far.
+	 */
+	public ReplayRecorder(PlayerController controller, Replay replay) {
+		this(controller, replay.seed, replay.playerName);
+		choiceCount = replay.getChoiceCount();
+		choices = new int[Math.max(choices.length, choiceCount * 2)];
+		for (int i = 0; i < choiceCount; ++i) {
+			choices[i] = replay.getChoice(i);
+		}
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		return record(controller.chooseAction(player, enemy));
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		return record(controller.chooseItem(player, inventory));
+	}
+
+	/**
+	 * Get a replay of every choice made so far. This can be called at any time,
+	 * e.g. to save a game that ended because the player disconnected.
+	 *
+	 * @return The replay.
+	 */
+	public Replay toReplay() {
+		return new Replay(seed, playerName, Arrays.copyOf(choices, choiceCount));
+	}
+
+	private int record(int choice) {
+		if (choiceCount == choices.length) {
+			choices = Arrays.copyOf(choices, choiceCount * 2);
+		}
+		choices[choiceCount++] = choice;
+		return choice;
+	}
+}
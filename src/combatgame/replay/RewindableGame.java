@@ -0,0 +1,206 @@
+package combatgame.replay;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.Enemy;
+import combatgame.events.CombatEventSink;
+import combatgame.player.Inventory;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+
+/**
+ * A {@link RewindableGame} is a game that can be saved between any two turns
+ * and put back to any saved point later, e.g. to let the player undo their last
+ * turn, or to try out different choices from the same point and compare how
+ * they turn out.
+ *
+ * Saving takes a {@link Snapshot}, which costs nothing: the game keeps the
+ * snapshot from the start of the current turn up to date as it goes. Putting
+ * the game back creates it again with its {@link GameSetup} and fast-forwards
+ * it through the choices that led to the snapshot (see {@link ReplayEngine}),
+ * so everything about the game is exactly as it was: health, blocking and
+ * tiredness, the inventory, which enemy is next, and every status effect and
+ * turn order in between. Fast-forwarding a whole game takes a few
+ * microseconds.
+ *
+ * Putting the game back replaces the engine, so always get the current one
+ * with {@link #getEngine()}.
+ */
+public class RewindableGame {
+	/**
+	 * Creates the game, at the start and whenever it is put back.
+	 */
+	private final GameSetup setup;
+
+	private final ReplayEngine replayEngine;
+
+	/**
+	 * Makes the player's choices from now on.
+	 */
+	private final PlayerController controller;
+
+	/**
+	 * Sits between the game and the controller and adds every choice to the
+	 * list of choices.
+	 */
+	private final PlayerController recorder = new Recorder();
+
+	private final long seed;
+
+	private final String playerName;
+
+	/**
+	 * Where to report everything that happens during the game.
+	 */
+	private CombatEventSink eventSink;
+
+	private CombatGameEngine engine;
+
+	/**
+	 * The last choice the player made.
+	 */
+	private Snapshot.Choice lastChoice;
+
+	/**
+	 * The snapshot from the start of the current turn.
+	 */
+	private Snapshot current;
+
+	/**
+	 * Construct a new {@link RewindableGame}. Call {@link #start()} to begin it.
+	 *
+	 * @param setup      Creates the game, the same way every time.
+	 * @param seed       Decides everything about the game that is left to
+	 *                   chance.
+	 * @param playerName The name of the player.
+	 * @param controller Makes the player's choices.
+	 * @param eventSink  Where to report everything that happens during the game.
+	 */
+	public RewindableGame(GameSetup setup, long seed, String playerName, PlayerController controller,
+			CombatEventSink eventSink) {
+		this.setup = setup;
+		this.replayEngine = new ReplayEngine(setup);
+		this.seed = seed;
+		this.playerName = playerName;
+		this.controller = controller;
+		this.eventSink = eventSink;
+	}
+
+	/**
+	 * Begin the game from the start, without playing any turns.
+	 */
+	public void start() {
+		lastChoice = null;
+		current = new Snapshot(seed, playerName, 0, null, null);
+		engine = setup.createGame(seed, playerName, recorder, eventSink);
+		engine.start();
+	}
+
+	/**
+	 * Play a single turn (see {@link CombatGameEngine#step()}).
+	 *
+	 * @return True if there are more turns to play, false if the game is over.
+	 */
+	public boolean step() {
+		Snapshot before = current;
+		boolean more = engine.step();
+		if (engine.getTurnsTaken() != before.turn) {
+			current = new Snapshot(seed, playerName, engine.getTurnsTaken(), lastChoice, before);
+		}
+		return more;
+	}
+
+	/**
+	 * Play the rest of the game.
+	 */
+	public void run() {
+		while (step()) {
+			// Keep playing turns until the game is over.
+		}
+	}
+
+	/**
+	 * Save the game as it is now, between two turns.
+	 *
+	 * @return The snapshot.
+	 */
+	public Snapshot snapshot() {
+		return current;
+	}
+
+	/**
+	 * Put the game back the way it was when a snapshot was taken. Choices made
+	 * from then on branch off from the snapshot, and snapshots taken before
+	 * this are not affected.
+	 *
+	 * @param snapshot A snapshot of a game created by the same setup.
+	 * @throws IllegalArgumentException If the game can't be put back the way it
+	 *                                  was, because the snapshot was taken in a
+	 *                                  game created some other way.
+	 */
+	public void restore(Snapshot snapshot) {
+		lastChoice = snapshot.lastChoice;
+		current = snapshot;
+		engine = replayEngine.fastForward(snapshot.toReplay(), snapshot.turn, eventSink, recorder);
+		if (engine.getTurnsTaken() != snapshot.turn) {
+			throw new IllegalArgumentException("Could not get back to " + snapshot + ", since the game ended after "
+					+ engine.getTurnsTaken() + " turns");
+		}
+	}
+
+	/**
+	 * Take back the player's last turn.
+	 *
+	 * @return True if a turn was taken back, false if no turns have been taken.
+	 */
+	public boolean undo() {
+		Snapshot previous = current.getPrevious();
+		if (previous == null) {
+			return false;
+		}
+		restore(previous);
+		return true;
+	}
+
+	/**
+	 * Get the game being played right now. This changes every time the game is
+	 * put back to a snapshot.
+	 *
+	 * @return The engine.
+	 */
+	public CombatGameEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Change where everything that happens is reported, from now on and after
+	 * the game is put back to a snapshot.
+	 *
+	 * @param eventSink Where to report everything.
+	 */
+	public void setEventSink(CombatEventSink eventSink) {
+		this.eventSink = eventSink;
+		if (engine != null) {
+			engine.setEventSink(eventSink);
+		}
+	}
+
+	/**
+	 * Passes on the controller's choices, and adds each one to the list.
+	 */
+	private final class Recorder implements PlayerController {
+		@Override
+		public int chooseAction(Player player, Enemy enemy) {
+			return record(controller.chooseAction(player, enemy));
+		}
+
+		@Override
+		public int chooseItem(Player player, Inventory inventory) {
+			return record(controller.chooseItem(player, inventory));
+		}
+
+		private int record(int choice) {
+			lastChoice = new Snapshot.Choice(choice, lastChoice);
+			return choice;
+		}
+	}
+}
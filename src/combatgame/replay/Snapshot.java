@@ -0,0 +1,123 @@
+package combatgame.replay;
+
+/**
+ * A {@link Snapshot} is a saved point in a {@link RewindableGame}, taken
+ * between two turns, that the game can be put back to at any time.
+ *
+ * Rather than copying the player, the enemies and everything else in the game,
+ * a snapshot only remembers how the game was created and which choices led to
+ * it, just like a {@link Replay}. The choices are kept in a linked list that
+ * only ever grows at the end, so every snapshot of a game shares the choices
+ * it has in common with the others: taking a snapshot costs the same however
+ * long the game has gone on, and a thousand snapshots of a game take up little
+ * more memory than the last one. Games branched off from a snapshot share the
+ * choices up to it in the same way.
+ *
+ * Snapshots never change, so they can be kept as long as needed and handed to
+ * other threads.
+ */
+public final class Snapshot {
+	/**
+	 * The seed the game was created with.
+	 */
+	public final long seed;
+
+	/**
+	 * The name of the player.
+	 */
+	public final String playerName;
+
+	/**
+	 * The number of turns the player had taken.
+	 */
+	public final int turn;
+
+	/**
+	 * The last choice the player made before the snapshot, or null if they
+	 * hadn't made any.
+	 */
+	final Choice lastChoice;
+
+	/**
+	 * The snapshot taken at the start of the previous turn, or null if this is
+	 * the start of the game.
+	 */
+	private final Snapshot previous;
+
+	/**
+	 * Construct a new {@link Snapshot}.
+	 *
+	 * @param seed       The seed the game was created with.
+	 * @param playerName The name of the player.
+	 * @param turn       The number of turns the player had taken.
+	 * @param lastChoice The last choice the player made, or null.
+	 * @param previous   The snapshot from the start of the previous turn, or null.
+	 */
+	Snapshot(long seed, String playerName, int turn, Choice lastChoice, Snapshot previous) {
+		this.seed = seed;
+		this.playerName = playerName;
+		this.turn = turn;
+		this.lastChoice = lastChoice;
+		this.previous = previous;
+	}
+
+	/**
+	 * Get the snapshot from the start of the turn before this one, e.g. to undo
+	 * the last turn.
+	 *
+	 * @return The snapshot, or null if this is the start of the game.
+	 */
+	public Snapshot getPrevious() {
+		return previous;
+	}
+
+	/**
+	 * Get the number of choices the player had made.
+	 *
+	 * @return The number of choices.
+	 */
+	public int getChoiceCount() {
+		return lastChoice == null ? 0 : lastChoice.count;
+	}
+
+	/**
+	 * Make a recording of the game up to this snapshot, e.g. to save a branch
+	 * worth looking at again.
+	 *
+	 * @return The replay.
+	 */
+	public Replay toReplay() {
+		int[] choices = new int[getChoiceCount()];
+		for (Choice choice = lastChoice; choice != null; choice = choice.previous) {
+			choices[choice.count - 1] = choice.value;
+		}
+		return new Replay(seed, playerName, choices);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s's game at turn %d", playerName, turn);
+	}
+
+	/**
+	 * One choice in the list of choices that led to a snapshot. Each choice points
+	 * back to the one made before it, so a list can be added to without changing
+	 * it, and any number of lists can share their beginnings.
+	 */
+	static final class Choice {
+		final int value;
+
+		final Choice previous;
+
+		/**
+		 * The number of choices up to and including this one.
+		 */
+		final int count;
+
+		Choice(int value, Choice previous) {
+			this.value = value;
+			this.previous = previous;
+			this.count = previous == null ? 1 : previous.count + 1;
+		}
+	}
+}
@@ -0,0 +1,490 @@
+package combatgame.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import combatgame.CombatGameEngine;
+import combatgame.leaderboard.GameResult;
+import combatgame.leaderboard.Leaderboard;
+import combatgame.replay.GameSetup;
+import combatgame.replay.Replay;
+import combatgame.spectator.Spectator;
+import combatgame.spectator.SpectatorChannel;
+
+/**
+ * A {@link GameServer} lets many players play the combat game at the same time,
+ * by connecting over TCP or a Unix domain socket (e.g. with {@code nc}).
+ *
+ * Every connection gets its own game, created by a {@link GameSetup}. Games
+ * don't get a thread each. Instead, a few {@link SessionSelector} threads
+ * share all of the sessions. Each one waits for any of its players to type
+ * something, and plays their game up to the next choice. A player who is
+ * thinking, or who has walked away, costs no thread at all.
+ *
+ * Each turn has a deadline (see {@link #setTurnTimeout}). A player who doesn't
+ * choose in time defends, so one slow player can't hold up a hosted match
+ * forever.
+ *
+ * Players who are idle for a while can be hibernated (see
+ * {@link #setHibernation}): their game is put away in a memory-mapped file
+ * until they come back, so the heap only holds the games being played.
+ *
+ * Every game gets a number, which its player is told, and anyone can watch it
+ * by connecting and typing {@code watch <number>} instead of a name (or see
+ * {@link #watch(long)}). Spectators read the game through its
+ * {@link SpectatorChannel}, so however many there are, the game never waits for
+ * them.
+ */
+public class GameServer implements Closeable {
+	/**
+	 * The number of players that can be connected at once when no limit is given.
+	 */
+	public static final int DEFAULT_MAX_SESSIONS = 200_000;
+
+	/**
+	 * The number of connections that can be waiting to be accepted.
+	 */
+	private static final int ACCEPT_BACKLOG = 4096;
+
+	/**
+	 * How long players have to choose each turn, unless told otherwise.
+	 */
+	public static final Duration DEFAULT_TURN_TIMEOUT = Duration.ofSeconds(60);
+
+	/**
+	 * How long players can be idle before their session hibernates, unless told
+	 * otherwise.
+	 */
+	public static final Duration DEFAULT_IDLE_TIME = Duration.ofSeconds(10);
+
+	/**
+	 * The number of threads that look after the sessions. Games only need a
+	 * thread for the moment it takes to play a turn, so a few are plenty.
+	 */
+	private static final int SELECTOR_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * The number of batches of messages each game keeps for its spectators. Every
+	 * game has a channel, so this is kept small. A spectator who falls further
+	 * behind than this skips ahead.
+	 */
+	static final int SPECTATOR_CAPACITY = 64;
+
+	private final ServerSocketChannel serverChannel;
+
+	/**
+	 * Is the server listening on a Unix domain socket, rather than TCP?
+	 */
+	private final boolean isUnixDomain;
+
+	private final GameSetup setup;
+
+	private final int maxSessions;
+
+	private final SessionSelector[] selectors = new SessionSelector[SELECTOR_THREADS];
+
+	/**
+	 * The selector that gets the next connection.
+	 */
+	private int nextSelector;
+
+	private final AtomicInteger sessionCount = new AtomicInteger();
+
+	private final AtomicInteger hibernatedCount = new AtomicInteger();
+
+	/**
+	 * How long players have to choose each turn, in nanoseconds, or 0 for as long
+	 * as they like.
+	 */
+	private volatile long turnTimeoutNanos = DEFAULT_TURN_TIMEOUT.toNanos();
+
+	/**
+	 * Where idle sessions hibernate, or null to keep every session in memory.
+	 */
+	private volatile Path hibernationDirectory;
+
+	/**
+	 * How long a player can be idle before their session hibernates, in
+	 * nanoseconds, or 0 if sessions don't hibernate.
+	 */
+	private volatile long hibernateAfterNanos;
+
+	/**
+	 * Where to save a recording of each session, or null to not record them.
+	 */
+	private volatile Path replayDirectory;
+
+	/**
+	 * The number of recordings saved so far, used to name them.
+	 */
+	private final AtomicLong replayCount = new AtomicLong();
+
+	/**
+	 * Where the result of every game is recorded, or null if they aren't.
+	 */
+	private volatile Leaderboard leaderboard;
+
+	/**
+	 * The name of the list of enemies the games are played against.
+	 */
+	private volatile String enemyList;
+
+	/**
+	 * The number of results that couldn't be recorded on the leaderboard.
+	 */
+	private final AtomicLong unrecordedResultCount = new AtomicLong();
+
+	/**
+	 * The number of games started so far, used to number them.
+	 */
+	private final AtomicLong gameCount = new AtomicLong();
+
+	/**
+	 * The channel of every game in progress, by number, for spectators to find.
+	 */
+	private final ConcurrentHashMap<Long, SpectatorChannel> games = new ConcurrentHashMap<>();
+
+	/**
+	 * Construct a new {@link GameServer} and start listening for connections.
+	 * Call {@link #serve()} to start accepting them.
+	 *
+	 * @param address     The address to listen on, either an
+	 *                    {@link InetSocketAddress} or a
+	 *                    {@link UnixDomainSocketAddress}.
+	 * @param setup       Creates the game for each session.
+	 * @param maxSessions The number of players that can be connected at once.
+	 * @throws IOException If the server can't listen on the address.
+	 */
+	public GameServer(SocketAddress address, GameSetup setup, int maxSessions) throws IOException {
+		isUnixDomain = address instanceof UnixDomainSocketAddress;
+		if (isUnixDomain) {
+			// A socket file left behind by an earlier server would stop us binding.
+			Files.deleteIfExists(((UnixDomainSocketAddress)address).getPath());
+			serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		} else {
+			serverChannel = ServerSocketChannel.open();
+		}
+		serverChannel.bind(address, ACCEPT_BACKLOG);
+
+		this.setup = setup;
+		this.maxSessions = maxSessions;
+
+		for (int i = 0; i < selectors.length; ++i) {
+			selectors[i] = new SessionSelector(this);
+			Thread thread = new Thread(selectors[i], "game-selector-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Accept connections and start a session for each one. This method will not
+	 * return until the server is closed.
+	 *
+	 * @throws IOException If accepting a connection fails.
+	 */
+	public void serve() throws IOException {
+		while (serverChannel.isOpen()) {
+			SocketChannel channel;
+			try {
+				channel = serverChannel.accept();
+			} catch (AsynchronousCloseException e) {
+				// The server was closed while we were waiting.
+				return;
+			}
+
+			if (sessionCount.incrementAndGet() > maxSessions) {
+				sessionCount.decrementAndGet();
+				reject(channel);
+				continue;
+			}
+
+			if (!isUnixDomain) {
+				// Game output is sent in small pieces, a few lines at a time. Send each
+				// one straight away instead of waiting to see if more is coming.
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			}
+			channel.configureBlocking(false);
+			selectors[nextSelector].add(channel);
+			nextSelector = (nextSelector + 1) % selectors.length;
+		}
+	}
+
+	/**
+	 * Get the address the server is listening on. This is useful when the server
+	 * was told to listen on port 0, which picks any free port.
+	 *
+	 * @return The address.
+	 * @throws IOException If the server has been closed.
+	 */
+	public SocketAddress getLocalAddress() throws IOException {
+		return serverChannel.getLocalAddress();
+	}
+
+	/**
+	 * @return The number of players currently connected.
+	 */
+	public int getSessionCount() {
+		return sessionCount.get();
+	}
+
+	/**
+	 * @return The number of game results that couldn't be recorded on the
+	 *         leaderboard, e.g. because it was closed or writing to it failed.
+	 */
+	public long getUnrecordedResultCount() {
+		return unrecordedResultCount.get();
+	}
+
+	/**
+	 * @return The number of connected players whose sessions are hibernating.
+	 */
+	public int getHibernatedSessionCount() {
+		return hibernatedCount.get();
+	}
+
+	/**
+	 * Start watching a game in progress. This can be called from any thread.
+	 *
+	 * @param gameNumber The number of the game, as told to its player.
+	 * @return The spectator, or null if there is no such game in progress.
+	 */
+	public Spectator watch(long gameNumber) {
+		SpectatorChannel channel = games.get(gameNumber);
+		return channel == null ? null : channel.watch();
+	}
+
+	/**
+	 * Stop accepting new connections. Games that are already running carry on
+	 * until they end, as long as the program keeps running.
+	 */
+	@Override
+	public void close() throws IOException {
+		SocketAddress address = serverChannel.getLocalAddress();
+		serverChannel.close();
+		if (address instanceof UnixDomainSocketAddress) {
+			Files.deleteIfExists(((UnixDomainSocketAddress)address).getPath());
+		}
+	}
+
+	/**
+	 * Turn a command-line address into a socket address. The address can be
+	 * {@code unix:<path>} for a Unix domain socket, {@code <host>:<port>}, or just
+	 * {@code <port>} to listen on localhost.
+	 *
+	 * @param address The address to parse.
+	 * @return The socket address.
+	 */
+	public static SocketAddress parseAddress(String address) {
+		if (address.startsWith("unix:")) {
+			return UnixDomainSocketAddress.of(Path.of(address.substring("unix:".length())));
+		}
+
+		int colon = address.lastIndexOf(':');
+		if (colon < 0) {
+			return new InetSocketAddress("localhost", Integer.parseInt(address));
+		}
+		return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+	}
+
+	/**
+	 * Record every game from now on, and save the recordings in the given
+	 * directory when each session ends. The recordings can be played back with a
+	 * {@link combatgame.replay.ReplayEngine} to reproduce a player's game exactly.
+	 *
+	 * @param directory Where to save the recordings, or null to stop recording.
+	 * @throws IOException If the directory can't be created.
+	 */
+	public void setReplayDirectory(Path directory) throws IOException {
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		replayDirectory = directory;
+	}
+
+	/**
+	 * Record the result of every game from now on on a leaderboard. The
+	 * leaderboard is not closed by the server.
+	 *
+	 * @param leaderboard Where to record the results, or null to stop recording.
+	 * @param enemyList   The name of the list of enemies that the games are played
+	 *                    against (see {@link GameResult#describe}).
+	 */
+	public void setLeaderboard(Leaderboard leaderboard, String enemyList) {
+		this.enemyList = enemyList;
+		this.leaderboard = leaderboard;
+	}
+
+	/**
+	 * Change how long players have to choose what to do each turn. A player who
+	 * runs out of time defends (see {@link combatgame.player.PromptController}).
+	 * This applies from each player's next turn.
+	 *
+	 * @param timeout The time allowed per turn, or null to let players take as
+	 *                long as they like.
+	 */
+	public void setTurnTimeout(Duration timeout) {
+		turnTimeoutNanos = timeout == null ? 0 : timeout.toNanos();
+	}
+
+	/**
+	 * Hibernate the sessions of players who have been choosing their action for
+	 * a while from now on. Their games are kept in memory-mapped files (one per
+	 * selector thread, deleted when the program exits) instead of on the heap,
+	 * and set up again in a few microseconds when the player comes back. This
+	 * applies from each player's next turn.
+	 *
+	 * @param directory Where to keep the files, or null to keep every session in
+	 *                  memory.
+	 * @param idleTime  How long a player can be idle before their session
+	 *                  hibernates.
+	 * @throws IOException If the directory can't be created.
+	 */
+	public void setHibernation(Path directory, Duration idleTime) throws IOException {
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		hibernationDirectory = directory;
+		hibernateAfterNanos = directory == null ? 0 : Math.max(1, idleTime.toNanos());
+	}
+
+	GameSetup getSetup() {
+		return setup;
+	}
+
+	Path getReplayDirectory() {
+		return replayDirectory;
+	}
+
+	long getTurnTimeoutNanos() {
+		return turnTimeoutNanos;
+	}
+
+	Path getHibernationDirectory() {
+		return hibernationDirectory;
+	}
+
+	long getHibernateAfterNanos() {
+		return hibernateAfterNanos;
+	}
+
+	/**
+	 * Record the result of a game that has ended on the leaderboard, if there is
+	 * one. If it can't be, the game carries on ending as normal: the first
+	 * failure is printed, and the rest are only counted (see
+	 * {@link #getUnrecordedResultCount()}), so a broken leaderboard doesn't flood
+	 * the log.
+	 *
+	 * @param engine The game.
+	 */
+	void recordResult(CombatGameEngine engine) {
+		Leaderboard board = leaderboard;
+		if (board == null) {
+			return;
+		}
+
+		try {
+			board.record(GameResult.of(engine, enemyList));
+		} catch (UncheckedIOException | IllegalStateException e) {
+			if (unrecordedResultCount.getAndIncrement() == 0) {
+				System.err.println("Could not record a result on the leaderboard, and won't say so again: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Save the recording of a session that has ended.
+	 *
+	 * @param replay The recording.
+	 */
+	void saveReplay(Replay replay) {
+		Path directory = replayDirectory;
+		if (directory == null) {
+			return;
+		}
+
+		Path file = directory.resolve("session-" + replayCount.incrementAndGet() + ".replay");
+		try (OutputStream out = Files.newOutputStream(file)) {
+			replay.write(out);
+		} catch (IOException e) {
+			System.err.println("Could not save replay " + file + ": " + e);
+		}
+	}
+
+	/**
+	 * Called by a {@link GameSession} when its game starts, so that spectators
+	 * can find it.
+	 *
+	 * @param channel The game's channel for spectators.
+	 * @return The number of the game.
+	 */
+	long gameStarted(SpectatorChannel channel) {
+		long gameNumber = gameCount.incrementAndGet();
+		games.put(gameNumber, channel);
+		return gameNumber;
+	}
+
+	/**
+	 * Called by a {@link GameSession} when its game ends, or its player leaves.
+	 * Spectators who are already watching carry on to the end of the channel.
+	 *
+	 * @param gameNumber The number of the game.
+	 */
+	void gameFinished(long gameNumber) {
+		games.remove(gameNumber);
+	}
+
+	/**
+	 * Called by a {@link GameSession} when it hibernates.
+	 */
+	void sessionHibernated() {
+		hibernatedCount.incrementAndGet();
+	}
+
+	/**
+	 * Called by a {@link GameSession} when it wakes up from hibernating, or ends
+	 * while hibernating.
+	 */
+	void sessionWoken() {
+		hibernatedCount.decrementAndGet();
+	}
+
+	/**
+	 * Called by a {@link GameSession} when it ends.
+	 */
+	void sessionEnded() {
+		sessionCount.decrementAndGet();
+	}
+
+	/**
+	 * Tell a player that the server is full, and hang up.
+	 */
+	private static void reject(SocketChannel channel) {
+		try (SocketChannel closing = channel) {
+			PrintWriter out = new PrintWriter(Channels.newWriter(closing, StandardCharsets.UTF_8));
+			out.println("Sorry, the server is full. Please try again later.");
+			out.flush();
+		} catch (IOException e) {
+			// They'll find out when the connection closes.
+		}
+	}
+}
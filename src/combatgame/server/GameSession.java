@@ -0,0 +1,538 @@
+package combatgame.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+import combatgame.CombatGameEngine;
+import combatgame.events.CombatEventSink;
+import combatgame.events.NullEventSink;
+import combatgame.events.TeeEventSink;
+import combatgame.events.TerminalRenderer;
+import combatgame.metrics.GameMetrics;
+import combatgame.metrics.InputWaitEvent;
+import combatgame.player.PlayerController;
+import combatgame.player.PromptController;
+import combatgame.replay.Replay;
+import combatgame.replay.ReplayController;
+import combatgame.replay.ReplayRecorder;
+import combatgame.spectator.Spectator;
+import combatgame.spectator.SpectatorChannel;
+
+/**
+ * A {@link GameSession} plays one game with one connected player, from asking
+ * their name until they win, lose or disconnect.
+ *
+ * A session never waits for its player. Its {@link SessionSelector} calls it
+ * whenever the player has typed something, or has run out of time, and the
+ * session plays the game as far as it can before it needs the player again
+ * (see {@link CombatGameEngine#beginPlayerTurn()}). Everything the game prints
+ * is collected and sent whenever the connection can take it.
+ *
+ * A player who has been choosing their action for a while (see
+ * {@link GameServer#setHibernation}) is probably not coming back soon, so their
+ * game is put away in the selector's {@link SessionStore} as a recording, and
+ * everything else the session held on the heap is let go: the game, the
+ * buffers and the prompts. When the player types something, or runs out of
+ * time, the game is set up again from the recording and carries on where it
+ * left off, without anything being shown twice.
+ *
+ * Everything the game prints is also passed on to its {@link SpectatorChannel}.
+ * Instead of a name, the player can ask to watch someone else's game, and the
+ * session then sends them whatever that game prints, as its selector finds it
+ * (see {@link #spectate()}).
+ */
+final class GameSession {
+	/**
+	 * The size of the buffer for the player's input, in bytes. Players only ever
+	 * type names and short numbers, so this can be small. A longer line is cut
+	 * into pieces.
+	 */
+	private static final int INPUT_BUFFER_BYTES = 1024;
+
+	/**
+	 * What a player types instead of their name to watch a game.
+	 */
+	private static final String WATCH_COMMAND = "watch ";
+
+	private enum State {
+		NAMING, PLAYING, HIBERNATING, SPECTATING, CLOSING, CLOSED
+	}
+
+	private final GameServer server;
+
+	private final SessionSelector selector;
+
+	private final SocketChannel channel;
+
+	private SelectionKey key;
+
+	private State state = State.NAMING;
+
+	/**
+	 * Bytes the player has sent that don't make up a whole line yet. This and
+	 * the output are let go while the session is hibernating.
+	 */
+	private ByteBuffer input;
+
+	/**
+	 * Everything waiting to be sent to the player.
+	 */
+	private Output output;
+
+	private PrintWriter out;
+
+	private TerminalRenderer renderer;
+
+	/**
+	 * Where the game reports its events: the renderer and the spectator channel.
+	 */
+	private CombatEventSink eventSink;
+
+	private PromptController controller;
+
+	private ReplayRecorder recorder;
+
+	private CombatGameEngine engine;
+
+	/**
+	 * The record in the selector's store that holds the game while the session
+	 * is hibernating.
+	 */
+	private int storedRecord = -1;
+
+	/**
+	 * When the player runs out of time to choose, if they have a time limit. The
+	 * selector's deadline can be earlier than this, to hibernate the session
+	 * first.
+	 */
+	private boolean hasTurnDeadline;
+
+	private long turnDeadline;
+
+	/**
+	 * When the player was last asked to choose, to measure how long they take
+	 * (see {@link GameMetrics#INPUT_WAIT}), and the Flight Recorder event for
+	 * that wait if waits are being recorded.
+	 */
+	private long promptTime;
+
+	private InputWaitEvent inputWaitEvent;
+
+	/**
+	 * The channel spectators watch this session's game through, and its number
+	 * on the server. The channel is kept while the session is hibernating.
+	 */
+	private SpectatorChannel spectatorChannel;
+
+	private long gameNumber;
+
+	/**
+	 * The game this session is watching, if the player chose to watch one.
+	 */
+	private Spectator spectator;
+
+	/**
+	 * The following fields belong to the {@link SessionSelector}, which keeps
+	 * sessions with a deadline in a list.
+	 */
+	boolean hasDeadline;
+
+	long deadline;
+
+	GameSession previousDeadline;
+
+	GameSession nextDeadline;
+
+	GameSession(GameServer server, SessionSelector selector, SocketChannel channel) {
+		this.server = server;
+		this.selector = selector;
+		this.channel = channel;
+		createBuffers();
+	}
+
+	/**
+	 * Greet the player.
+	 *
+	 * @param key The channel's registration with the selector.
+	 */
+	void start(SelectionKey key) throws IOException {
+		this.key = key;
+		out.println("Hello, adventurer. What is your name?");
+		out.println("(Or type \"" + WATCH_COMMAND + "<game>\" to watch someone else's game.)");
+		out.print("> ");
+		send();
+	}
+
+	/**
+	 * Read whatever the player has sent, and deal with each whole line.
+	 */
+	void readable() throws IOException {
+		if (state == State.HIBERNATING) {
+			wake();
+		}
+		if (channel.read(input) < 0) {
+			throw new EOFException("The player has disconnected");
+		}
+
+		input.flip();
+		int lineStart = 0;
+		for (int i = input.position(); i < input.limit(); ++i) {
+			if (input.get(i) == '\n') {
+				handleLine(lineStart, i);
+				lineStart = i + 1;
+			}
+		}
+		if (lineStart == 0 && input.limit() == input.capacity()) {
+			// The buffer is full, with no end of line in sight.
+			handleLine(0, input.limit());
+			lineStart = input.limit();
+		}
+		input.position(lineStart);
+		input.compact();
+
+		send();
+	}
+
+	/**
+	 * Send more of what is waiting, now that the connection can take it.
+	 */
+	void writable() throws IOException {
+		send();
+	}
+
+	/**
+	 * Either the player has run out of time, so decide for them, or they have
+	 * been idle long enough to hibernate the session.
+	 */
+	void deadlinePassed() throws IOException {
+		if (hasTurnDeadline && turnDeadline - System.nanoTime() <= 0) {
+			hasTurnDeadline = false;
+			if (state == State.HIBERNATING) {
+				wake();
+			}
+			if (state == State.PLAYING && controller.isWaiting()) {
+				controller.chooseDefault();
+				choiceMade();
+				engine.finishPlayerTurn();
+				playUntilPlayerIsNeeded();
+				send();
+			}
+		} else {
+			hibernate();
+			if (hasTurnDeadline) {
+				selector.setDeadline(this, turnDeadline);
+			}
+		}
+	}
+
+	/**
+	 * End the session, saving its recording if the server wants one. Calling this
+	 * again does nothing.
+	 */
+	void close() {
+		if (state == State.CLOSED) {
+			return;
+		}
+		boolean wasHibernating = state == State.HIBERNATING;
+		state = State.CLOSED;
+
+		selector.cancelDeadline(this);
+		if (spectatorChannel != null) {
+			if (!spectatorChannel.hasEnded()) {
+				spectatorChannel.end("The player has left the game.\n");
+			}
+			server.gameFinished(gameNumber);
+		}
+		if (key != null) {
+			key.cancel();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// There's nothing more to say to them anyway.
+		}
+
+		if (wasHibernating) {
+			server.saveReplay(selector.getSessionStore().load(storedRecord));
+			server.sessionWoken();
+		} else if (recorder != null) {
+			server.saveReplay(recorder.toReplay());
+		}
+		server.sessionEnded();
+	}
+
+	private void handleLine(int start, int end) {
+		// Lines from some terminals end with "\r\n".
+		String line = new String(input.array(), start, end - start, StandardCharsets.UTF_8).trim();
+		switch (state) {
+		case NAMING:
+			if (line.startsWith(WATCH_COMMAND)) {
+				startWatching(line.substring(WATCH_COMMAND.length()).trim());
+			} else {
+				startGame(line);
+			}
+			break;
+
+		case PLAYING:
+			if (controller.offerLine(line, engine.getPlayer())) {
+				selector.cancelDeadline(this);
+				hasTurnDeadline = false;
+				choiceMade();
+				engine.finishPlayerTurn();
+				playUntilPlayerIsNeeded();
+			}
+			break;
+
+		default:
+			// The game is over, so there's nothing left to answer.
+			break;
+		}
+	}
+
+	private void startGame(String playerName) {
+		long seed = ThreadLocalRandom.current().nextLong();
+		controller = new PromptController(out);
+		PlayerController playerController = controller;
+		if (server.getReplayDirectory() != null || server.getHibernateAfterNanos() > 0) {
+			recorder = new ReplayRecorder(controller, seed, playerName);
+			playerController = recorder;
+		}
+
+		spectatorChannel = new SpectatorChannel(GameServer.SPECTATOR_CAPACITY);
+		gameNumber = server.gameStarted(spectatorChannel);
+		out.println("This is game " + gameNumber + ". Others can watch it by typing \"" + WATCH_COMMAND
+				+ gameNumber + "\" instead of their name.");
+
+		renderer = new TerminalRenderer(out);
+		eventSink = new TeeEventSink(renderer, spectatorChannel.getEventSink());
+		engine = server.getSetup().createGame(seed, playerName, playerController, eventSink);
+		engine.start();
+		state = State.PLAYING;
+		playUntilPlayerIsNeeded();
+	}
+
+	/**
+	 * Start watching the game with the given number, or ask again if there is no
+	 * such game.
+	 */
+	private void startWatching(String game) {
+		try {
+			spectator = server.watch(Long.parseLong(game));
+		} catch (NumberFormatException e) {
+			spectator = null;
+		}
+		if (spectator == null) {
+			out.println("There is no game " + game + " being played right now. What is your name?");
+			out.print("> ");
+			return;
+		}
+
+		state = State.SPECTATING;
+		selector.addSpectator(this);
+		spectate();
+	}
+
+	/**
+	 * Pass on whatever the watched game has printed since last time, unless the
+	 * connection is still busy sending the last lot. A spectator who can't keep
+	 * up skips ahead (see {@link Spectator}). Called by the selector every so
+	 * often.
+	 *
+	 * @return True if the session is still watching, or false if it is done.
+	 */
+	boolean spectate() {
+		if (state != State.SPECTATING) {
+			return false;
+		}
+
+		if (output.size() == 0) {
+			String text;
+			while ((text = spectator.poll()) != null) {
+				out.print(text);
+			}
+			if (spectator.isFinished()) {
+				state = State.CLOSING;
+			}
+		}
+		try {
+			send();
+		} catch (IOException e) {
+			close();
+		}
+		return state == State.SPECTATING;
+	}
+
+	/**
+	 * Play the game until the player needs to make a choice, and ask them for it,
+	 * or until the game is over.
+	 */
+	private void playUntilPlayerIsNeeded() {
+		while (engine.beginPlayerTurn()) {
+			if (engine.getPlayer().canAct()) {
+				eventSink.flush();
+				controller.promptAction();
+				setDeadlines();
+				promptTime = System.nanoTime();
+				inputWaitEvent = InputWaitEvent.beginIfRecording();
+				return;
+			}
+
+			// The player can't do anything this turn, so there's nothing to ask.
+			engine.finishPlayerTurn();
+		}
+
+		// The game is over. Hang up once everything has been sent.
+		server.recordResult(engine);
+		eventSink.flush();
+		state = State.CLOSING;
+	}
+
+	/**
+	 * Measure how long the player took to choose, now that they have.
+	 */
+	private void choiceMade() {
+		GameMetrics.INPUT_WAIT.record(System.nanoTime() - promptTime);
+		if (inputWaitEvent != null) {
+			inputWaitEvent.finish(controller, controller.getChosenAction());
+			inputWaitEvent = null;
+		}
+	}
+
+	/**
+	 * Give the player a deadline for their choice, if they have a time limit,
+	 * and arrange for the session to hibernate if they take a while.
+	 */
+	private void setDeadlines() {
+		long now = System.nanoTime();
+		long turnTimeout = server.getTurnTimeoutNanos();
+		long hibernateAfter = server.getHibernateAfterNanos();
+		hasTurnDeadline = turnTimeout > 0;
+		turnDeadline = now + turnTimeout;
+		if (hibernateAfter > 0 && (!hasTurnDeadline || hibernateAfter < turnTimeout)) {
+			selector.setDeadline(this, now + hibernateAfter);
+		} else if (hasTurnDeadline) {
+			selector.setDeadline(this, turnDeadline);
+		}
+	}
+
+	/**
+	 * Put the game away in the selector's store and let go of everything else,
+	 * if the player is choosing an action and nothing is waiting to be read or
+	 * sent. Otherwise, the session stays as it is.
+	 */
+	private void hibernate() {
+		if (state != State.PLAYING || recorder == null || !controller.isChoosingAction() || input.position() > 0
+				|| output.size() > 0) {
+			return;
+		}
+
+		storedRecord = selector.storeSession(recorder.toReplay());
+		if (storedRecord < 0) {
+			return;
+		}
+
+		state = State.HIBERNATING;
+		engine = null;
+		controller = null;
+		recorder = null;
+		renderer = null;
+		eventSink = null;
+		input = null;
+		output = null;
+		out = null;
+		server.sessionHibernated();
+	}
+
+	/**
+	 * Set the game up again from the selector's store, exactly as it was when
+	 * the session hibernated, with the player choosing an action.
+	 */
+	private void wake() {
+		Replay replay = selector.getSessionStore().load(storedRecord);
+		storedRecord = -1;
+		server.sessionWoken();
+
+		createBuffers();
+		controller = new PromptController(out);
+		recorder = new ReplayRecorder(controller, replay);
+		renderer = new TerminalRenderer(out);
+		eventSink = new TeeEventSink(renderer, spectatorChannel.getEventSink());
+
+		// Play through every choice so far without showing or measuring anything,
+		// up to the turn the player was choosing for.
+		ReplayController replayer = new ReplayController(replay, recorder);
+		engine = server.getSetup().createGame(replay.seed, replay.playerName, replayer, NullEventSink.INSTANCE);
+		engine.setFastForwarding(true);
+		engine.start();
+		while (engine.beginPlayerTurn() && !(replayer.isFinished() && engine.getPlayer().canAct())) {
+			engine.finishPlayerTurn();
+		}
+		engine.setFastForwarding(false);
+		engine.setEventSink(eventSink);
+		controller.resumeAction();
+		state = State.PLAYING;
+	}
+
+	private void createBuffers() {
+		input = ByteBuffer.allocate(INPUT_BUFFER_BYTES);
+		output = new Output();
+		out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Send as much of the waiting output as the connection will take, and ask to
+	 * hear when it can take more.
+	 */
+	private void send() throws IOException {
+		if (state == State.CLOSED || state == State.HIBERNATING) {
+			return;
+		}
+
+		out.flush();
+		if (output.sendTo(channel)) {
+			if (state == State.CLOSING) {
+				close();
+				return;
+			}
+			key.interestOps(SelectionKey.OP_READ);
+		} else {
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+	}
+
+	/**
+	 * A buffer of bytes to send, which can send itself a piece at a time without
+	 * copying.
+	 */
+	private static final class Output extends ByteArrayOutputStream {
+		/**
+		 * The number of bytes at the start of the buffer that have been sent.
+		 */
+		private int sent;
+
+		/**
+		 * Send as much as the channel will take.
+		 *
+		 * @return True if everything has been sent.
+		 */
+		boolean sendTo(SocketChannel channel) throws IOException {
+			if (sent < count) {
+				sent += channel.write(ByteBuffer.wrap(buf, sent, count - sent));
+			}
+			if (sent < count) {
+				return false;
+			}
+			reset();
+			sent = 0;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package combatgame.server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * The {@link LoadGenerator} checks how many players a {@link GameServer} can
+ * handle, by pretending to be lots of them at once.
+ *
+ * Some of the pretend players connect, type their name and then sit there
+ * doing nothing, like somebody who walked away from their keyboard in the
+ * middle of a game. The rest play game after game
+ * as fast as the server lets them, always choosing to attack.
+ *
+ * Usage: {@code LoadGenerator <address> <idle players> <active players> <games per active player>}
+ */
+public class LoadGenerator {
+	private static final byte[] NAME = "load-tester\n".getBytes(StandardCharsets.US_ASCII);
+
+	private static final byte[] ATTACK = "0\n".getBytes(StandardCharsets.US_ASCII);
+
+	private final SocketAddress address;
+
+	private final AtomicLong gamesPlayed = new AtomicLong();
+
+	private final AtomicLong turnsPlayed = new AtomicLong();
+
+	private final AtomicLong totalResponseNanos = new AtomicLong();
+
+	private final LongAccumulator maxResponseNanos = new LongAccumulator(Math::max, 0);
+
+	private final AtomicLong failures = new AtomicLong();
+
+	/**
+	 * Construct a new {@link LoadGenerator}.
+	 *
+	 * @param address The address of the server to test.
+	 */
+	public LoadGenerator(SocketAddress address) {
+		this.address = address;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 4) {
+			System.err.println("Usage: LoadGenerator <address> <idle players> <active players> <games per active player>");
+			System.exit(1);
+		}
+
+		LoadGenerator generator = new LoadGenerator(GameServer.parseAddress(args[0]));
+		generator.run(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+	}
+
+	/**
+	 * Connect the idle players, then have the active players play their games, and
+	 * print a report when they are done.
+	 *
+	 * @param idlePlayers    The number of players that start a game and do
+	 *                       nothing.
+	 * @param activePlayers  The number of players that play games.
+	 * @param gamesPerPlayer The number of games each active player plays.
+	 * @throws IOException          If an idle player can't connect.
+	 * @throws InterruptedException If interrupted while waiting for the games.
+	 */
+	public void run(int idlePlayers, int activePlayers, int gamesPerPlayer) throws IOException, InterruptedException {
+		System.out.printf("Pretend players run on %s threads.%n", SessionThreads.usesVirtualThreads() ? "virtual" : "platform");
+
+		// Idle players don't need a thread each. Just open their connections, give
+		// their names and leave them alone.
+		List<SocketChannel> idleChannels = new ArrayList<>(idlePlayers);
+		for (int i = 0; i < idlePlayers; ++i) {
+			SocketChannel channel = SocketChannel.open(address);
+			channel.write(ByteBuffer.wrap(NAME));
+			idleChannels.add(channel);
+		}
+		System.out.printf("Connected %d idle players.%n", idlePlayers);
+
+		ThreadFactory threads = SessionThreads.factory("load-player-");
+		CountDownLatch finished = new CountDownLatch(activePlayers);
+		long startTime = System.nanoTime();
+		for (int i = 0; i < activePlayers; ++i) {
+			threads.newThread(() -> {
+				try {
+					for (int game = 0; game < gamesPerPlayer; ++game) {
+						playGame();
+					}
+				} catch (IOException e) {
+					failures.incrementAndGet();
+				} finally {
+					finished.countDown();
+				}
+			}).start();
+		}
+		finished.await();
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		for (SocketChannel channel : idleChannels) {
+			channel.close();
+		}
+
+		long turns = turnsPlayed.get();
+		System.out.printf("Played %d games (%d turns) in %.2f seconds: %.0f games/second, %.0f turns/second.%n",
+				gamesPlayed.get(), turns, seconds, gamesPlayed.get() / seconds, turns / seconds);
+		System.out.printf("Response time: %.1f us average, %.1f us worst.%n",
+				turns == 0 ? 0.0 : totalResponseNanos.get() / 1e3 / turns, maxResponseNanos.get() / 1e3);
+		System.out.printf("Failed players: %d%n", failures.get());
+	}
+
+	/**
+	 * Connect, play a single game by attacking every turn, and disconnect.
+	 */
+	private void playGame() throws IOException {
+		try (SocketChannel channel = SocketChannel.open(address)) {
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			boolean hasName = false;
+			byte previous = 0;
+			long sentTime = 0;
+
+			while (true) {
+				buffer.clear();
+				if (channel.read(buffer) < 0) {
+					// The server hangs up when the game is over.
+					gamesPlayed.incrementAndGet();
+					return;
+				}
+
+				// Each prompt ends with "> ". Answer it once it has fully arrived.
+				int length = buffer.position();
+				if (length == 0) {
+					continue;
+				}
+				byte last = buffer.get(length - 1);
+				byte beforeLast = length > 1 ? buffer.get(length - 2) : previous;
+				previous = last;
+				if (beforeLast != '>' || last != ' ') {
+					continue;
+				}
+
+				if (hasName) {
+					long responseNanos = System.nanoTime() - sentTime;
+					turnsPlayed.incrementAndGet();
+					totalResponseNanos.addAndGet(responseNanos);
+					maxResponseNanos.accumulate(responseNanos);
+				}
+
+				channel.write(ByteBuffer.wrap(hasName ? ATTACK : NAME));
+				hasName = true;
+				sentTime = System.nanoTime();
+			}
+		}
+	}
+}
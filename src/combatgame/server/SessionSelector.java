@@ -0,0 +1,319 @@
+package combatgame.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import combatgame.replay.Replay;
+
+/**
+ * A {@link SessionSelector} looks after many {@link GameSession}s on a single
+ * thread. It waits until any of its players has typed something, or has run out
+ * of time to choose, and then lets that session deal with it. A player who is
+ * thinking doesn't hold up a thread, so a handful of selectors can look after
+ * every player on the server.
+ *
+ * Sessions with a deadline are kept in a list, in order of deadline. Every
+ * deadline is the same time after the prompt, so a new deadline almost always
+ * goes at the end, and the next one to pass is always at the front.
+ *
+ * Each selector has its own {@link SessionStore} for its hibernating sessions,
+ * so that only its thread ever uses it.
+ *
+ * Sessions watching someone else's game have nothing to wait for, since the
+ * game they watch never tells them when it has moved on. Instead, the selector
+ * looks in on all of them every {@link #SPECTATOR_POLL_NANOS}.
+ */
+final class SessionSelector implements Runnable {
+	/**
+	 * How often sessions watching a game are sent what it has printed.
+	 */
+	private static final long SPECTATOR_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final GameServer server;
+
+	private final Selector selector;
+
+	/**
+	 * Connections that have been accepted, but not registered with the selector
+	 * yet. Channels can only be registered on the selector's own thread without
+	 * waiting for it.
+	 */
+	private final ConcurrentLinkedQueue<SocketChannel> newChannels = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The sessions waiting on a deadline, earliest first, linked through the
+	 * sessions themselves.
+	 */
+	private GameSession firstDeadline;
+
+	private GameSession lastDeadline;
+
+	/**
+	 * Where this selector's sessions hibernate, once the first one does.
+	 */
+	private SessionStore sessionStore;
+
+	/**
+	 * Did the store fail? If so, this selector's sessions stay in memory from
+	 * then on, rather than trying (and failing) again every time one is idle.
+	 */
+	private boolean hasStoreFailed;
+
+	/**
+	 * The sessions watching a game, and when to look in on them next.
+	 */
+	private final ArrayList<GameSession> spectators = new ArrayList<>();
+
+	private long nextSpectatorPoll;
+
+	/**
+	 * Construct a new {@link SessionSelector}. Run it on its own thread.
+	 *
+	 * @param server The server the sessions belong to.
+	 * @throws IOException If the selector can't be opened.
+	 */
+	SessionSelector(GameServer server) throws IOException {
+		this.server = server;
+		this.selector = Selector.open();
+	}
+
+	/**
+	 * Hand a newly accepted connection to this selector. This can be called from
+	 * any thread.
+	 *
+	 * @param channel The connection, in non-blocking mode.
+	 */
+	void add(SocketChannel channel) {
+		newChannels.add(channel);
+		selector.wakeup();
+	}
+
+	@Override
+	public void run() {
+		while (selector.isOpen()) {
+			try {
+				long timeout = 0;
+				if (firstDeadline != null) {
+					timeout = Math.max(1, TimeUnit.NANOSECONDS.toMillis(firstDeadline.deadline - System.nanoTime()));
+				}
+				if (!spectators.isEmpty()) {
+					long pollTimeout = Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextSpectatorPoll - System.nanoTime()));
+					timeout = timeout == 0 ? pollTimeout : Math.min(timeout, pollTimeout);
+				}
+				selector.select(timeout);
+			} catch (IOException e) {
+				System.err.println("Session selector failed: " + e);
+				return;
+			}
+
+			registerNewChannels();
+
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				GameSession session = (GameSession)key.attachment();
+				try {
+					if (key.isValid() && key.isReadable()) {
+						session.readable();
+					}
+					if (key.isValid() && key.isWritable()) {
+						session.writable();
+					}
+				} catch (IOException | UncheckedIOException e) {
+					// The player disconnected.
+					session.close();
+				} catch (RuntimeException e) {
+					System.err.println("Session failed: " + e);
+					session.close();
+				}
+			}
+
+			expireDeadlines();
+			pollSpectators();
+		}
+	}
+
+	/**
+	 * Start looking in on a session that is watching a game.
+	 *
+	 * @param session The session.
+	 */
+	void addSpectator(GameSession session) {
+		if (spectators.isEmpty()) {
+			nextSpectatorPoll = System.nanoTime() + SPECTATOR_POLL_NANOS;
+		}
+		spectators.add(session);
+	}
+
+	/**
+	 * Give a session a deadline, replacing any it already had.
+	 *
+	 * @param session  The session.
+	 * @param deadline When the deadline passes, in {@link System#nanoTime()}
+	 *                 units.
+	 */
+	void setDeadline(GameSession session, long deadline) {
+		cancelDeadline(session);
+		session.deadline = deadline;
+		session.hasDeadline = true;
+
+		// Walk back from the end to find the session's place. This stops straight
+		// away unless the turn time has changed.
+		GameSession before = lastDeadline;
+		while (before != null && before.deadline - deadline > 0) {
+			before = before.previousDeadline;
+		}
+
+		session.previousDeadline = before;
+		session.nextDeadline = before == null ? firstDeadline : before.nextDeadline;
+		if (session.nextDeadline == null) {
+			lastDeadline = session;
+		} else {
+			session.nextDeadline.previousDeadline = session;
+		}
+		if (before == null) {
+			firstDeadline = session;
+		} else {
+			before.nextDeadline = session;
+		}
+	}
+
+	/**
+	 * Take away a session's deadline, if it has one.
+	 *
+	 * @param session The session.
+	 */
+	void cancelDeadline(GameSession session) {
+		if (!session.hasDeadline) {
+			return;
+		}
+
+		if (session.previousDeadline == null) {
+			firstDeadline = session.nextDeadline;
+		} else {
+			session.previousDeadline.nextDeadline = session.nextDeadline;
+		}
+		if (session.nextDeadline == null) {
+			lastDeadline = session.previousDeadline;
+		} else {
+			session.nextDeadline.previousDeadline = session.previousDeadline;
+		}
+		session.previousDeadline = null;
+		session.nextDeadline = null;
+		session.hasDeadline = false;
+	}
+
+	/**
+	 * Get the store for this selector's hibernating sessions.
+	 *
+	 * @return The store, or null if no session has hibernated yet.
+	 */
+	SessionStore getSessionStore() {
+		return sessionStore;
+	}
+
+	/**
+	 * Put a hibernating session's game away in this selector's store, opening
+	 * the store in the server's hibernation directory if this is the first time.
+	 * If the store fails, this is reported once, and this selector's sessions
+	 * stay in memory from then on.
+	 *
+	 * @param replay The recording of the session's game.
+	 * @return The number of the record it is stored in, or -1 if it can't be
+	 *         stored, e.g. because sessions don't hibernate.
+	 */
+	int storeSession(Replay replay) {
+		if (hasStoreFailed) {
+			return -1;
+		}
+
+		Path directory = server.getHibernationDirectory();
+		try {
+			if (sessionStore == null) {
+				if (directory == null) {
+					return -1;
+				}
+				sessionStore = new SessionStore(Files.createTempFile(directory, "sessions-", ".dat"));
+			}
+			return sessionStore.save(replay);
+		} catch (IOException e) {
+			hasStoreFailed = true;
+			System.err.println("Could not hibernate a session in " + directory
+					+ ", so this selector's sessions will stay in memory: " + e);
+			return -1;
+		}
+	}
+
+	private void registerNewChannels() {
+		SocketChannel channel;
+		while ((channel = newChannels.poll()) != null) {
+			GameSession session = new GameSession(server, this, channel);
+			try {
+				session.start(channel.register(selector, SelectionKey.OP_READ, session));
+			} catch (IOException | UncheckedIOException e) {
+				session.close();
+			}
+		}
+	}
+
+	/**
+	 * Send every session watching a game what it has printed, if it is time to,
+	 * and stop looking in on the ones that are done.
+	 */
+	private void pollSpectators() {
+		long now = System.nanoTime();
+		if (spectators.isEmpty() || nextSpectatorPoll - now > 0) {
+			return;
+		}
+		nextSpectatorPoll = now + SPECTATOR_POLL_NANOS;
+
+		for (int i = spectators.size() - 1; i >= 0; --i) {
+			GameSession session = spectators.get(i);
+			boolean isWatching;
+			try {
+				isWatching = session.spectate();
+			} catch (UncheckedIOException e) {
+				session.close();
+				isWatching = false;
+			} catch (RuntimeException e) {
+				System.err.println("Session failed: " + e);
+				session.close();
+				isWatching = false;
+			}
+
+			if (!isWatching) {
+				// Order doesn't matter, so fill the gap with the last session.
+				GameSession last = spectators.remove(spectators.size() - 1);
+				if (i < spectators.size()) {
+					spectators.set(i, last);
+				}
+			}
+		}
+	}
+
+	private void expireDeadlines() {
+		long now = System.nanoTime();
+		while (firstDeadline != null && firstDeadline.deadline - now <= 0) {
+			GameSession session = firstDeadline;
+			cancelDeadline(session);
+			try {
+				session.deadlinePassed();
+			} catch (IOException | UncheckedIOException e) {
+				session.close();
+			} catch (RuntimeException e) {
+				System.err.println("Session failed: " + e);
+				session.close();
+			}
+		}
+	}
+}
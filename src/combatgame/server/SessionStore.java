@@ -0,0 +1,192 @@
+package combatgame.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import combatgame.replay.Replay;
+
+/**
+ * A {@link SessionStore} keeps games that nobody is playing right now in a
+ * memory-mapped file instead of on the heap, so a server can keep millions of
+ * idle players connected while the heap only holds the games being played.
+ *
+ * A game is stored as its recording (see {@link Replay}), which is all it takes
+ * to set it up again exactly as it was. Every recording gets a record of
+ * {@link #RECORD_BYTES} bytes in the file:
+ *
+ * <ul>
+ * <li>the seed, in 8 bytes;</li>
+ * <li>the length of the player's name, in 2 bytes;</li>
+ * <li>the number of choices, in 2 bytes;</li>
+ * <li>the player's name in UTF-8, in {@link #MAX_NAME_BYTES} bytes;</li>
+ * <li>each choice in 1 byte, in the rest of the record.</li>
+ * </ul>
+ *
+ * Recordings that don't fit aren't stored. The operating system writes the
+ * file out to disk only when it needs the memory, and the file is deleted when
+ * the program exits, since its games can't outlive their connections.
+ *
+ * A store is meant to be used by one thread.
+ */
+final class SessionStore implements Closeable {
+	/**
+	 * The size of each record in bytes.
+	 */
+	static final int RECORD_BYTES = 512;
+
+	/**
+	 * The longest player name that fits in a record, in UTF-8 bytes.
+	 */
+	static final int MAX_NAME_BYTES = 64;
+
+	private static final int SEED_OFFSET = 0;
+
+	private static final int NAME_LENGTH_OFFSET = 8;
+
+	private static final int CHOICE_COUNT_OFFSET = 10;
+
+	private static final int NAME_OFFSET = 12;
+
+	private static final int CHOICES_OFFSET = NAME_OFFSET + MAX_NAME_BYTES;
+
+	/**
+	 * The most choices that fit in a record.
+	 */
+	static final int MAX_CHOICES = RECORD_BYTES - CHOICES_OFFSET;
+
+	/**
+	 * The number of records in each part of the file that is mapped into memory
+	 * at once. A mapping can't be bigger than 2 GiB.
+	 */
+	private static final int RECORDS_PER_SEGMENT = 1 << 20;
+
+	private final FileChannel file;
+
+	/**
+	 * The mapped parts of the file, each holding {@link #RECORDS_PER_SEGMENT}
+	 * records. They are mapped as they are needed.
+	 */
+	private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+	/**
+	 * The records that have been used and freed again, to be reused first.
+	 */
+	private int[] freeRecords = new int[64];
+
+	private int freeCount;
+
+	/**
+	 * The number of records that have ever been used.
+	 */
+	private int recordCount;
+
+	/**
+	 * Open a new, empty store.
+	 *
+	 * @param path Where to keep the file. Anything already there is replaced.
+	 * @throws IOException If the file can't be created.
+	 */
+	SessionStore(Path path) throws IOException {
+		file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+	}
+
+	/**
+	 * Store a recording.
+	 *
+	 * @param replay The recording.
+	 * @return The number of the record it is stored in, or -1 if it doesn't fit
+	 *         in a record.
+	 * @throws IOException If the file can't grow.
+	 */
+	int save(Replay replay) throws IOException {
+		byte[] name = replay.playerName.getBytes(StandardCharsets.UTF_8);
+		int choiceCount = replay.getChoiceCount();
+		if (name.length > MAX_NAME_BYTES || choiceCount > MAX_CHOICES) {
+			return -1;
+		}
+		for (int i = 0; i < choiceCount; ++i) {
+			if ((replay.getChoice(i) & ~0xFF) != 0) {
+				return -1;
+			}
+		}
+
+		int record = freeCount > 0 ? freeRecords[--freeCount] : recordCount++;
+		MappedByteBuffer segment = segmentOf(record);
+		int offset = (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+		segment.putLong(offset + SEED_OFFSET, replay.seed);
+		segment.putShort(offset + NAME_LENGTH_OFFSET, (short)name.length);
+		segment.putShort(offset + CHOICE_COUNT_OFFSET, (short)choiceCount);
+		segment.put(offset + NAME_OFFSET, name);
+		for (int i = 0; i < choiceCount; ++i) {
+			segment.put(offset + CHOICES_OFFSET + i, (byte)replay.getChoice(i));
+		}
+		return record;
+	}
+
+	/**
+	 * Take a recording back out of the store, freeing its record.
+	 *
+	 * @param record The number of the record, from {@link #save}.
+	 * @return The recording.
+	 */
+	Replay load(int record) {
+		MappedByteBuffer segment = segments[record / RECORDS_PER_SEGMENT];
+		int offset = (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+		long seed = segment.getLong(offset + SEED_OFFSET);
+		byte[] name = new byte[segment.getShort(offset + NAME_LENGTH_OFFSET)];
+		segment.get(offset + NAME_OFFSET, name);
+		int[] choices = new int[segment.getShort(offset + CHOICE_COUNT_OFFSET)];
+		for (int i = 0; i < choices.length; ++i) {
+			choices[i] = segment.get(offset + CHOICES_OFFSET + i) & 0xFF;
+		}
+		free(record);
+		return new Replay(seed, new String(name, StandardCharsets.UTF_8), choices);
+	}
+
+	/**
+	 * Free a record without reading it, e.g. when its player disconnects.
+	 *
+	 * @param record The number of the record.
+	 */
+	void free(int record) {
+		if (freeCount == freeRecords.length) {
+			freeRecords = Arrays.copyOf(freeRecords, freeCount * 2);
+		}
+		freeRecords[freeCount++] = record;
+	}
+
+	/**
+	 * Get the number of recordings in the store.
+	 *
+	 * @return The number of recordings.
+	 */
+	int size() {
+		return recordCount - freeCount;
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Find the mapped part of the file that holds a record, mapping it if it is
+	 * the first record there.
+	 */
+	private MappedByteBuffer segmentOf(int record) throws IOException {
+		int index = record / RECORDS_PER_SEGMENT;
+		if (index == segments.length) {
+			segments = Arrays.copyOf(segments, index + 1);
+			long segmentBytes = (long)RECORDS_PER_SEGMENT * RECORD_BYTES;
+			segments[index] = file.map(FileChannel.MapMode.READ_WRITE, index * segmentBytes, segmentBytes);
+		}
+		return segments[index];
+	}
+}
@@ -0,0 +1,70 @@
+package combatgame.server;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates threads for jobs that spend almost all of their time waiting, like
+ * the pretend players of the {@link LoadGenerator}.
+ *
+ * These should be virtual threads, which cost almost nothing while they wait.
+ * Virtual threads were added in Java 21. On older versions of Java, they fall
+ * back to ordinary threads with a small stack.
+ */
+final class SessionThreads {
+	/**
+	 * The stack size for ordinary threads, in bytes. The game never goes
+	 * very deep, so a small stack is plenty.
+	 */
+	private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+	private SessionThreads() {
+	}
+
+	/**
+	 * Get a factory for waiting threads, using virtual threads if this version of
+	 * Java supports them.
+	 *
+	 * @param name The name to give each thread, followed by a number.
+	 * @return The thread factory.
+	 */
+	static ThreadFactory factory(String name) {
+		ThreadFactory virtualThreads = virtualThreadFactory(name);
+		if (virtualThreads != null) {
+			return virtualThreads;
+		}
+
+		AtomicLong counter = new AtomicLong();
+		return task -> {
+			Thread thread = new Thread(null, task, name + counter.getAndIncrement(), PLATFORM_STACK_SIZE);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Check whether threads from {@link #factory} will be virtual threads.
+	 *
+	 * @return True if this version of Java supports virtual threads.
+	 */
+	static boolean usesVirtualThreads() {
+		return virtualThreadFactory("probe") != null;
+	}
+
+	/**
+	 * Build {@code Thread.ofVirtual().name(name, 0).factory()} by reflection, so
+	 * that the game still compiles and runs on Java versions without it.
+	 *
+	 * @return The factory, or null if virtual threads are not available.
+	 */
+	private static ThreadFactory virtualThreadFactory(String name) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name, 0L);
+			return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
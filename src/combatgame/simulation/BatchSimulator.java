@@ -0,0 +1,129 @@
+package combatgame.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import combatgame.CombatGameEngine;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.events.NullEventSink;
+import combatgame.player.Player;
+
+/**
+ * A {@link BatchSimulator} plays the combat game over and over without anybody
+ * at the keyboard, and collects statistics about how the games turned out. This
+ * is useful for checking whether the enemies are too easy or too hard.
+ *
+ * The games are spread across every available processor using a
+ * {@link ForkJoinPool}. Nothing is printed while the games are being played.
+ */
+public class BatchSimulator {
+	/**
+	 * Batches with at most this many games are played on a single thread instead
+	 * of being split up further.
+	 */
+	private static final int GAMES_PER_TASK = 1024;
+
+	/**
+	 * Creates a fresh player for each game. The player should be controlled by
+	 * something other than the terminal, e.g. a
+	 * {@link combatgame.player.ScriptedController}.
+	 */
+	private final Supplier<Player> playerFactory;
+
+	/**
+	 * The kinds of enemies to fight in each game. Every game spawns its own
+	 * enemies from these.
+	 */
+	private final EnemyDefinition[] enemyList;
+
+	/**
+	 * The pool to run games on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Construct a new {@link BatchSimulator} that uses the common
+	 * {@link ForkJoinPool}.
+	 *
+	 * @param playerFactory Creates a fresh player for each game.
+	 * @param enemyList     The kinds of enemies to fight in each game, in order of
+	 *                      appearance.
+	 */
+	public BatchSimulator(Supplier<Player> playerFactory, EnemyDefinition[] enemyList) {
+		this(playerFactory, enemyList, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Construct a new {@link BatchSimulator}.
+	 *
+	 * @param playerFactory Creates a fresh player for each game.
+	 * @param enemyList     The kinds of enemies to fight in each game, in order of
+	 *                      appearance.
+	 * @param pool          The pool to run games on.
+	 */
+	public BatchSimulator(Supplier<Player> playerFactory, EnemyDefinition[] enemyList, ForkJoinPool pool) {
+		this.playerFactory = playerFactory;
+		this.enemyList = enemyList;
+		this.pool = pool;
+	}
+
+	/**
+	 * Play the given number of games and collect the results. This method will not
+	 * return until every game has finished.
+	 *
+	 * @param games The number of games to play.
+	 * @return Statistics about the games.
+	 */
+	public SimulationResult run(long games) {
+		if (games < 0) {
+			throw new IllegalArgumentException("Number of games must not be negative: " + games);
+		}
+
+		return pool.invoke(new SimulationTask(games));
+	}
+
+	/**
+	 * Play a single game with nothing printed, and record its result.
+	 *
+	 * @param result Where to record the result.
+	 */
+	private void playGame(SimulationResult result) {
+		Player player = playerFactory.get();
+		CombatGameEngine engine = new CombatGameEngine(player, enemyList, NullEventSink.INSTANCE);
+		engine.run();
+		result.record(engine.isVictorious(), engine.getTurnsTaken(), player.getHealth());
+	}
+
+	/**
+	 * A chunk of games that can be split in half and played in parallel.
+	 */
+	private final class SimulationTask extends RecursiveTask<SimulationResult> {
+		private static final long serialVersionUID = 1L;
+
+		private final long games;
+
+		SimulationTask(long games) {
+			this.games = games;
+		}
+
+		@Override
+		protected SimulationResult compute() {
+			if (games <= GAMES_PER_TASK) {
+				SimulationResult result = new SimulationResult();
+				for (long i = 0; i < games; ++i) {
+					playGame(result);
+				}
+				return result;
+			}
+
+			// Too many games for one thread. Split the work in half, play the second
+			// half somewhere else and the first half here.
+			long half = games / 2;
+			SimulationTask secondHalf = new SimulationTask(games - half);
+			secondHalf.fork();
+			SimulationResult result = new SimulationTask(half).compute();
+			return result.merge(secondHalf.join());
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package combatgame.simulation;
+
+import java.io.PrintStream;
+
+/**
+ * A {@link SimulationResult} collects statistics about many simulated games:
+ * how often the player won, how many turns it took them, and how much health
+ * they had left at the end.
+ *
+ * Results from different threads are combined with {@link #merge}.
+ */
+public class SimulationResult {
+	/**
+	 * The largest value tracked individually by the histograms. Anything larger is
+	 * counted in the last bucket.
+	 */
+	public static final int HISTOGRAM_LIMIT = 64;
+
+	/**
+	 * The total number of games played.
+	 */
+	private long games;
+
+	/**
+	 * The number of games the player won.
+	 */
+	private long victories;
+
+	/**
+	 * The total number of turns taken across all won games.
+	 */
+	private long victoryTurns;
+
+	/**
+	 * How many won games took each number of turns.
+	 */
+	private final long[] turnsToVictory = new long[HISTOGRAM_LIMIT + 1];
+
+	/**
+	 * How many won games ended with each amount of player health remaining.
+	 */
+	private final long[] remainingHealth = new long[HISTOGRAM_LIMIT + 1];
+
+	/**
+	 * Record the outcome of a single game.
+	 *
+	 * @param victorious True if the player won the game.
+	 * @param turns      The number of turns the player took.
+	 * @param health     The amount of health the player had left.
+	 */
+	public void record(boolean victorious, int turns, int health) {
+		++games;
+		if (victorious) {
+			++victories;
+			victoryTurns += turns;
+			++turnsToVictory[bucket(turns)];
+			++remainingHealth[bucket(health)];
+		}
+	}
+
+	/**
+	 * Add the statistics from another result into this one.
+	 *
+	 * @param other The result to add.
+	 * @return This result, for convenience.
+	 */
+	public SimulationResult merge(SimulationResult other) {
+		games += other.games;
+		victories += other.victories;
+		victoryTurns += other.victoryTurns;
+		for (int i = 0; i <= HISTOGRAM_LIMIT; ++i) {
+			turnsToVictory[i] += other.turnsToVictory[i];
+			remainingHealth[i] += other.remainingHealth[i];
+		}
+		return this;
+	}
+
+	/**
+	 * @return The total number of games played.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The number of games the player won.
+	 */
+	public long getVictories() {
+		return victories;
+	}
+
+	/**
+	 * @return The fraction of games the player won, between 0 and 1.
+	 */
+	public double getWinRate() {
+		return games == 0 ? 0.0 : (double)victories / games;
+	}
+
+	/**
+	 * @return The average number of turns it took the player to win, counting only
+	 *         the games they won.
+	 */
+	public double getMeanTurnsToVictory() {
+		return victories == 0 ? 0.0 : (double)victoryTurns / victories;
+	}
+
+	/**
+	 * Get how many won games took the given number of turns.
+	 *
+	 * @param turns The number of turns. Values at or above
+	 *              {@link #HISTOGRAM_LIMIT} share one bucket.
+	 * @return The number of won games.
+	 */
+	public long getTurnsToVictoryCount(int turns) {
+		return turnsToVictory[bucket(turns)];
+	}
+
+	/**
+	 * Get how many won games ended with the given amount of health remaining.
+	 *
+	 * @param health The amount of health. Values at or above
+	 *               {@link #HISTOGRAM_LIMIT} share one bucket.
+	 * @return The number of won games.
+	 */
+	public long getRemainingHealthCount(int health) {
+		return remainingHealth[bucket(health)];
+	}
+
+	/**
+	 * Print a human-readable summary of this result.
+	 *
+	 * @param out The stream to print to.
+	 */
+	public void printReport(PrintStream out) {
+		out.printf("Games played:  %d%n", games);
+		out.printf("Win rate:      %.4f%n", getWinRate());
+		out.printf("Mean turns to victory: %.2f%n", getMeanTurnsToVictory());
+		printHistogram(out, "Turns to victory", turnsToVictory);
+		printHistogram(out, "Remaining health", remainingHealth);
+	}
+
+	private void printHistogram(PrintStream out, String title, long[] histogram) {
+		out.println(title + ":");
+		for (int i = 0; i <= HISTOGRAM_LIMIT; ++i) {
+			if (histogram[i] > 0) {
+				String label = i == HISTOGRAM_LIMIT ? HISTOGRAM_LIMIT + "+" : Integer.toString(i);
+				out.printf("  %4s  %d (%.2f%%)%n", label, histogram[i], 100.0 * histogram[i] / victories);
+			}
+		}
+	}
+
+	private static int bucket(int value) {
+		return Math.max(0, Math.min(value, HISTOGRAM_LIMIT));
+	}
+}
@@ -0,0 +1,414 @@
+package combatgame.solver;
+
+import combatgame.damage.DamageChain;
+import combatgame.entities.Initiative;
+import combatgame.entities.enemies.Enemy;
+import combatgame.items.HealingPotion;
+import combatgame.items.Item;
+import combatgame.player.Inventory;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+
+/**
+ * An {@link EncounterSolver} works out the best possible way to play against a
+ * list of enemies, and the chance that the player wins when playing that way.
+ * We use it to check how difficult a list of enemies really is.
+ *
+ * Nothing in the game is random, so the chance of winning is always either 0
+ * or 1. Having more health never makes things worse, so instead of searching
+ * every possible amount of health, the solver works out the least amount of
+ * health the player needs to win from each {@link GameState}. It tries every
+ * action (attack, defend, use an item and run away) in every reachable state,
+ * and remembers the answer in a {@link TranspositionTable} so it never works
+ * out the same state twice. States are stored with the player's health left
+ * out, since that is what the solver is working out.
+ *
+ * The solver only knows about healing potions, goblins and raging goblins, and
+ * assumes the player and each enemy take turns one after the other, i.e. that
+ * everyone is at {@link Initiative#NORMAL_SPEED}. Other items or enemies, or
+ * anyone faster or slower, cause an {@link IllegalArgumentException}.
+ */
+public class EncounterSolver {
+	/**
+	 * The memory budget used when none is given: 256 MiB, or a quarter of the
+	 * heap if that is less. The table only grows this big on large problems.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 256L << 20;
+
+	/**
+	 * The chance of winning from a state the player is certain to win.
+	 */
+	public static final double WIN = 1.0;
+
+	/**
+	 * The chance of winning from a state the player is certain to lose.
+	 */
+	public static final double LOSS = 0.0;
+
+	/**
+	 * The required health for a state the player cannot win from, no matter how
+	 * much health they have, and for actions that cannot be taken.
+	 */
+	public static final int UNWINNABLE = Integer.MAX_VALUE;
+
+	/**
+	 * The solver follows each possible game turn by turn, one method call per
+	 * turn, so long games need a deep stack. The search runs on its own thread
+	 * with a stack this large (in bytes).
+	 */
+	private static final long SEARCH_STACK_SIZE = 1L << 30;
+
+	private final EnemyModel[] enemies;
+
+	private final int attackPower;
+
+	/**
+	 * The player's defense, when they are not blocking and when they are.
+	 */
+	private final DamageChain defense, blockingDefense;
+
+	private final int healAmount;
+
+	private final long initialState;
+
+	private final TranspositionTable table;
+
+	/**
+	 * The number of states the solver has had to work out, i.e. that were not
+	 * already in the table.
+	 */
+	private long statesExpanded;
+
+	/**
+	 * Construct a new {@link EncounterSolver} with the default memory budget.
+	 *
+	 * @param player  The player, in the state they start the game in.
+	 * @param enemies The enemies the player will fight, in order of appearance.
+	 */
+	public EncounterSolver(Player player, Enemy[] enemies) {
+		this(player, enemies, Math.min(DEFAULT_MEMORY_BUDGET, Runtime.getRuntime().maxMemory() / 4));
+	}
+
+	/**
+	 * Construct a new {@link EncounterSolver}.
+	 *
+	 * @param player       The player, in the state they start the game in.
+	 * @param enemies      The enemies the player will fight, in order of
+	 *                     appearance.
+	 * @param memoryBudget The maximum number of bytes to use for remembering
+	 *                     states.
+	 * @throws IllegalArgumentException If the solver does not know how to play
+	 *                                  against these enemies.
+	 */
+	public EncounterSolver(Player player, Enemy[] enemies, long memoryBudget) {
+		if (enemies.length > GameState.MAX_ENEMIES) {
+			throw new IllegalArgumentException("The solver supports at most " + GameState.MAX_ENEMIES + " enemies");
+		}
+		if (player.getSpeed() != Initiative.NORMAL_SPEED) {
+			throw new IllegalArgumentException("The solver only supports a player at normal speed: " + player.getSpeed());
+		}
+
+		this.enemies = new EnemyModel[enemies.length];
+		for (int i = 0; i < enemies.length; ++i) {
+			this.enemies[i] = EnemyModel.of(enemies[i]);
+			checkRange("Enemy health", this.enemies[i].startingHealth, GameState.MAX_ENEMY_HEALTH);
+		}
+
+		this.attackPower = player.getAttackPower();
+		this.defense = player.getDefense();
+		this.blockingDefense = player.getBlockingDefense();
+		this.healAmount = healAmountOf(player.getInventory());
+		this.table = new TranspositionTable(memoryBudget);
+
+		int potions = player.getInventory().getItemCount();
+		checkRange("Player health", player.getHealth(), GameState.MAX_PLAYER_HEALTH);
+		checkRange("Healing potions", potions, GameState.MAX_POTIONS);
+		if (enemies.length == 0) {
+			this.initialState = GameState.pack(player.getHealth(), 0, 0, potions, false, false);
+		} else {
+			this.initialState = GameState.pack(player.getHealth(), 0, this.enemies[0].startingHealth, potions,
+					false, this.enemies[0].startsTired);
+		}
+	}
+
+	/**
+	 * Work out the chance that the player wins from the start of the game,
+	 * assuming they always make the best choice.
+	 *
+	 * @return The chance of winning, either {@link #WIN} or {@link #LOSS}.
+	 */
+	public double solve() {
+		return solve(initialState);
+	}
+
+	/**
+	 * Work out the chance that the player wins from the given state, assuming
+	 * they always make the best choice.
+	 *
+	 * @param state The packed {@link GameState}, at the start of the player's
+	 *              turn.
+	 * @return The chance of winning, either {@link #WIN} or {@link #LOSS}.
+	 */
+	public double solve(long state) {
+		return GameState.playerHealth(state) >= getRequiredHealth(state) ? WIN : LOSS;
+	}
+
+	/**
+	 * Work out the least amount of health the player needs at the start of the
+	 * game in order to win.
+	 *
+	 * @return The required health, or {@link #UNWINNABLE}.
+	 */
+	public int getRequiredHealth() {
+		return getRequiredHealth(initialState);
+	}
+
+	/**
+	 * Work out the least amount of health the player needs in the given state in
+	 * order to win. The player health stored in the state is ignored.
+	 *
+	 * @param state The packed {@link GameState}, at the start of the player's
+	 *              turn.
+	 * @return The required health, or {@link #UNWINNABLE}.
+	 */
+	public int getRequiredHealth(long state) {
+		if (enemies.length == 0) {
+			return 1;
+		}
+
+		long key = keyOf(state);
+		int slot = table.find(key);
+		if (slot >= 0) {
+			return table.value(slot);
+		}
+
+		int[] result = new int[1];
+		RuntimeException[] error = new RuntimeException[1];
+		Thread search = new Thread(null, () -> {
+			try {
+				result[0] = requiredHealth(key);
+			} catch (RuntimeException e) {
+				error[0] = e;
+			}
+		}, "encounter-solver", SEARCH_STACK_SIZE);
+
+		search.start();
+		try {
+			search.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", e);
+		}
+
+		if (error[0] != null) {
+			throw error[0];
+		}
+		return result[0];
+	}
+
+	/**
+	 * Get the best action to take in the given state. If the player can still
+	 * win, this action wins. If they can't, it is simply the action that would
+	 * have needed the least health.
+	 *
+	 * @param state The packed {@link GameState}, at the start of the player's
+	 *              turn.
+	 * @return One of the {@link PlayerController} action choices.
+	 */
+	public int getBestAction(long state) {
+		long key = keyOf(state);
+		int slot = table.find(key);
+		if (slot < 0) {
+			getRequiredHealth(state);
+			slot = table.find(key);
+		}
+
+		if (slot >= 0) {
+			return table.action(slot);
+		}
+
+		// The table is full, so the answer wasn't remembered. Compare the actions
+		// directly instead.
+		int bestAction = PlayerController.ATTACK;
+		int bestHealth = UNWINNABLE;
+		for (int action = 0; action < PlayerController.ACTION_COUNT; ++action) {
+			int health = requiredHealth(key, action);
+			if (health < bestHealth) {
+				bestHealth = health;
+				bestAction = action;
+			}
+		}
+		return bestAction;
+	}
+
+	/**
+	 * Get the packed {@link GameState} at the start of the game.
+	 *
+	 * @return The initial state.
+	 */
+	public long getInitialState() {
+		return initialState;
+	}
+
+	/**
+	 * Get the packed {@link GameState} for a game in progress, at the start of the
+	 * player's turn.
+	 *
+	 * @param player     The player.
+	 * @param enemyIndex The position of the current enemy in the enemy list.
+	 * @param enemy      The current enemy.
+	 * @return The packed state.
+	 */
+	public static long stateOf(Player player, int enemyIndex, Enemy enemy) {
+		return GameState.pack(player.getHealth(), enemyIndex, enemy.getHealth(), player.getInventory().getItemCount(),
+				false, enemy.isTired());
+	}
+
+	/**
+	 * @return The number of states the solver has had to work out so far.
+	 */
+	public long getStatesExpanded() {
+		return statesExpanded;
+	}
+
+	/**
+	 * @return The table the solver remembers states in.
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Work out the required health for a state, using the table if possible.
+	 *
+	 * @param key The packed state, with the player's health left out.
+	 */
+	private int requiredHealth(long key) {
+		int slot = table.find(key);
+		if (slot >= 0) {
+			return table.value(slot);
+		}
+
+		++statesExpanded;
+		int bestHealth = UNWINNABLE;
+		int bestAction = PlayerController.ATTACK;
+		for (int action = 0; action < PlayerController.ACTION_COUNT; ++action) {
+			int health = requiredHealth(key, action);
+			if (health < bestHealth) {
+				bestHealth = health;
+				bestAction = action;
+			}
+		}
+
+		table.put(key, bestHealth, bestAction);
+		return bestHealth;
+	}
+
+	/**
+	 * Work out the required health for taking the given action in the given
+	 * state. This plays out the player's action and the enemy's response, the
+	 * way {@link combatgame.CombatGameEngine#run()} does when both are at normal
+	 * speed and no status effects are involved.
+	 *
+	 * @param key The packed state, with the player's health left out.
+	 */
+	private int requiredHealth(long key, int action) {
+		int enemyIndex = GameState.enemyIndex(key);
+		int enemyHealth = GameState.enemyHealth(key);
+		int potions = GameState.potions(key);
+		boolean isTired = GameState.isTired(key);
+		boolean isBlocking = false;
+		int healing = 0;
+		EnemyModel enemy = enemies[enemyIndex];
+
+		// The player takes their turn.
+		switch (action) {
+		case PlayerController.ATTACK:
+			enemyHealth -= enemy.defense.apply(attackPower);
+			if (enemyHealth <= 0) {
+				int nextIndex = enemyIndex + 1;
+				if (nextIndex == enemies.length) {
+					// That was the last enemy, so all the player needs is to be alive.
+					return 1;
+				}
+				EnemyModel next = enemies[nextIndex];
+				return requiredHealth(GameState.pack(0, nextIndex, next.startingHealth, potions, false,
+						next.startsTired));
+			}
+			break;
+
+		case PlayerController.DEFEND:
+			isBlocking = true;
+			break;
+
+		case PlayerController.USE_ITEM:
+			if (potions == 0) {
+				return UNWINNABLE;
+			}
+			--potions;
+			healing = healAmount;
+			break;
+
+		case PlayerController.RUN_AWAY:
+		default:
+			break;
+		}
+
+		// The enemy is still alive, so they take their turn.
+		int damage = 0;
+		if (!isTired) {
+			damage = (isBlocking ? blockingDefense : defense).apply(enemy.damage);
+			isTired = enemy.becomesTired;
+		}
+
+		long nextKey = GameState.pack(0, enemyIndex, enemyHealth, potions, false, isTired);
+		if (nextKey == key) {
+			// Nothing changed except maybe the player's health (e.g. defending
+			// against a goblin), so this action can't need less health than
+			// whatever the player does next.
+			return UNWINNABLE;
+		}
+
+		int healthAfterwards = requiredHealth(nextKey);
+		if (healthAfterwards == UNWINNABLE) {
+			return UNWINNABLE;
+		}
+
+		// The player needs enough health to survive this turn with the required
+		// health left over, and must be alive to take the turn in the first place.
+		long health = (long)healthAfterwards + damage - healing;
+		return (int)Math.max(1, Math.min(health, GameState.MAX_PLAYER_HEALTH + 1L));
+	}
+
+	/**
+	 * Get the key used to store a state in the table, which leaves out the
+	 * player's health.
+	 */
+	private static long keyOf(long state) {
+		return GameState.pack(0, GameState.enemyIndex(state), GameState.enemyHealth(state), GameState.potions(state),
+				false, GameState.isTired(state));
+	}
+
+	/**
+	 * Work out how much a potion heals for, and make sure the inventory contains
+	 * nothing but potions.
+	 */
+	private static int healAmountOf(Inventory inventory) {
+		// Items of the same type share a slot, so there is at most one slot here.
+		int healAmount = 0;
+		for (int slot = 0; slot < inventory.size(); ++slot) {
+			Item item = inventory.getItem(slot);
+			if (!(item instanceof HealingPotion)) {
+				throw new IllegalArgumentException("The solver does not know how a " + item.name + " works");
+			}
+			healAmount = ((HealingPotion)item).getHealAmount();
+		}
+		return healAmount;
+	}
+
+	private static void checkRange(String what, int value, int max) {
+		if (value < 0 || value > max) {
+			throw new IllegalArgumentException(what + " must be between 0 and " + max + ": " + value);
+		}
+	}
+}
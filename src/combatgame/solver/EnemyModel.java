@@ -0,0 +1,77 @@
+package combatgame.solver;
+
+import combatgame.damage.DamageChain;
+import combatgame.entities.Initiative;
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyBehavior;
+import combatgame.entities.enemies.Goblin;
+import combatgame.entities.enemies.RagingGoblin;
+
+/**
+ * An {@link EnemyModel} describes how an enemy behaves in terms the solver can
+ * work with, without touching the real {@link Enemy} object.
+ *
+ * Every enemy the solver knows about attacks for a fixed amount of damage. Some
+ * of them become tired after attacking and never attack again. They all act
+ * once for every turn the player takes, i.e. at {@link Initiative#NORMAL_SPEED}.
+ */
+final class EnemyModel {
+	/**
+	 * The health the enemy starts with.
+	 */
+	final int startingHealth;
+
+	/**
+	 * The damage the enemy deals when it attacks.
+	 */
+	final int damage;
+
+	/**
+	 * The modifiers every hit the enemy takes goes through.
+	 */
+	final DamageChain defense;
+
+	/**
+	 * Does the enemy become tired after it attacks?
+	 */
+	final boolean becomesTired;
+
+	/**
+	 * Is the enemy already tired when the player meets it?
+	 */
+	final boolean startsTired;
+
+	private EnemyModel(int startingHealth, int damage, DamageChain defense, boolean becomesTired,
+			boolean startsTired) {
+		this.startingHealth = startingHealth;
+		this.damage = damage;
+		this.defense = defense;
+		this.becomesTired = becomesTired;
+		this.startsTired = startsTired;
+	}
+
+	/**
+	 * Build a model of the given enemy, based on its current state.
+	 *
+	 * @param enemy The enemy to model.
+	 * @return The model.
+	 * @throws IllegalArgumentException If the solver does not know how this kind
+	 *                                  of enemy behaves, or the enemy is not at
+	 *                                  normal speed.
+	 */
+	static EnemyModel of(Enemy enemy) {
+		if (enemy.getSpeed() != Initiative.NORMAL_SPEED) {
+			throw new IllegalArgumentException("The solver only supports enemies at normal speed, but the " + enemy.name
+					+ " has speed " + enemy.getSpeed());
+		}
+
+		EnemyBehavior behavior = enemy.getDefinition().behavior;
+		if (behavior == Goblin.BEHAVIOR) {
+			return new EnemyModel(enemy.getHealth(), enemy.getAttackPower(), enemy.getDefense(), false, false);
+		} else if (behavior == RagingGoblin.BEHAVIOR) {
+			return new EnemyModel(enemy.getHealth(), enemy.getAttackPower() * 2, enemy.getDefense(), true, enemy.isTired());
+		} else {
+			throw new IllegalArgumentException("The solver does not know how a " + enemy.name + " behaves");
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package combatgame.solver;
+
+/**
+ * Helpers for packing the whole state of a game into a single {@code long}, so
+ * that the solver can remember millions of states without creating an object
+ * for each one.
+ *
+ * <pre>
+ * bits  0-19  player health      (0 - 1,048,575)
+ * bits 20-31  enemy index        (0 - 4,095)
+ * bits 32-47  enemy health       (0 - 65,535)
+ * bits 48-61  healing potions    (0 - 16,383)
+ * bit  62     player is blocking
+ * bit  63     enemy is tired
+ * </pre>
+ *
+ * The player's shield is lowered at the start of every turn, so states taken
+ * at the start of the player's turn always have the blocking bit clear.
+ */
+public final class GameState {
+	public static final int MAX_PLAYER_HEALTH = (1 << 20) - 1;
+
+	public static final int MAX_ENEMIES = 1 << 12;
+
+	public static final int MAX_ENEMY_HEALTH = (1 << 16) - 1;
+
+	public static final int MAX_POTIONS = (1 << 14) - 1;
+
+	private static final int ENEMY_INDEX_SHIFT = 20;
+
+	private static final int ENEMY_HEALTH_SHIFT = 32;
+
+	private static final int POTIONS_SHIFT = 48;
+
+	private static final long BLOCKING_BIT = 1L << 62;
+
+	private static final long TIRED_BIT = 1L << 63;
+
+	private GameState() {
+	}
+
+	/**
+	 * Pack a game state into a {@code long}. The values must be within the limits
+	 * listed above.
+	 *
+	 * @return The packed state.
+	 */
+	public static long pack(int playerHealth, int enemyIndex, int enemyHealth, int potions, boolean isBlocking,
+			boolean isTired) {
+		long state = playerHealth
+				| ((long)enemyIndex << ENEMY_INDEX_SHIFT)
+				| ((long)enemyHealth << ENEMY_HEALTH_SHIFT)
+				| ((long)potions << POTIONS_SHIFT);
+		if (isBlocking) {
+			state |= BLOCKING_BIT;
+		}
+		if (isTired) {
+			state |= TIRED_BIT;
+		}
+		return state;
+	}
+
+	public static int playerHealth(long state) {
+		return (int)(state & MAX_PLAYER_HEALTH);
+	}
+
+	public static int enemyIndex(long state) {
+		return (int)((state >>> ENEMY_INDEX_SHIFT) & (MAX_ENEMIES - 1));
+	}
+
+	public static int enemyHealth(long state) {
+		return (int)((state >>> ENEMY_HEALTH_SHIFT) & MAX_ENEMY_HEALTH);
+	}
+
+	public static int potions(long state) {
+		return (int)((state >>> POTIONS_SHIFT) & MAX_POTIONS);
+	}
+
+	public static boolean isBlocking(long state) {
+		return (state & BLOCKING_BIT) != 0;
+	}
+
+	public static boolean isTired(long state) {
+		return (state & TIRED_BIT) != 0;
+	}
+
+	/**
+	 * Describe a packed state in a human-readable way, for debugging.
+	 *
+	 * @param state The packed state.
+	 * @return A description of the state.
+	 */
+	public static String toString(long state) {
+		return String.format("player health %d, enemy %d with health %d%s, %d potions%s", playerHealth(state),
+				enemyIndex(state), enemyHealth(state), isTired(state) ? " (tired)" : "", potions(state),
+				isBlocking(state) ? ", blocking" : "");
+	}
+}
@@ -0,0 +1,55 @@
+package combatgame.solver;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.player.Inventory;
+import combatgame.player.Player;
+import combatgame.player.PlayerController;
+
+/**
+ * A {@link SolverController} plays the game perfectly, by asking an
+ * {@link EncounterSolver} for the best action every turn.
+ */
+public class SolverController implements PlayerController {
+	private final EncounterSolver solver;
+
+	/**
+	 * The enemies the player will fight, used to work out how far into the game
+	 * the player is.
+	 */
+	private final Enemy[] enemies;
+
+	/**
+	 * The position of the current enemy in {@link #enemies}.
+	 */
+	private int enemyIndex;
+
+	/**
+	 * Construct a new {@link SolverController}.
+	 *
+	 * @param solver  The solver to ask for the best action.
+	 * @param enemies The same enemies that were given to the solver.
+	 */
+	public SolverController(EncounterSolver solver, Enemy[] enemies) {
+		this.solver = solver;
+		this.enemies = enemies;
+		this.enemyIndex = 0;
+	}
+
+	@Override
+	public int chooseAction(Player player, Enemy enemy) {
+		while (enemyIndex < enemies.length && enemies[enemyIndex] != enemy) {
+			++enemyIndex;
+		}
+		if (enemyIndex == enemies.length) {
+			throw new IllegalStateException("The " + enemy.name + " is not in the list of enemies given to the solver");
+		}
+
+		return solver.getBestAction(EncounterSolver.stateOf(player, enemyIndex, enemy));
+	}
+
+	@Override
+	public int chooseItem(Player player, Inventory inventory) {
+		// The solver only deals with healing potions, so any of them will do.
+		return inventory.size() > 0 ? 0 : CANCEL;
+	}
+}
@@ -0,0 +1,208 @@
+package combatgame.solver;
+
+/**
+ * A {@link TranspositionTable} remembers the solver's answer for each game
+ * state it has already worked out, so that it never has to work out the same
+ * state twice.
+ *
+ * The table is an open-addressing hash table over packed {@link GameState}s.
+ * It starts small and doubles as it fills up, until it reaches the memory
+ * budget. After that, new answers are simply not remembered. This keeps the
+ * memory use of the solver bounded, at the cost of some repeated work on very
+ * large problems, without paying for the whole budget on small ones.
+ */
+public class TranspositionTable {
+	/**
+	 * The number of bytes used by each entry: an 8-byte key, a 4-byte value and a
+	 * 1-byte action.
+	 */
+	public static final int BYTES_PER_ENTRY = 13;
+
+	/**
+	 * The key used to mark an empty slot. No state the solver stores packs to 0,
+	 * because the enemy being fought always has some health left.
+	 */
+	private static final long EMPTY = 0L;
+
+	/**
+	 * Stop adding entries once the table is this full, so probe sequences stay
+	 * short.
+	 */
+	private static final double MAX_LOAD_FACTOR = 0.75;
+
+	/**
+	 * The number of slots a new table starts with, unless the budget is smaller.
+	 */
+	private static final int INITIAL_SLOTS = 1 << 10;
+
+	private long[] keys;
+
+	private int[] values;
+
+	private byte[] actions;
+
+	private int mask;
+
+	/**
+	 * The number of entries the table can hold before it has to grow.
+	 */
+	private int resizeAt;
+
+	/**
+	 * The most slots the table may grow to within its memory budget.
+	 */
+	private final int maxSlots;
+
+	private int size;
+
+	/**
+	 * Construct a new {@link TranspositionTable} that uses at most the given
+	 * number of bytes. Only a small part of the budget is allocated up front.
+	 *
+	 * @param memoryBudget The maximum amount of memory to use, in bytes.
+	 */
+	public TranspositionTable(long memoryBudget) {
+		long slots = Long.highestOneBit(Math.max(2, memoryBudget / BYTES_PER_ENTRY));
+		if (slots > 1 << 30) {
+			slots = 1 << 30;
+		}
+
+		maxSlots = (int)slots;
+		allocate(Math.min(INITIAL_SLOTS, maxSlots));
+	}
+
+	/**
+	 * Find the slot holding the given state.
+	 *
+	 * @param state The packed state to look for.
+	 * @return The slot index, or -1 if the state is not in the table.
+	 */
+	public int find(long state) {
+		int slot = hash(state) & mask;
+		while (true) {
+			long key = keys[slot];
+			if (key == state) {
+				return slot;
+			} else if (key == EMPTY) {
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Get the value stored in the given slot.
+	 *
+	 * @param slot A slot index returned by {@link #find(long)}.
+	 * @return The stored value.
+	 */
+	public int value(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Get the action stored in the given slot.
+	 *
+	 * @param slot A slot index returned by {@link #find(long)}.
+	 * @return The stored action.
+	 */
+	public int action(int slot) {
+		return actions[slot];
+	}
+
+	/**
+	 * Remember the value and best action for a state. Does nothing if the table
+	 * is full. Slot indices returned by {@link #find(long)} before this call may
+	 * no longer be valid afterwards, because the table may have grown.
+	 *
+	 * @param state  The packed state.
+	 * @param value  The value of the state.
+	 * @param action The best action in the state.
+	 * @return True if the entry was stored, false if the table is full.
+	 */
+	public boolean put(long state, int value, int action) {
+		int slot = hash(state) & mask;
+		while (keys[slot] != EMPTY && keys[slot] != state) {
+			slot = (slot + 1) & mask;
+		}
+
+		if (keys[slot] == EMPTY) {
+			if (size >= resizeAt) {
+				if (keys.length >= maxSlots) {
+					return false;
+				}
+				grow();
+				return put(state, value, action);
+			}
+			keys[slot] = state;
+			++size;
+		}
+		values[slot] = value;
+		actions[slot] = (byte)action;
+		return true;
+	}
+
+	/**
+	 * @return The number of states stored in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The maximum number of states the table can hold once it has grown
+	 *         to its memory budget.
+	 */
+	public int capacity() {
+		return (int)(maxSlots * MAX_LOAD_FACTOR);
+	}
+
+	/**
+	 * Replace the table's storage with empty arrays of the given size.
+	 *
+	 * @param slots The number of slots, which must be a power of two.
+	 */
+	private void allocate(int slots) {
+		keys = new long[slots];
+		values = new int[slots];
+		actions = new byte[slots];
+		mask = slots - 1;
+		resizeAt = (int)(slots * MAX_LOAD_FACTOR);
+	}
+
+	/**
+	 * Double the number of slots, and move every entry to its new slot.
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		byte[] oldActions = actions;
+		allocate(oldKeys.length * 2);
+
+		for (int i = 0; i < oldKeys.length; ++i) {
+			long key = oldKeys[i];
+			if (key != EMPTY) {
+				int slot = hash(key) & mask;
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = key;
+				values[slot] = oldValues[i];
+				actions[slot] = oldActions[i];
+			}
+		}
+	}
+
+	/**
+	 * Mix the bits of a packed state, so that similar states end up far apart in
+	 * the table.
+	 */
+	private static int hash(long state) {
+		state ^= state >>> 33;
+		state *= 0xff51afd7ed558ccdL;
+		state ^= state >>> 33;
+		state *= 0xc4ceb9fe1a85ec53L;
+		state ^= state >>> 33;
+		return (int)state;
+	}
+}
@@ -0,0 +1,79 @@
+package combatgame.spectator;
+
+/**
+ * A {@link Spectator} watches a game through a {@link SpectatorChannel},
+ * reading each batch of messages in turn whenever it is ready for more.
+ *
+ * A spectator keeps its own place in the channel, so it can be used by any
+ * thread, but only by one thread at a time. The game never waits for it: if it
+ * falls so far behind that the batches it hasn't read are gone, it skips ahead
+ * and counts what it missed.
+ */
+public final class Spectator {
+	private final SpectatorChannel channel;
+
+	/**
+	 * The sequence number of the next batch to read.
+	 */
+	long cursor;
+
+	/**
+	 * The number of batches skipped because they were gone before they were
+	 * read.
+	 */
+	private long missed;
+
+	Spectator(SpectatorChannel channel, long cursor) {
+		this.channel = channel;
+		this.cursor = cursor;
+	}
+
+	/**
+	 * Read the next batch of messages, if there is one yet.
+	 *
+	 * @return The messages, or null if this spectator has read everything so
+	 *         far.
+	 */
+	public String poll() {
+		return channel.next(this);
+	}
+
+	/**
+	 * Get the number of batches this spectator has missed by falling too far
+	 * behind.
+	 *
+	 * @return The number of batches missed.
+	 */
+	public long getMissed() {
+		return missed;
+	}
+
+	/**
+	 * Get the number of batches waiting for this spectator, including any that
+	 * are already gone.
+	 *
+	 * @return The number of batches this spectator is behind.
+	 */
+	public long getLag() {
+		return channel.getPublishedCount() - cursor;
+	}
+
+	/**
+	 * Check if there is nothing more to watch: the game has ended and this
+	 * spectator has read every batch.
+	 *
+	 * @return True if there is nothing more to watch.
+	 */
+	public boolean isFinished() {
+		// Check that the game has ended first, so that the last batch is counted.
+		return channel.hasEnded() && cursor >= channel.getPublishedCount();
+	}
+
+	/**
+	 * Skip ahead to a later batch, counting the ones skipped.
+	 */
+	void skipTo(long sequence) {
+		missed += sequence - cursor;
+		cursor = sequence;
+	}
+}
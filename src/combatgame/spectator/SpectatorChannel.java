@@ -0,0 +1,239 @@
+package combatgame.spectator;
+
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import combatgame.events.CombatEventSink;
+import combatgame.events.TerminalRenderer;
+import combatgame.player.Player;
+
+/**
+ * A {@link SpectatorChannel} lets any number of spectators watch one game, each
+ * at their own pace, without the game ever waiting for them.
+ *
+ * The game reports its events to the channel's {@link #getEventSink()} (if the
+ * player should see them too, see {@link combatgame.events.TeeEventSink}).
+ * They are described the same way as in the terminal, once per game rather
+ * than once per spectator, and each batch of messages (usually one turn's
+ * worth) goes into a ring of slots. Every {@link Spectator} keeps its own place
+ * in the ring and reads from it whenever it likes, from any thread.
+ *
+ * The game never waits and never takes a lock: adding a batch is two writes to
+ * memory, however many spectators there are. The ring only keeps the most
+ * recent batches, so a spectator who falls too far behind finds that the
+ * batches they hadn't read yet have been replaced. They skip ahead to the
+ * oldest batch that is left, and the number they missed is counted (see
+ * {@link Spectator#getMissed()}), e.g. so a server can disconnect spectators
+ * who can't keep up.
+ *
+ * Only one thread, the one playing the game, may report events or call
+ * {@link #publish(String)}.
+ */
+public class SpectatorChannel {
+	/**
+	 * The number of batches a channel keeps, unless told otherwise.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The most recent batches, each in slot (sequence number % capacity).
+	 */
+	private final AtomicReferenceArray<Batch> slots;
+
+	/**
+	 * Capacity - 1, to find a sequence number's slot.
+	 */
+	private final int mask;
+
+	/**
+	 * The number of batches added so far, which is also the sequence number of
+	 * the next one.
+	 */
+	private volatile long published;
+
+	/**
+	 * Has the game ended?
+	 */
+	private volatile boolean ended;
+
+	private final CombatEventSink eventSink = new Renderer();
+
+	/**
+	 * Construct a new {@link SpectatorChannel} that keeps
+	 * {@link #DEFAULT_CAPACITY} batches.
+	 */
+	public SpectatorChannel() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Construct a new {@link SpectatorChannel}.
+	 *
+	 * @param capacity The number of batches to keep for spectators who fall
+	 *                 behind. This must be a power of two.
+	 */
+	public SpectatorChannel(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		this.slots = new AtomicReferenceArray<>(capacity);
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Get the sink that the game should report its events to, so that they are
+	 * passed on to the spectators.
+	 *
+	 * @return The event sink.
+	 */
+	public CombatEventSink getEventSink() {
+		return eventSink;
+	}
+
+	/**
+	 * Pass on a message to every spectator, e.g. an announcement from the
+	 * server. This must be called by the thread playing the game.
+	 *
+	 * @param text The message.
+	 */
+	public void publish(String text) {
+		long sequence = published;
+		slots.setRelease((int)sequence & mask, new Batch(sequence, text));
+		published = sequence + 1;
+	}
+
+	/**
+	 * End the channel early, e.g. because the player left before the game was
+	 * over, after passing on a last message to every spectator. This must be
+	 * called by the thread playing the game.
+	 *
+	 * @param text The last message.
+	 */
+	public void end(String text) {
+		publish(text);
+		ended = true;
+	}
+
+	/**
+	 * Start watching the game. The new spectator starts with the oldest batch
+	 * the channel still has, so if the game has only just begun they see all of
+	 * it.
+	 *
+	 * @return The spectator, to be used by one thread at a time.
+	 */
+	public Spectator watch() {
+		return new Spectator(this, Math.max(0, published - slots.length()));
+	}
+
+	/**
+	 * Get the number of batches added so far.
+	 *
+	 * @return The number of batches.
+	 */
+	public long getPublishedCount() {
+		return published;
+	}
+
+	/**
+	 * Check if the game has ended. The last batch has been added by the time
+	 * this returns true.
+	 *
+	 * @return True if the game has ended.
+	 */
+	public boolean hasEnded() {
+		return ended;
+	}
+
+	/**
+	 * Find the next batch for a spectator, skipping ahead if they have fallen
+	 * too far behind.
+	 */
+	String next(Spectator spectator) {
+		while (true) {
+			long cursor = spectator.cursor;
+			long available = published;
+			if (cursor >= available) {
+				return null;
+			}
+
+			long oldest = available - slots.length();
+			if (cursor < oldest) {
+				spectator.skipTo(oldest);
+				continue;
+			}
+
+			Batch batch = slots.getAcquire((int)cursor & mask);
+			if (batch.sequence == cursor) {
+				spectator.cursor = cursor + 1;
+				return batch.text;
+			}
+
+			// The batch was replaced after we checked, so we are behind again.
+			// Skip to the oldest batch left in the ring.
+			spectator.skipTo(batch.sequence - mask);
+		}
+	}
+
+	/**
+	 * A batch of messages, along with its sequence number, so a spectator can
+	 * tell whether the slot still holds the batch they want.
+	 */
+	private static final class Batch {
+		final long sequence;
+
+		final String text;
+
+		Batch(long sequence, String text) {
+			this.sequence = sequence;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Describes events the same way as in the terminal, and adds each batch of
+	 * messages to the ring when it is written out.
+	 */
+	private final class Renderer extends TerminalRenderer {
+		Renderer() {
+			super(new BatchWriter());
+		}
+
+		@Override
+		public void gameEnded(Player player, boolean victorious) {
+			super.gameEnded(player, victorious);
+			ended = true;
+		}
+	}
+
+	/**
+	 * Collects the messages the renderer writes out, and adds them to the ring
+	 * as a batch when it is flushed.
+	 */
+	private final class BatchWriter extends Writer {
+		private final StringBuilder text = new StringBuilder();
+
+		@Override
+		public void write(char[] chars, int offset, int length) {
+			text.append(chars, offset, length);
+		}
+
+		@Override
+		public Writer append(CharSequence chars) {
+			text.append(chars);
+			return this;
+		}
+
+		@Override
+		public void flush() {
+			if (text.length() > 0) {
+				publish(text.toString());
+				text.setLength(0);
+			}
+		}
+
+		@Override
+		public void close() {
+			flush();
+		}
+	}
+}
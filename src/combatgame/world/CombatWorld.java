@@ -0,0 +1,480 @@
+package combatgame.world;
+
+import java.util.Arrays;
+
+import combatgame.effects.ActiveEffects;
+import combatgame.effects.EffectScheduler;
+import combatgame.effects.Status;
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyDefinition;
+import combatgame.events.CombatEventSink;
+import combatgame.events.NullEventSink;
+import combatgame.player.Player;
+
+/**
+ * A {@link CombatWorld} is a different way to fight a huge battle, with
+ * hundreds of thousands of enemies at once. Instead of an {@link Enemy} object
+ * for every enemy, it keeps each thing it knows about the enemies in its own
+ * array, one row per enemy: health, attack power, statuses and what kind of
+ * enemy it is (which decides its name and behavior). An enemy takes up 13
+ * bytes this way, instead of a few hundred, and going through every enemy's
+ * health is a quick walk along a single array.
+ *
+ * Anything written for an {@link Enemy} still works, through {@link #get}: it
+ * returns an enemy object that reads and writes the row it is on. The world
+ * only has one of these per kind of enemy and moves it from row to row, so the
+ * object is only good until the next call to the world.
+ *
+ * Defense and offense (see {@link Enemy#setDefense}) belong to a kind of enemy,
+ * not to a row: they are kept on that kind's enemy object, so setting them on
+ * one enemy from {@link #get} changes them for every enemy of the same kind.
+ * Damage dealt by {@link #damageRange} goes through each kind's defense, just
+ * like damage dealt to one enemy at a time.
+ *
+ * The world plays a simpler game than the {@link combatgame.CombatGameEngine}:
+ * every turn, the player fights the weakest enemy and then every enemy acts
+ * once, in the order they were added, whatever their speed. An enemy's statuses
+ * (e.g. {@link Status#EXHAUSTED}) are kept in the world, but other effects, and
+ * how long effects last, are only kept while the world is looking at that
+ * enemy, so statuses last until the end of the battle.
+ */
+public class CombatWorld {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private static final Status[] STATUSES = Status.values();
+
+	/**
+	 * The health of each enemy.
+	 */
+	int[] health = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The attack power of each enemy.
+	 */
+	int[] attackPower = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The statuses of each enemy, one bit per {@link Status}.
+	 */
+	private byte[] statuses = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * The kind of each enemy, as an index into {@link #kinds}.
+	 */
+	private int[] kindIndexes = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The number of enemies, including any that have been defeated but not
+	 * removed yet.
+	 */
+	private int size;
+
+	/**
+	 * The number of enemies that have been defeated but not removed yet.
+	 */
+	private int defeatedCount;
+
+	/**
+	 * Every kind of enemy in the world, in the order they were first added.
+	 */
+	private EnemyDefinition[] kinds = new EnemyDefinition[0];
+
+	/**
+	 * The enemy object that shows each kind of enemy.
+	 */
+	private WorldEnemy[] views = new WorldEnemy[0];
+
+	/**
+	 * Room for {@link #damageRange} to work out the damage each kind of enemy
+	 * takes.
+	 */
+	private int[] damageByKind = new int[0];
+
+	/**
+	 * Keeps track of the player's status effects, and of the enemies' while they
+	 * are being looked at.
+	 */
+	private final EffectScheduler effects = new EffectScheduler();
+
+	private CombatEventSink eventSink = NullEventSink.INSTANCE;
+
+	private int turnsTaken;
+
+	private int enemiesDefeated;
+
+	/**
+	 * Add enemies to the world.
+	 *
+	 * @param definition The kind of enemy to add.
+	 * @param count      The number of them to add.
+	 */
+	public void spawn(EnemyDefinition definition, int count) {
+		if (count <= 0 || definition.startingHealth <= 0) {
+			// There's nothing to fight.
+			return;
+		}
+
+		int kind = findKind(definition);
+		if (size + count > health.length) {
+			int capacity = Math.max(size + count, health.length * 2);
+			health = Arrays.copyOf(health, capacity);
+			attackPower = Arrays.copyOf(attackPower, capacity);
+			statuses = Arrays.copyOf(statuses, capacity);
+			kindIndexes = Arrays.copyOf(kindIndexes, capacity);
+		}
+
+		int end = size + count;
+		Arrays.fill(health, size, end, definition.startingHealth);
+		Arrays.fill(attackPower, size, end, definition.attackPower);
+		Arrays.fill(statuses, size, end, (byte)0);
+		Arrays.fill(kindIndexes, size, end, kind);
+		size = end;
+
+		eventSink.enemyEncountered(views[kind]);
+	}
+
+	/**
+	 * Get the number of enemies in the world, including any that have been
+	 * defeated since {@link #removeDefeated()} was last called.
+	 *
+	 * @return The number of enemies.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get an enemy, to use it with anything written for an {@link Enemy}.
+	 * Changes to its health and statuses are saved in the world.
+	 *
+	 * @param index The position of the enemy, from 0 up to {@link #size()}.
+	 * @return The enemy. It stops being this enemy the next time the world is
+	 *         used.
+	 */
+	public Enemy get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return moveTo(index);
+	}
+
+	/**
+	 * Get the health of an enemy.
+	 *
+	 * @param index The position of the enemy.
+	 * @return Its health.
+	 */
+	public int getHealth(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return health[index];
+	}
+
+	/**
+	 * Find the enemy closest to defeat: the one with the least health, and the
+	 * first one added if several have the same health.
+	 *
+	 * @return The position of the enemy, or -1 if there are none.
+	 */
+	public int getWeakest() {
+		int weakest = -1;
+		int weakestHealth = Integer.MAX_VALUE;
+		for (int index = 0; index < size; ++index) {
+			if (health[index] < weakestHealth) {
+				weakestHealth = health[index];
+				weakest = index;
+			}
+		}
+		return weakest;
+	}
+
+	/**
+	 * Damage every enemy from one position up to another, e.g. with a blast that
+	 * catches a whole crowd. The damage goes through the defense of each kind of
+	 * enemy. Unlike damaging the enemies one at a time, this is not reported
+	 * enemy by enemy.
+	 *
+	 * @param from         The position of the first enemy to damage.
+	 * @param to           The position after the last enemy to damage.
+	 * @param damageAmount The damage to deal to each of them, which can't be
+	 *                     negative.
+	 * @return The number of enemies this defeated.
+	 */
+	public int damageRange(int from, int to, int damageAmount) {
+		if (from < 0 || to > size || from > to) {
+			throw new IndexOutOfBoundsException("Range " + from + " to " + to + " is outside 0 to " + size);
+		}
+		if (damageAmount < 0) {
+			throw new IllegalArgumentException("Damage can't be negative: " + damageAmount);
+		}
+		saveViews();
+
+		// Work out each kind's damage once, rather than once per enemy.
+		for (int kind = 0; kind < kinds.length; ++kind) {
+			damageByKind[kind] = views[kind].getDefense().apply(damageAmount);
+		}
+
+		int defeated = 0;
+		for (int index = from; index < to; ++index) {
+			int damage = damageByKind[kindIndexes[index]];
+			int before = health[index];
+			health[index] = before - damage;
+			if (before > 0 && before <= damage) {
+				++defeated;
+			}
+		}
+		defeatedCount += defeated;
+		return defeated;
+	}
+
+	/**
+	 * Damage every enemy in the world.
+	 *
+	 * @param damageAmount The damage to deal to each enemy.
+	 * @return The number of enemies this defeated.
+	 */
+	public int damageAll(int damageAmount) {
+		return damageRange(0, size, damageAmount);
+	}
+
+	/**
+	 * Take every defeated enemy out of the world, reporting each one. The
+	 * remaining enemies keep their order.
+	 *
+	 * @return The number of enemies removed.
+	 */
+	public int removeDefeated() {
+		if (defeatedCount == 0) {
+			return 0;
+		}
+		saveViews();
+
+		int kept = 0;
+		for (int index = 0; index < size; ++index) {
+			if (health[index] > 0) {
+				if (kept != index) {
+					health[kept] = health[index];
+					attackPower[kept] = attackPower[index];
+					statuses[kept] = statuses[index];
+					kindIndexes[kept] = kindIndexes[index];
+				}
+				++kept;
+			} else {
+				WorldEnemy enemy = moveTo(index);
+				eventSink.enemyDefeated(enemy);
+				leave(enemy);
+			}
+		}
+
+		int removed = size - kept;
+		size = kept;
+		defeatedCount = 0;
+		enemiesDefeated += removed;
+		return removed;
+	}
+
+	/**
+	 * Begin a battle, and get the player ready to fight in it.
+	 *
+	 * @param player The player.
+	 */
+	public void start(Player player) {
+		turnsTaken = 0;
+		enemiesDefeated = 0;
+		player.setEventSink(eventSink);
+		player.getEffects().clear();
+		player.getEffects().setScheduler(effects);
+		eventSink.gameStarted(player);
+		endIfOver(player);
+	}
+
+	/**
+	 * Play a single turn: the player takes their turn against the weakest enemy,
+	 * and then every enemy still standing acts once. The battle must have been
+	 * begun with {@link #start(Player)}.
+	 *
+	 * @param player The player.
+	 * @return True if there are more turns to play, false if the battle is over.
+	 */
+	public boolean step(Player player) {
+		if (isOver(player)) {
+			return false;
+		}
+
+		Enemy target = moveTo(getWeakest());
+		eventSink.roundStarted(player, target);
+		player.performCombatAction(target);
+		++turnsTaken;
+		removeDefeated();
+
+		for (int index = 0; index < size && !player.isDead(); ++index) {
+			moveTo(index).performCombatAction(player);
+		}
+		removeDefeated();
+		effects.advance();
+
+		return !endIfOver(player);
+	}
+
+	/**
+	 * Check whether the battle is over, either because the player defeated every
+	 * enemy or because they died.
+	 *
+	 * @param player The player.
+	 * @return True if there are no more turns to play.
+	 */
+	public boolean isOver(Player player) {
+		return player.isDead() || size == defeatedCount;
+	}
+
+	/**
+	 * Change where the world reports everything that happens.
+	 *
+	 * @param eventSink Where to report everything from now on.
+	 */
+	public void setEventSink(CombatEventSink eventSink) {
+		this.eventSink = eventSink;
+		for (WorldEnemy view : views) {
+			view.setEventSink(eventSink);
+		}
+	}
+
+	/**
+	 * Get the number of turns the player has taken in this battle.
+	 *
+	 * @return The number of turns taken.
+	 */
+	public int getTurnsTaken() {
+		return turnsTaken;
+	}
+
+	/**
+	 * Get the number of enemies removed from the world after being defeated.
+	 *
+	 * @return The number of enemies defeated.
+	 */
+	public int getEnemiesDefeated() {
+		return enemiesDefeated;
+	}
+
+	/**
+	 * Change an enemy's health, keeping count of the enemies that have been
+	 * defeated.
+	 */
+	void changeHealth(int index, int change) {
+		int before = health[index];
+		int after = before + change;
+		health[index] = after;
+		if (before > 0 && after <= 0) {
+			++defeatedCount;
+		} else if (before <= 0 && after > 0) {
+			--defeatedCount;
+		}
+	}
+
+	/**
+	 * Put an enemy back the way it was when it was added: its health and attack
+	 * power come from its definition, and its statuses are cleared.
+	 */
+	void reset(int index) {
+		EnemyDefinition definition = kinds[kindIndexes[index]];
+		changeHealth(index, definition.startingHealth - health[index]);
+		attackPower[index] = definition.attackPower;
+		statuses[index] = 0;
+	}
+
+	/**
+	 * Report the end of the battle if it is over.
+	 *
+	 * @return True if the battle is over.
+	 */
+	private boolean endIfOver(Player player) {
+		if (!isOver(player)) {
+			return false;
+		}
+		eventSink.gameEnded(player, !player.isDead());
+		return true;
+	}
+
+	/**
+	 * Find the index of a kind of enemy, adding it if it is new.
+	 */
+	private int findKind(EnemyDefinition definition) {
+		for (int kind = 0; kind < kinds.length; ++kind) {
+			if (kinds[kind] == definition) {
+				return kind;
+			}
+		}
+
+		int kind = kinds.length;
+		kinds = Arrays.copyOf(kinds, kind + 1);
+		views = Arrays.copyOf(views, kind + 1);
+		damageByKind = new int[kind + 1];
+		kinds[kind] = definition;
+		WorldEnemy view = new WorldEnemy(this, definition);
+		view.setEventSink(eventSink);
+		view.getEffects().setScheduler(effects);
+		views[kind] = view;
+		return kind;
+	}
+
+	/**
+	 * Put the enemy object for a row's kind on that row, and give it the row's
+	 * statuses.
+	 */
+	private WorldEnemy moveTo(int index) {
+		WorldEnemy view = views[kindIndexes[index]];
+		if (view.row == index) {
+			return view;
+		}
+		save(view);
+
+		view.row = index;
+		ActiveEffects effects = view.getEffects();
+		int bits = statuses[index];
+		for (Status status : STATUSES) {
+			if ((bits & (1 << status.ordinal())) != 0) {
+				effects.changeStatus(status, 1);
+			}
+		}
+		return view;
+	}
+
+	/**
+	 * Save the statuses of the row an enemy object is on, and take it off the
+	 * row.
+	 */
+	private void save(WorldEnemy view) {
+		if (view.row < 0) {
+			return;
+		}
+
+		ActiveEffects effects = view.getEffects();
+		int bits = 0;
+		for (Status status : STATUSES) {
+			if (effects.has(status)) {
+				bits |= 1 << status.ordinal();
+			}
+		}
+		statuses[view.row] = (byte)bits;
+		leave(view);
+	}
+
+	/**
+	 * Take an enemy object off its row without saving anything.
+	 */
+	private void leave(WorldEnemy view) {
+		view.getEffects().clear();
+		view.row = -1;
+	}
+
+	/**
+	 * Save every enemy object's row, e.g. before rows move around.
+	 */
+	private void saveViews() {
+		for (WorldEnemy view : views) {
+			save(view);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package combatgame.world;
+
+import combatgame.entities.enemies.Enemy;
+import combatgame.entities.enemies.EnemyDefinition;
+
+/**
+ * A {@link WorldEnemy} lets code written for an {@link Enemy}, like enemy
+ * behaviors and the player's actions, work on one row of a
+ * {@link CombatWorld}. It keeps nothing of its own: its health and attack power
+ * are read from and written to the world's arrays.
+ *
+ * The world has one of these for each kind of enemy, and moves it from row to
+ * row as needed, so it always has the right name and definition without
+ * creating an object per enemy.
+ */
+final class WorldEnemy extends Enemy {
+	private final CombatWorld world;
+
+	/**
+	 * The row this view is on, or -1 if it isn't on any.
+	 */
+	int row = -1;
+
+	/**
+	 * Construct a new {@link WorldEnemy}.
+	 *
+	 * @param world      The world it belongs to.
+	 * @param definition The kind of enemy it shows.
+	 */
+	WorldEnemy(CombatWorld world, EnemyDefinition definition) {
+		super(definition);
+		this.world = world;
+	}
+
+	@Override
+	public int getHealth() {
+		return world.health[row];
+	}
+
+	@Override
+	public boolean isDead() {
+		return world.health[row] <= 0;
+	}
+
+	@Override
+	public int getAttackPower() {
+		return getOffense().apply(world.attackPower[row] + getEffects().getAttackBonus());
+	}
+
+	@Override
+	public void takeDamage(int damageAmount) {
+		damageAmount = getDefense().apply(damageAmount);
+		getEventSink().damageTaken(this, damageAmount, 0);
+		world.changeHealth(row, -damageAmount);
+	}
+
+	@Override
+	public void restoreHealth(int healAmount) {
+		getEventSink().healed(this, healAmount);
+		world.changeHealth(row, healAmount);
+	}
+
+	@Override
+	public void reset() {
+		world.reset(row);
+		setBaseSpeed(getDefinition().speed);
+		getEffects().clear();
+	}
+}